@@ -0,0 +1,118 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeintervals.intervals.AllenIntervalRelation;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import com.brein.time.timeintervals.intervals.NumberInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of classifying the relation of a query to 1024 intervals, using the sequence of {@code ir*}
+ * predicates, the lookup table based {@link AllenIntervalRelation#classify(NumberInterval,
+ * com.brein.time.timeintervals.intervals.IInterval)}, and the primitive overload.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllenIntervalRelationBenchmark {
+    private static final int SIZE = 1024;
+
+    private final LongInterval query = new LongInterval(400L, 600L);
+    private final LongInterval[] intervals = new LongInterval[SIZE];
+    private final long[] starts = new long[SIZE];
+    private final long[] ends = new long[SIZE];
+
+    @Setup
+    public void setup() {
+        final Random rnd = new Random(42L);
+
+        for (int i = 0; i < SIZE; i++) {
+            final long start = rnd.nextInt(1000);
+            final long end = start + rnd.nextInt(200);
+
+            this.intervals[i] = new LongInterval(start, end);
+            this.starts[i] = start;
+            this.ends[i] = end;
+        }
+    }
+
+    @Benchmark
+    public void predicates(final Blackhole bh) {
+        for (final LongInterval interval : this.intervals) {
+            bh.consume(byPredicates(this.query, interval));
+        }
+    }
+
+    @Benchmark
+    public void classify(final Blackhole bh) {
+        for (final LongInterval interval : this.intervals) {
+            bh.consume(AllenIntervalRelation.classify(this.query, interval));
+        }
+    }
+
+    @Benchmark
+    public void classifyPrimitive(final Blackhole bh) {
+        final long start = this.query.getNormStart();
+        final long end = this.query.getNormEnd();
+
+        for (int i = 0; i < SIZE; i++) {
+            bh.consume(AllenIntervalRelation.classify(start, end, this.starts[i], this.ends[i]));
+        }
+    }
+
+    @Benchmark
+    public long[] classifyHistogram() {
+        return AllenIntervalRelation.classify(this.query, Arrays.asList(this.intervals));
+    }
+
+    /**
+     * The classification as done by {@code determineRelation} before using the lookup table.
+     */
+    private static AllenIntervalRelation byPredicates(final NumberInterval i1, final LongInterval i2) {
+        if (i1.irOverlaps(i2)) {
+            return AllenIntervalRelation.OVERLAPS;
+        } else if (i1.irIsOverlappedBy(i2)) {
+            return AllenIntervalRelation.IS_OVERLAPPED_BY;
+        } else if (i1.irEquals(i2)) {
+            return AllenIntervalRelation.EQUALS;
+        } else if (i1.irBegins(i2)) {
+            return AllenIntervalRelation.BEGINS;
+        } else if (i1.irBeginsBy(i2)) {
+            return AllenIntervalRelation.BEGINS_BY;
+        } else if (i1.irEnds(i2)) {
+            return AllenIntervalRelation.ENDS;
+        } else if (i1.irEndsBy(i2)) {
+            return AllenIntervalRelation.ENDS_BY;
+        } else if (i1.irBefore(i2)) {
+            return AllenIntervalRelation.BEFORE;
+        } else if (i1.irAfter(i2)) {
+            return AllenIntervalRelation.AFTER;
+        } else if (i1.irStartsDirectlyBefore(i2)) {
+            return AllenIntervalRelation.STARTS_DIRECTLY_BEFORE;
+        } else if (i1.irEndsDirectlyBefore(i2)) {
+            return AllenIntervalRelation.ENDS_DIRECTLY_BEFORE;
+        } else if (i1.irIncludes(i2)) {
+            return AllenIntervalRelation.INCLUDES;
+        } else if (i1.irIsDuring(i2)) {
+            return AllenIntervalRelation.IS_DURING;
+        } else {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeseries.BucketTimeSeries;
+import com.brein.time.timeseries.BucketTimeSeriesConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot paths of a {@link BucketTimeSeries}, i.e., setting values by time-stamp (within the window held by
+ * the time-series), one by one or as batch, moving now forward, combining two time-series, summing up the last
+ * quarter of the buckets (by ordering, by iterating, and using the range index), and exporting the ordered values
+ * (by ordering or by copying into a re-used array). The time-series use
+ * buckets of {@code bucketSize} seconds, the time-stamps are either spread {@code UNIFORM} over the window or {@code
+ * RECENT}, i.e., close to now (as events arriving in time).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BucketTimeSeriesBenchmark {
+    private static final int POOL_SIZE = 1024;
+    private static final int POOL_MASK = POOL_SIZE - 1;
+    private static final long NOW = 1_500_000_000L;
+
+    @Param({"60", "1440"})
+    private int timeSeriesSize;
+
+    @Param({"1", "60"})
+    private int bucketSize;
+
+    @Param({"UNIFORM", "RECENT"})
+    private String distribution;
+
+    private BucketTimeSeries<Long> timeSeries;
+    private BucketTimeSeries<Long> other;
+    private BucketTimeSeries<Long> indexed;
+    private long[] timeStamps;
+    private long[] ones;
+    private long[] export;
+    private long now;
+    private int pos = 0;
+
+    @Setup
+    public void setup() {
+        final BucketTimeSeriesConfig<Long> config =
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, this.timeSeriesSize, this.bucketSize);
+
+        this.now = NOW;
+        this.timeSeries = new BucketTimeSeries<>(config);
+        this.timeSeries.setNow(this.now);
+        this.other = new BucketTimeSeries<>(config);
+        this.other.setNow(this.now);
+        this.indexed = new BucketTimeSeries<>(config);
+        this.indexed.setRangeIndexed(true);
+        this.indexed.setNow(this.now);
+
+        final Random rnd = new Random(42L);
+        final long window = (long) this.timeSeriesSize * this.bucketSize;
+        final long range = "RECENT".equals(this.distribution) ? Math.min(window, 10L * this.bucketSize) : window;
+
+        this.timeStamps = new long[POOL_SIZE];
+        this.ones = new long[POOL_SIZE];
+        this.export = new long[this.timeSeriesSize];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            final long timeStamp = NOW - (long) (rnd.nextDouble() * range);
+            this.timeStamps[i] = timeStamp;
+            this.ones[i] = 1L;
+
+            this.timeSeries.set(timeStamp, (long) i);
+            this.other.set(timeStamp, (long) i);
+            this.indexed.set(timeStamp, (long) i);
+        }
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> set() {
+        this.timeSeries.set(this.timeStamps[this.pos++ & POOL_MASK], 1L);
+        return this.timeSeries;
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> modify() {
+        this.timeSeries.modify(this.timeStamps[this.pos++ & POOL_MASK], (Long val) -> val == null ? 1L : val + 1L);
+        return this.timeSeries;
+    }
+
+    /**
+     * Adds the values of all the time-stamps as a batch, the result is the time per value, i.e., comparable to
+     * {@link #modify()}.
+     *
+     * @return the modified time-series
+     */
+    @Benchmark
+    @OperationsPerInvocation(POOL_SIZE)
+    public BucketTimeSeries<Long> addAll() {
+        this.timeSeries.addAll(this.timeStamps, this.ones);
+        return this.timeSeries;
+    }
+
+    /**
+     * Moves now forward by one bucket, i.e., a single bucket is reset per call.
+     *
+     * @return the modified time-series
+     */
+    @Benchmark
+    public BucketTimeSeries<Long> setNow() {
+        this.now += this.bucketSize;
+        this.timeSeries.setNow(this.now);
+        return this.timeSeries;
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> combine() {
+        this.timeSeries.combine(this.other);
+        return this.timeSeries;
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> setIndexed() {
+        this.indexed.set(this.timeStamps[this.pos++ & POOL_MASK], 1L);
+        return this.indexed;
+    }
+
+    /**
+     * Sums up the last quarter of the buckets the way it was done without range queries, i.e., by ordering (copying)
+     * the buckets first.
+     *
+     * @return the sum
+     */
+    @Benchmark
+    public long sumLastOrdered() {
+        final Long[] ordered = this.timeSeries.order();
+
+        long sum = 0L;
+        for (int i = 0; i < this.timeSeriesSize / 4; i++) {
+            sum += ordered[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long sumLast() {
+        return this.timeSeries.sumLast(this.timeSeriesSize / 4);
+    }
+
+    @Benchmark
+    public long sumLastIndexed() {
+        return this.indexed.sumLast(this.timeSeriesSize / 4);
+    }
+
+    @Benchmark
+    public Long[] order() {
+        return this.timeSeries.order();
+    }
+
+    @Benchmark
+    public long[] copyTo() {
+        this.timeSeries.copyTo(this.export, 0);
+        return this.export;
+    }
+}
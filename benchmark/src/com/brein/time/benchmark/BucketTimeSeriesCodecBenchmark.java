@@ -0,0 +1,98 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeseries.BucketTimeSeries;
+import com.brein.time.timeseries.BucketTimeSeriesCodec;
+import com.brein.time.timeseries.BucketTimeSeriesConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and reading a {@link BucketTimeSeries} of a day of minutes with {@code filled} buckets set (the
+ * others are zero), using the {@link BucketTimeSeriesCodec} directly and using the Java serialization (which uses
+ * the codec as well, but writes the configuration and the stream header in addition).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BucketTimeSeriesCodecBenchmark {
+    private static final long NOW = 1_500_000_000L;
+
+    @Param({"14", "144", "1440"})
+    private int filled;
+
+    private BucketTimeSeriesConfig<Long> config;
+    private BucketTimeSeries<Long> timeSeries;
+    private ByteArrayOutputStream out;
+    private byte[] codecBytes;
+    private byte[] javaBytes;
+
+    @Setup
+    public void setup() throws IOException {
+        this.config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 1440, 1);
+        this.timeSeries = new BucketTimeSeries<>(this.config);
+        this.timeSeries.setNow(NOW);
+
+        final Random rnd = new Random(42L);
+        for (int i = 0; i < this.filled; i++) {
+            this.timeSeries.set(NOW - 60L * rnd.nextInt(1440), (long) rnd.nextInt(1000));
+        }
+
+        this.out = new ByteArrayOutputStream(16 * 1024);
+        this.codecBytes = codecWrite();
+        this.javaBytes = javaWrite();
+    }
+
+    @Benchmark
+    public byte[] codecWrite() throws IOException {
+        this.out.reset();
+        try (final DataOutputStream dataOut = new DataOutputStream(this.out)) {
+            BucketTimeSeriesCodec.write(this.timeSeries, dataOut);
+        }
+        return this.out.toByteArray();
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> codecRead() throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(this.codecBytes))) {
+            return BucketTimeSeriesCodec.read(this.config, in);
+        }
+    }
+
+    @Benchmark
+    public byte[] javaWrite() throws IOException {
+        this.out.reset();
+        try (final ObjectOutputStream objectOut = new ObjectOutputStream(this.out)) {
+            objectOut.writeObject(this.timeSeries);
+        }
+        return this.out.toByteArray();
+    }
+
+    @Benchmark
+    public Object javaRead() throws IOException, ClassNotFoundException {
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(this.javaBytes))) {
+            return in.readObject();
+        }
+    }
+}
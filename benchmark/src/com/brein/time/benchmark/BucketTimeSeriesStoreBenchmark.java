@@ -0,0 +1,91 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeseries.BucketTimeSeries;
+import com.brein.time.timeseries.BucketTimeSeriesConfig;
+import com.brein.time.timeseries.BucketTimeSeriesStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures incrementing the time-series of {@code keys} keys held by a {@link BucketTimeSeriesStore}, compared to a
+ * {@code HashMap} of {@link BucketTimeSeries}, as well as determining the top keys of the store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BucketTimeSeriesStoreBenchmark {
+    private static final int POOL_SIZE = 1024;
+    private static final int POOL_MASK = POOL_SIZE - 1;
+    private static final long NOW = 1_500_000_000L;
+
+    @Param({"10000", "1000000"})
+    private int keys;
+
+    private BucketTimeSeriesStore<Integer> store;
+    private Map<Integer, BucketTimeSeries<Long>> map;
+    private Integer[] pool;
+    private long[] timeStamps;
+    private int pos = 0;
+
+    @Setup
+    public void setup() {
+        final BucketTimeSeriesConfig<Long> config =
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 60, 1);
+
+        this.store = new BucketTimeSeriesStore<>(config);
+        this.map = new HashMap<>();
+        for (int key = 0; key < this.keys; key++) {
+            this.store.increment(key, NOW);
+
+            final BucketTimeSeries<Long> ts = new BucketTimeSeries<>(config);
+            ts.set(NOW, 1L);
+            this.map.put(key, ts);
+        }
+
+        final Random rnd = new Random(42L);
+        this.pool = new Integer[POOL_SIZE];
+        this.timeStamps = new long[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            this.pool[i] = rnd.nextInt(this.keys);
+            this.timeStamps[i] = NOW - rnd.nextInt(3600);
+        }
+    }
+
+    @Benchmark
+    public boolean storeIncrement() {
+        final int i = this.pos++ & POOL_MASK;
+        return this.store.increment(this.pool[i], this.timeStamps[i]);
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> mapIncrement() {
+        final int i = this.pos++ & POOL_MASK;
+        final BucketTimeSeries<Long> ts = this.map.get(this.pool[i]);
+        ts.modify(this.timeStamps[i], (Long val) -> val + 1L);
+        return ts;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Map.Entry<Integer, Long>> storeTop() {
+        return this.store.top(10, 15);
+    }
+}
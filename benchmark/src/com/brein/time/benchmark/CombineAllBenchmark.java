@@ -0,0 +1,110 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeseries.BucketTimeSeries;
+import com.brein.time.timeseries.BucketTimeSeriesConfig;
+import com.brein.time.timeseries.LongBucketTimeSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures merging the time-series of {@code shards} shards (e.g., the per node time-series) into a single one, by
+ * calling {@code combine} per shard and by a single {@code combineAll}. The nows of the shards differ by a few
+ * buckets, i.e., {@code combine} has to copy and move the shards lagging behind.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CombineAllBenchmark {
+    private static final long NOW = 1_500_000_000L;
+
+    @Param({"64"})
+    private int shards;
+
+    @Param({"1440", "100000"})
+    private int timeSeriesSize;
+
+    private List<BucketTimeSeries<Long>> boxedShards;
+    private List<LongBucketTimeSeries> longShards;
+    private BucketTimeSeriesConfig<Long> config;
+
+    @Setup
+    public void setup() {
+        this.config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, this.timeSeriesSize, 1);
+
+        final Random rnd = new Random(42L);
+        this.boxedShards = new ArrayList<>();
+        this.longShards = new ArrayList<>();
+        for (int i = 0; i < this.shards; i++) {
+            final BucketTimeSeries<Long> boxed = new BucketTimeSeries<>(this.config);
+            final LongBucketTimeSeries primitive = new LongBucketTimeSeries(this.config);
+
+            final long now = NOW - rnd.nextInt(5);
+            boxed.setNow(now);
+            primitive.setNow(now);
+            for (int j = 0; j < this.timeSeriesSize; j++) {
+                final long value = rnd.nextInt(100);
+                boxed.set(now - j, value);
+                primitive.set(now - j, value);
+            }
+
+            this.boxedShards.add(boxed);
+            this.longShards.add(primitive);
+        }
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> combine() {
+        final BucketTimeSeries<Long> result = new BucketTimeSeries<>(this.config);
+        for (final BucketTimeSeries<Long> shard : this.boxedShards) {
+            result.combine(shard);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public BucketTimeSeries<Long> combineAll() {
+        final BucketTimeSeries<Long> result = new BucketTimeSeries<>(this.config);
+        result.combineAll(this.boxedShards);
+        return result;
+    }
+
+    @Benchmark
+    public LongBucketTimeSeries longCombine() {
+        final LongBucketTimeSeries result = new LongBucketTimeSeries(this.config);
+        for (final LongBucketTimeSeries shard : this.longShards) {
+            result.combine(shard);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public LongBucketTimeSeries longCombineAll() {
+        final LongBucketTimeSeries result = new LongBucketTimeSeries(this.config);
+        result.combineAll(this.longShards);
+        return result;
+    }
+
+    @Benchmark
+    public LongBucketTimeSeries longCombineAllParallel() {
+        final LongBucketTimeSeries result = new LongBucketTimeSeries(this.config);
+        result.combineAll(this.longShards, true);
+        return result;
+    }
+}
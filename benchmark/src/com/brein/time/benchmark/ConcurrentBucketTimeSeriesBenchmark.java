@@ -0,0 +1,66 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeseries.BucketTimeSeriesConfig;
+import com.brein.time.timeseries.ConcurrentBucketTimeSeries;
+import com.brein.time.timeseries.LongBucketTimeSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of increments from several threads (use JMH's {@code -t} option) into a single per-second
+ * {@link ConcurrentBucketTimeSeries}, compared to a {@link LongBucketTimeSeries} guarded by a lock. Each thread moves
+ * forward by one second every {@code 65536} increments, i.e., now is moved concurrently.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentBucketTimeSeriesBenchmark {
+    private static final long NOW = 1_500_000_000L;
+
+    private ConcurrentBucketTimeSeries concurrent;
+    private LongBucketTimeSeries locked;
+
+    @State(Scope.Thread)
+    public static class Clock {
+        private long ticks = 0L;
+
+        public long next() {
+            return NOW + (this.ticks++ >>> 16);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        final BucketTimeSeriesConfig<Long> config =
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, 60, 1);
+
+        this.concurrent = new ConcurrentBucketTimeSeries(config);
+        this.locked = new LongBucketTimeSeries(config);
+    }
+
+    @Benchmark
+    public boolean increment(final Clock clock) {
+        return this.concurrent.increment(clock.next());
+    }
+
+    @Benchmark
+    public boolean lockedIncrement(final Clock clock) {
+        final long unixTimeStamp = clock.next();
+        synchronized (this.locked) {
+            return this.locked.increment(unixTimeStamp);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.expressions.Exp4JTemporalExpressionEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Exp4JTemporalExpressionEvaluator#evaluate(String, Map)} for a constant formula, a formula using a
+ * bound variable, and a formula using the temporal functions, as well as {@code evaluateFormula}, which parses the
+ * formula with each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Exp4JTemporalExpressionEvaluatorBenchmark {
+    private static final String CONSTANT = "2h + 30min";
+    private static final String VARIABLE = "t + 5sec";
+    private static final String FUNCTIONS = "toMinutes(t + 1h) + toDays(48h)";
+
+    private final Map<String, Long> bindings = Collections.singletonMap("t", 1_500_000_000L);
+
+    private Exp4JTemporalExpressionEvaluator evaluator;
+
+    @Setup
+    public void setup() {
+        this.evaluator = new Exp4JTemporalExpressionEvaluator();
+        this.evaluator.init(Collections.singletonMap(Exp4JTemporalExpressionEvaluator.LOWEST_TIME_GRANULARITY,
+                TimeUnit.SECONDS));
+
+        this.evaluator.addFormula("constant", CONSTANT);
+        this.evaluator.addFormula("variable", VARIABLE, Collections.singleton("t"));
+        this.evaluator.addFormula("functions", FUNCTIONS, Collections.singleton("t"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.evaluator.close();
+    }
+
+    @Benchmark
+    public long evaluateConstant() {
+        return this.evaluator.evaluate("constant");
+    }
+
+    @Benchmark
+    public long evaluateVariable() {
+        return this.evaluator.evaluate("variable", this.bindings);
+    }
+
+    @Benchmark
+    public long evaluateFunctions() {
+        return this.evaluator.evaluate("functions", this.bindings);
+    }
+
+    @Benchmark
+    public long evaluateFormula() {
+        return this.evaluator.evaluateFormula(CONSTANT);
+    }
+}
@@ -0,0 +1,125 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeintervals.intervals.LongInterval;
+
+import java.util.Random;
+
+/**
+ * The distributions of the intervals used by the benchmarks, i.e., the shape of the data inserted into the trees.
+ */
+public enum IntervalDistribution {
+
+    /**
+     * Starts are uniformly distributed over the whole range, lengths are small compared to the range.
+     */
+    UNIFORM {
+        @Override
+        protected long start(final Random rnd, final int size, final int idx) {
+            return (long) (rnd.nextDouble() * range(size));
+        }
+
+        @Override
+        protected long length(final Random rnd) {
+            return rnd.nextInt(1000);
+        }
+    },
+
+    /**
+     * Starts are ascending (e.g., events arriving in time), which is the worst case for the re-balancing of the tree.
+     */
+    SORTED {
+        @Override
+        protected long start(final Random rnd, final int size, final int idx) {
+            return 10L * idx + rnd.nextInt(10);
+        }
+
+        @Override
+        protected long length(final Random rnd) {
+            return rnd.nextInt(1000);
+        }
+    },
+
+    /**
+     * Starts are clustered around a few hot-spots (normal distributed), i.e., many intervals overlap each other.
+     */
+    CLUSTERED {
+        @Override
+        protected long start(final Random rnd, final int size, final int idx) {
+            final long center = (rnd.nextInt(CLUSTERS) + 1) * (range(size) / (CLUSTERS + 1));
+            return Math.max(0L, center + (long) (rnd.nextGaussian() * range(size) / (CLUSTERS * 20)));
+        }
+
+        @Override
+        protected long length(final Random rnd) {
+            return rnd.nextInt(1000);
+        }
+    },
+
+    /**
+     * Starts are uniformly distributed, the lengths follow a Pareto distribution, i.e., most intervals are short, but
+     * some span a large part of the range (which affects the max of the nodes).
+     */
+    LONG_TAIL {
+        @Override
+        protected long start(final Random rnd, final int size, final int idx) {
+            return (long) (rnd.nextDouble() * range(size));
+        }
+
+        @Override
+        protected long length(final Random rnd) {
+            return (long) Math.min(1_000_000_000L, 10.0 / Math.pow(1.0 - rnd.nextDouble(), 1.0 / 1.2));
+        }
+    };
+
+    private static final int CLUSTERS = 16;
+
+    protected abstract long start(final Random rnd, final int size, final int idx);
+
+    protected abstract long length(final Random rnd);
+
+    /**
+     * Creates {@code size} intervals following {@code this} distribution, the result is deterministic for the same
+     * {@code seed}.
+     *
+     * @param size the number of intervals to create
+     * @param seed the seed of the random numbers
+     *
+     * @return the created intervals
+     */
+    public LongInterval[] create(final int size, final long seed) {
+        final Random rnd = new Random(seed);
+        final LongInterval[] intervals = new LongInterval[size];
+
+        for (int i = 0; i < size; i++) {
+            final long start = start(rnd, size, i);
+            intervals[i] = new LongInterval(start, start + length(rnd));
+        }
+
+        return intervals;
+    }
+
+    /**
+     * Creates queries spread uniformly over the range covered by {@code size} intervals.
+     *
+     * @param size  the number of intervals the queries are created for
+     * @param count the number of queries to create
+     * @param seed  the seed of the random numbers
+     *
+     * @return the created queries
+     */
+    public static LongInterval[] queries(final int size, final int count, final long seed) {
+        final Random rnd = new Random(seed);
+        final LongInterval[] queries = new LongInterval[count];
+
+        for (int i = 0; i < count; i++) {
+            final long start = (long) (rnd.nextDouble() * range(size));
+            queries[i] = new LongInterval(start, start + rnd.nextInt(1000));
+        }
+
+        return queries;
+    }
+
+    protected static long range(final int size) {
+        return 10L * size;
+    }
+}
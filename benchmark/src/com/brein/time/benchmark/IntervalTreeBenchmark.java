@@ -0,0 +1,105 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTree;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of an {@link IntervalTree} holding {@code size} intervals following the specified {@code
+ * distribution}. To keep the size of the tree stable, {@link #addAndRemove()} adds an interval not contained in the
+ * tree and removes it again, i.e., a single invocation contains both operations. The 10M trees need a larger heap
+ * than the default one, thus the forks are started using {@code -Xmx8g}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class IntervalTreeBenchmark {
+    private static final int POOL_SIZE = 1024;
+    private static final int POOL_MASK = POOL_SIZE - 1;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"UNIFORM", "SORTED", "CLUSTERED", "LONG_TAIL"})
+    private IntervalDistribution distribution;
+
+    private IntervalTree tree;
+    private LongInterval[] contained;
+    private LongInterval[] absent;
+    private LongInterval[] queries;
+    private int pos = 0;
+
+    @Setup
+    public void setup() {
+        this.tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG, true)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        final LongInterval[] intervals = this.distribution.create(this.size, 42L);
+        for (final LongInterval interval : intervals) {
+            this.tree.add(interval);
+        }
+
+        // negative starts are never created by the distributions, thus these intervals are not contained
+        this.contained = new LongInterval[POOL_SIZE];
+        this.absent = new LongInterval[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            final LongInterval interval = intervals[(int) ((long) i * this.size / POOL_SIZE)];
+            this.contained[i] = interval;
+            this.absent[i] = new LongInterval(-interval.getNormEnd() - 1L, -interval.getNormStart() - 1L);
+        }
+        this.queries = IntervalDistribution.queries(this.size, POOL_SIZE, 4711L);
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        final LongInterval interval = this.absent[next()];
+        this.tree.add(interval);
+        return this.tree.remove(interval);
+    }
+
+    @Benchmark
+    public Collection find() {
+        return this.tree.find(this.contained[next()]);
+    }
+
+    @Benchmark
+    public Collection overlap() {
+        return this.tree.overlap(this.queries[next()]);
+    }
+
+    @Benchmark
+    public void overlapStream(final Blackhole bh) {
+        this.tree.overlapStream(this.queries[next()]).forEach(bh::consume);
+    }
+
+    @Benchmark
+    public boolean overlapStreamAnyMatch() {
+        return this.tree.overlapStream(this.queries[next()]).findAny().isPresent();
+    }
+
+    private int next() {
+        return this.pos++ & POOL_MASK;
+    }
+}
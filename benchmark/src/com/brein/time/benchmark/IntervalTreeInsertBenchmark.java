@@ -0,0 +1,87 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTree;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the scaling of inserting intervals into an {@link IntervalTree} holding {@code size} intervals, i.e., the
+ * reported time is the average time of a single insert. Each invocation inserts {@link #INSERTS} intervals not
+ * contained in the tree (in the order of the {@code distribution}, i.e., {@code SORTED} triggers a rotation with
+ * almost every insert), which are removed after the invocation (not measured), so that the size of the tree is stable.
+ * With a logarithmic insert the time should grow by a constant with each magnitude of {@code size}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class IntervalTreeInsertBenchmark {
+    private static final int INSERTS = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"UNIFORM", "SORTED"})
+    private IntervalDistribution distribution;
+
+    private IntervalTree tree;
+    private LongInterval[] absent;
+
+    @Setup
+    public void setup() {
+        this.tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG, true)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        for (final LongInterval interval : this.distribution.create(this.size, 42L)) {
+            this.tree.add(interval);
+        }
+
+        // the intervals to insert start after the ones of the tree, thus they are never contained
+        final LongInterval[] intervals = this.distribution.create(INSERTS, 4711L);
+        final long offset = IntervalDistribution.range(this.size) + 1L;
+
+        this.absent = new LongInterval[INSERTS];
+        for (int i = 0; i < INSERTS; i++) {
+            this.absent[i] = new LongInterval(offset + intervals[i].getNormStart(), offset + intervals[i].getNormEnd());
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void removeInserted() {
+        for (final LongInterval interval : this.absent) {
+            this.tree.remove(interval);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERTS)
+    public IntervalTree insert() {
+        for (final LongInterval interval : this.absent) {
+            this.tree.add(interval);
+        }
+
+        return this.tree;
+    }
+}
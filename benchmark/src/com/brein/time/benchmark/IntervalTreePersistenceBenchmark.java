@@ -0,0 +1,89 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTree;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link IntervalTreeBuilder#saveToFile(File, IntervalTree)} and {@link
+ * IntervalTreeBuilder#loadFromFile(File)} of a tree holding {@code size} uniformly distributed intervals, with and
+ * without writing the collections of the nodes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IntervalTreePersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"true", "false"})
+    private boolean writeCollections;
+
+    private IntervalTree tree;
+    private File saveFile;
+    private File loadFile;
+
+    @Setup
+    public void setup() throws IOException {
+        this.tree = createBuilder().build();
+        for (final LongInterval interval : IntervalDistribution.UNIFORM.create(this.size, 42L)) {
+            this.tree.add(interval);
+        }
+
+        this.saveFile = File.createTempFile("interval-tree-save", ".bin");
+        this.loadFile = File.createTempFile("interval-tree-load", ".bin");
+        IntervalTreeBuilder.saveToFile(this.loadFile, this.tree);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (!this.saveFile.delete()) {
+            this.saveFile.deleteOnExit();
+        }
+        if (!this.loadFile.delete()) {
+            this.loadFile.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public long saveToFile() {
+        IntervalTreeBuilder.saveToFile(this.saveFile, this.tree);
+        return this.saveFile.length();
+    }
+
+    @Benchmark
+    public IntervalTree loadFromFile() {
+        return createBuilder()
+                .loadFromFile(this.loadFile)
+                .build();
+    }
+
+    private IntervalTreeBuilder createBuilder() {
+        return IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .setWriteCollections(this.writeCollections);
+    }
+}
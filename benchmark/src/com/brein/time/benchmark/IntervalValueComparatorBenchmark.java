@@ -0,0 +1,75 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeintervals.indexes.IntervalValueComparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the per-comparison cost of the different {@link IntervalValueComparator} implementations, i.e., the
+ * strict (homogeneous) comparators and {@code compareNumbers} for homogeneous and mixed values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntervalValueComparatorBenchmark {
+    private static final int SIZE = 1024;
+
+    private final Object[] longs = new Object[SIZE];
+    private final Object[] ints = new Object[SIZE];
+    private final Object[] doubles = new Object[SIZE];
+
+    @Setup
+    public void setup() {
+        final Random rnd = new Random(42L);
+
+        for (int i = 0; i < SIZE; i++) {
+            final int val = rnd.nextInt(10_000);
+            this.longs[i] = (long) val;
+            this.ints[i] = val;
+            this.doubles[i] = val + rnd.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public void compareLongs(final Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(IntervalValueComparator.compareLongs(this.longs[i - 1], this.longs[i]));
+        }
+    }
+
+    @Benchmark
+    public void compareNumbersHomogeneous(final Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(IntervalValueComparator.compareNumbers(this.longs[i - 1], this.longs[i]));
+        }
+    }
+
+    @Benchmark
+    public void compareNumbersIntegerVsLong(final Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(IntervalValueComparator.compareNumbers(this.ints[i - 1], this.longs[i]));
+        }
+    }
+
+    @Benchmark
+    public void compareNumbersLongVsDouble(final Blackhole bh) {
+        for (int i = 1; i < SIZE; i++) {
+            bh.consume(IntervalValueComparator.compareNumbers(this.longs[i - 1], this.doubles[i]));
+        }
+    }
+}
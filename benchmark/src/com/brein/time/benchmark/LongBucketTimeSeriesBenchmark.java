@@ -0,0 +1,109 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeseries.BucketTimeSeriesConfig;
+import com.brein.time.timeseries.LongBucketTimeSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot paths of a {@link LongBucketTimeSeries} with the parameters and time-stamps of the {@link
+ * BucketTimeSeriesBenchmark}, i.e., the results of both benchmarks can be compared directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongBucketTimeSeriesBenchmark {
+    private static final int POOL_SIZE = 1024;
+    private static final int POOL_MASK = POOL_SIZE - 1;
+    private static final long NOW = 1_500_000_000L;
+
+    @Param({"60", "1440"})
+    private int timeSeriesSize;
+
+    @Param({"1", "60"})
+    private int bucketSize;
+
+    @Param({"UNIFORM", "RECENT"})
+    private String distribution;
+
+    private LongBucketTimeSeries timeSeries;
+    private LongBucketTimeSeries other;
+    private long[] timeStamps;
+    private long now;
+    private int pos = 0;
+
+    @Setup
+    public void setup() {
+        final BucketTimeSeriesConfig<Long> config =
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, this.timeSeriesSize, this.bucketSize);
+
+        this.now = NOW;
+        this.timeSeries = new LongBucketTimeSeries(config);
+        this.timeSeries.setNow(this.now);
+        this.other = new LongBucketTimeSeries(config);
+        this.other.setNow(this.now);
+
+        final Random rnd = new Random(42L);
+        final long window = (long) this.timeSeriesSize * this.bucketSize;
+        final long range = "RECENT".equals(this.distribution) ? Math.min(window, 10L * this.bucketSize) : window;
+
+        this.timeStamps = new long[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            final long timeStamp = NOW - (long) (rnd.nextDouble() * range);
+            this.timeStamps[i] = timeStamp;
+
+            this.timeSeries.set(timeStamp, (long) i);
+            this.other.set(timeStamp, (long) i);
+        }
+    }
+
+    @Benchmark
+    public LongBucketTimeSeries set() {
+        this.timeSeries.set(this.timeStamps[this.pos++ & POOL_MASK], 1L);
+        return this.timeSeries;
+    }
+
+    @Benchmark
+    public LongBucketTimeSeries add() {
+        this.timeSeries.add(this.timeStamps[this.pos++ & POOL_MASK], 1L);
+        return this.timeSeries;
+    }
+
+    /**
+     * Moves now forward by one bucket, i.e., a single bucket is reset per call.
+     *
+     * @return the modified time-series
+     */
+    @Benchmark
+    public LongBucketTimeSeries setNow() {
+        this.now += this.bucketSize;
+        this.timeSeries.setNow(this.now);
+        return this.timeSeries;
+    }
+
+    @Benchmark
+    public LongBucketTimeSeries combine() {
+        this.timeSeries.combine(this.other);
+        return this.timeSeries;
+    }
+
+    @Benchmark
+    public long sum() {
+        return this.timeSeries.sum();
+    }
+}
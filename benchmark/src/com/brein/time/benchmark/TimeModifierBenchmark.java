@@ -0,0 +1,62 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.utils.TimeModifier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link TimeModifier#applyModifier(long)} (i.e., in {@code UTC}) and {@link
+ * TimeModifier#applyModifier(long, ZoneId)} for 1024 time-stamps spread over ten years.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeModifierBenchmark {
+    private static final int SIZE = 1024;
+
+    @Param({"START_OF_HOUR", "START_OF_DAY", "START_OF_WEEK", "END_OF_MONTH"})
+    private TimeModifier modifier;
+
+    private final ZoneId zoneId = ZoneId.of("America/Los_Angeles");
+    private final long[] timeStamps = new long[SIZE];
+
+    @Setup
+    public void setup() {
+        final Random rnd = new Random(42L);
+
+        for (int i = 0; i < SIZE; i++) {
+            this.timeStamps[i] = 1_300_000_000L + (long) (rnd.nextDouble() * 10L * 365L * 24L * 60L * 60L);
+        }
+    }
+
+    @Benchmark
+    public void applyModifierUtc(final Blackhole bh) {
+        for (final long timeStamp : this.timeStamps) {
+            bh.consume(this.modifier.applyModifier(timeStamp));
+        }
+    }
+
+    @Benchmark
+    public void applyModifierZone(final Blackhole bh) {
+        for (final long timeStamp : this.timeStamps) {
+            bh.consume(this.modifier.applyModifier(timeStamp, this.zoneId));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.brein.time.benchmark;
+
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.indexes.WideIntervalIndex;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of a {@link WideIntervalIndex} with the specified {@code fanOut}, using the same intervals
+ * and queries as the {@link IntervalTreeBenchmark}, i.e., the results of both benchmarks can be compared directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class WideIntervalIndexBenchmark {
+    private static final int POOL_SIZE = 1024;
+    private static final int POOL_MASK = POOL_SIZE - 1;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private int size;
+
+    @Param({"UNIFORM", "SORTED", "CLUSTERED", "LONG_TAIL"})
+    private IntervalDistribution distribution;
+
+    @Param({"16", "32", "64"})
+    private int fanOut;
+
+    private WideIntervalIndex index;
+    private LongInterval[] contained;
+    private LongInterval[] absent;
+    private LongInterval[] queries;
+    private int pos = 0;
+
+    @Setup
+    public void setup() {
+        this.index = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG, true)
+                .buildWideIndex(this.fanOut);
+
+        final LongInterval[] intervals = this.distribution.create(this.size, 42L);
+        for (final LongInterval interval : intervals) {
+            this.index.add(interval);
+        }
+
+        // negative starts are never created by the distributions, thus these intervals are not contained
+        this.contained = new LongInterval[POOL_SIZE];
+        this.absent = new LongInterval[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            final LongInterval interval = intervals[(int) ((long) i * this.size / POOL_SIZE)];
+            this.contained[i] = interval;
+            this.absent[i] = new LongInterval(-interval.getNormEnd() - 1L, -interval.getNormStart() - 1L);
+        }
+        this.queries = IntervalDistribution.queries(this.size, POOL_SIZE, 4711L);
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        final LongInterval interval = this.absent[next()];
+        this.index.add(interval);
+        return this.index.remove(interval);
+    }
+
+    @Benchmark
+    public Collection find() {
+        return this.index.find(this.contained[next()]);
+    }
+
+    @Benchmark
+    public Collection overlap() {
+        return this.index.overlap(this.queries[next()]);
+    }
+
+    @Benchmark
+    public boolean overlapStreamAnyMatch() {
+        return this.index.overlapStream(this.queries[next()]).findAny().isPresent();
+    }
+
+    private int next() {
+        return this.pos++ & POOL_MASK;
+    }
+}
@@ -1,7 +1,7 @@
 package com.brein.time.timeintervals.collections;
 
 import com.brein.time.timeintervals.filters.IntervalFilter;
-import com.brein.time.timeintervals.filters.IntervalFilters;
+import com.brein.time.timeintervals.filters.PredefinedFilter;
 import com.brein.time.timeintervals.indexes.IntervalValueComparator;
 import com.brein.time.timeintervals.intervals.IInterval;
 
@@ -21,7 +21,7 @@ public interface IntervalCollection extends Iterable<IInterval> {
     int size();
 
     default Collection<IInterval> find(final IInterval interval, final IntervalValueComparator cmp) {
-        return find(interval, cmp, IntervalFilters::equal);
+        return find(interval, cmp, PredefinedFilter.EQUAL);
     }
 
     default Collection<IInterval> find(final IInterval interval,
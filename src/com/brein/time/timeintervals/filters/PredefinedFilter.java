@@ -0,0 +1,86 @@
+package com.brein.time.timeintervals.filters;
+
+import com.brein.time.timeintervals.indexes.IntervalValueComparator;
+import com.brein.time.timeintervals.intervals.IInterval;
+
+/**
+ * The filters provided by the library (see {@link IntervalFilters}). Like the {@code PredefinedComparator}, a
+ * predefined filter is written as its id when the configuration of a tree is saved, instead of serializing a lambda or
+ * a method reference. The ids must never be changed or re-used.
+ */
+public enum PredefinedFilter implements IntervalFilter {
+    WEAK_EQUAL(1, "weakEqual") {
+        @Override
+        public boolean match(final IntervalValueComparator cmp, final IInterval i1, final IInterval i2) {
+            return IntervalFilters.weakEqual(cmp, i1, i2);
+        }
+    },
+    STRICT_EQUAL(2, "strictEqual") {
+        @Override
+        public boolean match(final IntervalValueComparator cmp, final IInterval i1, final IInterval i2) {
+            return IntervalFilters.strictEqual(cmp, i1, i2);
+        }
+    },
+    EQUAL(3, "equal") {
+        @Override
+        public boolean match(final IntervalValueComparator cmp, final IInterval i1, final IInterval i2) {
+            return IntervalFilters.equal(cmp, i1, i2);
+        }
+    },
+    INTERVAL(4, "interval") {
+        @Override
+        public boolean match(final IntervalValueComparator cmp, final IInterval i1, final IInterval i2) {
+            return IntervalFilters.interval(cmp, i1, i2);
+        }
+    };
+
+    private final int id;
+    private final String name;
+
+    PredefinedFilter(final int id, final String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the filter with the specified {@code id}.
+     *
+     * @param id the id of the filter
+     *
+     * @return the filter, or {@code null} if there is no filter with the id
+     */
+    public static PredefinedFilter byId(final int id) {
+        for (final PredefinedFilter filter : values()) {
+            if (filter.id == id) {
+                return filter;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the filter with the specified {@code name}, e.g., {@code weakEqual}.
+     *
+     * @param name the name of the filter
+     *
+     * @return the filter, or {@code null} if there is no filter with the name
+     */
+    public static PredefinedFilter byName(final String name) {
+        for (final PredefinedFilter filter : values()) {
+            if (filter.name.equals(name)) {
+                return filter;
+            }
+        }
+
+        return null;
+    }
+}
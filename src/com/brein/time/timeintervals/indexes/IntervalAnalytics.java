@@ -0,0 +1,384 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.exceptions.IllegalTimePoint;
+import com.brein.time.timeintervals.intervals.IInterval;
+import com.brein.time.timeintervals.intervals.LongRange;
+import com.brein.time.timeseries.BucketEndPoints;
+import com.brein.time.timeseries.BucketTimeSeries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Sweep-line analytics over the intervals of an {@link IntervalTree}, e.g., the maximal number of simultaneously
+ * active intervals (i.e., the depth) or the gaps not covered by any interval. The sweep consumes the nodes of the tree
+ * in order (see {@link IntervalTree#nodeIterator()}) and keeps only the ends of the currently active nodes within a
+ * heap, i.e., the analytics run in {@code O(n log n)} and the memory is bounded by the maximal number of overlapping
+ * nodes. The collections of the nodes are only used to determine the number of intervals per node, i.e., a shallow
+ * tree counts each node once.
+ * <p>
+ * The analytics are only supported for trees with integral values (e.g., {@code TimestampInterval}), i.e., the depth
+ * is reported for each value, the interval {@code [s, e]} is active for {@code s, s + 1, ..., e}.
+ */
+public class IntervalAnalytics {
+
+    private IntervalAnalytics() {
+        /*
+         * Utility classes, which are a collection of static members,
+         * are not meant to be instantiated.
+         */
+    }
+
+    /**
+     * Consumer of the segments of a depth profile, i.e., all values within {@code [start, end]} are covered by exactly
+     * {@code depth} intervals.
+     */
+    @FunctionalInterface
+    public interface DepthConsumer {
+        void accept(final long start, final long end, final long depth);
+    }
+
+    /**
+     * Determines the depth profile of the whole tree, i.e., from the smallest start to the largest end of the tree.
+     *
+     * @param tree     the tree to determine the profile for
+     * @param consumer the consumer receiving the segments of the profile (ordered by start)
+     *
+     * @throws IllegalArgumentException if the tree contains non-integral values
+     * @see #depthProfile(IntervalTree, IInterval, DepthConsumer)
+     */
+    public static void depthProfile(final IntervalTree tree,
+                                    final DepthConsumer consumer) throws IllegalArgumentException {
+        final IntervalTreeNode root = tree.getRoot();
+        if (root == null) {
+            return;
+        }
+
+        final long from = IntervalSet.toLong(tree.findLeftLeaf(root).getStart());
+        final long to = IntervalSet.toLong(root.getMax());
+        sweep(tree, from, to, consumer);
+    }
+
+    /**
+     * Determines the depth profile of the tree within the {@code range}. The profile is reported as consecutive,
+     * non-overlapping segments (ordered by start) covering the whole {@code range}, whereby consecutive segments
+     * always have a different depth.
+     *
+     * @param tree     the tree to determine the profile for
+     * @param range    the range to determine the profile for
+     * @param consumer the consumer receiving the segments of the profile
+     *
+     * @throws IllegalArgumentException if the tree or the range contain non-integral values
+     */
+    public static void depthProfile(final IntervalTree tree,
+                                    final IInterval range,
+                                    final DepthConsumer consumer) throws IllegalArgumentException {
+        sweep(tree, IntervalSet.toLong(range.getNormStart()), IntervalSet.toLong(range.getNormEnd()), consumer);
+    }
+
+    /**
+     * Determines the maximal number of intervals of the tree active at the same time.
+     *
+     * @param tree the tree to determine the maximal overlap for
+     *
+     * @return the maximal number of simultaneously active intervals
+     *
+     * @throws IllegalArgumentException if the tree contains non-integral values
+     */
+    public static long maxOverlap(final IntervalTree tree) throws IllegalArgumentException {
+        final long[] max = {0L};
+        depthProfile(tree, (start, end, depth) -> max[0] = Math.max(max[0], depth));
+
+        return max[0];
+    }
+
+    /**
+     * Determines the maximal number of intervals active at the same time within the {@code range}.
+     *
+     * @param tree  the tree to determine the maximal overlap for
+     * @param range the range to determine the maximal overlap within
+     *
+     * @return the maximal number of simultaneously active intervals
+     *
+     * @throws IllegalArgumentException if the tree or the range contain non-integral values
+     */
+    public static long maxOverlap(final IntervalTree tree, final IInterval range) throws IllegalArgumentException {
+        final long[] max = {0L};
+        depthProfile(tree, range, (start, end, depth) -> max[0] = Math.max(max[0], depth));
+
+        return max[0];
+    }
+
+    /**
+     * Determines the histogram of the depth within the {@code range}, i.e., the value at position {@code d} of the
+     * returned array is the number of values within the {@code range} covered by exactly {@code d} intervals.
+     *
+     * @param tree  the tree to determine the histogram for
+     * @param range the range to determine the histogram for
+     *
+     * @return the histogram, which has a length of the maximal depth plus one
+     *
+     * @throws IllegalArgumentException if the tree or the range contain non-integral values
+     */
+    public static long[] depthHistogram(final IntervalTree tree, final IInterval range) throws IllegalArgumentException {
+        final long[][] histogram = {new long[1]};
+        depthProfile(tree, range, (start, end, depth) -> {
+            if (depth >= histogram[0].length) {
+                histogram[0] = Arrays.copyOf(histogram[0], (int) depth + 1);
+            }
+            histogram[0][(int) depth] += end - start + 1L;
+        });
+
+        return histogram[0];
+    }
+
+    /**
+     * Determines the gaps within the {@code range}, i.e., the ranges not covered by any interval of the tree.
+     *
+     * @param tree  the tree to determine the gaps for
+     * @param range the range to determine the gaps within
+     *
+     * @return the gaps ordered by start
+     *
+     * @throws IllegalArgumentException if the tree or the range contain non-integral values
+     */
+    public static List<IInterval> gaps(final IntervalTree tree, final IInterval range) throws IllegalArgumentException {
+        final List<IInterval> gaps = new ArrayList<>();
+        depthProfile(tree, range, (start, end, depth) -> {
+            if (depth == 0L) {
+                gaps.add(new LongRange(start, end));
+            }
+        });
+
+        return gaps;
+    }
+
+    /**
+     * Writes the maximal number of simultaneously active intervals of each bucket into the {@code timeSeries}, i.e.,
+     * the intervals of the tree must be based on unix time-stamps in seconds (e.g., {@code TimestampInterval}). Only
+     * the buckets currently held by the time-series are written, a bucket without any active interval is set to
+     * {@code 0}.
+     *
+     * @param tree       the tree to determine the maximal overlaps for
+     * @param timeSeries the time-series to write the maximal overlap of each bucket to
+     *
+     * @throws IllegalTimePoint         if the now of the time-series is not set
+     * @throws IllegalArgumentException if the tree contains non-integral values
+     */
+    public static void maxOverlap(final IntervalTree tree,
+                                  final BucketTimeSeries<Long> timeSeries) throws IllegalTimePoint,
+            IllegalArgumentException {
+        final int size = timeSeries.getConfig().getTimeSeriesSize();
+        final BucketEndPoints first = timeSeries.getEndPoints(-(size - 1));
+        final BucketEndPoints last = timeSeries.getEndPoints(0);
+        final long bucketSize = first.size();
+
+        for (int i = 0; i < size; i++) {
+            timeSeries.set(first.getUnixTimeStampStart() + i * bucketSize, 0L);
+        }
+
+        sweep(tree, first.getUnixTimeStampStart(), last.getUnixTimeStampEnd() - 1L, (start, end, depth) -> {
+            if (depth == 0L) {
+                return;
+            }
+
+            final long firstBucket = timeSeries.normalizeUnixTimeStamp(start).getUnixTimeStampStart();
+            for (long bucket = firstBucket; bucket <= end; bucket += bucketSize) {
+                timeSeries.modify(bucket, (Long val) -> val == null ? depth : Math.max(val, depth));
+            }
+        });
+    }
+
+    /**
+     * Sweeps over the nodes of the {@code tree} and reports the depth for all values within {@code [from, to]}.
+     *
+     * @param tree     the tree to sweep over
+     * @param from     the first value to report the depth for
+     * @param to       the last value to report the depth for
+     * @param consumer the consumer of the depth segments
+     */
+    protected static void sweep(final IntervalTree tree,
+                                final long from,
+                                final long to,
+                                final DepthConsumer consumer) throws IllegalArgumentException {
+        if (to < from) {
+            return;
+        }
+
+        final boolean shallow = tree.getConfiguration().getFactory() == null;
+        final SegmentMerger merger = new SegmentMerger(consumer);
+        final EndHeap active = new EndHeap();
+
+        long depth = 0L;
+        long pos = from;
+
+        final Iterator<IntervalTreeNode> it = tree.nodeIterator();
+        while (it.hasNext()) {
+            final IntervalTreeNode node = it.next();
+            final long start = IntervalSet.toLong(node.getStart());
+            final long end = IntervalSet.toLong(node.getEnd());
+
+            if (start > to) {
+                break;
+            } else if (end < from) {
+                continue;
+            }
+
+            final long weight = shallow ? 1L : node.getIntervals().size();
+            if (weight == 0L) {
+                continue;
+            }
+
+            // close all the intervals ending before the current one starts
+            final long clippedStart = Math.max(start, from);
+            while (!active.isEmpty() && active.peekEnd() < clippedStart) {
+                final long activeEnd = active.peekEnd();
+                if (activeEnd >= pos) {
+                    merger.accept(pos, activeEnd, depth);
+                    pos = activeEnd + 1L;
+                }
+                depth -= active.pop();
+            }
+
+            if (clippedStart > pos) {
+                merger.accept(pos, clippedStart - 1L, depth);
+                pos = clippedStart;
+            }
+
+            depth += weight;
+            active.push(Math.min(end, to), weight);
+        }
+
+        // close all the remaining intervals
+        while (!active.isEmpty()) {
+            final long activeEnd = active.peekEnd();
+            if (activeEnd >= pos) {
+                merger.accept(pos, activeEnd, depth);
+
+                if (activeEnd == to) {
+                    merger.flush();
+                    return;
+                }
+                pos = activeEnd + 1L;
+            }
+            depth -= active.pop();
+        }
+
+        merger.accept(pos, to, 0L);
+        merger.flush();
+    }
+
+    /**
+     * Merges consecutive segments having the same depth.
+     */
+    protected static class SegmentMerger implements DepthConsumer {
+        private final DepthConsumer consumer;
+
+        private boolean pending = false;
+        private long start;
+        private long end;
+        private long depth;
+
+        public SegmentMerger(final DepthConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(final long start, final long end, final long depth) {
+            if (this.pending && this.depth == depth) {
+                this.end = end;
+                return;
+            }
+
+            flush();
+            this.pending = true;
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+        }
+
+        public void flush() {
+            if (this.pending) {
+                this.consumer.accept(this.start, this.end, this.depth);
+                this.pending = false;
+            }
+        }
+    }
+
+    /**
+     * A binary min-heap of the ends (and the weights) of the active nodes, using primitive arrays.
+     */
+    protected static class EndHeap {
+        private long[] ends = new long[16];
+        private long[] weights = new long[16];
+        private int size = 0;
+
+        public boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        public long peekEnd() {
+            return this.ends[0];
+        }
+
+        public void push(final long end, final long weight) {
+            if (this.size == this.ends.length) {
+                this.ends = Arrays.copyOf(this.ends, this.size * 2);
+                this.weights = Arrays.copyOf(this.weights, this.size * 2);
+            }
+
+            int idx = this.size++;
+            while (idx > 0) {
+                final int parent = (idx - 1) >>> 1;
+                if (this.ends[parent] <= end) {
+                    break;
+                }
+
+                this.ends[idx] = this.ends[parent];
+                this.weights[idx] = this.weights[parent];
+                idx = parent;
+            }
+
+            this.ends[idx] = end;
+            this.weights[idx] = weight;
+        }
+
+        /**
+         * Removes the smallest end.
+         *
+         * @return the weight of the removed end
+         */
+        public long pop() {
+            final long result = this.weights[0];
+
+            final int last = --this.size;
+            final long end = this.ends[last];
+            final long weight = this.weights[last];
+
+            int idx = 0;
+            while (true) {
+                int child = 2 * idx + 1;
+                if (child >= last) {
+                    break;
+                } else if (child + 1 < last && this.ends[child + 1] < this.ends[child]) {
+                    child++;
+                }
+
+                if (end <= this.ends[child]) {
+                    break;
+                }
+
+                this.ends[idx] = this.ends[child];
+                this.weights[idx] = this.weights[child];
+                idx = child;
+            }
+
+            this.ends[idx] = end;
+            this.weights[idx] = weight;
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.intervals.IInterval;
+
+import java.util.Collection;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The query API shared by the different interval indexes, i.e., {@link IntervalTree}, {@link SealedIntervalIndex},
+ * {@link PartitionedIntervalTree}, and {@link WideIntervalIndex}.
+ */
+public interface IntervalIndex {
+
+    /**
+     * Finds the intervals equal to the {@code query}, using the filter of the index's configuration.
+     *
+     * @param query the interval to look for
+     *
+     * @return the found intervals
+     */
+    Collection<IInterval> find(final IInterval query);
+
+    /**
+     * Finds the intervals having the same normalized start and end as the {@code query} and matching the {@code
+     * filter}.
+     *
+     * @param query  the interval to look for
+     * @param filter the filter to apply to the candidates
+     *
+     * @return the found intervals
+     */
+    Collection<IInterval> find(final IInterval query, final IntervalFilter filter);
+
+    /**
+     * Streams all the intervals overlapping the {@code query}.
+     *
+     * @param query the interval to check for overlaps
+     *
+     * @return the stream of overlapping intervals
+     */
+    Stream<IInterval> overlapStream(final IInterval query);
+
+    default Collection<IInterval> overlap(final IInterval query) {
+        return overlapStream(query).collect(Collectors.toList());
+    }
+
+    int size();
+
+    boolean isEmpty();
+}
@@ -0,0 +1,303 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.intervals.IInterval;
+import com.brein.time.timeintervals.intervals.LongRange;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The union of intervals with integral values (e.g., {@code TimestampInterval}, {@code LongInterval}, or {@code
+ * IntegerInterval} instances), kept as a sorted map of disjoint, closed ranges. Overlapping ranges and ranges directly
+ * following each other (i.e., {@code irEndsDirectlyBefore}, e.g., {@code [1, 5]} and {@code [6, 8]}) are merged when
+ * added, removing an interval cuts it out of the covered ranges.
+ * <p>
+ * The coverage is measured in number of covered values, i.e., the range {@code [s, e]} covers {@code e - s + 1}
+ * values (e.g., seconds for {@code TimestampInterval} instances). A coverage exceeding {@code Long.MAX_VALUE} (which
+ * is only possible with ranges close to {@code Long.MIN_VALUE} and {@code Long.MAX_VALUE}) is clamped to {@code
+ * Long.MAX_VALUE}. The instance is not thread-safe.
+ */
+public class IntervalSet implements Iterable<IInterval> {
+
+    // maps the start of each range to its end
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    // the number of covered values modulo 2^64, see length
+    private long coverage = 0L;
+
+    public IntervalSet() {
+        // nothing to initialize
+    }
+
+    /**
+     * Creates the union of all the intervals of the {@code tree}. The nodes of the tree are visited in order, thus
+     * the ranges are coalesced in a single pass, and the intervals of a node are never loaded (i.e., shallow trees
+     * and trees using a persistor are supported as well).
+     *
+     * @param tree the tree to create the union of
+     *
+     * @return the created set
+     *
+     * @throws IllegalArgumentException if the tree contains non-integral values
+     */
+    public static IntervalSet of(final IntervalTree tree) throws IllegalArgumentException {
+        final IntervalSet set = new IntervalSet();
+
+        long start = 0L;
+        long end = 0L;
+        boolean open = false;
+
+        final Iterator<IntervalTreeNode> it = tree.nodeIterator();
+        while (it.hasNext()) {
+            final IntervalTreeNode node = it.next();
+            final long nodeStart = toLong(node.getStart());
+            final long nodeEnd = toLong(node.getEnd());
+
+            if (!open) {
+                start = nodeStart;
+                end = nodeEnd;
+                open = true;
+            } else if (nodeStart <= next(end)) {
+                end = Math.max(end, nodeEnd);
+            } else {
+                set.put(start, end);
+                start = nodeStart;
+                end = nodeEnd;
+            }
+        }
+
+        if (open) {
+            set.put(start, end);
+        }
+
+        return set;
+    }
+
+    public boolean add(final IInterval interval) throws IllegalArgumentException {
+        return add(toLong(interval.getNormStart()), toLong(interval.getNormEnd()));
+    }
+
+    /**
+     * Adds the range {@code [start, end]} to the set, merging it with all overlapping and adjacent ranges.
+     *
+     * @param start the first value of the range
+     * @param end   the last value of the range
+     *
+     * @return {@code true} if the coverage of the set changed, otherwise {@code false}
+     */
+    public boolean add(final long start, final long end) {
+        if (end < start) {
+            throw new IllegalArgumentException("The end '" + end + "' cannot be smaller than the start '" + start + "'.");
+        }
+
+        long newStart = start;
+        long newEnd = end;
+
+        final Map.Entry<Long, Long> floor = this.ranges.floorEntry(start);
+        if (floor != null && floor.getValue() >= end) {
+            return false;
+        } else if (floor != null && next(floor.getValue()) >= start) {
+            newStart = floor.getKey();
+        }
+
+        // remove all the ranges merged into the new one
+        final NavigableMap<Long, Long> merged = this.ranges.subMap(newStart, true, next(end), true);
+        for (final Map.Entry<Long, Long> entry : merged.entrySet()) {
+            newEnd = Math.max(newEnd, entry.getValue());
+            this.coverage -= length(entry.getKey(), entry.getValue());
+        }
+        merged.clear();
+
+        put(newStart, newEnd);
+        return true;
+    }
+
+    public boolean remove(final IInterval interval) throws IllegalArgumentException {
+        return remove(toLong(interval.getNormStart()), toLong(interval.getNormEnd()));
+    }
+
+    /**
+     * Removes the range {@code [start, end]} from the set, i.e., ranges overlapping the removed range are cut or
+     * split.
+     *
+     * @param start the first value of the range
+     * @param end   the last value of the range
+     *
+     * @return {@code true} if the coverage of the set changed, otherwise {@code false}
+     */
+    public boolean remove(final long start, final long end) {
+        if (end < start) {
+            throw new IllegalArgumentException("The end '" + end + "' cannot be smaller than the start '" + start + "'.");
+        }
+
+        final Map.Entry<Long, Long> floor = this.ranges.floorEntry(start);
+        final long from = floor != null && floor.getValue() >= start ? floor.getKey() : start;
+
+        final NavigableMap<Long, Long> affected = this.ranges.subMap(from, true, end, true);
+        if (affected.isEmpty()) {
+            return false;
+        }
+
+        // copy the entries, the entries of the map are reused when removing
+        final NavigableMap<Long, Long> removed = new TreeMap<>(affected);
+        affected.clear();
+
+        for (final Map.Entry<Long, Long> entry : removed.entrySet()) {
+            final long rangeStart = entry.getKey();
+            final long rangeEnd = entry.getValue();
+            this.coverage -= length(rangeStart, rangeEnd);
+
+            if (rangeStart < start) {
+                put(rangeStart, start - 1L);
+            }
+            if (rangeEnd > end) {
+                put(end + 1L, rangeEnd);
+            }
+        }
+
+        return true;
+    }
+
+    public boolean covers(final long value) {
+        final Map.Entry<Long, Long> floor = this.ranges.floorEntry(value);
+        return floor != null && floor.getValue() >= value;
+    }
+
+    /**
+     * Checks if the {@code interval} is completely covered by the set.
+     *
+     * @param interval the interval to check
+     *
+     * @return {@code true} if every value of the interval is covered, otherwise {@code false}
+     */
+    public boolean covers(final IInterval interval) throws IllegalArgumentException {
+        final Map.Entry<Long, Long> floor = this.ranges.floorEntry(toLong(interval.getNormStart()));
+        return floor != null && floor.getValue() >= toLong(interval.getNormEnd());
+    }
+
+    /**
+     * Gets the number of values covered by the set, which is maintained when adding and removing, i.e., it is not
+     * calculated.
+     *
+     * @return the number of covered values, at most {@code Long.MAX_VALUE}
+     */
+    public long getCoverage() {
+        return clamp(this.coverage, !this.ranges.isEmpty());
+    }
+
+    /**
+     * Gets the number of values within {@code [from, to]} covered by the set. The ranges overlapping {@code [from,
+     * to]} are summed up, i.e., the method needs {@code O(log n + k)} steps, with {@code n} being the number of ranges
+     * of the set and {@code k} the number of ranges overlapping {@code [from, to]}.
+     *
+     * @param from the first value of the range to determine the coverage for
+     * @param to   the last value of the range to determine the coverage for
+     *
+     * @return the number of covered values within the range, at most {@code Long.MAX_VALUE}
+     */
+    public long getCoverage(final long from, final long to) {
+        if (to < from) {
+            return 0L;
+        }
+
+        final Map.Entry<Long, Long> floor = this.ranges.floorEntry(from);
+        final long first = floor != null && floor.getValue() >= from ? floor.getKey() : from;
+        final NavigableMap<Long, Long> overlapping = this.ranges.subMap(first, true, to, true);
+
+        long coverage = 0L;
+        for (final Map.Entry<Long, Long> entry : overlapping.entrySet()) {
+            coverage += length(Math.max(from, entry.getKey()), Math.min(to, entry.getValue()));
+        }
+
+        return clamp(coverage, !overlapping.isEmpty());
+    }
+
+    /**
+     * Gets the number of disjoint ranges within the set.
+     *
+     * @return the number of disjoint ranges
+     */
+    public int size() {
+        return this.ranges.size();
+    }
+
+    public boolean isEmpty() {
+        return this.ranges.isEmpty();
+    }
+
+    public void clear() {
+        this.ranges.clear();
+        this.coverage = 0L;
+    }
+
+    /**
+     * Streams the disjoint ranges of the set, ordered by their start.
+     *
+     * @return the stream of the ranges
+     */
+    public Stream<IInterval> stream() {
+        return this.ranges.entrySet().stream().map(entry -> new LongRange(entry.getKey(), entry.getValue()));
+    }
+
+    @Override
+    public Iterator<IInterval> iterator() {
+        return stream().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return stream().map(Object::toString).collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    protected void put(final long start, final long end) {
+        this.ranges.put(start, end);
+        this.coverage += length(start, end);
+    }
+
+    /**
+     * Determines the number of values of the range {@code [start, end]} modulo 2^64, i.e., the range {@code
+     * [Long.MIN_VALUE, Long.MAX_VALUE]} has the length {@code 0} and lengths exceeding {@code Long.MAX_VALUE} are
+     * negative. Thus, lengths can be summed up and subtracted without any loss, see {@link #clamp(long, boolean)}.
+     *
+     * @param start the first value of the range
+     * @param end   the last value of the range
+     *
+     * @return the number of values modulo 2^64
+     */
+    protected static long length(final long start, final long end) {
+        return end - start + 1L;
+    }
+
+    /**
+     * Clamps a number of values modulo 2^64 (see {@link #length(long, long)}) to {@code [0, Long.MAX_VALUE]}.
+     *
+     * @param count   the number of values modulo 2^64
+     * @param covered {@code true} if any value is covered, i.e., a {@code count} of {@code 0} means 2^64 values
+     *
+     * @return the clamped number of values
+     */
+    protected static long clamp(final long count, final boolean covered) {
+        if (count == 0L) {
+            return covered ? Long.MAX_VALUE : 0L;
+        } else if (count < 0L) {
+            return Long.MAX_VALUE;
+        } else {
+            return count;
+        }
+    }
+
+    protected static long next(final long value) {
+        return value == Long.MAX_VALUE ? value : value + 1L;
+    }
+
+    protected static long toLong(final Object value) throws IllegalArgumentException {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Number.class.cast(value).longValue();
+        } else {
+            throw new IllegalArgumentException("Only integral values are supported: " + value);
+        }
+    }
+}
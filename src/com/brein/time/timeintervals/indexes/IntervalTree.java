@@ -3,29 +3,45 @@ package com.brein.time.timeintervals.indexes;
 import com.brein.time.exceptions.FailedIO;
 import com.brein.time.exceptions.IllegalConfiguration;
 import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.intervals.AllenIntervalRelation;
 import com.brein.time.timeintervals.intervals.IInterval;
+import com.brein.time.timeintervals.intervals.NumberInterval;
 import org.apache.log4j.Logger;
 
+import java.io.Closeable;
 import java.io.Externalizable;
 import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class IntervalTree implements Collection<IInterval>, Externalizable {
+public class IntervalTree implements Collection<IInterval>, IntervalIndex, Externalizable, Closeable {
     private static final Logger LOGGER = Logger.getLogger(IntervalTree.class);
+    private static final long serialVersionUID = 4044588891897411631L;
+    private static final long UNKNOWN_SIZE = -1L;
 
     private transient IntervalTreeConfiguration configuration = null;
+    // the sources of the nodes not read yet, if the tree was loaded lazily (see IntervalTreeFile)
+    private transient List<IntervalTreeFile.NodeSource> sources = null;
     private IntervalTreeNode root = null;
 
     private long size = 0L;
@@ -37,8 +53,17 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     public Collection<IInterval> find(final IInterval query, final IntervalFilter filter) {
         if (this.root == null) {
             return Collections.emptyList();
-        } else {
+        }
+
+        final IntervalTreeMetrics metrics = this.configuration.getMetrics();
+        if (metrics == null) {
             return _find(this.root, query, filter);
+        } else {
+            final long start = System.nanoTime();
+            final Collection<IInterval> result = _find(this.root, query, filter);
+            metrics.record(IntervalTreeMetrics.Operation.FIND, start);
+
+            return result;
         }
     }
 
@@ -60,6 +85,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         if (node == null) {
             return Collections.emptyList();
         }
+        visit();
 
         // check if the current node overlaps
         final int cmpNode = node.compareTo(query);
@@ -83,8 +109,17 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     public Collection<IInterval> overlap(final IInterval query) {
         if (this.root == null) {
             return Collections.emptyList();
-        } else {
+        }
+
+        final IntervalTreeMetrics metrics = this.configuration.getMetrics();
+        if (metrics == null) {
             return _overlap(this.root, query).collect(Collectors.toList());
+        } else {
+            final long start = System.nanoTime();
+            final Collection<IInterval> result = _overlap(this.root, query).collect(Collectors.toList());
+            metrics.record(IntervalTreeMetrics.Operation.OVERLAP, start);
+
+            return result;
         }
     }
 
@@ -93,6 +128,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         if (node == null) {
             return Stream.empty();
         }
+        visit();
 
         // we create three streams:
         //  1. the one of the current node
@@ -120,6 +156,51 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         return Stream.of(leftNodeStream, nodeStream, rightNodeStream).flatMap(s -> s);
     }
 
+    /**
+     * Streams all the intervals {@code i} of the tree for which {@code i.ir(relation, query)} holds, e.g., all the
+     * intervals, which are during the {@code query} for {@link AllenIntervalRelation#IS_DURING}. The stream is lazy,
+     * i.e., the tree is traversed (in order) while the stream is consumed. Sub-trees which cannot contain any result
+     * (determined by the start of the nodes and the max of the sub-trees) are skipped, e.g., {@code BEFORE} is a scan
+     * of the tree's prefix and {@code EQUALS} is a single lookup.
+     * <p>
+     * A {@code query}, which is not a {@code NumberInterval} (e.g., a {@code LongRange}), is related to the intervals
+     * by comparing the endpoints with the configured value comparator, see {@code AllenIntervalRelation.classify(i,
+     * query, comparator)}.
+     *
+     * @param relation the relation the intervals must have to the {@code query}
+     * @param query    the interval to query for
+     *
+     * @return the lazy stream of the intervals having the specified relation to the {@code query}
+     *
+     * @see NumberInterval#ir(AllenIntervalRelation, IInterval)
+     */
+    public Stream<IInterval> query(final AllenIntervalRelation relation,
+                                   final IInterval query) {
+        if (this.root == null) {
+            return Stream.empty();
+        } else if (AllenIntervalRelation.EQUALS.equals(relation)) {
+            return Stream.of(query).flatMap(q -> find(q, (cmp, i1, i2) -> true).stream());
+        }
+
+        final Predicate<IInterval> hasRelation;
+        if (query instanceof NumberInterval) {
+
+            // i has the relation to the query, iff the query has the converse relation to i
+            final NumberInterval numberQuery = NumberInterval.class.cast(query);
+            final AllenIntervalRelation converse = relation.getConverse();
+            hasRelation = interval -> numberQuery.ir(converse, interval);
+        } else {
+            final IntervalValueComparator comparator = this.configuration.getValueComparator();
+            hasRelation = interval -> relation.equals(AllenIntervalRelation.classify(interval, query, comparator));
+        }
+
+        final Spliterator<IntervalTreeNode> nodes = Spliterators.spliteratorUnknownSize(
+                new RelationNodeIterator(relation, query), Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(nodes, false)
+                .filter(node -> !node.isEmpty() && hasRelation.test(node.iterator().next()))
+                .flatMap(node -> node.getIntervals().stream());
+    }
+
     public IntervalTree insert(final IInterval interval) {
         add(interval);
         return this;
@@ -132,6 +213,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
             changed.set(true);
             return createNode(interval);
         }
+        visit();
 
         final IntervalTreeNodeChildType childType;
         final int cmpNode = node.compareTo(interval);
@@ -161,16 +243,26 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     }
 
     public void balance() {
-        this.nodeIterator().forEachRemaining(node -> {
-            if (node.isLeaf()) {
-                // nothing to do
-            } else if (node.isRoot()) {
-                this.root = balance(node);
-            } else {
-                node.setLeft(balance(node.getLeft()));
-                node.setRight(balance(node.getRight()));
-            }
-        });
+        setRoot(_balance(this.root));
+    }
+
+    /**
+     * Balances the sub-tree of the specified {@code node} bottom-up, i.e., the children are balanced before the node,
+     * so that the max and height of each node are updated once.
+     *
+     * @param node the root of the sub-tree to balance
+     *
+     * @return the new root of the sub-tree
+     */
+    protected IntervalTreeNode _balance(final IntervalTreeNode node) {
+        if (node == null || node.isLeaf()) {
+            return node;
+        }
+
+        node.setLeft(_balance(node.getLeft()));
+        node.setRight(_balance(node.getRight()));
+
+        return balance(node);
     }
 
     public boolean isBalanced() {
@@ -239,6 +331,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
             changed.set(false);
             return null;
         }
+        visit();
 
         final IntervalTreeNodeChildType childType;
         final int cmpNode = node.compareTo(interval);
@@ -350,7 +443,6 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         // if we replace the root, we have to let the
         if (rootNode != null && node.isRoot()) {
             rootNode.setParent(null);
-            rootNode.setLevel(0L);
         }
 
         if (LOGGER.isTraceEnabled()) {
@@ -359,6 +451,19 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         }
 
         if (!isAutoBalancing()) {
+
+            // the nodes between the actionNode and the rootNode are not updated by the recursion of _remove
+            if (actionNode != null) {
+                IntervalTreeNode n = actionNode;
+                while (n != rootNode) {
+                    n.updateMax();
+                    n.updateHeight();
+                    n = n.getParent();
+                }
+                rootNode.updateMax();
+                rootNode.updateHeight();
+            }
+
             return rootNode;
         } else if (rootNode == null) {
             return null;
@@ -389,6 +494,394 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         }
     }
 
+    /**
+     * Removes all intervals ending before the specified {@code bound}, i.e., all intervals having a normalized end
+     * smaller than the {@code bound}. In contrast to removing each interval separately (see {@link #remove(Object)}),
+     * whole sub-trees ending before the {@code bound} are dropped at once and the remaining sub-trees are re-joined,
+     * i.e., the tree is not re-balanced per removed interval.
+     *
+     * @param bound the bound, all intervals ending before it are removed
+     *
+     * @return the number of removed intervals
+     */
+    public long removeEndingBefore(final Comparable bound) {
+        return removeEndingBefore(bound, Long.MAX_VALUE);
+    }
+
+    /**
+     * Removes intervals ending before the specified {@code bound}, but removes at most {@code maxNodes} nodes. This
+     * method can be used to expire intervals incrementally, i.e., to bound the time needed per call (see {@link
+     * IntervalTreeExpiration}).
+     *
+     * @param bound    the bound, all intervals ending before it are removed
+     * @param maxNodes the maximal number of nodes to be removed
+     *
+     * @return the number of removed intervals
+     *
+     * @see #removeEndingBefore(Comparable)
+     */
+    public long removeEndingBefore(final Comparable bound, final long maxNodes) {
+        if (this.root == null || maxNodes <= 0L) {
+            return 0L;
+        }
+
+        final AtomicLong budget = new AtomicLong(maxNodes);
+        final AtomicLong removed = new AtomicLong(0L);
+
+        setRoot(_removeEndingBefore(this.root, bound, budget, removed));
+        changeSize(-removed.get());
+
+        return removed.get();
+    }
+
+    protected IntervalTreeNode _removeEndingBefore(final IntervalTreeNode node,
+                                                   final Comparable bound,
+                                                   final AtomicLong budget,
+                                                   final AtomicLong removed) {
+        if (node == null || budget.get() <= 0L) {
+            return node;
+        }
+
+        // the whole sub-tree ends before the bound, so we can drop it (if the budget allows it)
+        if (node.compare(node.getMax(), bound) < 0 && maxNodes(node) <= budget.get()) {
+            removeSubTree(node, budget, removed);
+            return null;
+        }
+
+        final IntervalTreeNode orgLeft = node.getLeft();
+        final IntervalTreeNode orgRight = node.getRight();
+        final IntervalTreeNode left = _removeEndingBefore(orgLeft, bound, budget, removed);
+
+        // intervals of the right sub-tree start after the node, if the node starts after the bound we are done
+        final IntervalTreeNode right;
+        if (node.compare(node.getStart(), bound) < 0) {
+            right = _removeEndingBefore(orgRight, bound, budget, removed);
+        } else {
+            right = orgRight;
+        }
+
+        final boolean expired = budget.get() > 0L && node.compare(node.getEnd(), bound) < 0;
+        if (expired) {
+            removed.addAndGet(clearNode(node));
+            budget.decrementAndGet();
+        } else if (left == orgLeft && right == orgRight &&
+                node.getLeft() == orgLeft && node.getRight() == orgRight) {
+
+            // nothing changed, a modified child is always detached from the node
+            return node;
+        }
+
+        node.detach();
+        return expired ? join(left, right) : join(left, node, right);
+    }
+
+    protected void removeSubTree(final IntervalTreeNode node, final AtomicLong budget, final AtomicLong removed) {
+        if (node == null) {
+            return;
+        }
+
+        removeSubTree(node.getLeft(), budget, removed);
+        removeSubTree(node.getRight(), budget, removed);
+
+        removed.addAndGet(clearNode(node));
+        budget.decrementAndGet();
+    }
+
+    /**
+     * Removes all intervals from the specified {@code node}, the node itself is not removed from the tree.
+     *
+     * @param node the node to remove the intervals from
+     *
+     * @return the number of removed intervals
+     */
+    protected long clearNode(final IntervalTreeNode node) {
+        if (this.configuration.getFactory() == null) {
+
+            // shallow nodes do not keep any intervals, each node represents one interval (see add)
+            return 1L;
+        }
+
+        final List<IInterval> intervals = node.getIntervals().stream().collect(Collectors.toList());
+        return intervals.stream().filter(node::removeInterval).count();
+    }
+
+    /**
+     * Removes all the intervals matching the specified {@code filter}. Nodes are only removed from the tree, if all
+     * their intervals are removed. If so, the tree is rebuild once from the remaining nodes.
+     *
+     * @param filter the filter to match the intervals to be removed
+     *
+     * @return {@code true} if any interval was removed, otherwise {@code false}
+     */
+    @Override
+    public boolean removeIf(final Predicate<? super IInterval> filter) {
+        final List<IntervalTreeNode> remaining = new ArrayList<>();
+
+        long removed = 0L;
+        boolean emptied = false;
+        for (final Iterator<IntervalTreeNode> it = nodeIterator(); it.hasNext(); ) {
+            final IntervalTreeNode node = it.next();
+            final List<IInterval> matches = node.getIntervals().stream()
+                    .filter(filter)
+                    .collect(Collectors.toList());
+
+            final long nodeRemoved = matches.stream().filter(node::removeInterval).count();
+            if (nodeRemoved > 0L && node.isEmpty()) {
+                emptied = true;
+            } else {
+                remaining.add(node);
+            }
+
+            removed += nodeRemoved;
+        }
+
+        if (emptied) {
+            remaining.forEach(node -> {
+                node.setParent(null);
+                node.setLeft(null);
+                node.setRight(null);
+            });
+            setRoot(build(remaining, 0, remaining.size() - 1));
+        }
+        changeSize(-removed);
+
+        // all nodes are read by now, i.e., the sources are not needed anymore
+        releaseSources();
+
+        return removed > 0L;
+    }
+
+    /**
+     * Splits {@code this} tree into two trees, the first one contains all the intervals starting before the {@code
+     * pivot}, the second one all the intervals starting at or after the {@code pivot}. The nodes are moved (not
+     * copied) into the new trees, which share the configuration of {@code this} tree. Thus, {@code this} tree is empty
+     * after the split. The split needs {@code O(log n)} steps, the size of the resulting trees is determined lazily.
+     *
+     * @param pivot the value to split the tree at
+     *
+     * @return an array with the two trees, i.e., {@code [lower, upper]}
+     */
+    public IntervalTree[] split(final Comparable pivot) {
+        final IntervalTreeNode[] roots = split(this.root, pivot);
+
+        final IntervalTree lower = createTree(roots[0]);
+        final IntervalTree upper = createTree(roots[1]);
+
+        if (this.size == 0L) {
+            lower.size = 0L;
+            upper.size = 0L;
+        } else if (roots[0] == null) {
+            upper.size = this.size;
+        } else if (roots[1] == null) {
+            lower.size = this.size;
+        }
+
+        this.clear();
+
+        return new IntervalTree[]{lower, upper};
+    }
+
+    protected IntervalTreeNode[] split(final IntervalTreeNode node, final Comparable pivot) {
+        if (node == null) {
+            return new IntervalTreeNode[]{null, null};
+        }
+
+        final IntervalTreeNode left = node.getLeft();
+        final IntervalTreeNode right = node.getRight();
+
+        if (node.compare(node.getStart(), pivot) < 0) {
+            final IntervalTreeNode[] rightRoots = split(right, pivot);
+
+            node.detach();
+            return new IntervalTreeNode[]{join(left, node, rightRoots[0]), rightRoots[1]};
+        } else {
+            final IntervalTreeNode[] leftRoots = split(left, pivot);
+
+            node.detach();
+            return new IntervalTreeNode[]{leftRoots[0], join(leftRoots[1], node, right)};
+        }
+    }
+
+    /**
+     * Merges the intervals of the {@code other} tree into {@code this} tree. The trees must cover disjoint ranges,
+     * i.e., all nodes of one of the trees must be smaller than all the nodes of the other tree. The nodes of the {@code
+     * other} tree are moved (not copied), thus the {@code other} tree is empty after the merge. The merge needs {@code
+     * O(log n)} steps.
+     * <p>
+     * The moved nodes keep the configuration of the {@code other} tree, thus both trees must use the same value
+     * comparator, interval filter, and collection factory (compared using {@code equals}, i.e., usually the same
+     * instances, e.g., the trees split from the same tree or built by builders using the same predefined type).
+     *
+     * @param other the tree to be merged into {@code this}
+     *
+     * @return {@code this} tree
+     *
+     * @throws IllegalArgumentException if the trees are not disjoint, or if the configurations differ in the value
+     *                                  comparator, the interval filter, or the collection factory
+     */
+    public IntervalTree merge(final IntervalTree other) throws IllegalArgumentException {
+        if (other == this || other.root == null) {
+            return this;
+        }
+
+        final IntervalTreeConfiguration otherConfiguration = other.getConfiguration();
+        if (!Objects.equals(this.configuration.getValueComparator(), otherConfiguration.getValueComparator()) ||
+                !Objects.equals(this.configuration.getIntervalFilter(), otherConfiguration.getIntervalFilter()) ||
+                !Objects.equals(this.configuration.getFactory(), otherConfiguration.getFactory())) {
+            throw new IllegalArgumentException("The trees to be merged must use the same comparator, filter, and " +
+                    "factory, found different configurations.");
+        }
+
+        if (this.root == null) {
+            setRoot(other.root);
+            this.size = other.size;
+        } else {
+            final IntervalTreeNode thisMin = findLeftLeaf(this.root);
+            final IntervalTreeNode thisMax = findRightLeaf(this.root);
+            final IntervalTreeNode otherMin = findLeftLeaf(other.root);
+            final IntervalTreeNode otherMax = findRightLeaf(other.root);
+
+            if (thisMax.compareTo(otherMin) < 0) {
+                setRoot(join(this.root, otherMin, removeMin(other.root)));
+            } else if (otherMax.compareTo(thisMin) < 0) {
+                setRoot(join(other.root, thisMin, removeMin(this.root)));
+            } else {
+                throw new IllegalArgumentException("The trees to be merged must cover disjoint ranges, " +
+                        "found overlapping nodes: '" + thisMin.getId() + " - " + thisMax.getId() + "' and '" +
+                        otherMin.getId() + " - " + otherMax.getId() + "'.");
+            }
+
+            this.size = this.size == UNKNOWN_SIZE || other.size == UNKNOWN_SIZE ? UNKNOWN_SIZE : this.size + other.size;
+        }
+
+        useSources(other.sources);
+        other.clear();
+
+        return this;
+    }
+
+    protected IntervalTree createTree(final IntervalTreeNode root) {
+        final IntervalTree tree = new IntervalTree();
+        tree.setConfiguration(this.configuration);
+        tree.setRoot(root);
+        tree.size = root == null ? 0L : UNKNOWN_SIZE;
+
+        // the nodes not read yet may be part of the new tree
+        if (root != null) {
+            tree.useSources(this.sources);
+        }
+
+        return tree;
+    }
+
+    /**
+     * Builds a balanced tree from the sorted (and detached) {@code nodes} within the range {@code [from, to]}.
+     *
+     * @param nodes the sorted nodes
+     * @param from  the first index to use (included)
+     * @param to    the last index to use (included)
+     *
+     * @return the root of the built tree
+     */
+    protected IntervalTreeNode build(final List<IntervalTreeNode> nodes, final int from, final int to) {
+        if (from > to) {
+            return null;
+        }
+
+        final int mid = (from + to) >>> 1;
+        final IntervalTreeNode node = nodes.get(mid);
+        node.setLeft(build(nodes, from, mid - 1));
+        node.setRight(build(nodes, mid + 1, to));
+
+        return node;
+    }
+
+    /**
+     * Joins the two trees {@code left} and {@code node}, and {@code right}. All values of the {@code left} tree must be
+     * smaller than the {@code node}, which must be smaller than all values of the {@code right} tree. The {@code node}
+     * must be detached. The join needs {@code O(|height(left) - height(right)|)} steps.
+     *
+     * @param left  the left tree, can be {@code null}
+     * @param node  the detached node joining the trees
+     * @param right the right tree, can be {@code null}
+     *
+     * @return the root of the joined tree
+     */
+    protected IntervalTreeNode join(final IntervalTreeNode left,
+                                    final IntervalTreeNode node,
+                                    final IntervalTreeNode right) {
+        final long leftHeight = height(left);
+        final long rightHeight = height(right);
+
+        if (leftHeight > rightHeight + 1L) {
+            left.setRight(join(left.getRight(), node, right));
+            return isAutoBalancing() ? balance(left) : left;
+        } else if (rightHeight > leftHeight + 1L) {
+            right.setLeft(join(left, node, right.getLeft()));
+            return isAutoBalancing() ? balance(right) : right;
+        } else {
+            node.setLeft(left);
+            node.setRight(right);
+            return node;
+        }
+    }
+
+    /**
+     * Joins the two trees {@code left} and {@code right}. All values of the {@code left} tree must be smaller than all
+     * values of the {@code right} tree.
+     *
+     * @param left  the left tree, can be {@code null}
+     * @param right the right tree, can be {@code null}
+     *
+     * @return the root of the joined tree
+     */
+    protected IntervalTreeNode join(final IntervalTreeNode left, final IntervalTreeNode right) {
+        if (left == null) {
+            return right;
+        } else if (right == null) {
+            return left;
+        }
+
+        final IntervalTreeNode min = findLeftLeaf(right);
+        return join(left, min, removeMin(right));
+    }
+
+    protected IntervalTreeNode removeMin(final IntervalTreeNode node) {
+        if (!node.hasLeft()) {
+            final IntervalTreeNode right = node.getRight();
+            node.detach();
+            return right;
+        }
+
+        node.setLeft(removeMin(node.getLeft()));
+        return isAutoBalancing() ? balance(node) : node;
+    }
+
+    protected long height(final IntervalTreeNode node) {
+        return node == null ? 0L : node.getHeight();
+    }
+
+    /**
+     * Determines the maximal number of nodes the sub-tree of the specified {@code node} can have, based on the
+     * height.
+     *
+     * @param node the root of the sub-tree
+     *
+     * @return the maximal number of nodes of the sub-tree
+     */
+    protected long maxNodes(final IntervalTreeNode node) {
+        final long height = height(node);
+        return height >= 63L ? Long.MAX_VALUE : (1L << height) - 1L;
+    }
+
+    protected void setRoot(final IntervalTreeNode node) {
+        this.root = node;
+
+        if (node != null) {
+            node.setParent(null);
+        }
+    }
+
     // Get Balance factor of node N
     protected long determineBalance(final IntervalTreeNode node) {
         if (node == null) {
@@ -400,6 +893,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     }
 
     protected IntervalTreeNode leftRotate(final IntervalTreeNode node) {
+        rotation(node);
         final IntervalTreeNode right = node.getRight();
 
         final IntervalTreeNodeContext rightCtx = right.detach();
@@ -414,6 +908,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     }
 
     protected IntervalTreeNode rightRotate(final IntervalTreeNode node) {
+        rotation(node);
         final IntervalTreeNode left = node.getLeft();
 
         final IntervalTreeNodeContext leftCtx = left.detach();
@@ -427,6 +922,20 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         return left;
     }
 
+    protected void rotation(final IntervalTreeNode node) {
+        final IntervalTreeMetrics metrics = this.configuration.getMetrics();
+        if (metrics != null) {
+            metrics.rotation(node.getLevel());
+        }
+    }
+
+    protected void visit() {
+        final IntervalTreeMetrics metrics = this.configuration.getMetrics();
+        if (metrics != null) {
+            metrics.visit();
+        }
+    }
+
     protected IntervalTreeNode findLeftLeaf(final IntervalTreeNode startNode) {
         if (startNode == null) {
             return null;
@@ -440,6 +949,19 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         return node;
     }
 
+    protected IntervalTreeNode findRightLeaf(final IntervalTreeNode startNode) {
+        if (startNode == null) {
+            return null;
+        }
+
+        IntervalTreeNode node = startNode;
+        while (node.getRight() != null) {
+            node = node.getRight();
+        }
+
+        return node;
+    }
+
     protected PositionedNode findLeftLeaf(final PositionedNode posNode) {
         if (posNode == null || posNode.getNode() == null) {
             return null;
@@ -457,7 +979,35 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
 
     @Override
     public int size() {
-        return this.size < Integer.MAX_VALUE ? Long.valueOf(this.size).intValue() : Integer.MAX_VALUE;
+        final long size = determineSize();
+        return size < Integer.MAX_VALUE ? Long.valueOf(size).intValue() : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Determines the number of intervals within the tree. The size may be unknown after a {@link #split(Comparable)},
+     * in that case it is calculated (once) by iterating over the nodes.
+     *
+     * @return the number of intervals within the tree
+     */
+    protected long determineSize() {
+        if (this.size == UNKNOWN_SIZE) {
+            final boolean shallow = this.configuration.getFactory() == null;
+
+            long size = 0L;
+            for (final Iterator<IntervalTreeNode> it = nodeIterator(); it.hasNext(); ) {
+                final IntervalTreeNode node = it.next();
+                size += shallow ? 1L : node.getIntervals().size();
+            }
+            this.size = size;
+        }
+
+        return this.size;
+    }
+
+    protected void changeSize(final long delta) {
+        if (this.size != UNKNOWN_SIZE) {
+            this.size += delta;
+        }
     }
 
     @Override
@@ -534,7 +1084,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     public <T> T[] toArray(final T[] arr) {
 
         final T[] intervals;
-        if (arr.length < this.size) {
+        if (arr.length < size()) {
             intervals = (T[]) Array.newInstance(arr.getClass().getComponentType(), size());
         } else {
             intervals = arr;
@@ -553,10 +1103,16 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
 
     @Override
     public boolean add(final IInterval interval) {
+        final IntervalTreeMetrics metrics = this.configuration.getMetrics();
+        final long start = metrics == null ? 0L : System.nanoTime();
         final AtomicBoolean changed = new AtomicBoolean(false);
 
         this.root = _add(this.root, interval, changed);
-        this.size += changed.get() ? 1 : 0;
+        changeSize(changed.get() ? 1 : 0);
+
+        if (metrics != null) {
+            metrics.record(IntervalTreeMetrics.Operation.ADD, start);
+        }
 
         return changed.get();
     }
@@ -571,10 +1127,16 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
             return false;
         }
 
+        final IntervalTreeMetrics metrics = this.configuration.getMetrics();
+        final long start = metrics == null ? 0L : System.nanoTime();
         final AtomicBoolean changed = new AtomicBoolean(false);
 
         this.root = _remove(this.root, interval, changed);
-        this.size -= changed.get() ? 1 : 0;
+        changeSize(changed.get() ? -1 : 0);
+
+        if (metrics != null) {
+            metrics.record(IntervalTreeMetrics.Operation.REMOVE, start);
+        }
 
         return changed.get();
     }
@@ -626,6 +1188,42 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     public void clear() {
         this.root = null;
         this.size = 0;
+
+        releaseSources();
+    }
+
+    /**
+     * Closes the file of a lazily loaded tree (see {@link IntervalTreeFile}), i.e., the nodes not read yet cannot be
+     * read anymore. The file is shared with the trees split from {@code this} tree, and it is closed when all of them
+     * are closed (or cleared). Closing any other tree has no effect.
+     */
+    @Override
+    public void close() {
+        releaseSources();
+    }
+
+    protected List<IntervalTreeFile.NodeSource> getSources() {
+        return this.sources == null ? Collections.emptyList() : Collections.unmodifiableList(this.sources);
+    }
+
+    protected void useSources(final List<IntervalTreeFile.NodeSource> sources) {
+        if (sources == null || sources.isEmpty()) {
+            return;
+        } else if (this.sources == null) {
+            this.sources = new ArrayList<>(sources.size());
+        }
+
+        for (final IntervalTreeFile.NodeSource source : sources) {
+            source.retain();
+            this.sources.add(source);
+        }
+    }
+
+    protected void releaseSources() {
+        if (this.sources != null) {
+            this.sources.forEach(IntervalTreeFile.NodeSource::release);
+            this.sources = null;
+        }
     }
 
     public Iterator<IntervalTreeNode> nodeIterator() {
@@ -667,6 +1265,139 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         };
     }
 
+    /**
+     * Iterates (in order) over the nodes, which may have the relation to the query. The start of the candidates is
+     * bound by {@code lower} and {@code upper}, and the end by {@code max}, i.e., the left sub-tree of a node is
+     * skipped if all starts are smaller than {@code lower}, the right sub-tree is skipped if all starts are larger
+     * than {@code upper}, and a whole sub-tree is skipped if its max is smaller than {@code max}. A {@code null} bound
+     * is not applied.
+     */
+    protected class RelationNodeIterator implements Iterator<IntervalTreeNode> {
+        private final Deque<IntervalTreeNode> stack = new ArrayDeque<>();
+
+        private Comparable lower = null;
+        private boolean lowerIncluded = false;
+        private Comparable upper = null;
+        private boolean upperIncluded = false;
+        private Comparable max = null;
+        private boolean maxIncluded = false;
+
+        public RelationNodeIterator(final AllenIntervalRelation relation, final IInterval query) {
+            final Comparable start = query.getNormStart();
+            final Comparable end = query.getNormEnd();
+
+            switch (relation) {
+                case OVERLAPS:
+                    setUpper(start, false);
+                    setMax(start, true);
+                    break;
+                case IS_OVERLAPPED_BY:
+                    setLower(start, false);
+                    setUpper(end, true);
+                    setMax(end, false);
+                    break;
+                case EQUALS:
+                    setLower(start, true);
+                    setUpper(start, true);
+                    setMax(end, true);
+                    break;
+                case BEGINS:
+                    setLower(start, true);
+                    setUpper(start, true);
+                    setMax(end, false);
+                    break;
+                case BEGINS_BY:
+                    setLower(start, true);
+                    setUpper(start, true);
+                    break;
+                case ENDS:
+                    setUpper(start, false);
+                    setMax(end, true);
+                    break;
+                case ENDS_BY:
+                    setLower(start, false);
+                    setUpper(end, true);
+                    setMax(end, true);
+                    break;
+                case BEFORE:
+                case ENDS_DIRECTLY_BEFORE:
+                    setUpper(start, false);
+                    break;
+                case AFTER:
+                case STARTS_DIRECTLY_BEFORE:
+                    setLower(end, false);
+                    setMax(end, false);
+                    break;
+                case INCLUDES:
+                    setUpper(start, false);
+                    setMax(end, false);
+                    break;
+                case IS_DURING:
+                    setLower(start, false);
+                    setUpper(end, false);
+                    setMax(start, false);
+                    break;
+                default:
+                    break;
+            }
+
+            pushLeft(IntervalTree.this.root);
+        }
+
+        protected void setLower(final Comparable lower, final boolean included) {
+            this.lower = lower;
+            this.lowerIncluded = included;
+        }
+
+        protected void setUpper(final Comparable upper, final boolean included) {
+            this.upper = upper;
+            this.upperIncluded = included;
+        }
+
+        protected void setMax(final Comparable max, final boolean included) {
+            this.max = max;
+            this.maxIncluded = included;
+        }
+
+        protected boolean isAbove(final Comparable value, final Comparable bound, final boolean included) {
+            final int cmp = IntervalTree.this.configuration.getValueComparator().compare(value, bound);
+            return cmp > 0 || (included && cmp == 0);
+        }
+
+        protected void pushLeft(final IntervalTreeNode startNode) {
+            IntervalTreeNode node = startNode;
+            while (node != null && (this.max == null || isAbove(node.getMax(), this.max, this.maxIncluded))) {
+                visit();
+                this.stack.push(node);
+
+                if (this.lower == null || isAbove(node.getStart(), this.lower, this.lowerIncluded)) {
+                    node = node.getLeft();
+                } else {
+                    node = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.stack.isEmpty();
+        }
+
+        @Override
+        public IntervalTreeNode next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final IntervalTreeNode node = this.stack.pop();
+            if (this.upper == null || isAbove(this.upper, node.getStart(), this.upperIncluded)) {
+                pushLeft(node.getRight());
+            }
+
+            return node;
+        }
+    }
+
     public Iterator<PositionedNode> positionIterator() {
         final PositionedNode outerFirstNext = findLeftLeaf(new PositionedNode(this.root, 0L, 0L));
 
@@ -742,7 +1473,7 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
 
     @Override
     public void writeExternal(final ObjectOutput out) throws IOException {
-        out.writeLong(this.size);
+        out.writeLong(determineSize());
 
         if (this.root != null) {
             this.root.writeExternal(out);
@@ -760,6 +1491,23 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         }
     }
 
+    /**
+     * Initializes {@code this} tree with a loaded {@code root} (see {@link IntervalTreeFile}), the nodes of the tree
+     * are expected to be valid, i.e., nothing is re-calculated.
+     *
+     * @param root   the loaded root, can be {@code null}
+     * @param size   the number of intervals of the tree
+     * @param source the source of the nodes not read yet, can be {@code null}
+     */
+    protected void load(final IntervalTreeNode root, final long size, final IntervalTreeFile.NodeSource source) {
+        this.root = root;
+        this.size = size;
+
+        if (source != null) {
+            this.sources = new ArrayList<>(Collections.singletonList(source));
+        }
+    }
+
     public boolean isAutoBalancing() {
         return this.configuration.isAutoBalancing();
     }
@@ -768,6 +1516,15 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
         return this.configuration;
     }
 
+    /**
+     * Gets the metrics collected by the tree (see {@link IntervalTreeBuilder#enableMetrics()}).
+     *
+     * @return the metrics of the tree, or {@code null} if the tree does not collect any metrics
+     */
+    public IntervalTreeMetrics getMetrics() {
+        return this.configuration.getMetrics();
+    }
+
     public void setConfiguration(final IntervalTreeConfiguration configuration) {
         if (this.root != null) {
             throw new IllegalConfiguration("The configuration cannot be changed once the tree is created.");
@@ -779,4 +1536,8 @@ public class IntervalTree implements Collection<IInterval>, Externalizable {
     public void saveToFile(final File file) throws FailedIO {
         IntervalTreeBuilder.saveToFile(file, this);
     }
+
+    public void saveToIndexedFile(final File file) throws FailedIO {
+        IntervalTreeBuilder.saveToIndexedFile(file, this);
+    }
 }
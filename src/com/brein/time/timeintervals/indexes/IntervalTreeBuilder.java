@@ -1,10 +1,12 @@
 package com.brein.time.timeintervals.indexes;
 
 import com.brein.time.exceptions.FailedIO;
+import com.brein.time.exceptions.IllegalConfiguration;
 import com.brein.time.timeintervals.collections.IntervalCollectionFactory;
 import com.brein.time.timeintervals.collections.IntervalCollectionPersistor;
 import com.brein.time.timeintervals.filters.IntervalFilter;
 import com.brein.time.timeintervals.filters.IntervalFilters;
+import com.brein.time.timeintervals.filters.PredefinedFilter;
 import com.brein.time.timeintervals.intervals.DoubleInterval;
 import com.brein.time.timeintervals.intervals.IInterval;
 import com.brein.time.timeintervals.intervals.IntegerInterval;
@@ -19,6 +21,7 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.lang.invoke.SerializedLambda;
 
 public class IntervalTreeBuilder {
 
@@ -27,6 +30,7 @@ public class IntervalTreeBuilder {
     private IntervalCollectionFactory factory = null;
     private IntervalFilter filter = null;
     private IntervalValueComparator valueComparator = null;
+    private IntervalTreeMetrics metrics = null;
     private boolean autoBalancing = true;
     private boolean writeCollections = false;
 
@@ -51,6 +55,28 @@ public class IntervalTreeBuilder {
         }
     }
 
+    /**
+     * Saves the tree to an indexed file (see {@link IntervalTreeFile}), which allows to load the nodes of the tree
+     * lazily, i.e., only when accessed. A tree saved this way is loaded using {@link #loadFromFile(File)} as well.
+     *
+     * @param file the file to save the tree to
+     * @param tree the tree to be saved
+     *
+     * @throws FailedIO if the tree cannot be saved
+     */
+    public static void saveToIndexedFile(final File file, final IntervalTree tree) throws FailedIO {
+        IntervalTreeFile.save(file, tree);
+    }
+
+    /**
+     * Loads the tree from the specified {@code file} when building, if the file exists. If the file was saved using
+     * {@link #saveToIndexedFile(File, IntervalTree)}, only the root of the tree is read and all other nodes are read
+     * when accessed the first time, otherwise the whole tree is read.
+     *
+     * @param file the file to load the tree from
+     *
+     * @return the builder
+     */
     public IntervalTreeBuilder loadFromFile(final File file) {
         this.file = file;
         return this;
@@ -80,6 +106,17 @@ public class IntervalTreeBuilder {
         return usePredefinedType(intervalType, false);
     }
 
+    /**
+     * Uses the comparator and filter of the specified {@code intervalType}. If {@code strict} is {@code true}, the
+     * tree uses a comparator specialized for the type's values (e.g., {@code compareLongs} for {@link
+     * IntervalType#LONG}), which avoids any type-dispatching per comparison, but fails if values of different types
+     * are mixed within the tree.
+     *
+     * @param intervalType the type of the intervals held by the tree
+     * @param strict       {@code true} if only values of the type will be added and queried, otherwise {@code false}
+     *
+     * @return the builder
+     */
     public IntervalTreeBuilder usePredefinedType(final IntervalType intervalType, final boolean strict) {
         this.valueComparator = intervalType.getComparator(strict);
         this.filter = intervalType.getIntervalFilter();
@@ -104,11 +141,30 @@ public class IntervalTreeBuilder {
         return this;
     }
 
+    public IntervalTreeBuilder enableMetrics() {
+        return useMetrics(new IntervalTreeMetrics());
+    }
+
+    /**
+     * Collects the metrics of the tree (see {@link IntervalTreeMetrics}) within the specified instance, which may be
+     * shared by several trees. By default, no metrics are collected.
+     *
+     * @param metrics the metrics to collect to, {@code null} to disable the collection
+     *
+     * @return the builder
+     */
+    public IntervalTreeBuilder useMetrics(final IntervalTreeMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
     public IntervalTree build() throws FailedIO {
         if (this.file == null) {
             return buildFromSettings();
         } else if (!this.file.exists() || !this.file.isFile()) {
             return buildFromSettings();
+        } else if (IntervalTreeFile.isIndexedFile(this.file)) {
+            return IntervalTreeFile.load(this.file, this.persistor, this.metrics);
         } else {
             final IntervalTree tree = new IntervalTree();
             final IntervalTreeConfiguration configuration = new IntervalTreeConfiguration();
@@ -118,6 +174,7 @@ public class IntervalTreeBuilder {
 
                 configuration.readExternal(oin);
                 configuration.setPersistor(this.persistor);
+                configuration.setMetrics(this.metrics);
 
                 tree.setConfiguration(configuration);
                 tree.readExternal(oin);
@@ -129,6 +186,25 @@ public class IntervalTreeBuilder {
         }
     }
 
+    public WideIntervalIndex buildWideIndex() {
+        return buildWideIndex(WideIntervalIndex.DEFAULT_FAN_OUT);
+    }
+
+    /**
+     * Builds an empty {@link WideIntervalIndex}, i.e., an index using wide nodes with up to {@code fanOut} entries
+     * instead of the binary nodes of an {@link IntervalTree}. The index uses the comparator, the filter, and the
+     * metrics of {@code this} builder.
+     *
+     * @param fanOut the maximal number of entries of a node, e.g., {@code 32}
+     *
+     * @return the created index
+     *
+     * @throws IllegalConfiguration if the {@code fanOut} is smaller than {@link WideIntervalIndex#MIN_FAN_OUT}
+     */
+    public WideIntervalIndex buildWideIndex(final int fanOut) throws IllegalConfiguration {
+        return new WideIntervalIndex(this, fanOut);
+    }
+
     protected IntervalTree buildFromSettings() {
         final IntervalTree tree = new IntervalTree();
         final IntervalTreeConfiguration configuration = new IntervalTreeConfiguration();
@@ -140,6 +216,7 @@ public class IntervalTreeBuilder {
 
         configuration.setFactory(this.factory);
         configuration.setPersistor(this.persistor);
+        configuration.setMetrics(this.metrics);
 
         tree.setConfiguration(configuration);
 
@@ -154,37 +231,41 @@ public class IntervalTreeBuilder {
          * LongInterval}.
          */
         NUMBER(NumberInterval.class,
-                IntervalFilters::weakEqual,
-                IntervalValueComparator::compareNumbers,
-                IntervalValueComparator::compareNumbers),
+                PredefinedFilter.WEAK_EQUAL,
+                PredefinedComparator.COMPARE_NUMBERS,
+                PredefinedComparator.COMPARE_NUMBERS),
         /**
          * If you plan to hold {@link IntegerInterval} instances within the tree, use this type.
          */
         INTEGER(IntegerInterval.class,
-                IntervalFilters::weakEqual,
-                IntervalValueComparator::compareNumbers,
-                IntervalValueComparator::compareInts),
+                PredefinedFilter.WEAK_EQUAL,
+                PredefinedComparator.COMPARE_NUMBERS,
+                PredefinedComparator.COMPARE_INTS),
         /**
          * If you plan to hold {@link LongInterval} instances within the tree, use this type.
          */
         LONG(LongInterval.class,
-                IntervalFilters::weakEqual,
-                IntervalValueComparator::compareNumbers,
-                IntervalValueComparator::compareLongs),
+                PredefinedFilter.WEAK_EQUAL,
+                PredefinedComparator.COMPARE_NUMBERS,
+                PredefinedComparator.COMPARE_LONGS),
         /**
          * If you plan to hold {@link DoubleInterval} instances within the tree, use this type.
          */
         DOUBLE(DoubleInterval.class,
-                IntervalFilters::weakEqual,
-                IntervalValueComparator::compareNumbers,
-                IntervalValueComparator::compareDoubles),
+                PredefinedFilter.WEAK_EQUAL,
+                PredefinedComparator.COMPARE_NUMBERS,
+                PredefinedComparator.COMPARE_DOUBLES),
         /**
          * If you plan to hold {@link TimestampInterval} instances within the tree, use this type.
          */
         TIMESTAMP(TimestampInterval.class,
-                IntervalFilters::weakEqual,
-                IntervalValueComparator::compareNumbers,
-                IntervalValueComparator::compareLongs);
+                PredefinedFilter.WEAK_EQUAL,
+                PredefinedComparator.COMPARE_NUMBERS,
+                PredefinedComparator.COMPARE_LONGS);
+
+        private static final String LEGACY_FILTERS_CLASS = IntervalFilters.class.getName().replace('.', '/');
+        private static final String LEGACY_COMPARATORS_CLASS =
+                IntervalValueComparator.class.getName().replace('.', '/');
 
         private final Class<? extends IInterval> clazz;
         private final IntervalFilter intervalFilter;
@@ -198,7 +279,7 @@ public class IntervalTreeBuilder {
             this.clazz = clazz;
             this.intervalFilter = intervalFilter;
             this.comparator = comparator;
-            this.strictComparator = comparator;
+            this.strictComparator = strictComparator;
         }
 
         public IntervalFilter getIntervalFilter() {
@@ -208,5 +289,33 @@ public class IntervalTreeBuilder {
         public IntervalValueComparator getComparator(final boolean strict) {
             return strict ? strictComparator : comparator;
         }
+
+        /**
+         * Resolves the comparators and filters serialized before the {@link PredefinedComparator} and {@link
+         * PredefinedFilter} instances were introduced, i.e., the method references (e.g., {@code
+         * IntervalValueComparator::compareLongs}) formerly captured by {@code this} class. The serialization calls this
+         * method when reading such a reference, which is resolved to the corresponding predefined instance.
+         *
+         * @param lambda the serialized method reference
+         *
+         * @return the predefined comparator or filter
+         */
+        @SuppressWarnings("unused")
+        private static Object $deserializeLambda$(final SerializedLambda lambda) {
+            final Object resolved;
+            if (LEGACY_FILTERS_CLASS.equals(lambda.getImplClass())) {
+                resolved = PredefinedFilter.byName(lambda.getImplMethodName());
+            } else if (LEGACY_COMPARATORS_CLASS.equals(lambda.getImplClass())) {
+                resolved = PredefinedComparator.byName(lambda.getImplMethodName());
+            } else {
+                resolved = null;
+            }
+
+            if (resolved == null) {
+                throw new IllegalArgumentException("Invalid lambda deserialization: " + lambda.getImplClass() + "::" +
+                        lambda.getImplMethodName());
+            }
+            return resolved;
+        }
     }
 }
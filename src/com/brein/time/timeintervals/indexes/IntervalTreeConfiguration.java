@@ -4,16 +4,40 @@ import com.brein.time.exceptions.IllegalConfiguration;
 import com.brein.time.timeintervals.collections.IntervalCollectionFactory;
 import com.brein.time.timeintervals.collections.IntervalCollectionPersistor;
 import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.filters.PredefinedFilter;
 import org.apache.log4j.Logger;
 
 import java.io.Externalizable;
 import java.io.IOException;
+import java.io.InvalidObjectException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 
+/**
+ * The configuration of an {@link IntervalTree}. The configuration is written with a version header, followed by the
+ * flags, the comparator, the filter, and the collection factory. The comparator and the filter are written as a
+ * reference, i.e., as the id of a {@link PredefinedComparator} or {@link PredefinedFilter}, as the name of an
+ * instance registered within the {@link IntervalTreeRegistry}, or (as fallback) as serialized object. Configurations
+ * written before the version header was introduced (i.e., starting with the flag of the auto-balancing) are still
+ * read.
+ */
 @SuppressWarnings("NullableProblems")
 public class IntervalTreeConfiguration implements Externalizable {
     private static final Logger LOGGER = Logger.getLogger(IntervalTreeConfiguration.class);
+    // the value computed for the configuration without version, i.e., configurations written back then can be read
+    private static final long serialVersionUID = 4147928641320192210L;
+
+    /**
+     * The first byte of a versioned configuration, which is never written as the first byte of a configuration
+     * without version (i.e., a boolean).
+     */
+    public static final int FORMAT_MARKER = 0xC7;
+    public static final int VERSION = 2;
+
+    private static final int REF_NULL = 0;
+    private static final int REF_PREDEFINED = 1;
+    private static final int REF_NAMED = 2;
+    private static final int REF_SERIALIZED = 3;
 
     private boolean autoBalancing = true;
     private boolean usesPersistor = false;
@@ -21,27 +45,129 @@ public class IntervalTreeConfiguration implements Externalizable {
     private IntervalValueComparator valueComparator = null;
     private IntervalFilter intervalFilter = null;
     private IntervalCollectionFactory factory = null;
+    private transient IntervalTreeMetrics metrics = null;
 
     @Override
     public void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeByte(FORMAT_MARKER);
+        out.writeByte(VERSION);
+
         out.writeBoolean(this.autoBalancing);
         out.writeBoolean(this.usesPersistor);
         out.writeBoolean(this.writingCollectionsToFile);
-        out.writeObject(this.valueComparator);
-        out.writeObject(this.intervalFilter);
+
+        if (this.valueComparator instanceof PredefinedComparator) {
+            writeReference(out, PredefinedComparator.class.cast(this.valueComparator).getId(), null, null);
+        } else {
+            writeReference(out, -1, IntervalTreeRegistry.getComparatorName(this.valueComparator), this.valueComparator);
+        }
+
+        if (this.intervalFilter instanceof PredefinedFilter) {
+            writeReference(out, PredefinedFilter.class.cast(this.intervalFilter).getId(), null, null);
+        } else {
+            writeReference(out, -1, IntervalTreeRegistry.getFilterName(this.intervalFilter), this.intervalFilter);
+        }
+
         out.writeObject(this.factory);
     }
 
+    protected void writeReference(final ObjectOutput out,
+                                  final int id,
+                                  final String name,
+                                  final Object instance) throws IOException {
+        if (id >= 0) {
+            out.writeByte(REF_PREDEFINED);
+            out.writeByte(id);
+        } else if (name != null) {
+            out.writeByte(REF_NAMED);
+            out.writeUTF(name);
+        } else if (instance != null) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Serializing '" + instance + "', consider registering it within the registry.");
+            }
+
+            out.writeByte(REF_SERIALIZED);
+            out.writeObject(instance);
+        } else {
+            out.writeByte(REF_NULL);
+        }
+    }
+
     @Override
     public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final int marker = in.readUnsignedByte();
+        if (marker != FORMAT_MARKER) {
+
+            // a configuration without version, the first byte is the flag of the auto-balancing
+            this.autoBalancing = marker != 0;
+            this.usesPersistor = in.readBoolean();
+            this.writingCollectionsToFile = in.readBoolean();
+            this.valueComparator = IntervalValueComparator.class.cast(in.readObject());
+            this.intervalFilter = IntervalFilter.class.cast(in.readObject());
+            this.factory = IntervalCollectionFactory.class.cast(in.readObject());
+            return;
+        }
+
+        final int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("The version '" + version + "' of the configuration is not supported.");
+        }
+
         this.autoBalancing = in.readBoolean();
         this.usesPersistor = in.readBoolean();
         this.writingCollectionsToFile = in.readBoolean();
-        this.valueComparator = IntervalValueComparator.class.cast(in.readObject());
-        this.intervalFilter = IntervalFilter.class.cast(in.readObject());
+
+        this.valueComparator = readComparator(in);
+        this.intervalFilter = readFilter(in);
         this.factory = IntervalCollectionFactory.class.cast(in.readObject());
     }
 
+    protected IntervalValueComparator readComparator(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final int type = in.readUnsignedByte();
+        if (type == REF_PREDEFINED) {
+            final int id = in.readUnsignedByte();
+            final IntervalValueComparator comparator = PredefinedComparator.byId(id);
+            if (comparator == null) {
+                throw new InvalidObjectException("The predefined comparator '" + id + "' is unknown.");
+            }
+            return comparator;
+        } else if (type == REF_NAMED) {
+            final String name = in.readUTF();
+            final IntervalValueComparator comparator = IntervalTreeRegistry.getComparator(name);
+            if (comparator == null) {
+                throw new InvalidObjectException("The comparator '" + name + "' is not registered.");
+            }
+            return comparator;
+        } else if (type == REF_SERIALIZED) {
+            return IntervalValueComparator.class.cast(in.readObject());
+        } else {
+            return null;
+        }
+    }
+
+    protected IntervalFilter readFilter(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final int type = in.readUnsignedByte();
+        if (type == REF_PREDEFINED) {
+            final int id = in.readUnsignedByte();
+            final IntervalFilter filter = PredefinedFilter.byId(id);
+            if (filter == null) {
+                throw new InvalidObjectException("The predefined filter '" + id + "' is unknown.");
+            }
+            return filter;
+        } else if (type == REF_NAMED) {
+            final String name = in.readUTF();
+            final IntervalFilter filter = IntervalTreeRegistry.getFilter(name);
+            if (filter == null) {
+                throw new InvalidObjectException("The filter '" + name + "' is not registered.");
+            }
+            return filter;
+        } else if (type == REF_SERIALIZED) {
+            return IntervalFilter.class.cast(in.readObject());
+        } else {
+            return null;
+        }
+    }
+
     public boolean isAutoBalancing() {
         return autoBalancing;
     }
@@ -94,4 +220,19 @@ public class IntervalTreeConfiguration implements Externalizable {
     public void setIntervalFilter(final IntervalFilter intervalFilter) {
         this.intervalFilter = intervalFilter;
     }
+
+    /**
+     * Gets the metrics collected by the trees using {@code this} configuration. The metrics are not persisted with the
+     * configuration, i.e., they have to be re-enabled when loading a tree (see {@link
+     * IntervalTreeBuilder#enableMetrics()}).
+     *
+     * @return the metrics, or {@code null} if no metrics are collected
+     */
+    public IntervalTreeMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(final IntervalTreeMetrics metrics) {
+        this.metrics = metrics;
+    }
 }
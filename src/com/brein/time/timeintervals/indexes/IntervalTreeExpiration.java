@@ -0,0 +1,121 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.utils.TimeUtils;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Expires the intervals of an {@link IntervalTree} incrementally in the background, i.e., all intervals ending before
+ * the bound provided by the {@code boundSupplier} are removed. Each step removes at most {@code maxNodesPerStep} nodes
+ * (see {@link IntervalTree#removeEndingBefore(Comparable, long)}), so that the time the tree is blocked is bounded.
+ * <p>
+ * The {@code IntervalTree} is not thread-safe. Each step synchronizes on the tree instance, thus any other access to
+ * the tree has to synchronize on the tree as well, while the expiration is running.
+ */
+public class IntervalTreeExpiration implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(IntervalTreeExpiration.class);
+
+    public static final long DEFAULT_MAX_NODES_PER_STEP = 1000L;
+    public static final long DEFAULT_PERIOD_IN_MS = 1000L;
+
+    private final IntervalTree tree;
+    private final Supplier<Comparable> boundSupplier;
+    private final long maxNodesPerStep;
+    private final long periodInMs;
+
+    private ScheduledExecutorService executor = null;
+
+    public IntervalTreeExpiration(final IntervalTree tree,
+                                  final Supplier<Comparable> boundSupplier) {
+        this(tree, boundSupplier, DEFAULT_MAX_NODES_PER_STEP, DEFAULT_PERIOD_IN_MS);
+    }
+
+    public IntervalTreeExpiration(final IntervalTree tree,
+                                  final Supplier<Comparable> boundSupplier,
+                                  final long maxNodesPerStep,
+                                  final long periodInMs) {
+        this.tree = tree;
+        this.boundSupplier = boundSupplier;
+        this.maxNodesPerStep = maxNodesPerStep;
+        this.periodInMs = periodInMs;
+    }
+
+    /**
+     * Creates an expiration for trees containing {@code TimestampInterval} instances (i.e., unix time-stamps in
+     * seconds), which removes all intervals ended more than {@code ttlInSeconds} ago.
+     *
+     * @param tree         the tree to expire the intervals of
+     * @param ttlInSeconds the time-to-live of an interval after it ended
+     *
+     * @return the created (not started) expiration
+     */
+    public static IntervalTreeExpiration timeToLive(final IntervalTree tree, final long ttlInSeconds) {
+        return new IntervalTreeExpiration(tree, () -> TimeUtils.now() - ttlInSeconds);
+    }
+
+    /**
+     * Executes one step of the expiration, i.e., removes at most {@code maxNodesPerStep} nodes ending before the
+     * current bound.
+     *
+     * @return the number of removed intervals
+     */
+    public long step() {
+        final Comparable bound = this.boundSupplier.get();
+
+        synchronized (this.tree) {
+            return this.tree.removeEndingBefore(bound, this.maxNodesPerStep);
+        }
+    }
+
+    public synchronized IntervalTreeExpiration start() {
+        if (this.executor == null) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                final Thread thread = new Thread(r, "interval-tree-expiration");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor.schedule(this::run, 0L, TimeUnit.MILLISECONDS);
+        }
+
+        return this;
+    }
+
+    public synchronized boolean isRunning() {
+        return this.executor != null && !this.executor.isShutdown();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    protected void run() {
+        long removed;
+        try {
+            removed = step();
+        } catch (final RuntimeException e) {
+            LOGGER.error("Failed to expire the intervals of the tree.", e);
+            removed = 0L;
+        }
+
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Expired " + removed + " interval(s).");
+        }
+
+        synchronized (this) {
+            if (this.executor != null && !this.executor.isShutdown()) {
+
+                // if we removed something there may be more to remove, so don't wait
+                this.executor.schedule(this::run, removed > 0L ? 0L : this.periodInMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,489 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.exceptions.FailedIO;
+import com.brein.time.timeintervals.collections.IntervalCollectionPersistor;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An indexed file format of an {@link IntervalTree}, which allows to load the nodes of the tree lazily. In contrast
+ * to {@link IntervalTreeBuilder#saveToFile(File, IntervalTree)}, each node is written as a separate record containing
+ * the offsets of the records of its children. When loading the file, only the root is read, the children of a node
+ * are read when accessed the first time. The max and height of the nodes are read from the file, i.e., they are not
+ * re-calculated when loading (the level is derived from the position, see {@link IntervalTreeNode#getLevel()}).
+ * <p>
+ * The file has the following layout (the records of the children are written before the record of their parent):
+ * <pre>
+ * magic (int), version (int), configuration (int length, bytes)
+ * records of the nodes (int length, bytes)
+ * size (long), number of nodes (long), offset of the root's record (long)
+ * </pre>
+ * The file stays opened as long as not all nodes are read, i.e., a loaded tree should not be modified on disk. The
+ * file is closed as soon as the tree (or all the trees split from it) is cleared or closed (see {@link
+ * IntervalTree#close()}), or all nodes are read.
+ */
+public class IntervalTreeFile {
+    private static final Logger LOGGER = Logger.getLogger(IntervalTreeFile.class);
+
+    public static final int MAGIC = 0x42544946;
+    public static final int VERSION = 2;
+    public static final long NO_NODE = -1L;
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int TRAILER_SIZE = 3 * Long.BYTES;
+
+    private static final byte TAG_LONG = 1;
+    private static final byte TAG_INTEGER = 2;
+    private static final byte TAG_DOUBLE = 3;
+    private static final byte TAG_OBJECT = 4;
+
+    private IntervalTreeFile() {
+        /*
+         * Utility classes, which are a collection of static members,
+         * are not meant to be instantiated.
+         */
+    }
+
+    /**
+     * Checks if the specified {@code file} is an indexed file, i.e., written by {@link #save(File, IntervalTree)}.
+     *
+     * @param file the file to check
+     *
+     * @return {@code true} if the file is an indexed file, otherwise {@code false}
+     *
+     * @throws FailedIO if the file cannot be read
+     */
+    public static boolean isIndexedFile(final File file) throws FailedIO {
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (final EOFException e) {
+            return false;
+        } catch (final IOException e) {
+            throw new FailedIO("Could not read the file: " + file, e);
+        }
+    }
+
+    public static void save(final File file, final IntervalTree tree) throws FailedIO {
+        final File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            if (!parent.mkdirs()) {
+                throw new FailedIO("Could not create parent directory: " + parent);
+            }
+        }
+
+        try (final FileOutputStream fos = new FileOutputStream(file, false);
+             final Writer writer = new Writer(new BufferedOutputStream(fos, 64 * 1024))) {
+            writer.writeInt(MAGIC);
+            writer.writeInt(VERSION);
+            writer.writeBytes(serialize(tree.getConfiguration()));
+
+            final long rootOffset = tree.getRoot() == null ? NO_NODE : writer.writeNode(tree.getRoot());
+
+            writer.writeLong(tree.determineSize());
+            writer.writeLong(writer.nodes);
+            writer.writeLong(rootOffset);
+        } catch (final IOException e) {
+            throw new FailedIO("Could not save the tree to the file: " + file, e);
+        }
+    }
+
+    /**
+     * Loads the tree from the indexed {@code file}, only the root of the tree is read.
+     *
+     * @param file      the file to load the tree from
+     * @param persistor the persistor to be used, can be {@code null}
+     * @param metrics   the metrics to be used, can be {@code null}
+     *
+     * @return the loaded tree
+     *
+     * @throws FailedIO if the file cannot be read
+     */
+    public static IntervalTree load(final File file,
+                                    final IntervalCollectionPersistor persistor,
+                                    final IntervalTreeMetrics metrics) throws FailedIO {
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+
+            final DataInput header = new DataInputStream(new ByteArrayInputStream(read(channel, 0L, HEADER_SIZE)));
+            if (header.readInt() != MAGIC) {
+                throw new FailedIO("The file is not an indexed file of a tree: " + file);
+            }
+            final int version = header.readInt();
+            if (version != VERSION) {
+                throw new FailedIO("The version '" + version + "' of the file is not supported: " + file);
+            }
+
+            final IntervalTreeConfiguration configuration = new IntervalTreeConfiguration();
+            try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(
+                    readRecord(channel, HEADER_SIZE)))) {
+                configuration.readExternal(ois);
+            }
+            configuration.setPersistor(persistor);
+            configuration.setMetrics(metrics);
+
+            final DataInput trailer = new DataInputStream(new ByteArrayInputStream(
+                    read(channel, channel.size() - TRAILER_SIZE, TRAILER_SIZE)));
+            final long size = trailer.readLong();
+            final long nodes = trailer.readLong();
+            final long rootOffset = trailer.readLong();
+
+            final IntervalTree tree = new IntervalTree();
+            tree.setConfiguration(configuration);
+
+            if (rootOffset == NO_NODE) {
+                channel.close();
+                tree.load(null, size, null);
+            } else {
+                final NodeSource source = new NodeSource(file, channel, configuration, nodes);
+                tree.load(source.read(rootOffset), size, source);
+            }
+
+            return tree;
+        } catch (final IOException | ClassNotFoundException e) {
+            close(channel);
+            throw new FailedIO("Could not load the tree from the file: " + file, e);
+        } catch (final RuntimeException e) {
+            close(channel);
+            throw e;
+        }
+    }
+
+    protected static void writeValue(final DataOutput out, final Comparable value) throws IOException {
+        if (value instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong(Long.class.cast(value));
+        } else if (value instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt(Integer.class.cast(value));
+        } else if (value instanceof Double) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble(Double.class.cast(value));
+        } else {
+            final byte[] bytes = serialize(value);
+            out.writeByte(TAG_OBJECT);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    protected static Comparable readValue(final DataInput in) throws IOException, ClassNotFoundException {
+        final byte tag = in.readByte();
+        switch (tag) {
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_INTEGER:
+                return in.readInt();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_OBJECT:
+                return Comparable.class.cast(deserialize(in));
+            default:
+                throw new IOException("Invalid tag of a value: " + tag);
+        }
+    }
+
+    protected static byte[] serialize(final Object obj) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+            if (obj instanceof IntervalTreeConfiguration) {
+                IntervalTreeConfiguration.class.cast(obj).writeExternal(oos);
+            } else {
+                oos.writeObject(obj);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    protected static Object deserialize(final DataInput in) throws IOException, ClassNotFoundException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+
+        try (final ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        }
+    }
+
+    protected static byte[] readRecord(final FileChannel channel, final long offset) throws IOException {
+        final int length = ByteBuffer.wrap(read(channel, offset, Integer.BYTES)).getInt();
+        return read(channel, offset + Integer.BYTES, length);
+    }
+
+    protected static byte[] read(final FileChannel channel, final long offset, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        long pos = offset;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, pos);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of the file at position " + pos);
+            }
+            pos += read;
+        }
+
+        return buffer.array();
+    }
+
+    protected static void close(final FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            LOGGER.warn("Could not close the file of the tree.", e);
+        }
+    }
+
+    /**
+     * Writes the records and keeps track of the current offset within the file.
+     */
+    protected static class Writer implements Closeable {
+        private final CountingOutputStream counter;
+        private final DataOutputStream out;
+
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+        private final DataOutputStream recordOut = new DataOutputStream(this.record);
+
+        private long nodes = 0L;
+
+        public Writer(final OutputStream out) {
+            this.counter = new CountingOutputStream(out);
+            this.out = new DataOutputStream(this.counter);
+        }
+
+        public void writeInt(final int value) throws IOException {
+            this.out.writeInt(value);
+        }
+
+        public void writeLong(final long value) throws IOException {
+            this.out.writeLong(value);
+        }
+
+        public void writeBytes(final byte[] bytes) throws IOException {
+            this.out.writeInt(bytes.length);
+            this.out.write(bytes);
+        }
+
+        /**
+         * Writes the records of the sub-tree of the {@code node}, i.e., first the records of the children and
+         * afterwards the one of the {@code node}.
+         *
+         * @param node the root of the sub-tree to write
+         *
+         * @return the offset of the {@code node}'s record
+         */
+        public long writeNode(final IntervalTreeNode node) throws IOException {
+            final long leftOffset = node.hasLeft() ? writeNode(node.getLeft()) : NO_NODE;
+            final long rightOffset = node.hasRight() ? writeNode(node.getRight()) : NO_NODE;
+
+            this.record.reset();
+            node.writeRecord(this.recordOut, leftOffset, rightOffset);
+            this.recordOut.flush();
+
+            final long offset = this.counter.count;
+            this.out.writeInt(this.record.size());
+            this.record.writeTo(this.out);
+            this.nodes++;
+
+            return offset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.out.close();
+        }
+    }
+
+    protected static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0L;
+
+        public CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+    }
+
+    /**
+     * The source of the nodes of a lazily loaded tree. The file is closed as soon as all nodes are read, or no tree
+     * uses the source anymore (see {@link #release()}).
+     */
+    public static class NodeSource implements Closeable {
+        private final File file;
+        private final FileChannel channel;
+        private final IntervalTreeConfiguration configuration;
+
+        private long remaining;
+        private int references = 1;
+
+        protected NodeSource(final File file,
+                             final FileChannel channel,
+                             final IntervalTreeConfiguration configuration,
+                             final long nodes) {
+            this.file = file;
+            this.channel = channel;
+            this.configuration = configuration;
+            this.remaining = nodes;
+        }
+
+        /**
+         * Reads the node with the record at the specified {@code offset}, the children of the node are not read.
+         *
+         * @param offset the offset of the node's record
+         *
+         * @return the read node
+         *
+         * @throws FailedIO if the node cannot be read
+         */
+        public synchronized IntervalTreeNode read(final long offset) throws FailedIO {
+            if (!this.channel.isOpen()) {
+                throw new FailedIO("The file of the tree is already closed: " + this.file);
+            }
+
+            final IntervalTreeNode node = new IntervalTreeNode();
+            node.setConfiguration(this.configuration);
+
+            try {
+                final byte[] record = readRecord(this.channel, offset);
+                node.readRecord(new DataInputStream(new ByteArrayInputStream(record)), this);
+            } catch (final IOException | ClassNotFoundException e) {
+                IntervalTreeFile.close(this.channel);
+                throw new FailedIO("Could not read the node at " + offset + " from the file: " + this.file, e);
+            }
+
+            final IntervalTreeMetrics metrics = this.configuration.getMetrics();
+            if (metrics != null) {
+                metrics.nodeLoad();
+            }
+
+            if (--this.remaining <= 0L) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("All nodes are read, closing the file: " + this.file);
+                }
+                IntervalTreeFile.close(this.channel);
+            }
+
+            return node;
+        }
+
+        public synchronized long getRemaining() {
+            return this.remaining;
+        }
+
+        public boolean isOpen() {
+            return this.channel.isOpen();
+        }
+
+        /**
+         * Marks the source to be used by another tree, e.g., a tree created by splitting the loaded tree.
+         */
+        public synchronized void retain() {
+            this.references++;
+        }
+
+        /**
+         * Releases the source used by a tree, the file is closed if no tree uses the source anymore.
+         */
+        public synchronized void release() {
+            if (--this.references <= 0) {
+                close();
+            }
+        }
+
+        /**
+         * Closes the file, i.e., the nodes not read yet cannot be read anymore.
+         */
+        @Override
+        public synchronized void close() {
+            IntervalTreeFile.close(this.channel);
+        }
+    }
+
+    /**
+     * The offsets of the children of a node, which are not read yet.
+     */
+    public static class LazyChildren {
+        private final NodeSource source;
+        private long left;
+        private long right;
+
+        public LazyChildren(final NodeSource source, final long left, final long right) {
+            this.source = source;
+            this.left = left;
+            this.right = right;
+        }
+
+        public boolean has(final IntervalTreeNodeChildType childType) {
+            return get(childType) != NO_NODE;
+        }
+
+        public boolean isEmpty() {
+            return this.left == NO_NODE && this.right == NO_NODE;
+        }
+
+        /**
+         * Reads the child of the specified type, the offset is removed afterwards.
+         *
+         * @param childType the type of the child to read
+         *
+         * @return the read child
+         */
+        public IntervalTreeNode read(final IntervalTreeNodeChildType childType) throws FailedIO {
+            final IntervalTreeNode node = this.source.read(get(childType));
+            clear(childType);
+
+            return node;
+        }
+
+        public void clear(final IntervalTreeNodeChildType childType) {
+            if (IntervalTreeNodeChildType.LEFT.equals(childType)) {
+                this.left = NO_NODE;
+            } else if (IntervalTreeNodeChildType.RIGHT.equals(childType)) {
+                this.right = NO_NODE;
+            }
+        }
+
+        protected long get(final IntervalTreeNodeChildType childType) {
+            if (IntervalTreeNodeChildType.LEFT.equals(childType)) {
+                return this.left;
+            } else if (IntervalTreeNodeChildType.RIGHT.equals(childType)) {
+                return this.right;
+            } else {
+                return NO_NODE;
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.brein.time.timeintervals.indexes;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics collected by an {@link IntervalTree}, i.e., the latency of the operations (see {@link Operation}), the
+ * number of rotations and the level of the rotated nodes (i.e., the depth of the re-balancing), the number of visited
+ * nodes, the number of collections loaded from the {@code IntervalCollectionFactory} (e.g., from a persistor), and
+ * the number of nodes read lazily from an indexed file (see {@link IntervalTreeFile}). Collections held by weak
+ * references (see {@code IntervalCollectionFactory#useWeakReferences()}) count as cache hit if the reference is still
+ * available, otherwise as cache miss.
+ * <p>
+ * The metrics are only collected if enabled (see {@link IntervalTreeBuilder#enableMetrics()}), otherwise the tree
+ * just checks the metrics of its configuration for {@code null}. The counters are based on {@link LongAdder}
+ * instances, thus the instance can be shared among several trees (e.g., the partitions of a {@link
+ * PartitionedIntervalTree}) and used from several threads. A consistent view of the metrics is retrieved using
+ * {@link #snapshot()}.
+ */
+public class IntervalTreeMetrics {
+
+    public enum Operation {
+        ADD,
+        REMOVE,
+        FIND,
+        OVERLAP
+    }
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Histogram rebalanceDepth = new Histogram();
+
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder nodeVisits = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder collectionLoads = new LongAdder();
+    private final LongAdder nodeLoads = new LongAdder();
+
+    public IntervalTreeMetrics() {
+        for (final Operation operation : Operation.values()) {
+            this.latencies.put(operation, new Histogram());
+        }
+    }
+
+    /**
+     * Records the latency of the {@code operation}, which started at {@code startNanos} (see {@link
+     * System#nanoTime()}).
+     *
+     * @param operation  the operation to record the latency for
+     * @param startNanos the start of the operation
+     */
+    public void record(final Operation operation, final long startNanos) {
+        this.latencies.get(operation).record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a rotation of a node at the specified {@code level}.
+     *
+     * @param level the level of the rotated node, i.e., {@code 0} for the root
+     */
+    public void rotation(final long level) {
+        this.rotations.increment();
+        this.rebalanceDepth.record(level);
+    }
+
+    public void visit() {
+        this.nodeVisits.increment();
+    }
+
+    public void cacheHit() {
+        this.cacheHits.increment();
+    }
+
+    public void cacheMiss() {
+        this.cacheMisses.increment();
+    }
+
+    public void collectionLoad() {
+        this.collectionLoads.increment();
+    }
+
+    public void nodeLoad() {
+        this.nodeLoads.increment();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    public void reset() {
+        this.latencies.values().forEach(Histogram::reset);
+        this.rebalanceDepth.reset();
+
+        this.rotations.reset();
+        this.nodeVisits.reset();
+        this.cacheHits.reset();
+        this.cacheMisses.reset();
+        this.collectionLoads.reset();
+        this.nodeLoads.reset();
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+
+    /**
+     * An immutable view of the metrics at the time of creation.
+     */
+    public static class Snapshot {
+        private final Map<Operation, HistogramSnapshot> latencies = new EnumMap<>(Operation.class);
+        private final HistogramSnapshot rebalanceDepth;
+
+        private final long rotations;
+        private final long nodeVisits;
+        private final long cacheHits;
+        private final long cacheMisses;
+        private final long collectionLoads;
+        private final long nodeLoads;
+
+        protected Snapshot(final IntervalTreeMetrics metrics) {
+            metrics.latencies.forEach((operation, histogram) -> this.latencies.put(operation, histogram.snapshot()));
+            this.rebalanceDepth = metrics.rebalanceDepth.snapshot();
+
+            this.rotations = metrics.rotations.sum();
+            this.nodeVisits = metrics.nodeVisits.sum();
+            this.cacheHits = metrics.cacheHits.sum();
+            this.cacheMisses = metrics.cacheMisses.sum();
+            this.collectionLoads = metrics.collectionLoads.sum();
+            this.nodeLoads = metrics.nodeLoads.sum();
+        }
+
+        public long getCount(final Operation operation) {
+            return getLatency(operation).getCount();
+        }
+
+        /**
+         * Gets the latencies (in nanoseconds) recorded for the {@code operation}.
+         *
+         * @param operation the operation to get the latencies for
+         *
+         * @return the latencies of the operation
+         */
+        public HistogramSnapshot getLatency(final Operation operation) {
+            return this.latencies.get(operation);
+        }
+
+        /**
+         * Gets the levels of the rotated nodes, i.e., a rotation at the root is recorded as {@code 0}.
+         *
+         * @return the levels of the rotated nodes
+         */
+        public HistogramSnapshot getRebalanceDepth() {
+            return this.rebalanceDepth;
+        }
+
+        public long getRotations() {
+            return this.rotations;
+        }
+
+        public long getNodeVisits() {
+            return this.nodeVisits;
+        }
+
+        public long getCacheHits() {
+            return this.cacheHits;
+        }
+
+        public long getCacheMisses() {
+            return this.cacheMisses;
+        }
+
+        public long getCollectionLoads() {
+            return this.collectionLoads;
+        }
+
+        public long getNodeLoads() {
+            return this.nodeLoads;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            this.latencies.forEach((operation, latency) -> sb
+                    .append(operation).append(": ").append(latency).append(", "));
+
+            return sb
+                    .append("rotations: ").append(this.rotations).append(", ")
+                    .append("rebalanceDepth: ").append(this.rebalanceDepth).append(", ")
+                    .append("nodeVisits: ").append(this.nodeVisits).append(", ")
+                    .append("cacheHits: ").append(this.cacheHits).append(", ")
+                    .append("cacheMisses: ").append(this.cacheMisses).append(", ")
+                    .append("collectionLoads: ").append(this.collectionLoads).append(", ")
+                    .append("nodeLoads: ").append(this.nodeLoads)
+                    .toString();
+        }
+    }
+
+    /**
+     * A histogram of non-negative values with a fixed relative precision, i.e., the values are recorded within buckets
+     * growing by powers of two, each bucket is divided linearly into {@code 16} sub-buckets (comparable to the
+     * buckets of an {@code HdrHistogram} with one significant digit). Thus, the value reported for a percentile is at
+     * most about {@code 6%} larger than the recorded one, whereby values smaller than {@code 16} are exact.
+     */
+    public static class Histogram {
+        protected static final int SUB_BUCKET_BITS = 4;
+        protected static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        protected static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+        public void record(final long value) {
+            final long normValue = Math.max(0L, value);
+
+            this.counts.incrementAndGet(index(normValue));
+            this.sum.add(normValue);
+            this.max.accumulate(normValue);
+        }
+
+        public HistogramSnapshot snapshot() {
+            final long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = this.counts.get(i);
+            }
+
+            return new HistogramSnapshot(counts, this.sum.sum(), this.max.get());
+        }
+
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                this.counts.set(i, 0L);
+            }
+            this.sum.reset();
+            this.max.reset();
+        }
+
+        protected static int index(final long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+
+            final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            final int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+            return (shift + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * Determines the largest value recorded within the bucket of the specified {@code index}.
+         *
+         * @param index the index of the bucket
+         *
+         * @return the largest value of the bucket
+         */
+        protected static long highestValue(final int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+
+            final int shift = index / SUB_BUCKETS - 1;
+            final long subBucket = index % SUB_BUCKETS;
+            return ((SUB_BUCKETS + subBucket) << shift) + (1L << shift) - 1L;
+        }
+    }
+
+    public static class HistogramSnapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        protected HistogramSnapshot(final long[] counts, final long sum, final long max) {
+            long count = 0L;
+            for (final long bucketCount : counts) {
+                count += bucketCount;
+            }
+
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return this.count;
+        }
+
+        public long getMax() {
+            return this.max;
+        }
+
+        public double getMean() {
+            return this.count == 0L ? 0.0 : (double) this.sum / this.count;
+        }
+
+        /**
+         * Gets the value at the specified {@code percentile}, i.e., the smallest recorded value (within the precision
+         * of the histogram) such that {@code percentile} percent of the recorded values are smaller or equal.
+         *
+         * @param percentile the percentile within {@code [0, 100]}
+         *
+         * @return the value at the percentile, {@code 0} if nothing was recorded
+         */
+        public long getValueAtPercentile(final double percentile) {
+            if (this.count == 0L) {
+                return 0L;
+            }
+
+            final double normPercentile = Math.min(100.0, Math.max(0.0, percentile));
+            final long threshold = Math.max(1L, (long) Math.ceil(normPercentile / 100.0 * this.count));
+
+            long count = 0L;
+            for (int i = 0; i < this.counts.length; i++) {
+                count += this.counts[i];
+                if (count >= threshold) {
+                    return Math.min(this.max, Histogram.highestValue(i));
+                }
+            }
+
+            return this.max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("{count: %d, mean: %.1f, p50: %d, p99: %d, max: %d}",
+                    this.count, getMean(), getValueAtPercentile(50.0), getValueAtPercentile(99.0), this.max);
+        }
+    }
+}
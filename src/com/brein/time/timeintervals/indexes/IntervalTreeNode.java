@@ -8,6 +8,8 @@ import com.brein.time.timeintervals.collections.UnmodifiableIntervalCollection;
 import com.brein.time.timeintervals.filters.IntervalFilter;
 import com.brein.time.timeintervals.intervals.IInterval;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -19,7 +21,11 @@ import java.util.Objects;
 
 public class IntervalTreeNode extends IntervalTreeNodeContext
         implements Externalizable, Iterable<IInterval>, Comparable<IntervalTreeNode> {
+    private static final long serialVersionUID = -3428979909794714689L;
+
     private transient WeakReference<IntervalCollection> referenceCollection;
+    // the children not read yet, which are read once by the first reader (see materialize)
+    private transient volatile IntervalTreeFile.LazyChildren lazyChildren;
     private IntervalCollection collection;
 
     private String key;
@@ -27,7 +33,6 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
     private Comparable end;
 
     private Comparable max;
-    private long level;
     private long height;
 
     private IntervalTreeConfiguration configuration;
@@ -38,7 +43,6 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         this.max = interval.getNormEnd();
         this.key = interval.getUniqueIdentifier();
 
-        this.level = 0L;
         this.height = 1L;
     }
 
@@ -54,33 +58,38 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         return max;
     }
 
+    /**
+     * Sets the max of {@code this} node, the max of the parent is not modified, i.e., it is the responsibility of the
+     * caller to update the ancestors (see {@link #updateMax()}), which is typically done while returning from the
+     * recursion modifying the tree (see {@link #setChild(IntervalTreeNode, IntervalTreeNodeChildType)}).
+     *
+     * @param max the new max
+     */
     public void setMax(final Comparable max) {
-        if (compare(this.max, max) == 0) {
-            return;
-        }
         this.max = max;
-
-        if (hasParent()) {
-            getParent().updateMax();
-        }
     }
 
+    /**
+     * Determines the level of {@code this} node, i.e., the number of ancestors ({@code 0} for the root). The level is
+     * not stored within the node (keeping it up-to-date would mean to modify the whole sub-tree with each rotation),
+     * instead it is derived by walking up to the root, i.e., it needs {@code O(log n)} steps. A parent, which does not
+     * have {@code this} node as child (e.g., the former parent of a detached node) ends the walk.
+     *
+     * @return the level of {@code this} node
+     */
     public long getLevel() {
-        return level;
-    }
+        long level = 0L;
 
-    public void setLevel(final long level) {
-        if (this.level == level) {
-            return;
-        }
-        this.level = level;
+        IntervalTreeNode node = this;
+        IntervalTreeNode parent = node.getParent();
+        while (parent != null && parent.isChild(node)) {
+            level++;
 
-        if (hasLeft()) {
-            getLeft().setLevel(level + 1);
-        }
-        if (hasRight()) {
-            getRight().setLevel(level + 1);
+            node = parent;
+            parent = node.getParent();
         }
+
+        return level;
     }
 
     @SuppressWarnings("unchecked")
@@ -107,15 +116,14 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         return height;
     }
 
+    /**
+     * Sets the height of {@code this} node, the height of the parent is not modified (see {@link
+     * #setMax(Comparable)}).
+     *
+     * @param height the new height
+     */
     public void setHeight(final long height) {
-        if (this.height == height) {
-            return;
-        }
         this.height = height;
-
-        if (hasParent()) {
-            getParent().updateHeight();
-        }
     }
 
     public void updateHeight() {
@@ -182,6 +190,80 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         return this.configuration.getValueComparator().compare(val1, val2);
     }
 
+    @Override
+    public IntervalTreeNode getLeft() {
+        if (this.lazyChildren != null) {
+            materialize(IntervalTreeNodeChildType.LEFT);
+        }
+
+        return super.getLeft();
+    }
+
+    @Override
+    public IntervalTreeNode getRight() {
+        if (this.lazyChildren != null) {
+            materialize(IntervalTreeNodeChildType.RIGHT);
+        }
+
+        return super.getRight();
+    }
+
+    @Override
+    public boolean hasLeft() {
+        return hasLazyChild(IntervalTreeNodeChildType.LEFT) || super.hasLeft();
+    }
+
+    @Override
+    public boolean hasRight() {
+        return hasLazyChild(IntervalTreeNodeChildType.RIGHT) || super.hasRight();
+    }
+
+    /**
+     * Checks if the child of the specified type is not read yet. The check waits for a concurrent {@link
+     * #materialize(IntervalTreeNodeChildType)}, i.e., if it is checked before the attached children, a child is
+     * always found, either as not read yet or as attached child.
+     *
+     * @param childType the type of the child to check
+     *
+     * @return {@code true} if the child exists, but is not read yet, otherwise {@code false}
+     */
+    protected boolean hasLazyChild(final IntervalTreeNodeChildType childType) {
+        if (this.lazyChildren == null) {
+            return false;
+        }
+
+        synchronized (this) {
+            return this.lazyChildren != null && this.lazyChildren.has(childType);
+        }
+    }
+
+    /**
+     * Reads the not yet loaded child of the specified type (see {@link IntervalTreeFile}), if it is not read yet. The
+     * child is attached without re-calculating the max or height, i.e., the values read from the file are trusted.
+     * Concurrent readers are synchronized on {@code this} node, i.e., read-only queries of a lazily loaded tree are
+     * thread-safe (as they are for any other tree), and each child is read once.
+     *
+     * @param childType the type of the child to read
+     */
+    protected synchronized void materialize(final IntervalTreeNodeChildType childType) {
+        if (this.lazyChildren == null || !this.lazyChildren.has(childType)) {
+            return;
+        }
+
+        final IntervalTreeNode child = this.lazyChildren.read(childType);
+        child.setParent(this);
+
+        if (IntervalTreeNodeChildType.LEFT.equals(childType)) {
+            super.setLeft(child);
+        } else {
+            super.setRight(child);
+        }
+
+        if (this.lazyChildren.isEmpty()) {
+            this.lazyChildren = null;
+        }
+    }
+
     @Override
     public void setLeft(final IntervalTreeNode left) {
         setChild(left, IntervalTreeNodeChildType.LEFT);
@@ -195,10 +277,16 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
     @Override
     public String toString() {
         return String.format("[%s, %s] (max: %s, count: %d, level: %d, height: %d)",
-                this.start, this.end, this.max, getCollection().size(), this.level, this.height);
+                this.start, this.end, this.max, getCollection().size(), getLevel(), this.height);
     }
 
     protected void setChild(final IntervalTreeNode node, final IntervalTreeNodeChildType childType) {
+
+        // a not yet loaded child is replaced, so it is never loaded
+        if (this.lazyChildren != null) {
+            this.lazyChildren.clear(childType);
+        }
+
         if (IntervalTreeNodeChildType.LEFT.equals(childType)) {
             super.setLeft(node);
         } else if (IntervalTreeNodeChildType.RIGHT.equals(childType)) {
@@ -208,9 +296,9 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         // set the new parent
         if (node != null) {
             node.setParent(this);
-            node.setLevel(this.level + 1);
         }
 
+        // the ancestors are updated by the caller, i.e., once per ancestor and modification
         updateMax();
         updateHeight();
     }
@@ -238,7 +326,6 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         this.setLeft(null);
         this.setRight(null);
         this.max = end;
-        this.level = 0L;
 
         return ctx;
     }
@@ -305,7 +392,7 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         out.writeObject(this.start);
         out.writeObject(this.end);
         out.writeObject(this.max);
-        out.writeLong(this.level);
+        out.writeLong(getLevel());
         out.writeLong(this.height);
 
         if (this.configuration.isWritingCollectionsToFile()) {
@@ -334,7 +421,9 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         this.start = Comparable.class.cast(in.readObject());
         this.end = Comparable.class.cast(in.readObject());
         this.max = Comparable.class.cast(in.readObject());
-        this.level = in.readLong();
+
+        // the level is kept for compatibility, it is derived from the position within the tree
+        in.readLong();
         this.height = in.readLong();
 
         if (this.configuration.isWritingCollectionsToFile()) {
@@ -345,6 +434,60 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
         readChild(in, IntervalTreeNodeChildType.RIGHT);
     }
 
+    /**
+     * Writes the record of {@code this} node to an indexed file (see {@link IntervalTreeFile}).
+     *
+     * @param out         the output to write to
+     * @param leftOffset  the offset of the left child's record, {@link IntervalTreeFile#NO_NODE} if there is none
+     * @param rightOffset the offset of the right child's record, {@link IntervalTreeFile#NO_NODE} if there is none
+     */
+    protected void writeRecord(final DataOutput out,
+                               final long leftOffset,
+                               final long rightOffset) throws IOException {
+        out.writeUTF(this.key);
+        IntervalTreeFile.writeValue(out, this.start);
+        IntervalTreeFile.writeValue(out, this.end);
+        IntervalTreeFile.writeValue(out, this.max);
+        out.writeLong(this.height);
+
+        if (this.configuration.isWritingCollectionsToFile()) {
+            final IntervalCollection collection = ObservableIntervalCollection.class.isInstance(this.collection) ?
+                    ObservableIntervalCollection.class.cast(this.collection).getWrappedCollection() :
+                    this.collection;
+            final byte[] bytes = IntervalTreeFile.serialize(collection);
+
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        out.writeLong(leftOffset);
+        out.writeLong(rightOffset);
+    }
+
+    /**
+     * Reads the record of {@code this} node from an indexed file (see {@link IntervalTreeFile}), the children are
+     * read when accessed.
+     *
+     * @param in     the input to read from
+     * @param source the source to read the children from
+     */
+    protected void readRecord(final DataInput in,
+                              final IntervalTreeFile.NodeSource source) throws IOException, ClassNotFoundException {
+        this.key = in.readUTF();
+        this.start = IntervalTreeFile.readValue(in);
+        this.end = IntervalTreeFile.readValue(in);
+        this.max = IntervalTreeFile.readValue(in);
+        this.height = in.readLong();
+
+        if (this.configuration.isWritingCollectionsToFile()) {
+            this.collection = wrapCollection(IntervalCollection.class.cast(IntervalTreeFile.deserialize(in)));
+        }
+
+        final IntervalTreeFile.LazyChildren lazyChildren =
+                new IntervalTreeFile.LazyChildren(source, in.readLong(), in.readLong());
+        this.lazyChildren = lazyChildren.isEmpty() ? null : lazyChildren;
+    }
+
     protected void writeChild(final ObjectOutput out,
                               final IntervalTreeNodeChildType type) throws IOException {
         if (hasChild(type)) {
@@ -382,22 +525,34 @@ public class IntervalTreeNode extends IntervalTreeNodeContext
             return this.collection;
         }
 
+        final IntervalTreeMetrics metrics = this.configuration.getMetrics();
         if (factory.useWeakReferences()) {
             if (this.referenceCollection != null) {
                 final IntervalCollection reference = this.referenceCollection.get();
 
                 if (reference != null) {
+                    if (metrics != null) {
+                        metrics.cacheHit();
+                    }
 
                     // we have a reference, which contains whatever we need
                     return reference;
                 }
             }
+
+            if (metrics != null) {
+                metrics.cacheMiss();
+            }
         } else {
 
             // this.collection must be null at this point
             assert this.collection == null;
         }
 
+        if (metrics != null) {
+            metrics.collectionLoad();
+        }
+
         // get the value from the factory
         return wrapCollection(factory.load(this.key));
     }
@@ -0,0 +1,119 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.filters.PredefinedFilter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A registry of named comparators and filters. When a configuration is saved (see {@link IntervalTreeConfiguration}),
+ * a {@link PredefinedComparator} or {@link PredefinedFilter} is written as its id, a comparator or filter registered
+ * here is written as its name, and only any other instance is serialized. Thus, an application using its own
+ * comparator or filter should register it (e.g., when starting up) before saving or loading a tree, so that the saved
+ * trees do not depend on the serialized form of a lambda.
+ */
+public class IntervalTreeRegistry {
+    private static final Map<String, IntervalValueComparator> COMPARATORS = new ConcurrentHashMap<>();
+    private static final Map<String, IntervalFilter> FILTERS = new ConcurrentHashMap<>();
+
+    private IntervalTreeRegistry() {
+        /*
+         * Utility classes, which are a collection of static members,
+         * are not meant to be instantiated.
+         */
+    }
+
+    /**
+     * Registers the {@code comparator} with the specified {@code name}, an already registered comparator with the
+     * same name is replaced.
+     *
+     * @param name       the name of the comparator
+     * @param comparator the comparator to register
+     *
+     * @throws IllegalArgumentException if the name is the name of a {@link PredefinedComparator}
+     */
+    public static void registerComparator(final String name,
+                                          final IntervalValueComparator comparator) throws IllegalArgumentException {
+        if (PredefinedComparator.byName(name) != null) {
+            throw new IllegalArgumentException("The name '" + name + "' is reserved for a predefined comparator.");
+        }
+
+        COMPARATORS.put(name, comparator);
+    }
+
+    /**
+     * Registers the {@code filter} with the specified {@code name}, an already registered filter with the same name
+     * is replaced.
+     *
+     * @param name   the name of the filter
+     * @param filter the filter to register
+     *
+     * @throws IllegalArgumentException if the name is the name of a {@link PredefinedFilter}
+     */
+    public static void registerFilter(final String name,
+                                      final IntervalFilter filter) throws IllegalArgumentException {
+        if (PredefinedFilter.byName(name) != null) {
+            throw new IllegalArgumentException("The name '" + name + "' is reserved for a predefined filter.");
+        }
+
+        FILTERS.put(name, filter);
+    }
+
+    public static IntervalValueComparator getComparator(final String name) {
+        final PredefinedComparator predefined = PredefinedComparator.byName(name);
+        return predefined == null ? COMPARATORS.get(name) : predefined;
+    }
+
+    public static IntervalFilter getFilter(final String name) {
+        final PredefinedFilter predefined = PredefinedFilter.byName(name);
+        return predefined == null ? FILTERS.get(name) : predefined;
+    }
+
+    /**
+     * Determines the name of the {@code comparator}, i.e., the name of a {@link PredefinedComparator} or the name
+     * the instance was registered with.
+     *
+     * @param comparator the comparator to determine the name for
+     *
+     * @return the name, or {@code null} if the comparator is neither predefined nor registered
+     */
+    public static String getComparatorName(final IntervalValueComparator comparator) {
+        if (comparator instanceof PredefinedComparator) {
+            return PredefinedComparator.class.cast(comparator).getName();
+        }
+
+        return getName(COMPARATORS, comparator);
+    }
+
+    /**
+     * Determines the name of the {@code filter}, i.e., the name of a {@link PredefinedFilter} or the name the
+     * instance was registered with.
+     *
+     * @param filter the filter to determine the name for
+     *
+     * @return the name, or {@code null} if the filter is neither predefined nor registered
+     */
+    public static String getFilterName(final IntervalFilter filter) {
+        if (filter instanceof PredefinedFilter) {
+            return PredefinedFilter.class.cast(filter).getName();
+        }
+
+        return getName(FILTERS, filter);
+    }
+
+    protected static <T> String getName(final Map<String, T> registry, final T instance) {
+        if (instance == null) {
+            return null;
+        }
+
+        // the instances are compared by identity, lambdas do not implement equals
+        for (final Map.Entry<String, T> entry : registry.entrySet()) {
+            if (entry.getValue() == instance) {
+                return entry.getKey();
+            }
+        }
+
+        return null;
+    }
+}
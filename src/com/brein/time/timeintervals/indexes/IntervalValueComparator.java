@@ -3,7 +3,6 @@ package com.brein.time.timeintervals.indexes;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
 
 @FunctionalInterface
 public interface IntervalValueComparator extends Serializable {
@@ -19,50 +18,97 @@ public interface IntervalValueComparator extends Serializable {
     );
 
     static int compareLongs(final Object o1, final Object o2) {
-        if (!Long.class.isAssignableFrom(o1.getClass()) || !Long.class.isAssignableFrom(o2.getClass())) {
+        if (o1.getClass() != Long.class || o2.getClass() != Long.class) {
             throw new IllegalArgumentException(String.format(ERROR_MSG, o1, o1.getClass(), o2, o2.getClass()));
         } else {
-            return Long.class.cast(o1).compareTo(Long.class.cast(o2));
+            return Long.compare((Long) o1, (Long) o2);
         }
     }
 
     static int compareInts(final Object o1, final Object o2) {
-        if (!Integer.class.isAssignableFrom(o1.getClass()) || !Integer.class.isAssignableFrom(o2.getClass())) {
+        if (o1.getClass() != Integer.class || o2.getClass() != Integer.class) {
             throw new IllegalArgumentException(String.format(ERROR_MSG, o1, o1.getClass(), o2, o2.getClass()));
         } else {
-            return Integer.class.cast(o1).compareTo(Integer.class.cast(o2));
+            return Integer.compare((Integer) o1, (Integer) o2);
         }
     }
 
     static int compareDoubles(final Object o1, final Object o2) {
-        if (!Double.class.isAssignableFrom(o1.getClass()) || !Double.class.isAssignableFrom(o2.getClass())) {
+        if (o1.getClass() != Double.class || o2.getClass() != Double.class) {
             throw new IllegalArgumentException(String.format(ERROR_MSG, o1, o1.getClass(), o2, o2.getClass()));
         } else {
-            return Double.class.cast(o1).compareTo(Double.class.cast(o2));
+            return Double.compare((Double) o1, (Double) o2);
         }
     }
 
+    @SuppressWarnings("unchecked")
     static int compareNumbers(final Object o1, final Object o2) {
+        final Class<?> clazz1 = o1.getClass();
+        final Class<?> clazz2 = o2.getClass();
 
-        if (!Number.class.isAssignableFrom(o1.getClass()) || !Number.class.isAssignableFrom(o2.getClass())) {
-            throw new IllegalArgumentException(String.format(ERROR_MSG, o1, o1.getClass(), o2, o2.getClass()));
-        } else if (Comparable.class.isAssignableFrom(o1.getClass()) && o1.getClass().equals(o2.getClass())) {
-            //noinspection unchecked
+        if (clazz1 == clazz2 && o1 instanceof Number && o1 instanceof Comparable) {
             return Comparable.class.cast(o1).compareTo(o2);
+        } else if (!(o1 instanceof Number) || !(o2 instanceof Number)) {
+            throw new IllegalArgumentException(String.format(ERROR_MSG, o1, clazz1, o2, clazz2));
         } else {
-            final int pos = Stream.of(o1.getClass(), o2.getClass())
-                    .map(NUMBER_HIERARCHY::indexOf)
-                    .filter(idx -> idx != -1)
-                    .mapToInt(idx -> idx)
-                    .max()
-                    .orElse(-1);
-            final Class<? extends Comparable> mappedClazz = NUMBER_HIERARCHY.get(pos);
+            return compareMixedNumbers(Number.class.cast(o1), Number.class.cast(o2));
+        }
+    }
 
-            final Comparable mappedO1 = mapNumberValue(o1, mappedClazz);
-            final Comparable mappedO2 = mapNumberValue(o2, mappedClazz);
+    /**
+     * Compares two numbers of (possibly) different types, e.g., an {@code Integer} and a {@code Long}. Both values are
+     * mapped to the wider type (regarding the {@link #NUMBER_HIERARCHY}) and compared using primitive arithmetic,
+     * i.e., no instances are created.
+     *
+     * @param n1 the first number to compare
+     * @param n2 the second number to compare
+     *
+     * @return the result of the comparison, see {@link Comparable#compareTo(Object)}
+     */
+    static int compareMixedNumbers(final Number n1, final Number n2) {
+        final int pos = Math.max(numberOrdinal(n1.getClass()), numberOrdinal(n2.getClass()));
 
-            //noinspection unchecked
-            return mappedO1.compareTo(mappedO2);
+        switch (pos) {
+            case 0:
+                return Byte.compare(n1.byteValue(), n2.byteValue());
+            case 1:
+                return Short.compare(n1.shortValue(), n2.shortValue());
+            case 2:
+                return Integer.compare(n1.intValue(), n2.intValue());
+            case 3:
+                return Long.compare(n1.longValue(), n2.longValue());
+            case 4:
+                return Float.compare(n1.floatValue(), n2.floatValue());
+            case 5:
+                return Double.compare(n1.doubleValue(), n2.doubleValue());
+            default:
+                throw new IllegalArgumentException(String.format(ERROR_MSG, n1, n1.getClass(), n2, n2.getClass()));
+        }
+    }
+
+    /**
+     * Determines the position of the specified {@code clazz} within the {@link #NUMBER_HIERARCHY}, without searching
+     * the list.
+     *
+     * @param clazz the class to determine the position for
+     *
+     * @return the position of the class within the {@link #NUMBER_HIERARCHY}, or {@code -1} if not part of it
+     */
+    static int numberOrdinal(final Class<?> clazz) {
+        if (clazz == Long.class) {
+            return 3;
+        } else if (clazz == Integer.class) {
+            return 2;
+        } else if (clazz == Double.class) {
+            return 5;
+        } else if (clazz == Float.class) {
+            return 4;
+        } else if (clazz == Short.class) {
+            return 1;
+        } else if (clazz == Byte.class) {
+            return 0;
+        } else {
+            return -1;
         }
     }
 
@@ -0,0 +1,329 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.intervals.IInterval;
+import org.apache.log4j.Logger;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * A forest of {@link IntervalTree} instances, each one holding the intervals starting within one partition (e.g., one
+ * hour or one day) of the value range. The partition of an interval is determined by its normalized start, i.e., an
+ * interval is held by exactly one partition, even if it exceeds the partition's range. Queries are only routed to the
+ * partitions which may contain a result, i.e., partitions starting after the end of the query and partitions whose
+ * intervals all end before the start of the query are skipped.
+ * <p>
+ * Partitions, which are not modified anymore (e.g., partitions of the past), can be sealed (see {@link
+ * #sealBefore(Comparable)}), i.e., they are replaced by a compact, read-only {@link SealedIntervalIndex}. Retention is
+ * applied on the level of partitions (see {@link #dropBefore(Comparable)}), i.e., a partition is dropped as a whole,
+ * instead of removing its intervals one by one.
+ * <p>
+ * The partitions are determined from the numeric value of the intervals' start, thus the tree can only be used with
+ * {@code NumberInterval} instances. The instance is not thread-safe.
+ */
+public class PartitionedIntervalTree implements IntervalIndex, Iterable<IInterval> {
+    private static final Logger LOGGER = Logger.getLogger(PartitionedIntervalTree.class);
+
+    private final IntervalTreeConfiguration configuration;
+    private final long partitionSize;
+    private final TreeMap<Long, Partition> partitions = new TreeMap<>();
+
+    /**
+     * Creates a partitioned tree, which creates the tree of each partition using the settings of the {@code builder}
+     * (a file to load from is ignored). All the partitions share one configuration.
+     *
+     * @param builder       the builder defining the settings of the trees
+     * @param partitionSize the size of a partition in the unit of the intervals' values, e.g., {@code 3600} to create
+     *                      hourly partitions for {@code TimestampInterval} instances
+     *
+     * @throws IllegalConfiguration if the {@code partitionSize} is not positive
+     */
+    public PartitionedIntervalTree(final IntervalTreeBuilder builder,
+                                   final long partitionSize) throws IllegalConfiguration {
+        if (partitionSize <= 0L) {
+            throw new IllegalConfiguration("The partition size must be positive: " + partitionSize);
+        }
+
+        this.configuration = builder.buildFromSettings().getConfiguration();
+        this.partitionSize = partitionSize;
+    }
+
+    public PartitionedIntervalTree insert(final IInterval interval) {
+        add(interval);
+        return this;
+    }
+
+    /**
+     * Adds the {@code interval} to the partition of its start. The partition is created, if it does not exist yet.
+     *
+     * @param interval the interval to add
+     *
+     * @return {@code true} if the interval was added, otherwise {@code false}
+     *
+     * @throws IllegalStateException if the partition of the interval is sealed
+     */
+    public boolean add(final IInterval interval) throws IllegalStateException {
+        final long key = partitionOf(interval.getNormStart());
+
+        Partition partition = this.partitions.get(key);
+        if (partition == null) {
+            partition = new Partition(createTree());
+            this.partitions.put(key, partition);
+        }
+
+        return partition.getTree(key).add(interval);
+    }
+
+    /**
+     * Removes the {@code interval} from the partition of its start. The partition is dropped, if it is empty
+     * afterwards.
+     *
+     * @param interval the interval to remove
+     *
+     * @return {@code true} if the interval was removed, otherwise {@code false}
+     *
+     * @throws IllegalStateException if the partition of the interval is sealed
+     */
+    public boolean remove(final IInterval interval) throws IllegalStateException {
+        final long key = partitionOf(interval.getNormStart());
+
+        final Partition partition = this.partitions.get(key);
+        if (partition == null) {
+            return false;
+        }
+
+        final IntervalTree tree = partition.getTree(key);
+        final boolean removed = tree.remove(interval);
+        if (tree.getRoot() == null) {
+            this.partitions.remove(key);
+        }
+
+        return removed;
+    }
+
+    @Override
+    public Collection<IInterval> find(final IInterval query) {
+        return find(query, this.configuration.getIntervalFilter());
+    }
+
+    @Override
+    public Collection<IInterval> find(final IInterval query, final IntervalFilter filter) {
+        final Partition partition = this.partitions.get(partitionOf(query.getNormStart()));
+
+        if (partition == null) {
+            return Collections.emptyList();
+        } else {
+            return partition.getIndex().find(query, filter);
+        }
+    }
+
+    @Override
+    public Stream<IInterval> overlapStream(final IInterval query) {
+        final Comparable start = query.getNormStart();
+
+        return this.partitions.headMap(partitionOf(query.getNormEnd()), true).values().stream()
+                .filter(partition -> {
+                    final Comparable max = partition.getMax();
+                    return max != null && compare(max, start) >= 0;
+                })
+                .flatMap(partition -> partition.getIndex().overlapStream(query));
+    }
+
+    /**
+     * Seals the partition containing the {@code value}.
+     *
+     * @param value the value to seal the partition of
+     *
+     * @return {@code true} if the partition was sealed by this call, otherwise {@code false}, i.e., the partition
+     * does not exist or was already sealed
+     *
+     * @throws IllegalConfiguration if the trees do not collect any intervals
+     * @see SealedIntervalIndex
+     */
+    public boolean seal(final Comparable value) throws IllegalConfiguration {
+        final Partition partition = this.partitions.get(partitionOf(value));
+        return partition != null && partition.seal();
+    }
+
+    /**
+     * Seals all the partitions ending before the partition of the {@code bound}, i.e., the partition containing the
+     * {@code bound} stays modifiable.
+     *
+     * @param bound the bound to seal the partitions before
+     *
+     * @return the number of partitions sealed by this call
+     *
+     * @throws IllegalConfiguration if the trees do not collect any intervals
+     * @see SealedIntervalIndex
+     */
+    public int sealBefore(final Comparable bound) throws IllegalConfiguration {
+        int sealed = 0;
+        for (final Partition partition : this.partitions.headMap(partitionOf(bound), false).values()) {
+            if (partition.seal()) {
+                sealed++;
+            }
+        }
+
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Sealed " + sealed + " partition(s) before " + bound + ".");
+        }
+
+        return sealed;
+    }
+
+    /**
+     * Drops all the partitions, which only contain intervals ending before the {@code bound}.
+     *
+     * @param bound the bound to drop the partitions before
+     *
+     * @return the number of dropped intervals
+     */
+    public long dropBefore(final Comparable bound) {
+        long dropped = 0L;
+
+        final Iterator<Partition> it = this.partitions.headMap(partitionOf(bound), true).values().iterator();
+        while (it.hasNext()) {
+            final Partition partition = it.next();
+            final Comparable max = partition.getMax();
+            if (max == null || compare(max, bound) < 0) {
+                dropped += partition.getIndex().size();
+                it.remove();
+            }
+        }
+
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Dropped " + dropped + " interval(s) ending before " + bound + ".");
+        }
+
+        return dropped;
+    }
+
+    public boolean isSealed(final Comparable value) {
+        final Partition partition = this.partitions.get(partitionOf(value));
+        return partition != null && partition.isSealed();
+    }
+
+    public int getPartitionCount() {
+        return this.partitions.size();
+    }
+
+    public long getPartitionSize() {
+        return this.partitionSize;
+    }
+
+    public IntervalTreeConfiguration getConfiguration() {
+        return this.configuration;
+    }
+
+    @Override
+    public int size() {
+        long size = 0L;
+        for (final Partition partition : this.partitions.values()) {
+            size += partition.getIndex().size();
+        }
+
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.partitions.isEmpty();
+    }
+
+    public Stream<IInterval> stream() {
+        return this.partitions.values().stream()
+                .flatMap(partition -> partition.isSealed() ? partition.sealed.stream() : partition.tree.stream());
+    }
+
+    @Override
+    public Iterator<IInterval> iterator() {
+        return stream().iterator();
+    }
+
+    public void clear() {
+        this.partitions.clear();
+    }
+
+    protected IntervalTree createTree() {
+        final IntervalTree tree = new IntervalTree();
+        tree.setConfiguration(this.configuration);
+
+        return tree;
+    }
+
+    /**
+     * Determines the partition (i.e., the index of the partition) of the specified {@code value}.
+     *
+     * @param value the value to determine the partition for
+     *
+     * @return the partition of the value
+     *
+     * @throws IllegalArgumentException if the value is not a number
+     */
+    protected long partitionOf(final Comparable value) throws IllegalArgumentException {
+        final long val;
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            val = Number.class.cast(value).longValue();
+        } else if (value instanceof Number) {
+            val = (long) Math.floor(Number.class.cast(value).doubleValue());
+        } else {
+            throw new IllegalArgumentException("Partitions can only be determined for numbers: " + value);
+        }
+
+        return Math.floorDiv(val, this.partitionSize);
+    }
+
+    protected int compare(final Object val1, final Object val2) {
+        return this.configuration.getValueComparator().compare(val1, val2);
+    }
+
+    protected static class Partition {
+        private IntervalTree tree;
+        private SealedIntervalIndex sealed = null;
+
+        public Partition(final IntervalTree tree) {
+            this.tree = tree;
+        }
+
+        public IntervalIndex getIndex() {
+            return this.sealed == null ? this.tree : this.sealed;
+        }
+
+        public IntervalTree getTree(final long key) throws IllegalStateException {
+            if (this.sealed != null) {
+                throw new IllegalStateException("Partition " + key + " is sealed.");
+            }
+
+            return this.tree;
+        }
+
+        public Comparable getMax() {
+            if (this.sealed != null) {
+                return this.sealed.getMax();
+            } else {
+                final IntervalTreeNode root = this.tree.getRoot();
+                return root == null ? null : root.getMax();
+            }
+        }
+
+        public boolean isSealed() {
+            return this.sealed != null;
+        }
+
+        public boolean seal() throws IllegalConfiguration {
+            if (this.sealed != null) {
+                return false;
+            }
+
+            this.sealed = new SealedIntervalIndex(this.tree);
+            this.tree = null;
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.brein.time.timeintervals.indexes;
+
+/**
+ * The comparators provided by the library (see {@link IntervalValueComparator}). In contrast to a lambda or a method
+ * reference, a predefined comparator is written as its id when a configuration is saved (see {@link
+ * IntervalTreeConfiguration}), i.e., a saved tree does not depend on the compiled classes of the application and can
+ * be read by later releases of the library. Each constant is a class of its own, thus the comparisons of a tree are a
+ * monomorphic call. The ids must never be changed or re-used.
+ */
+public enum PredefinedComparator implements IntervalValueComparator {
+    COMPARE_NUMBERS(1, "compareNumbers") {
+        @Override
+        public int compare(final Object o1, final Object o2) {
+            return IntervalValueComparator.compareNumbers(o1, o2);
+        }
+    },
+    COMPARE_INTS(2, "compareInts") {
+        @Override
+        public int compare(final Object o1, final Object o2) {
+            return IntervalValueComparator.compareInts(o1, o2);
+        }
+    },
+    COMPARE_LONGS(3, "compareLongs") {
+        @Override
+        public int compare(final Object o1, final Object o2) {
+            return IntervalValueComparator.compareLongs(o1, o2);
+        }
+    },
+    COMPARE_DOUBLES(4, "compareDoubles") {
+        @Override
+        public int compare(final Object o1, final Object o2) {
+            return IntervalValueComparator.compareDoubles(o1, o2);
+        }
+    };
+
+    private final int id;
+    private final String name;
+
+    PredefinedComparator(final int id, final String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the comparator with the specified {@code id}.
+     *
+     * @param id the id of the comparator
+     *
+     * @return the comparator, or {@code null} if there is no comparator with the id
+     */
+    public static PredefinedComparator byId(final int id) {
+        for (final PredefinedComparator comparator : values()) {
+            if (comparator.id == id) {
+                return comparator;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the comparator with the specified {@code name}, e.g., {@code compareLongs}.
+     *
+     * @param name the name of the comparator
+     *
+     * @return the comparator, or {@code null} if there is no comparator with the name
+     */
+    public static PredefinedComparator byName(final String name) {
+        for (final PredefinedComparator comparator : values()) {
+            if (comparator.name.equals(name)) {
+                return comparator;
+            }
+        }
+
+        return null;
+    }
+}
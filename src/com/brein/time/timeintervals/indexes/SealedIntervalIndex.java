@@ -0,0 +1,179 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.intervals.IInterval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A read-only snapshot of an {@link IntervalTree}. The intervals are kept in a single array sorted by start and end,
+ * which is interpreted as an implicit balanced tree (the root of the range {@code [lo, hi]} is the middle index). The
+ * maximal end of each implicit sub-tree is kept in a second array, so that overlap queries can be pruned just like
+ * within the {@code IntervalTree}, without the per-node overhead (i.e., parent, children, level, height, and the
+ * collection of each node).
+ */
+public class SealedIntervalIndex implements IntervalIndex, Iterable<IInterval> {
+
+    private final IntervalValueComparator cmp;
+    private final IntervalFilter filter;
+
+    private final IInterval[] intervals;
+    private final Comparable[] maxEnds;
+
+    /**
+     * Creates a sealed index containing all the intervals of the {@code tree}. The {@code tree} is not modified and
+     * can be discarded afterwards.
+     *
+     * @param tree the tree to create the sealed index from
+     *
+     * @throws IllegalConfiguration if the tree does not collect intervals (i.e., no factory is defined)
+     */
+    public SealedIntervalIndex(final IntervalTree tree) throws IllegalConfiguration {
+        final IntervalTreeConfiguration configuration = tree.getConfiguration();
+        if (configuration.getFactory() == null) {
+            throw new IllegalConfiguration("Cannot seal a tree, which does not collect any intervals.");
+        }
+
+        this.cmp = configuration.getValueComparator();
+        this.filter = configuration.getIntervalFilter();
+
+        this.intervals = tree.toArray(new IInterval[0]);
+        this.maxEnds = new Comparable[this.intervals.length];
+        buildMaxEnds(0, this.intervals.length - 1);
+    }
+
+    protected Comparable buildMaxEnds(final int lo, final int hi) {
+        if (lo > hi) {
+            return null;
+        }
+
+        final int mid = (lo + hi) >>> 1;
+        final Comparable leftMax = buildMaxEnds(lo, mid - 1);
+        final Comparable rightMax = buildMaxEnds(mid + 1, hi);
+
+        Comparable max = this.intervals[mid].getNormEnd();
+        if (leftMax != null && this.cmp.compare(leftMax, max) > 0) {
+            max = leftMax;
+        }
+        if (rightMax != null && this.cmp.compare(rightMax, max) > 0) {
+            max = rightMax;
+        }
+        this.maxEnds[mid] = max;
+
+        return max;
+    }
+
+    @Override
+    public Collection<IInterval> find(final IInterval query) {
+        return find(query, this.filter);
+    }
+
+    @Override
+    public Collection<IInterval> find(final IInterval query, final IntervalFilter filter) {
+        final Comparable start = query.getNormStart();
+        final Comparable end = query.getNormEnd();
+
+        // find the first interval not smaller than the query
+        int lo = 0;
+        int hi = this.intervals.length;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (compare(this.intervals[mid], start, end) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        List<IInterval> result = null;
+        for (int i = lo; i < this.intervals.length && compare(this.intervals[i], start, end) == 0; i++) {
+            final IInterval interval = this.intervals[i];
+            if (filter.match(this.cmp, interval, query)) {
+                if (result == null) {
+                    result = new ArrayList<>();
+                }
+                result.add(interval);
+            }
+        }
+
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    @Override
+    public Stream<IInterval> overlapStream(final IInterval query) {
+        return _overlap(0, this.intervals.length - 1, query);
+    }
+
+    protected Stream<IInterval> _overlap(final int lo, final int hi, final IInterval query) {
+        if (lo > hi) {
+            return Stream.empty();
+        }
+
+        final int mid = (lo + hi) >>> 1;
+        if (this.cmp.compare(this.maxEnds[mid], query.getNormStart()) < 0) {
+            return Stream.empty();
+        }
+
+        final Stream<IInterval> leftStream = _overlap(lo, mid - 1, query);
+
+        // the intervals are sorted by start, so nothing on the right can overlap either
+        final IInterval interval = this.intervals[mid];
+        if (this.cmp.compare(interval.getNormStart(), query.getNormEnd()) > 0) {
+            return leftStream;
+        }
+
+        final Stream<IInterval> midStream;
+        if (this.cmp.compare(interval.getNormEnd(), query.getNormStart()) >= 0) {
+            midStream = Stream.of(interval);
+        } else {
+            midStream = Stream.empty();
+        }
+        final Stream<IInterval> rightStream = _overlap(mid + 1, hi, query);
+
+        return Stream.of(leftStream, midStream, rightStream).flatMap(s -> s);
+    }
+
+    protected int compare(final IInterval interval, final Comparable start, final Comparable end) {
+        final int cmpStart = this.cmp.compare(interval.getNormStart(), start);
+        if (cmpStart == 0) {
+            return this.cmp.compare(interval.getNormEnd(), end);
+        } else {
+            return cmpStart;
+        }
+    }
+
+    /**
+     * Gets the maximal end of all the intervals within the index.
+     *
+     * @return the maximal end, or {@code null} if the index is empty
+     */
+    public Comparable getMax() {
+        return this.intervals.length == 0 ? null : this.maxEnds[(this.intervals.length - 1) >>> 1];
+    }
+
+    @Override
+    public int size() {
+        return this.intervals.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.intervals.length == 0;
+    }
+
+    @Override
+    public Iterator<IInterval> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(this.intervals)).iterator();
+    }
+
+    public Stream<IInterval> stream() {
+        return Arrays.stream(this.intervals);
+    }
+}
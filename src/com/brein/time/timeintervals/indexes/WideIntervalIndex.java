@@ -0,0 +1,791 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.intervals.IInterval;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An interval index using wide nodes (comparable to a B+-tree) instead of the binary nodes of an {@link
+ * IntervalTree}. Each node holds up to {@code fanOut} entries sorted by the normalized start and end: a leaf holds
+ * the intervals themselves, an inner node holds its children together with the first start and end, and the maximal
+ * end of each child. Thus, a query reads a few consecutive array entries per node instead of chasing a pointer per
+ * level, and the index needs about {@code n / fanOut} node instances instead of {@code n}.
+ * <p>
+ * All leaves have the same depth, i.e., the index is balanced by splitting full nodes (when adding) and merging
+ * sparse siblings (when removing), no rotations are needed. Like a tree collecting its intervals within a {@code
+ * ListIntervalCollection}, the index keeps equal intervals, i.e., {@link #add(IInterval)} always adds the interval
+ * and {@link #remove(IInterval)} removes a single instance. The normalized values of the intervals are determined
+ * once when added and kept within the leaves.
+ * <p>
+ * The index is created from the settings of an {@link IntervalTreeBuilder} (see {@link
+ * IntervalTreeBuilder#buildWideIndex(int)}), i.e., the comparator, the filter, and the metrics are used, the
+ * collection factory and the persistence settings are ignored. The instance is not thread-safe.
+ */
+public class WideIntervalIndex implements IntervalIndex, Iterable<IInterval> {
+    public static final int DEFAULT_FAN_OUT = 32;
+    public static final int MIN_FAN_OUT = 4;
+
+    private final IntervalValueComparator cmp;
+    private final IntervalFilter filter;
+    private final IntervalTreeMetrics metrics;
+    private final int fanOut;
+    private final int minCount;
+
+    private Node root;
+    private int size = 0;
+
+    public WideIntervalIndex(final IntervalTreeBuilder builder) throws IllegalConfiguration {
+        this(builder, DEFAULT_FAN_OUT);
+    }
+
+    /**
+     * Creates an empty index using the settings of the {@code builder} (a file to load from is ignored).
+     *
+     * @param builder the builder defining the comparator, the filter, and the metrics
+     * @param fanOut  the maximal number of entries of a node
+     *
+     * @throws IllegalConfiguration if the {@code fanOut} is smaller than {@link #MIN_FAN_OUT}
+     */
+    public WideIntervalIndex(final IntervalTreeBuilder builder, final int fanOut) throws IllegalConfiguration {
+        if (fanOut < MIN_FAN_OUT) {
+            throw new IllegalConfiguration("The fan-out must be at least " + MIN_FAN_OUT + ": " + fanOut);
+        }
+
+        final IntervalTreeConfiguration configuration = builder.buildFromSettings().getConfiguration();
+        this.cmp = configuration.getValueComparator();
+        this.filter = configuration.getIntervalFilter();
+        this.metrics = configuration.getMetrics();
+
+        this.fanOut = fanOut;
+        this.minCount = fanOut / 4;
+        this.root = new Leaf(fanOut);
+    }
+
+    public WideIntervalIndex insert(final IInterval interval) {
+        add(interval);
+        return this;
+    }
+
+    public boolean add(final IInterval interval) {
+        final long startNanos = this.metrics == null ? 0L : System.nanoTime();
+
+        final Node sibling = _add(this.root, interval, interval.getNormStart(), interval.getNormEnd());
+        if (sibling != null) {
+            final Inner newRoot = new Inner(this.fanOut);
+            newRoot.insert(0, this.root);
+            newRoot.insert(1, sibling);
+            newRoot.max = max(this.root.max, sibling.max);
+
+            this.root = newRoot;
+        }
+        this.size++;
+
+        if (this.metrics != null) {
+            this.metrics.record(IntervalTreeMetrics.Operation.ADD, startNanos);
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the interval to the sub-tree of the specified {@code node}.
+     *
+     * @param node     the root of the sub-tree to add the interval to
+     * @param interval the interval to add
+     * @param start    the normalized start of the interval
+     * @param end      the normalized end of the interval
+     *
+     * @return the new right sibling of the {@code node}, if the node had to be split, otherwise {@code null}
+     */
+    protected Node _add(final Node node, final IInterval interval, final Comparable start, final Comparable end) {
+        visit();
+
+        if (node instanceof Leaf) {
+            final Leaf leaf = Leaf.class.cast(node);
+            leaf.insert(upperBound(leaf.starts, leaf.ends, leaf.count, start, end), interval, start, end);
+            leaf.max = max(leaf.max, end);
+
+            return leaf.count > this.fanOut ? split(leaf) : null;
+        } else {
+            final Inner inner = Inner.class.cast(node);
+            final int idx = Math.max(0, upperBound(inner.starts, inner.ends, inner.count, start, end) - 1);
+
+            final Node sibling = _add(inner.children[idx], interval, start, end);
+            inner.refresh(idx);
+            inner.max = max(inner.max, end);
+
+            if (sibling == null) {
+                return null;
+            }
+
+            inner.insert(idx + 1, sibling);
+            return inner.count > this.fanOut ? split(inner) : null;
+        }
+    }
+
+    protected Node split(final Node node) {
+        final Node sibling = node.split(node.count / 2);
+        updateMax(node);
+        updateMax(sibling);
+
+        return sibling;
+    }
+
+    public boolean remove(final IInterval interval) {
+        final long startNanos = this.metrics == null ? 0L : System.nanoTime();
+
+        final boolean removed = _remove(this.root, interval, interval.getNormStart(), interval.getNormEnd());
+        if (removed) {
+            this.size--;
+
+            // shrink the index if the root is an inner node with a single child
+            while (this.root instanceof Inner && this.root.count <= 1) {
+                this.root = this.root.count == 0 ? new Leaf(this.fanOut) : Inner.class.cast(this.root).children[0];
+            }
+        }
+
+        if (this.metrics != null) {
+            this.metrics.record(IntervalTreeMetrics.Operation.REMOVE, startNanos);
+        }
+
+        return removed;
+    }
+
+    protected boolean _remove(final Node node, final IInterval interval, final Comparable start, final Comparable end) {
+        visit();
+
+        if (node instanceof Leaf) {
+            final Leaf leaf = Leaf.class.cast(node);
+            for (int i = lowerBound(leaf.starts, leaf.ends, leaf.count, start, end);
+                 i < leaf.count && compare(leaf.starts[i], leaf.ends[i], start, end) == 0; i++) {
+                if (leaf.intervals[i].equals(interval)) {
+                    leaf.remove(i);
+                    updateMax(leaf);
+                    return true;
+                }
+            }
+
+            return false;
+        } else {
+
+            // equal intervals may be spread over several children, the first one may start before the interval
+            final Inner inner = Inner.class.cast(node);
+            for (int i = Math.max(0, lowerBound(inner.starts, inner.ends, inner.count, start, end) - 1);
+                 i < inner.count && compare(inner.starts[i], inner.ends[i], start, end) <= 0; i++) {
+                if (this.cmp.compare(inner.maxes[i], end) >= 0 && _remove(inner.children[i], interval, start, end)) {
+                    rebalance(inner, i);
+                    updateMax(inner);
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Re-balances the child at the specified {@code idx} after a removal, i.e., a sparse child is merged with one of
+     * its siblings, if the merged node does not exceed the fan-out.
+     *
+     * @param inner the parent of the modified child
+     * @param idx   the index of the modified child
+     */
+    protected void rebalance(final Inner inner, final int idx) {
+        final Node child = inner.children[idx];
+        if (child.count >= this.minCount && child.count > 0) {
+            inner.refresh(idx);
+            return;
+        }
+
+        final int left;
+        if (idx > 0 && inner.children[idx - 1].count + child.count <= this.fanOut) {
+            left = idx - 1;
+        } else if (idx + 1 < inner.count && inner.children[idx + 1].count + child.count <= this.fanOut) {
+            left = idx;
+        } else {
+            left = -1;
+        }
+
+        if (left >= 0) {
+            final Node leftChild = inner.children[left];
+            final Node rightChild = inner.children[left + 1];
+            leftChild.append(rightChild);
+            leftChild.max = max(leftChild.max, rightChild.max);
+
+            inner.remove(left + 1);
+            inner.refresh(left);
+        } else if (child.count == 0) {
+            inner.remove(idx);
+        } else {
+            inner.refresh(idx);
+        }
+    }
+
+    @Override
+    public Collection<IInterval> find(final IInterval query) {
+        return find(query, this.filter);
+    }
+
+    @Override
+    public Collection<IInterval> find(final IInterval query, final IntervalFilter filter) {
+        final long startNanos = this.metrics == null ? 0L : System.nanoTime();
+
+        final List<IInterval> result = _find(this.root, query, query.getNormStart(), query.getNormEnd(), filter, null);
+
+        if (this.metrics != null) {
+            this.metrics.record(IntervalTreeMetrics.Operation.FIND, startNanos);
+        }
+
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    protected List<IInterval> _find(final Node node,
+                                    final IInterval query,
+                                    final Comparable start,
+                                    final Comparable end,
+                                    final IntervalFilter filter,
+                                    final List<IInterval> result) {
+        visit();
+
+        List<IInterval> res = result;
+        if (node instanceof Leaf) {
+            final Leaf leaf = Leaf.class.cast(node);
+            for (int i = lowerBound(leaf.starts, leaf.ends, leaf.count, start, end);
+                 i < leaf.count && compare(leaf.starts[i], leaf.ends[i], start, end) == 0; i++) {
+                if (filter.match(this.cmp, leaf.intervals[i], query)) {
+                    if (res == null) {
+                        res = new ArrayList<>();
+                    }
+                    res.add(leaf.intervals[i]);
+                }
+            }
+        } else {
+            final Inner inner = Inner.class.cast(node);
+            for (int i = Math.max(0, lowerBound(inner.starts, inner.ends, inner.count, start, end) - 1);
+                 i < inner.count && compare(inner.starts[i], inner.ends[i], start, end) <= 0; i++) {
+                if (this.cmp.compare(inner.maxes[i], end) >= 0) {
+                    res = _find(inner.children[i], query, start, end, filter, res);
+                }
+            }
+        }
+
+        return res;
+    }
+
+    @Override
+    public Stream<IInterval> overlapStream(final IInterval query) {
+        final Iterator<IInterval> it = new OverlapIterator(query.getNormStart(), query.getNormEnd());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    @Override
+    public Collection<IInterval> overlap(final IInterval query) {
+        final long startNanos = this.metrics == null ? 0L : System.nanoTime();
+
+        final List<IInterval> result = new ArrayList<>();
+        _overlap(this.root, query.getNormStart(), query.getNormEnd(), result);
+
+        if (this.metrics != null) {
+            this.metrics.record(IntervalTreeMetrics.Operation.OVERLAP, startNanos);
+        }
+
+        return result;
+    }
+
+    protected void _overlap(final Node node, final Comparable start, final Comparable end, final List<IInterval> result) {
+        visit();
+
+        // the entries are sorted by start, thus we can stop as soon as an entry starts after the query
+        if (node instanceof Leaf) {
+            final Leaf leaf = Leaf.class.cast(node);
+            for (int i = 0; i < leaf.count && this.cmp.compare(leaf.starts[i], end) <= 0; i++) {
+                if (this.cmp.compare(leaf.ends[i], start) >= 0) {
+                    result.add(leaf.intervals[i]);
+                }
+            }
+        } else {
+            final Inner inner = Inner.class.cast(node);
+            for (int i = 0; i < inner.count && this.cmp.compare(inner.starts[i], end) <= 0; i++) {
+                if (this.cmp.compare(inner.maxes[i], start) >= 0) {
+                    _overlap(inner.children[i], start, end, result);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines the first position of the sorted entries, which is not smaller than the specified key.
+     */
+    protected int lowerBound(final Comparable[] starts,
+                             final Comparable[] ends,
+                             final int count,
+                             final Comparable start,
+                             final Comparable end) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (compare(starts[mid], ends[mid], start, end) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+    /**
+     * Determines the first position of the sorted entries, which is larger than the specified key.
+     */
+    protected int upperBound(final Comparable[] starts,
+                             final Comparable[] ends,
+                             final int count,
+                             final Comparable start,
+                             final Comparable end) {
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (compare(starts[mid], ends[mid], start, end) <= 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        return lo;
+    }
+
+    protected int compare(final Comparable start1,
+                          final Comparable end1,
+                          final Comparable start2,
+                          final Comparable end2) {
+        final int cmpStart = this.cmp.compare(start1, start2);
+        if (cmpStart == 0) {
+            return this.cmp.compare(end1, end2);
+        } else {
+            return cmpStart;
+        }
+    }
+
+    protected Comparable max(final Comparable max1, final Comparable max2) {
+        if (max1 == null) {
+            return max2;
+        } else if (max2 == null) {
+            return max1;
+        } else {
+            return this.cmp.compare(max1, max2) < 0 ? max2 : max1;
+        }
+    }
+
+    protected void updateMax(final Node node) {
+        final Comparable[] values = node instanceof Leaf ? Leaf.class.cast(node).ends : Inner.class.cast(node).maxes;
+
+        Comparable max = null;
+        for (int i = 0; i < node.count; i++) {
+            max = max(max, values[i]);
+        }
+        node.max = max;
+    }
+
+    protected void visit() {
+        if (this.metrics != null) {
+            this.metrics.visit();
+        }
+    }
+
+    /**
+     * Gets the maximal end of all the intervals within the index.
+     *
+     * @return the maximal end, or {@code null} if the index is empty
+     */
+    public Comparable getMax() {
+        return this.root.max;
+    }
+
+    /**
+     * Gets the number of levels of the index, i.e., {@code 1} if the index consists of a single leaf.
+     *
+     * @return the number of levels of the index
+     */
+    public int getHeight() {
+        int height = 1;
+        for (Node node = this.root; node instanceof Inner; node = Inner.class.cast(node).children[0]) {
+            height++;
+        }
+
+        return height;
+    }
+
+    protected Node getRoot() {
+        return this.root;
+    }
+
+    public IntervalTreeMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public int getFanOut() {
+        return this.fanOut;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.root = new Leaf(this.fanOut);
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<IInterval> iterator() {
+        return new OverlapIterator(null, null);
+    }
+
+    public Stream<IInterval> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    @Override
+    public Spliterator<IInterval> spliterator() {
+        return Spliterators.spliterator(iterator(), this.size,
+                Spliterator.ORDERED | Spliterator.SIZED | Spliterator.NONNULL);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        toString("", this.root, sb);
+        return sb.toString();
+    }
+
+    protected void toString(final String prefix, final Node node, final StringBuilder sb) {
+        if (node instanceof Leaf) {
+            final Leaf leaf = Leaf.class.cast(node);
+            for (int i = 0; i < leaf.count; i++) {
+                sb.append(prefix).append(leaf.intervals[i]).append(System.lineSeparator());
+            }
+        } else {
+            final Inner inner = Inner.class.cast(node);
+            for (int i = 0; i < inner.count; i++) {
+                sb.append(prefix)
+                        .append("[").append(inner.starts[i]).append(", ").append(inner.ends[i]).append("] ")
+                        .append("(max: ").append(inner.maxes[i]).append(")")
+                        .append(System.lineSeparator());
+                toString(prefix + "    ", inner.children[i], sb);
+            }
+        }
+    }
+
+    /**
+     * Iterates (in order) over the intervals overlapping the range {@code [start, end]}. A {@code null} bound is not
+     * applied, i.e., the iterator without bounds iterates over all intervals.
+     */
+    protected class OverlapIterator implements Iterator<IInterval> {
+        private final Comparable start;
+        private final Comparable end;
+
+        private final List<Inner> path = new ArrayList<>();
+        private final List<Integer> positions = new ArrayList<>();
+
+        private Leaf leaf;
+        private int pos;
+        private IInterval next;
+
+        public OverlapIterator(final Comparable start, final Comparable end) {
+            this.start = start;
+            this.end = end;
+
+            descend(WideIntervalIndex.this.root);
+            this.next = advance();
+        }
+
+        protected boolean startsBefore(final Comparable value) {
+            return this.end == null || cmp.compare(value, this.end) <= 0;
+        }
+
+        protected boolean endsAfter(final Comparable value) {
+            return this.start == null || cmp.compare(value, this.start) >= 0;
+        }
+
+        protected void descend(final Node node) {
+            Node n = node;
+            while (n instanceof Inner) {
+                visit();
+
+                this.path.add(Inner.class.cast(n));
+                this.positions.add(-1);
+                n = nextChild();
+
+                if (n == null) {
+                    return;
+                }
+            }
+            visit();
+
+            this.leaf = Leaf.class.cast(n);
+            this.pos = 0;
+        }
+
+        /**
+         * Moves to the next child (of the last inner node of the path) which may contain an overlapping interval.
+         *
+         * @return the next child, or {@code null} if there is none (the inner node is removed from the path)
+         */
+        protected Node nextChild() {
+            final int depth = this.path.size() - 1;
+            final Inner inner = this.path.get(depth);
+
+            for (int i = this.positions.get(depth) + 1; i < inner.count && startsBefore(inner.starts[i]); i++) {
+                if (endsAfter(inner.maxes[i])) {
+                    this.positions.set(depth, i);
+                    return inner.children[i];
+                }
+            }
+
+            this.path.remove(depth);
+            this.positions.remove(depth);
+            return null;
+        }
+
+        protected IInterval advance() {
+            while (true) {
+                if (this.leaf != null) {
+                    while (this.pos < this.leaf.count && startsBefore(this.leaf.starts[this.pos])) {
+                        final int i = this.pos++;
+                        if (endsAfter(this.leaf.ends[i])) {
+                            return this.leaf.intervals[i];
+                        }
+                    }
+                    this.leaf = null;
+                }
+
+                // move up the path until a next child is found
+                Node child = null;
+                while (child == null && !this.path.isEmpty()) {
+                    child = nextChild();
+                }
+
+                if (child == null) {
+                    return null;
+                } else {
+                    descend(child);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null;
+        }
+
+        @Override
+        public IInterval next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final IInterval result = this.next;
+            this.next = advance();
+            return result;
+        }
+    }
+
+    protected abstract static class Node {
+        protected int count = 0;
+        protected Comparable max = null;
+
+        /**
+         * Moves the entries starting at {@code from} into a new node.
+         *
+         * @param from the first entry to move
+         *
+         * @return the new node containing the moved entries
+         */
+        protected abstract Node split(final int from);
+
+        /**
+         * Appends all the entries of the {@code node} (which has to be of the same type) to {@code this} node.
+         *
+         * @param node the node to append the entries from
+         */
+        protected abstract void append(final Node node);
+    }
+
+    protected static class Leaf extends Node {
+        protected final IInterval[] intervals;
+        protected final Comparable[] starts;
+        protected final Comparable[] ends;
+
+        public Leaf(final int fanOut) {
+
+            // one additional entry, so that a full node can be split after inserting
+            this.intervals = new IInterval[fanOut + 1];
+            this.starts = new Comparable[fanOut + 1];
+            this.ends = new Comparable[fanOut + 1];
+        }
+
+        protected void insert(final int pos,
+                              final IInterval interval,
+                              final Comparable start,
+                              final Comparable end) {
+            final int moved = this.count - pos;
+            System.arraycopy(this.intervals, pos, this.intervals, pos + 1, moved);
+            System.arraycopy(this.starts, pos, this.starts, pos + 1, moved);
+            System.arraycopy(this.ends, pos, this.ends, pos + 1, moved);
+
+            this.intervals[pos] = interval;
+            this.starts[pos] = start;
+            this.ends[pos] = end;
+            this.count++;
+        }
+
+        protected void remove(final int pos) {
+            final int moved = this.count - pos - 1;
+            System.arraycopy(this.intervals, pos + 1, this.intervals, pos, moved);
+            System.arraycopy(this.starts, pos + 1, this.starts, pos, moved);
+            System.arraycopy(this.ends, pos + 1, this.ends, pos, moved);
+
+            this.count--;
+            this.intervals[this.count] = null;
+            this.starts[this.count] = null;
+            this.ends[this.count] = null;
+        }
+
+        @Override
+        protected Node split(final int from) {
+            final Leaf leaf = new Leaf(this.intervals.length - 1);
+            final int moved = this.count - from;
+            System.arraycopy(this.intervals, from, leaf.intervals, 0, moved);
+            System.arraycopy(this.starts, from, leaf.starts, 0, moved);
+            System.arraycopy(this.ends, from, leaf.ends, 0, moved);
+            leaf.count = moved;
+
+            for (int i = from; i < this.count; i++) {
+                this.intervals[i] = null;
+                this.starts[i] = null;
+                this.ends[i] = null;
+            }
+            this.count = from;
+
+            return leaf;
+        }
+
+        @Override
+        protected void append(final Node node) {
+            final Leaf leaf = Leaf.class.cast(node);
+            System.arraycopy(leaf.intervals, 0, this.intervals, this.count, leaf.count);
+            System.arraycopy(leaf.starts, 0, this.starts, this.count, leaf.count);
+            System.arraycopy(leaf.ends, 0, this.ends, this.count, leaf.count);
+            this.count += leaf.count;
+        }
+    }
+
+    protected static class Inner extends Node {
+        protected final Node[] children;
+        protected final Comparable[] starts;
+        protected final Comparable[] ends;
+        protected final Comparable[] maxes;
+
+        public Inner(final int fanOut) {
+            this.children = new Node[fanOut + 1];
+            this.starts = new Comparable[fanOut + 1];
+            this.ends = new Comparable[fanOut + 1];
+            this.maxes = new Comparable[fanOut + 1];
+        }
+
+        protected void insert(final int pos, final Node child) {
+            final int moved = this.count - pos;
+            System.arraycopy(this.children, pos, this.children, pos + 1, moved);
+            System.arraycopy(this.starts, pos, this.starts, pos + 1, moved);
+            System.arraycopy(this.ends, pos, this.ends, pos + 1, moved);
+            System.arraycopy(this.maxes, pos, this.maxes, pos + 1, moved);
+
+            this.children[pos] = child;
+            this.count++;
+            refresh(pos);
+        }
+
+        protected void remove(final int pos) {
+            final int moved = this.count - pos - 1;
+            System.arraycopy(this.children, pos + 1, this.children, pos, moved);
+            System.arraycopy(this.starts, pos + 1, this.starts, pos, moved);
+            System.arraycopy(this.ends, pos + 1, this.ends, pos, moved);
+            System.arraycopy(this.maxes, pos + 1, this.maxes, pos, moved);
+
+            this.count--;
+            this.children[this.count] = null;
+            this.starts[this.count] = null;
+            this.ends[this.count] = null;
+            this.maxes[this.count] = null;
+        }
+
+        /**
+         * Copies the first start and end, as well as the max of the child at the specified {@code pos}.
+         *
+         * @param pos the position of the child to refresh
+         */
+        protected void refresh(final int pos) {
+            final Node child = this.children[pos];
+            if (child instanceof Leaf) {
+                this.starts[pos] = Leaf.class.cast(child).starts[0];
+                this.ends[pos] = Leaf.class.cast(child).ends[0];
+            } else {
+                this.starts[pos] = Inner.class.cast(child).starts[0];
+                this.ends[pos] = Inner.class.cast(child).ends[0];
+            }
+            this.maxes[pos] = child.max;
+        }
+
+        @Override
+        protected Node split(final int from) {
+            final Inner inner = new Inner(this.children.length - 1);
+            final int moved = this.count - from;
+            System.arraycopy(this.children, from, inner.children, 0, moved);
+            System.arraycopy(this.starts, from, inner.starts, 0, moved);
+            System.arraycopy(this.ends, from, inner.ends, 0, moved);
+            System.arraycopy(this.maxes, from, inner.maxes, 0, moved);
+            inner.count = moved;
+
+            for (int i = from; i < this.count; i++) {
+                this.children[i] = null;
+                this.starts[i] = null;
+                this.ends[i] = null;
+                this.maxes[i] = null;
+            }
+            this.count = from;
+
+            return inner;
+        }
+
+        @Override
+        protected void append(final Node node) {
+            final Inner inner = Inner.class.cast(node);
+            System.arraycopy(inner.children, 0, this.children, this.count, inner.count);
+            System.arraycopy(inner.starts, 0, this.starts, this.count, inner.count);
+            System.arraycopy(inner.ends, 0, this.ends, this.count, inner.count);
+            System.arraycopy(inner.maxes, 0, this.maxes, this.count, inner.count);
+            this.count += inner.count;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.brein.time.timeintervals.intervals;
 
+import com.brein.time.timeintervals.indexes.IntervalValueComparator;
+
 public enum AllenIntervalRelation {
 
     OVERLAPS,
@@ -16,37 +18,288 @@ public enum AllenIntervalRelation {
     STARTS_DIRECTLY_BEFORE,
     ENDS_DIRECTLY_BEFORE;
 
+    /**
+     * Gets the converse of {@code this} relation, i.e., if {@code i1} has {@code this} relation to {@code i2}, {@code
+     * i2} has the converse relation to {@code i1} (e.g., {@code BEFORE} and {@code AFTER}).
+     *
+     * @return the converse relation
+     */
+    public AllenIntervalRelation getConverse() {
+        switch (this) {
+            case OVERLAPS:
+                return IS_OVERLAPPED_BY;
+            case IS_OVERLAPPED_BY:
+                return OVERLAPS;
+            case BEGINS:
+                return BEGINS_BY;
+            case BEGINS_BY:
+                return BEGINS;
+            case ENDS:
+                return ENDS_BY;
+            case ENDS_BY:
+                return ENDS;
+            case BEFORE:
+                return AFTER;
+            case AFTER:
+                return BEFORE;
+            case INCLUDES:
+                return IS_DURING;
+            case IS_DURING:
+                return INCLUDES;
+            case STARTS_DIRECTLY_BEFORE:
+                return ENDS_DIRECTLY_BEFORE;
+            case ENDS_DIRECTLY_BEFORE:
+                return STARTS_DIRECTLY_BEFORE;
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * The relations (ordered by ordinal), cached to avoid the copy created by each call of {@link #values()}.
+     */
+    private static final AllenIntervalRelation[] RELATIONS = values();
+
+    /**
+     * The relation for each pattern of the four signs used by {@link #lookup(int, int, int, int)}.
+     */
+    private static final AllenIntervalRelation[] LOOKUP = createLookup();
+
     public static AllenIntervalRelation determineRelation(final NumberInterval i1, final IInterval i2) {
+        return classify(i1, i2);
+    }
+
+    /**
+     * Determines the relation of {@code i1} to {@code i2}, i.e., the relation for which the corresponding {@code ir*}
+     * predicate of {@code i1} holds. The endpoints are compared at most four times and the signs of the comparisons
+     * are mapped to the relation using a lookup table. Intervals of {@code Long} and {@code Double} values are
+     * classified without boxing (see {@link #classify(long, long, long, long)} and {@link #classify(double, double,
+     * double, double)}).
+     *
+     * @param i1 the interval to determine the relation of
+     * @param i2 the interval to determine the relation to
+     *
+     * @return the relation of {@code i1} to {@code i2}
+     */
+    public static AllenIntervalRelation classify(final NumberInterval i1, final IInterval i2) {
+        final Object start1 = i1.getNormStart();
+        final Object end1 = i1.getNormEnd();
+        final Object start2 = i2.getNormStart();
+        final Object end2 = i2.getNormEnd();
+
+        if (Long.class.equals(i1.getClazz()) && start2 instanceof Long && end2 instanceof Long) {
+            return classify((long) start1, (long) end1, (long) start2, (long) end2);
+        } else if (Double.class.equals(i1.getClazz()) && start2 instanceof Double && end2 instanceof Double) {
+            return classify((double) start1, (double) end1, (double) start2, (double) end2);
+        }
+
+        /*
+         * The types of the values may differ (e.g., an IntegerInterval and a DoubleInterval), thus the value next to
+         * the end (or previous to the start) is not necessarily the successor within the domain of the other interval.
+         * We therefore check if the intervals are disjoint first, and only check the adjacency if so.
+         */
+        if (IntervalValueComparator.compareNumbers(end1, start2) < 0) {
+            @SuppressWarnings("unchecked")
+            final Object nextEnd1 = i1.getNextValue(Number.class.cast(end1));
+            return IntervalValueComparator.compareNumbers(nextEnd1, start2) == 0 ? ENDS_DIRECTLY_BEFORE : BEFORE;
+        } else if (IntervalValueComparator.compareNumbers(start1, end2) > 0) {
+            @SuppressWarnings("unchecked")
+            final Object prevStart1 = i1.getPreviousValue(Number.class.cast(start1));
+            return IntervalValueComparator.compareNumbers(prevStart1, end2) == 0 ? STARTS_DIRECTLY_BEFORE : AFTER;
+        } else {
+            return lookup(1, -1,
+                    IntervalValueComparator.compareNumbers(start1, start2),
+                    IntervalValueComparator.compareNumbers(end1, end2));
+        }
+    }
+
+    /**
+     * Determines the relation of {@code i1} to {@code i2}, which are not necessarily {@code NumberInterval} instances
+     * (e.g., {@link LongRange} or {@link DoubleRange} instances), comparing the endpoints with the {@code comparator}.
+     * The value next to the end (or previous to the start) of {@code i1} is the successor within the domain of the
+     * value, i.e., {@code + 1} for integral values and the adjacent floating-point value for {@code Float} and {@code
+     * Double} values. Intervals of any other values are never adjacent (i.e., {@link #ENDS_DIRECTLY_BEFORE} and {@link
+     * #STARTS_DIRECTLY_BEFORE} are never determined).
+     *
+     * @param i1         the interval to determine the relation of
+     * @param i2         the interval to determine the relation to
+     * @param comparator the comparator used to compare the endpoints
+     *
+     * @return the relation of {@code i1} to {@code i2}
+     */
+    public static AllenIntervalRelation classify(final IInterval i1,
+                                                 final IInterval i2,
+                                                 final IntervalValueComparator comparator) {
+        final Object start1 = i1.getNormStart();
+        final Object end1 = i1.getNormEnd();
+        final Object start2 = i2.getNormStart();
+        final Object end2 = i2.getNormEnd();
+
+        // check if the intervals are disjoint first, see classify(NumberInterval, IInterval)
+        if (comparator.compare(end1, start2) < 0) {
+            final Object nextEnd1 = neighbor(end1, true);
+            return nextEnd1 != null && comparator.compare(nextEnd1, start2) == 0 ? ENDS_DIRECTLY_BEFORE : BEFORE;
+        } else if (comparator.compare(start1, end2) > 0) {
+            final Object prevStart1 = neighbor(start1, false);
+            return prevStart1 != null && comparator.compare(prevStart1, end2) == 0 ? STARTS_DIRECTLY_BEFORE : AFTER;
+        } else {
+            return lookup(1, -1, comparator.compare(start1, start2), comparator.compare(end1, end2));
+        }
+    }
+
+    /**
+     * Determines the value next to (or previous to) the {@code value} within the domain of the value.
+     *
+     * @param value the value to determine the neighbor of
+     * @param next  {@code true} to determine the next, {@code false} to determine the previous value
+     *
+     * @return the neighbor, or {@code null} if the value has no neighbor (e.g., {@code Long.MAX_VALUE} has no next
+     * value) or the domain of the value is not known
+     */
+    protected static Object neighbor(final Object value, final boolean next) {
+        final int delta = next ? 1 : -1;
 
-        if (i1.irOverlaps(i2)) {
-            return OVERLAPS;
-        } else if (i1.irIsOverlappedBy(i2)) {
-            return IS_OVERLAPPED_BY;
-        } else if (i1.irEquals(i2)) {
-            return EQUALS;
-        } else if (i1.irBegins(i2)) {
-            return BEGINS;
-        } else if (i1.irBeginsBy(i2)) {
-            return BEGINS_BY;
-        } else if (i1.irEnds(i2)) {
-            return ENDS;
-        } else if (i1.irEndsBy(i2)) {
-            return ENDS_BY;
-        } else if (i1.irBefore(i2)) {
-            return BEFORE;
-        } else if (i1.irAfter(i2)) {
-            return AFTER;
-        } else if (i1.irStartsDirectlyBefore(i2)) {
-            return STARTS_DIRECTLY_BEFORE;
-        } else if (i1.irEndsDirectlyBefore(i2)) {
-            return ENDS_DIRECTLY_BEFORE;
-        } else if (i1.irIncludes(i2)) {
-            return INCLUDES;
-        } else if (i1.irIsDuring(i2)) {
-            return IS_DURING;
+        if (value instanceof Long) {
+            final long val = (long) value;
+            return val == (next ? Long.MAX_VALUE : Long.MIN_VALUE) ? null : val + delta;
+        } else if (value instanceof Integer) {
+            final int val = (int) value;
+            return val == (next ? Integer.MAX_VALUE : Integer.MIN_VALUE) ? null : val + delta;
+        } else if (value instanceof Short) {
+            final short val = (short) value;
+            return val == (next ? Short.MAX_VALUE : Short.MIN_VALUE) ? null : (short) (val + delta);
+        } else if (value instanceof Byte) {
+            final byte val = (byte) value;
+            return val == (next ? Byte.MAX_VALUE : Byte.MIN_VALUE) ? null : (byte) (val + delta);
+        } else if (value instanceof Double) {
+            final double val = (double) value;
+            final double neighbor = next ? Math.nextUp(val) : Math.nextDown(val);
+            return Double.isNaN(val) || neighbor == val ? null : neighbor;
+        } else if (value instanceof Float) {
+            final float val = (float) value;
+            final float neighbor = next ? Math.nextUp(val) : Math.nextDown(val);
+            return Float.isNaN(val) || neighbor == val ? null : neighbor;
         } else {
-            // this should never happen
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Determines the relation of the interval {@code [start1, end1]} to {@code [start2, end2]}, using the same
+     * semantics as {@link LongInterval}, i.e., {@code Long.MIN_VALUE} and {@code Long.MAX_VALUE} are the reserved
+     * (open) edges.
+     *
+     * @param start1 the normalized start of the first interval
+     * @param end1   the normalized end of the first interval
+     * @param start2 the normalized start of the second interval
+     * @param end2   the normalized end of the second interval
+     *
+     * @return the relation of the first to the second interval
+     */
+    public static AllenIntervalRelation classify(final long start1,
+                                                 final long end1,
+                                                 final long start2,
+                                                 final long end2) {
+        final long nextEnd1 = end1 == Long.MIN_VALUE || end1 == Long.MAX_VALUE ? end1 : end1 + 1L;
+        final long prevStart1 = start1 == Long.MIN_VALUE || start1 == Long.MAX_VALUE ? start1 : start1 - 1L;
+
+        return lookup(Long.compare(nextEnd1, start2),
+                Long.compare(prevStart1, end2),
+                Long.compare(start1, start2),
+                Long.compare(end1, end2));
+    }
+
+    /**
+     * Determines the relation of the interval {@code [start1, end1]} to {@code [start2, end2]}, using the same
+     * semantics as {@link DoubleInterval}, i.e., {@code Double.MIN_VALUE} and {@code Double.MAX_VALUE} are the
+     * reserved (open) edges.
+     *
+     * @param start1 the normalized start of the first interval
+     * @param end1   the normalized end of the first interval
+     * @param start2 the normalized start of the second interval
+     * @param end2   the normalized end of the second interval
+     *
+     * @return the relation of the first to the second interval
+     */
+    public static AllenIntervalRelation classify(final double start1,
+                                                 final double end1,
+                                                 final double start2,
+                                                 final double end2) {
+        final double nextEnd1 = end1 == Double.MIN_VALUE || end1 == Double.MAX_VALUE ? end1 : Math.nextUp(end1);
+        final double prevStart1 = start1 == Double.MIN_VALUE || start1 == Double.MAX_VALUE ?
+                start1 : Math.nextDown(start1);
+
+        return lookup(Double.compare(nextEnd1, start2),
+                Double.compare(prevStart1, end2),
+                Double.compare(start1, start2),
+                Double.compare(end1, end2));
+    }
+
+    /**
+     * Classifies the relation of the {@code query} to each of the {@code intervals} and counts the occurrences of
+     * each relation.
+     *
+     * @param query     the interval to determine the relations of
+     * @param intervals the intervals to determine the relations to
+     *
+     * @return the histogram of the relations, indexed by the {@link #ordinal()} of the relation
+     */
+    public static long[] classify(final NumberInterval query, final Iterable<? extends IInterval> intervals) {
+        final long[] histogram = new long[RELATIONS.length];
+        for (final IInterval interval : intervals) {
+            histogram[classify(query, interval).ordinal()]++;
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Maps the signs of the endpoint comparisons to the relation of {@code i1 = [s1, e1]} to {@code i2 = [s2, e2]}.
+     *
+     * @param cmpNextEnd1   the sign of comparing the value next to {@code e1} with {@code s2}
+     * @param cmpPrevStart1 the sign of comparing the value previous to {@code s1} with {@code e2}
+     * @param cmpStart      the sign of comparing {@code s1} with {@code s2}
+     * @param cmpEnd        the sign of comparing {@code e1} with {@code e2}
+     *
+     * @return the relation of {@code i1} to {@code i2}
+     */
+    protected static AllenIntervalRelation lookup(final int cmpNextEnd1,
+                                                  final int cmpPrevStart1,
+                                                  final int cmpStart,
+                                                  final int cmpEnd) {
+        return LOOKUP[27 * (Integer.signum(cmpNextEnd1) + 1) +
+                9 * (Integer.signum(cmpPrevStart1) + 1) +
+                3 * (Integer.signum(cmpStart) + 1) +
+                (Integer.signum(cmpEnd) + 1)];
+    }
+
+    private static AllenIntervalRelation[] createLookup() {
+
+        // the relations of intersecting intervals, indexed by the signs of comparing the starts and the ends
+        final AllenIntervalRelation[] intersecting = {
+                OVERLAPS, ENDS, INCLUDES,
+                BEGINS_BY, EQUALS, BEGINS,
+                IS_DURING, ENDS_BY, IS_OVERLAPPED_BY
+        };
+
+        final AllenIntervalRelation[] lookup = new AllenIntervalRelation[81];
+        for (int i = 0; i < lookup.length; i++) {
+            final int cmpNextEnd1 = i / 27 - 1;
+            final int cmpPrevStart1 = (i / 9) % 3 - 1;
+
+            if (cmpNextEnd1 < 0) {
+                lookup[i] = BEFORE;
+            } else if (cmpNextEnd1 == 0) {
+                lookup[i] = ENDS_DIRECTLY_BEFORE;
+            } else if (cmpPrevStart1 > 0) {
+                lookup[i] = AFTER;
+            } else if (cmpPrevStart1 == 0) {
+                lookup[i] = STARTS_DIRECTLY_BEFORE;
+            } else {
+                lookup[i] = intersecting[i % 9];
+            }
+        }
+
+        return lookup;
+    }
+}
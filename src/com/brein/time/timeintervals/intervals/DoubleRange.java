@@ -0,0 +1,123 @@
+package com.brein.time.timeintervals.intervals;
+
+import com.brein.time.exceptions.IllegalTimeInterval;
+import com.brein.time.exceptions.IllegalTimePoint;
+import com.brein.time.timeintervals.indexes.IntervalValueComparator;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * A compact alternative to {@link DoubleInterval}, i.e., the interval {@code [start, end]} is kept as two primitive
+ * (closed) endpoints. In contrast to a {@code DoubleInterval}, no class, open-flags, or boxed values are held and only
+ * {@code NaN} and {@code start <= end} are validated, which halves the heap needed per interval. The unique identifier
+ * is equal to the one of a {@code DoubleInterval} covering the same range, thus both can be used within the same tree
+ * (e.g., using {@code IntervalType.DOUBLE}).
+ */
+public final class DoubleRange implements IInterval<Double>, Externalizable {
+    private double start;
+    private double end;
+    private int hash;
+
+    public DoubleRange() {
+        // just for de- and serialization
+    }
+
+    public DoubleRange(final double start, final double end) throws IllegalTimeInterval, IllegalTimePoint {
+        if (Double.isNaN(start) || Double.isNaN(end)) {
+            throw new IllegalTimePoint("The value NaN is a not supported value.");
+        } else if (Double.compare(end, start) < 0) {
+            throw new IllegalTimeInterval("The end value '" + end + "' " +
+                    "cannot be smaller than the start value '" + start + "'.");
+        }
+
+        this.start = start;
+        this.end = end;
+        this.hash = determineHash();
+    }
+
+    public double getStart() {
+        return this.start;
+    }
+
+    public double getEnd() {
+        return this.end;
+    }
+
+    @Override
+    public Double getNormStart() {
+        return this.start;
+    }
+
+    @Override
+    public Double getNormEnd() {
+        return this.end;
+    }
+
+    @Override
+    public String getUniqueIdentifier() {
+        return "[" + NumberInterval.uniqueDouble(this.start) + "," + NumberInterval.uniqueDouble(this.end) + "]";
+    }
+
+    public boolean contains(final double value) {
+        return Double.compare(this.start, value) <= 0 && Double.compare(value, this.end) <= 0;
+    }
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public int compareTo(final IInterval i) {
+        if (i instanceof DoubleRange) {
+            final DoubleRange range = DoubleRange.class.cast(i);
+            final int cmpStart = Double.compare(this.start, range.start);
+            return cmpStart == 0 ? Double.compare(this.end, range.end) : cmpStart;
+        }
+
+        final int cmpStart = IntervalValueComparator.compareNumbers(getNormStart(), i.getNormStart());
+        if (cmpStart == 0) {
+            return IntervalValueComparator.compareNumbers(getNormEnd(), i.getNormEnd());
+        } else {
+            return cmpStart;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof DoubleRange) {
+            final DoubleRange range = DoubleRange.class.cast(obj);
+            return Double.compare(this.start, range.start) == 0 && Double.compare(this.end, range.end) == 0;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[" + this.start + ", " + this.end + "]";
+    }
+
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeDouble(this.start);
+        out.writeDouble(this.end);
+    }
+
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException {
+        this.start = in.readDouble();
+        this.end = in.readDouble();
+        this.hash = determineHash();
+    }
+
+    private int determineHash() {
+        return 31 * Double.hashCode(this.start) + Double.hashCode(this.end);
+    }
+}
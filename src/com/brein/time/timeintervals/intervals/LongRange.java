@@ -0,0 +1,120 @@
+package com.brein.time.timeintervals.intervals;
+
+import com.brein.time.exceptions.IllegalTimeInterval;
+import com.brein.time.timeintervals.indexes.IntervalValueComparator;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * A compact alternative to {@link LongInterval}, i.e., the interval {@code [start, end]} is kept as two primitive
+ * (closed) endpoints. In contrast to a {@code LongInterval}, no class, open-flags, or boxed values are held and no
+ * validation (besides {@code start <= end}) is performed, which halves the heap needed per interval. The unique
+ * identifier is equal to the one of a {@code LongInterval} covering the same range, thus both can be used within the
+ * same tree (e.g., using {@code IntervalType.LONG}).
+ */
+public final class LongRange implements IInterval<Long>, Externalizable {
+    private long start;
+    private long end;
+    private int hash;
+
+    public LongRange() {
+        // just for de- and serialization
+    }
+
+    public LongRange(final long start, final long end) throws IllegalTimeInterval {
+        if (end < start) {
+            throw new IllegalTimeInterval("The end value '" + end + "' " +
+                    "cannot be smaller than the start value '" + start + "'.");
+        }
+
+        this.start = start;
+        this.end = end;
+        this.hash = determineHash();
+    }
+
+    public long getStart() {
+        return this.start;
+    }
+
+    public long getEnd() {
+        return this.end;
+    }
+
+    @Override
+    public Long getNormStart() {
+        return this.start;
+    }
+
+    @Override
+    public Long getNormEnd() {
+        return this.end;
+    }
+
+    @Override
+    public String getUniqueIdentifier() {
+        return "[" + this.start + "," + this.end + "]";
+    }
+
+    public boolean contains(final long value) {
+        return this.start <= value && value <= this.end;
+    }
+
+    @Override
+    @SuppressWarnings("NullableProblems")
+    public int compareTo(final IInterval i) {
+        if (i instanceof LongRange) {
+            final LongRange range = LongRange.class.cast(i);
+            final int cmpStart = Long.compare(this.start, range.start);
+            return cmpStart == 0 ? Long.compare(this.end, range.end) : cmpStart;
+        }
+
+        final int cmpStart = IntervalValueComparator.compareNumbers(getNormStart(), i.getNormStart());
+        if (cmpStart == 0) {
+            return IntervalValueComparator.compareNumbers(getNormEnd(), i.getNormEnd());
+        } else {
+            return cmpStart;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        } else if (obj instanceof LongRange) {
+            final LongRange range = LongRange.class.cast(obj);
+            return this.start == range.start && this.end == range.end;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[%d, %d]", this.start, this.end);
+    }
+
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeLong(this.start);
+        out.writeLong(this.end);
+    }
+
+    @Override
+    public void readExternal(final ObjectInput in) throws IOException {
+        this.start = in.readLong();
+        this.end = in.readLong();
+        this.hash = determineHash();
+    }
+
+    private int determineHash() {
+        return 31 * Long.hashCode(this.start) + Long.hashCode(this.end);
+    }
+}
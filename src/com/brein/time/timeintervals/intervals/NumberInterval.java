@@ -15,6 +15,7 @@ import java.util.Locale;
 
 public class NumberInterval<T extends Number & Comparable<T>> implements IInterval<T>, Externalizable {
     private static final Logger LOGGER = Logger.getLogger(NumberInterval.class);
+    private static final long serialVersionUID = -975406222327357252L;
     private static final double MAX_DOUBLE = Math.pow(2, 54) - 2;
 
     private Class clazz;
@@ -228,8 +229,22 @@ public class NumberInterval<T extends Number & Comparable<T>> implements IInterv
     }
 
     protected String unique(final double value) {
+        return uniqueDouble(value);
+    }
+
+    /**
+     * Creates the representation of a {@code double} used within a unique identifier, i.e., integral values are
+     * represented without any fraction and no scientific notation is used.
+     *
+     * @param value the value to create the representation for
+     *
+     * @return the representation used within the unique identifier
+     *
+     * @see #getUniqueIdentifier()
+     */
+    static String uniqueDouble(final double value) {
         if (MAX_DOUBLE < Math.abs(value)) {
-            LOGGER.warn("Using double values larger than " + unique(MAX_DOUBLE));
+            LOGGER.warn("Using double values larger than " + uniqueDouble(MAX_DOUBLE));
         }
 
         if (value == Math.rint(value)) {
@@ -272,6 +287,48 @@ public class NumberInterval<T extends Number & Comparable<T>> implements IInterv
         return AllenIntervalRelation.determineRelation(this, interval);
     }
 
+    /**
+     * Checks if {@code this} interval has the specified {@code relation} to the {@code interval}, i.e., {@code
+     * ir(AllenIntervalRelation.BEFORE, interval)} is equal to {@code irBefore(interval)}.
+     *
+     * @param relation the relation to be checked
+     * @param interval the interval to check the relation to
+     *
+     * @return {@code true} if the relation holds, otherwise {@code false}
+     */
+    public boolean ir(final AllenIntervalRelation relation, final IInterval interval) {
+        switch (relation) {
+            case OVERLAPS:
+                return irOverlaps(interval);
+            case IS_OVERLAPPED_BY:
+                return irIsOverlappedBy(interval);
+            case EQUALS:
+                return irEquals(interval);
+            case BEGINS:
+                return irBegins(interval);
+            case ENDS:
+                return irEnds(interval);
+            case BEGINS_BY:
+                return irBeginsBy(interval);
+            case ENDS_BY:
+                return irEndsBy(interval);
+            case BEFORE:
+                return irBefore(interval);
+            case AFTER:
+                return irAfter(interval);
+            case INCLUDES:
+                return irIncludes(interval);
+            case IS_DURING:
+                return irIsDuring(interval);
+            case STARTS_DIRECTLY_BEFORE:
+                return irStartsDirectlyBefore(interval);
+            case ENDS_DIRECTLY_BEFORE:
+                return irEndsDirectlyBefore(interval);
+            default:
+                return false;
+        }
+    }
+
     public boolean irOverlaps(final IInterval interval) {
         return compare(getNormStart(), interval.getNormStart()) < 0 &&
                 compare(interval.getNormStart(), getNormEnd()) <= 0 &&
@@ -0,0 +1,201 @@
+package com.brein.time.timeseries;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The arithmetic of the buckets shared by the {@link BucketTimeSeries} and the {@link PrimitiveBucketTimeSeries},
+ * i.e., the mapping of time-stamps to the number of their bucket (and to the end-points of the bucket), of the
+ * number of a bucket to the index within the ring-buffer, and the reset of the buckets passed when now is moved.
+ * <p>
+ * The number of a bucket is the time-stamp (in the time-unit of the configuration) divided by the size of a bucket,
+ * rounded towards zero. If a bucket covers whole seconds, the number is determined from the seconds directly (using
+ * a shift, if the seconds per bucket are a power of two), see {@link #secondsPerBucket(BucketTimeSeriesConfig)}.
+ */
+final class BucketArithmetic {
+
+    /**
+     * Resets the buckets within {@code [fromIndex, endIndex)}, whereby {@code -1} is the first (or last) index.
+     */
+    @FunctionalInterface
+    interface Filler {
+        void fill(final int fromIndex, final int endIndex);
+    }
+
+    private BucketArithmetic() {
+        /*
+         * Utility classes, which are a collection of static members,
+         * are not meant to be instantiated.
+         */
+    }
+
+    /**
+     * Determines the seconds covered by a bucket of the {@code config}.
+     *
+     * @param config the configuration to determine the seconds for
+     *
+     * @return the seconds per bucket, or {@code -1} if a bucket does not cover whole seconds (e.g., a bucket of 1500
+     * milliseconds or of 500 milliseconds)
+     */
+    static long secondsPerBucket(final BucketTimeSeriesConfig<?> config) {
+        final long seconds = TimeUnit.SECONDS.convert(config.getBucketSize(), config.getTimeUnit());
+        final boolean exact = config.getTimeUnit().convert(seconds, TimeUnit.SECONDS) == config.getBucketSize();
+
+        return seconds > 0L && exact ? seconds : -1L;
+    }
+
+    /**
+     * Determines the shift to use instead of dividing by the {@code secondsPerBucket}.
+     *
+     * @param secondsPerBucket the seconds per bucket, see {@link #secondsPerBucket(BucketTimeSeriesConfig)}
+     *
+     * @return the shift, or {@code -1} if the seconds per bucket are not a power of two
+     */
+    static int secondsPerBucketShift(final long secondsPerBucket) {
+        return secondsPerBucket > 0L && Long.bitCount(secondsPerBucket) == 1 ?
+                Long.numberOfTrailingZeros(secondsPerBucket) : -1;
+    }
+
+    /**
+     * Determines the number of the bucket the {@code unixTimeStamp} belongs into, without creating any instance.
+     *
+     * @param config                the configuration of the time-series
+     * @param secondsPerBucket      the seconds per bucket, see {@link #secondsPerBucket(BucketTimeSeriesConfig)}
+     * @param secondsPerBucketShift the shift, see {@link #secondsPerBucketShift(long)}
+     * @param unixTimeStamp         the time-stamp to determine the number of the bucket for
+     *
+     * @return the number of the bucket
+     */
+    static long bucket(final BucketTimeSeriesConfig<?> config,
+                       final long secondsPerBucket,
+                       final int secondsPerBucketShift,
+                       final long unixTimeStamp) {
+        if (secondsPerBucket == -1L) {
+            return config.getTimeUnit().convert(unixTimeStamp, TimeUnit.SECONDS) / config.getBucketSize();
+        } else if (secondsPerBucketShift != -1 && unixTimeStamp >= 0) {
+            return unixTimeStamp >>> secondsPerBucketShift;
+        } else {
+
+            // rounding towards zero twice (to the time-unit and to the bucket) is the same as rounding once
+            return unixTimeStamp / secondsPerBucket;
+        }
+    }
+
+    /**
+     * Determines the end-points of the bucket the {@code unixTimeStamp} belongs into.
+     *
+     * @param config        the configuration of the time-series
+     * @param unixTimeStamp the time-stamp to determine the bucket for
+     *
+     * @return the end-points of the bucket
+     */
+    static BucketEndPoints normalize(final BucketTimeSeriesConfig<?> config, final long unixTimeStamp) {
+        final TimeUnit timeUnit = config.getTimeUnit();
+
+        // the time-stamp in the unit of the time-series is mapped to the start of its bucket, e.g., 1002 to 1000
+        final long timeStamp = timeUnit.convert(unixTimeStamp, TimeUnit.SECONDS);
+        final long start = timeStamp - timeStamp % config.getBucketSize();
+        final long end = start + config.getBucketSize();
+
+        return new BucketEndPoints(TimeUnit.SECONDS.convert(start, timeUnit),
+                TimeUnit.SECONDS.convert(end, timeUnit));
+    }
+
+    /**
+     * Determines the end-points of now, if now is moved forward by {@code diff} buckets to the bucket of the {@code
+     * unixTimeStamp}. The end-points of a bucket, which does not cover whole seconds, are not equidistant (i.e., now
+     * cannot be moved by a multiple of its size), thus the end-points are determined for the time-stamp instead.
+     *
+     * @param config           the configuration of the time-series
+     * @param secondsPerBucket the seconds per bucket, see {@link #secondsPerBucket(BucketTimeSeriesConfig)}
+     * @param now              the current end-points of now
+     * @param diff             the amount of buckets to move forward
+     * @param unixTimeStamp    the time-stamp now is moved to
+     *
+     * @return the end-points of the new now
+     */
+    static BucketEndPoints move(final BucketTimeSeriesConfig<?> config,
+                                final long secondsPerBucket,
+                                final BucketEndPoints now,
+                                final long diff,
+                                final long unixTimeStamp) {
+        return secondsPerBucket == -1L ? normalize(config, unixTimeStamp) : now.move(diff);
+    }
+
+    /**
+     * Resets the buckets passed when now is moved forward by {@code diff} buckets.
+     *
+     * <pre>
+     * Assume now is moved forward by three buckets, i.e., the currentNowIdx is moved backwards by three:
+     *
+     *  [0] [1] [2] [3] [4] [5] [6]         [0] [1] [2] [3] [4] [5] [6]
+     *               ↑                  =>   ↑
+     *         currentNowIdx               currentNowIdx
+     *
+     * The passed buckets are [0, 3), there are three cases to consider:
+     *  1.) the whole array has to be reset
+     *  2.) the array has to be reset "around the corner"
+     *  3.) the array has to be reset partly
+     * </pre>
+     *
+     * @param config        the configuration of the time-series
+     * @param currentNowIdx the index of now within the ring-buffer
+     * @param diff          the amount of buckets now is moved forward, must be positive
+     * @param filler        resets the buckets of the ring-buffer
+     *
+     * @return the index of the new now within the ring-buffer
+     */
+    static int moveNow(final BucketTimeSeriesConfig<?> config,
+                       final int currentNowIdx,
+                       final long diff,
+                       final Filler filler) {
+        final int newCurrentNowIdx = idx(config, currentNowIdx - diff);
+
+        if (diff >= config.getTimeSeriesSize()) {
+            filler.fill(-1, -1);
+        } else if (newCurrentNowIdx > currentNowIdx) {
+            filler.fill(0, currentNowIdx);
+            filler.fill(newCurrentNowIdx, -1);
+        } else {
+            filler.fill(newCurrentNowIdx, currentNowIdx);
+        }
+
+        return newCurrentNowIdx;
+    }
+
+    /**
+     * Determines the number of buckets used to cover the seconds, i.e., the ceiling of the division.
+     *
+     * @param config           the configuration of the time-series
+     * @param secondsPerBucket the seconds per bucket, see {@link #secondsPerBucket(BucketTimeSeriesConfig)}
+     * @param diffInSeconds    the difference in seconds
+     *
+     * @return the amount of buckets used to cover this amount
+     */
+    static int bucketSize(final BucketTimeSeriesConfig<?> config,
+                          final long secondsPerBucket,
+                          final long diffInSeconds) {
+        if (secondsPerBucket == -1L) {
+            return (int) Math.ceil((double) diffInSeconds / TimeUnit.SECONDS.convert(config.getBucketSize(),
+                    config.getTimeUnit()));
+        }
+
+        // the division of negative values is already rounded towards zero
+        final long buckets = diffInSeconds / secondsPerBucket;
+        return (int) (diffInSeconds > 0 && diffInSeconds % secondsPerBucket != 0 ? buckets + 1 : buckets);
+    }
+
+    /**
+     * Maps the absolute index (e.g., {@code currentNowIdx - diff}) to the index within the ring-buffer.
+     *
+     * @param config the configuration of the time-series
+     * @param absIdx the absolute index
+     *
+     * @return the index within {@code [0, timeSeriesSize)}
+     */
+    static int idx(final BucketTimeSeriesConfig<?> config, final long absIdx) {
+
+        // the remainder is within (-timeSeriesSize, timeSeriesSize), thus the size is added once if negative
+        final int idx = (int) (absIdx % config.getTimeSeriesSize());
+        return idx < 0 ? idx + config.getTimeSeriesSize() : idx;
+    }
+}
@@ -6,24 +6,34 @@ import com.brein.time.exceptions.IllegalTimePointIndex;
 import com.brein.time.exceptions.IllegalTimePointMovement;
 import com.brein.time.exceptions.IllegalValueRegardingConfiguration;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * This implementation represents a time-series. Each time-point of the series represents several actual time-points on
@@ -53,6 +63,9 @@ import java.util.function.Function;
 public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Serializable {
     private static final long serialVersionUID = 2L;
 
+    private static final Set<Class<?>> INTEGRAL_CONTENTS = new HashSet<>(Arrays.asList(
+            Byte.class, Short.class, Integer.class, Long.class));
+
     protected final BucketTimeSeriesConfig<T> config;
 
     protected T[] timeSeries = null;
@@ -63,6 +76,19 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
     // the observer has to be reset every time it gets deserialized
     protected transient BiConsumer<Integer, T> observer;
 
+    // the range index is optional and has to be enabled again every time it gets deserialized
+    protected transient BucketTimeSeriesRangeIndex<T> rangeIndex;
+
+    /*
+     * The number of the bucket of now, determined for the nowBucketOf end-points (i.e., it is determined again
+     * whenever now is replaced, unless it is set together with now, see applyNow), as well as the seconds per bucket (0 if not determined yet, -1 if a bucket is
+     * shorter than a second) and the shift if the seconds per bucket is a power of two (-1 otherwise).
+     */
+    private transient BucketEndPoints nowBucketOf = null;
+    private transient long nowBucket = 0L;
+    private transient long secondsPerBucket = 0L;
+    private transient int secondsPerBucketShift = -1;
+
     public BucketTimeSeries(final BucketTimeSeriesConfig<T> config) {
         this(config, null);
     }
@@ -91,7 +117,7 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
         this.config = config;
         this.timeSeries = timeSeries;
 
-        this.now = normalizeUnixTimeStamp(now);
+        applyNow(normalizeUnixTimeStamp(now), bucket(now));
         this.currentNowIdx = 0;
 
         if (this.timeSeries != null && this.timeSeries.length != config.getTimeSeriesSize()) {
@@ -149,9 +175,7 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
 
         if (this.timeSeries != null && this.currentNowIdx != -1) {
             result = (T[]) Array.newInstance(config.getBucketContent(), config.getTimeSeriesSize());
-
-            final AtomicInteger i = new AtomicInteger(0);
-            forEach(val -> result[i.getAndIncrement()] = val);
+            forEachOrdered((val, i) -> result[i] = val);
         } else {
             result = createEmptyArray();
         }
@@ -161,24 +185,111 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
 
     public long[] create(final Function<T, Long> supplier) {
         final long[] result = new long[config.getTimeSeriesSize()];
+        forEachOrdered((val, i) -> result[i] = supplier.apply(val));
+        return result;
+    }
+
+    /**
+     * Passes the values of the time-series to the {@code consumer} as if they would be ordered (i.e., the value of
+     * now is passed with the zero-based index {@code 0}, the previous bucket with {@code 1}, ...), without copying the
+     * time-series. If now is not set yet, the empty value (i.e., zero or {@code null}) is passed for each bucket.
+     *
+     * @param consumer the consumer of the values and the zero-based indexes
+     */
+    public void forEachOrdered(final ObjIntConsumer<T> consumer) {
+        final int size = config.getTimeSeriesSize();
 
         if (this.timeSeries != null && this.currentNowIdx != -1) {
-            final AtomicInteger i = new AtomicInteger(0);
-            forEach(val -> result[i.getAndIncrement()] = supplier.apply(val));
-        } else {
-            final boolean applyZero = applyZero();
 
-            // just assume we have nulls everywhere
-            for (int i = 0; i < result.length; i++) {
-                if (applyZero) {
-                    result[i] = supplier.apply(zero());
-                } else {
-                    result[i] = supplier.apply(null);
-                }
+            // the ring is [currentNowIdx, size) followed by [0, currentNowIdx)
+            final int head = size - this.currentNowIdx;
+            for (int i = 0; i < head; i++) {
+                consumer.accept(this.timeSeries[this.currentNowIdx + i], i);
+            }
+            for (int i = head; i < size; i++) {
+                consumer.accept(this.timeSeries[i - head], i);
+            }
+        } else {
+            final T empty = applyZero() ? zero() : null;
+            for (int i = 0; i < size; i++) {
+                consumer.accept(empty, i);
             }
         }
+    }
 
-        return result;
+    /**
+     * Copies the ordered values (see {@link #order()}) of the time-series, which must be numbers, into the {@code
+     * dest} array starting at {@code offset}, i.e., several time-series can be exported into a single array without
+     * creating any intermediate array. A {@code null} value is copied as {@code 0}.
+     *
+     * @param dest   the array to copy the values to
+     * @param offset the position within {@code dest} to copy the value of now to
+     *
+     * @throws IndexOutOfBoundsException if the values do not fit into {@code dest} starting at {@code offset}
+     */
+    public void copyTo(final long[] dest, final int offset) throws IndexOutOfBoundsException {
+        final int size = config.getTimeSeriesSize();
+        if (offset < 0 || offset > dest.length - size) {
+            throw new IndexOutOfBoundsException(String.format("Cannot copy %d values to the offset %d of an array " +
+                    "of length %d.", size, offset, dest.length));
+        }
+
+        // no consumer is used, i.e., nothing is created per call
+        for (int i = 0; i < size; i++) {
+            final T val = getOrdered(i);
+            dest[offset + i] = val == null ? 0L : ((Number) val).longValue();
+        }
+    }
+
+    /**
+     * Copies the ordered values (see {@link #copyTo(long[], int)}) into the {@code dest} buffer, starting at its
+     * current position (which is moved forward by the size of the time-series), e.g., into a re-used (direct) buffer.
+     *
+     * @param dest the buffer to copy the values to
+     *
+     * @throws BufferOverflowException if there is not enough space remaining within the buffer
+     * @throws ReadOnlyBufferException if the buffer is read-only
+     */
+    public void copyTo(final LongBuffer dest) throws BufferOverflowException, ReadOnlyBufferException {
+        final int size = config.getTimeSeriesSize();
+        if (dest.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        } else if (dest.remaining() < size) {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = 0; i < size; i++) {
+            final T val = getOrdered(i);
+            dest.put(val == null ? 0L : ((Number) val).longValue());
+        }
+    }
+
+    /**
+     * Creates a read-only view of the ordered values (see {@link #order()}) of the time-series, i.e., {@code
+     * asList().get(i)} is {@code getFromZeroBasedIdx(i)}. The view is not a copy, it reflects the changes of the
+     * time-series (including moving now).
+     *
+     * @return a read-only view of the ordered values
+     */
+    public List<T> asList() {
+        return new OrderedList();
+    }
+
+    /**
+     * Gets the value of the bucket with the zero-based index {@code offset} (i.e., zero is now, 1 is the previous
+     * moment, ...), without validating the offset. If now is not set yet, the empty value is returned.
+     *
+     * @param offset the zero-based index, must be within {@code [0, timeSeriesSize)}
+     *
+     * @return the value of the bucket
+     */
+    protected T getOrdered(final int offset) {
+        if (this.timeSeries == null || this.currentNowIdx == -1) {
+            return applyZero() ? zero() : null;
+        }
+
+        final int idx = this.currentNowIdx + offset;
+        return this.timeSeries[idx < this.timeSeries.length ? idx : idx - this.timeSeries.length];
     }
 
     public int getNowIdx() {
@@ -261,10 +372,97 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
         set(idx, mod.apply(get(idx)));
     }
 
+    /**
+     * Adds the {@code values} to the buckets of the {@code unixTimeStamps} (i.e., {@code values[i]} is added to the
+     * bucket of {@code unixTimeStamps[i]}), which must be numbers. The result is the same as adding the values one by
+     * one (e.g., using {@link #modify(long, Function)}), but now is moved only once (to the most recent time-stamp),
+     * the values are summed up per bucket first, and each bucket is set (and the observer is called) once only. The
+     * time-stamps do not have to be sorted.
+     *
+     * @param unixTimeStamps the time-stamps of the values
+     * @param values         the values to add
+     *
+     * @throws IllegalArgumentException           if the amount of time-stamps and values differs
+     * @throws IllegalValueRegardingConfiguration if the content of the time-series is not a number
+     */
+    public void addAll(final long[] unixTimeStamps,
+                       final long[] values) throws IllegalArgumentException, IllegalValueRegardingConfiguration {
+        if (unixTimeStamps.length != values.length) {
+            throw new IllegalArgumentException(String.format("The amount of time-stamps (%d) and values (%d) differ.",
+                    unixTimeStamps.length, values.length));
+        }
+
+        // fail (if the content is not a supported number) before now is moved, i.e., before any bucket is reset
+        valueOf(0L);
+        if (unixTimeStamps.length == 0) {
+            return;
+        }
+
+        // move now once, i.e., the passed buckets are reset once only
+        long max = Long.MIN_VALUE;
+        for (final long unixTimeStamp : unixTimeStamps) {
+            max = Math.max(max, unixTimeStamp);
+        }
+        if (this.now == null || bucket(max) > getNowBucket()) {
+            setNow(max);
+        }
+
+        // sum up the values per bucket, values which are too old are ignored
+        final int size = config.getTimeSeriesSize();
+        final long nowBucket = getNowBucket();
+        final long[] sums = new long[size];
+        final boolean[] touched = new boolean[size];
+        for (int i = 0; i < unixTimeStamps.length; i++) {
+            final long diff = nowBucket - bucket(unixTimeStamps[i]);
+            if (diff < size) {
+                final int idx = idx(currentNowIdx + diff);
+                sums[idx] += values[i];
+                touched[idx] = true;
+            }
+        }
+
+        for (int idx = 0; idx < size; idx++) {
+            if (touched[idx]) {
+                set(idx, addition(get(idx), valueOf(sums[idx])));
+            }
+        }
+    }
+
+    /**
+     * Adds the values of the {@code events} to the buckets of the time-stamps of the events, see {@link
+     * #addAll(long[], long[])}.
+     *
+     * @param events        the events to add
+     * @param unixTimeStamp the function to get the time-stamp of an event
+     * @param value         the function to get the value of an event
+     * @param <E>           the type of the events
+     *
+     * @throws IllegalValueRegardingConfiguration if the content of the time-series is not a number
+     */
+    public <E> void addAll(final Stream<E> events,
+                           final ToLongFunction<E> unixTimeStamp,
+                           final ToLongFunction<E> value) throws IllegalValueRegardingConfiguration {
+        final List<E> list = events.collect(Collectors.toList());
+
+        final long[] unixTimeStamps = new long[list.size()];
+        final long[] values = new long[list.size()];
+        for (int i = 0; i < unixTimeStamps.length; i++) {
+            final E event = list.get(i);
+            unixTimeStamps[i] = unixTimeStamp.applyAsLong(event);
+            values[i] = value.applyAsLong(event);
+        }
+
+        addAll(unixTimeStamps, values);
+    }
+
     public void set(final int idx, final T value) throws IllegalTimePointIndex {
         validateIdx(idx);
         this.timeSeries[idx] = value;
 
+        if (this.rangeIndex != null) {
+            this.rangeIndex.set(idx, value);
+        }
+
         // call the observer on a value change
         if (this.observer != null) {
             this.observer.accept(idx, value);
@@ -273,7 +471,7 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
 
     public void initNow(final long now, final int currentNowIdx) {
         if (this.now == null && this.currentNowIdx == -1) {
-            this.now = normalizeUnixTimeStamp(now);
+            applyNow(normalizeUnixTimeStamp(now), bucket(now));
             this.currentNowIdx = currentNowIdx;
         } else {
             throw new IllegalTimePointMovement("Cannot modify the now and the currentIdx once values where added.");
@@ -302,32 +500,27 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
      * @return the amount of buckets used to cover this amount
      */
     public int getBucketSize(final long diffInSeconds) {
-
-        // convert one unit of this into seconds
-        final long secondsPerBucket = TimeUnit.SECONDS.convert(config.getBucketSize(), config.getTimeUnit());
-        return (int) Math.ceil((double) diffInSeconds / secondsPerBucket);
+        return BucketArithmetic.bucketSize(config, getSecondsPerBucket(), diffInSeconds);
     }
 
     protected int handleDataUnixTimeStamp(final long unixTimeStamp) {
 
-        // first we have to determine the bucket (idx)
-        final BucketEndPoints bucketEndPoints = normalizeUnixTimeStamp(unixTimeStamp);
-
-        final long diff;
+        // the first value, now is set to the bucket of the value
         if (this.now == null) {
             setNow(unixTimeStamp);
-            diff = 0L;
-        } else {
-            diff = this.now.diff(bucketEndPoints);
+            return currentNowIdx;
         }
 
+        // determine the distance of the bucket (idx) to now, without creating the end-points of the bucket
+        final long diff = bucket(unixTimeStamp) - getNowBucket();
+
         // we are in the future, let's move there and set it
         if (diff > 0) {
             setNow(unixTimeStamp);
             return currentNowIdx;
         }
         // if we are outside the time, just ignore it
-        else if (Math.abs(diff) >= config.getTimeSeriesSize()) {
+        else if (-diff >= config.getTimeSeriesSize()) {
             // do nothing
             return -1;
         }
@@ -337,6 +530,50 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
         }
     }
 
+    /**
+     * Determines the number of the bucket the {@code unixTimeStamp} belongs into, i.e., the start of the bucket
+     * determined by {@link #normalizeUnixTimeStamp(long)} divided by the size of the bucket. In contrast to {@code
+     * normalizeUnixTimeStamp}, no instance is created.
+     *
+     * @param unixTimeStamp the time-stamp to determine the number of the bucket for
+     *
+     * @return the number of the bucket
+     */
+    protected long bucket(final long unixTimeStamp) {
+        return BucketArithmetic.bucket(config, getSecondsPerBucket(), secondsPerBucketShift, unixTimeStamp);
+    }
+
+    protected long getNowBucket() {
+        if (this.nowBucketOf != this.now) {
+            this.nowBucket = bucket(this.now.getUnixTimeStampStart());
+            this.nowBucketOf = this.now;
+        }
+
+        return this.nowBucket;
+    }
+
+    /**
+     * Sets now together with the number of its bucket. The number cannot always be determined from the end-points of
+     * now, i.e., if a bucket is shorter than a second, the start of several buckets falls into the same second.
+     *
+     * @param now       the end-points of the new now
+     * @param nowBucket the number of the bucket of the new now, see {@link #bucket(long)}
+     */
+    protected void applyNow(final BucketEndPoints now, final long nowBucket) {
+        this.now = now;
+        this.nowBucket = nowBucket;
+        this.nowBucketOf = now;
+    }
+
+    protected long getSecondsPerBucket() {
+        if (this.secondsPerBucket == 0L) {
+            this.secondsPerBucket = BucketArithmetic.secondsPerBucket(config);
+            this.secondsPerBucketShift = BucketArithmetic.secondsPerBucketShift(this.secondsPerBucket);
+        }
+
+        return this.secondsPerBucket;
+    }
+
     protected void validateIdx(final int idx) throws IllegalTimePointIndex {
         if (idx < 0 || idx >= config.getTimeSeriesSize()) {
             throw new IllegalTimePointIndex(String.format("The index %d is out of bound [%d, %d].", idx, 0, config
@@ -345,14 +582,7 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
     }
 
     protected int idx(final long absIdx) {
-        /*
-         * The absolute index has to be mapped to a real array index. This is done
-         * by using the modulo operation. Nevertheless, the module has a range of
-         * -1 * config.getTimeSeriesSize() to config.getTimeSeriesSize(). Thus,
-         * if negative we have to add the config.getTimeSeriesSize() once.
-         */
-        final int idx = (int) (absIdx % config.getTimeSeriesSize());
-        return idx < 0 ? idx + config.getTimeSeriesSize() : idx;
+        return BucketArithmetic.idx(config, absIdx);
     }
 
     /**
@@ -365,29 +595,12 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
      * @return the bucket for the specified {@code unixTimeStamp} based on the configuration of the time-series
      */
     public BucketEndPoints normalizeUnixTimeStamp(final long unixTimeStamp) {
-        final TimeUnit timeUnit = config.getTimeUnit();
-
-        // first get the time stamp in the unit of the time-series
-        final long timeStamp = timeUnit.convert(unixTimeStamp, TimeUnit.SECONDS);
 
         /*
-         * Now lets, normalize the time stamp regarding to the bucketSize:
-         *  1.) we need the size of a bucket
-         *  2.) we need where the current time stamp is located within the size,
-         *      i.e., how much it reaches into the bucket (ratio => offset)
-         *  3.) we use the calculated offset to determine the end points (in seconds)
-         *
-         *  Example:
-         *    The time stamp 1002 (in minutes or seconds or ...?) should be mapped
-         *    to a normalized bucket, so the bucket would be, e.g., [1000, 1005).
+         * The time stamp (in the unit of the time-series) is normalized regarding the bucketSize, e.g., the time
+         * stamp 1002 (in minutes or seconds or ...?) is mapped to the bucket [1000, 1005), see BucketArithmetic.
          */
-        final int bucketSize = config.getBucketSize();
-        final long offset = timeStamp % bucketSize;
-        final long start = timeStamp - offset;
-        final long end = start + config.getBucketSize();
-
-        return new BucketEndPoints(TimeUnit.SECONDS.convert(start, timeUnit),
-                TimeUnit.SECONDS.convert(end, timeUnit));
+        return BucketArithmetic.normalize(config, unixTimeStamp);
     }
 
     @SuppressWarnings("unchecked")
@@ -424,6 +637,44 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
         }
     }
 
+    /**
+     * Creates an instance of the content of the time-series representing the {@code value}.
+     *
+     * @param value the value to create the instance for
+     *
+     * @return the instance representing the value
+     *
+     * @throws IllegalValueRegardingConfiguration if the content of the time-series is not a number
+     */
+    @SuppressWarnings("unchecked")
+    protected T valueOf(final long value) throws IllegalValueRegardingConfiguration {
+        final Class<?> contentType = config.getBucketContent();
+
+        if (Byte.class.equals(contentType)) {
+            return (T) Byte.valueOf((byte) value);
+        } else if (Short.class.equals(contentType)) {
+            return (T) Short.valueOf((short) value);
+        } else if (Integer.class.equals(contentType)) {
+            return (T) Integer.valueOf((int) value);
+        } else if (Long.class.equals(contentType)) {
+            return (T) Long.valueOf(value);
+        } else if (Double.class.equals(contentType)) {
+            return (T) Double.valueOf(value);
+        } else if (Float.class.equals(contentType)) {
+            return (T) Float.valueOf(value);
+        } else if (BigDecimal.class.equals(contentType)) {
+            return (T) BigDecimal.valueOf(value);
+        } else if (BigInteger.class.equals(contentType)) {
+            return (T) BigInteger.valueOf(value);
+        } else if (AtomicInteger.class.equals(contentType)) {
+            return (T) new AtomicInteger((int) value);
+        } else if (AtomicLong.class.equals(contentType)) {
+            return (T) new AtomicLong(value);
+        } else {
+            throw new IllegalValueRegardingConfiguration("The content '" + contentType + "' is not a number.");
+        }
+    }
+
     public BucketTimeSeriesConfig<T> getConfig() {
         return config;
     }
@@ -482,7 +733,7 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
          */
         if (this.currentNowIdx == -1 || this.now == null) {
             this.currentNowIdx = 0;
-            this.now = normalizeUnixTimeStamp(unixTimeStamp);
+            applyNow(normalizeUnixTimeStamp(unixTimeStamp), bucket(unixTimeStamp));
         } else {
 
             /*
@@ -506,42 +757,31 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
              *     if it is zero => done, otherwise => erase the fields in between and reset
              *     to zero or null
              */
-            final BucketEndPoints newNow = normalizeUnixTimeStamp(unixTimeStamp);
-            final long diff = this.now.diff(newNow);
+            final long diff = bucket(unixTimeStamp) - getNowBucket();
 
             if (diff < 0) {
                 throw new IllegalTimePointMovement(String.format("Cannot move to the past (current: %s, update: %s)",
-                        this.now, newNow));
+                        this.now, normalizeUnixTimeStamp(unixTimeStamp)));
             } else if (diff > 0) {
-                final int newCurrentNowIdx = idx(currentNowIdx - diff);
-
-                /*
-                 * Remove the "passed" information. There are several things we have to
-                 * consider:
-                 *  1.) the whole array has to be reset
-                 *  2.) the array has to be reset partly forward
-                 *  3.) the array has to be reset "around the corner"
-                 */
-                if (diff >= config.getTimeSeriesSize()) {
-                    fill(-1, -1);
-                } else if (newCurrentNowIdx > currentNowIdx) {
-                    fill(0, currentNowIdx);
-                    fill(newCurrentNowIdx, -1);
-                } else {
-                    fill(newCurrentNowIdx, currentNowIdx);
-                }
+                final BucketEndPoints newNow = BucketArithmetic.move(config, getSecondsPerBucket(), this.now, diff,
+                        unixTimeStamp);
+                final long newNowBucket = getNowBucket() + diff;
 
-                // set the values calculated
-                this.currentNowIdx = newCurrentNowIdx;
-                this.now = newNow;
+                // remove the "passed" information, i.e., reset the buckets between the old and the new now
+                this.currentNowIdx = BucketArithmetic.moveNow(config, currentNowIdx, diff, this::fill);
+                applyNow(newNow, newNowBucket);
             }
         }
     }
 
     public void setTimeSeries(final T[] timeSeries, final long now) {
-        this.now = normalizeUnixTimeStamp(now);
+        applyNow(normalizeUnixTimeStamp(now), bucket(now));
         this.currentNowIdx = 0;
         this.timeSeries = timeSeries;
+
+        if (this.rangeIndex != null) {
+            this.rangeIndex = new BucketTimeSeriesRangeIndex<>(this.timeSeries);
+        }
     }
 
     public void combine(final BucketTimeSeries<T> timeSeries) throws IllegalConfiguration {
@@ -559,6 +799,119 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
         }
     }
 
+    /**
+     * Adds the values of all the {@code timeSeries} to this time-series (e.g., to merge the time-series of several
+     * shards), see {@link #combineAll(Collection, BiFunction)}.
+     *
+     * @param timeSeries the time-series to add
+     *
+     * @throws IllegalConfiguration if the configuration of any time-series differs
+     */
+    public void combineAll(final Collection<? extends BucketTimeSeries<T>> timeSeries) throws IllegalConfiguration {
+        if (!applyZero() || !INTEGRAL_CONTENTS.contains(config.getBucketContent())) {
+            combineAll(timeSeries, this::addition);
+            return;
+        }
+
+        /*
+         * Integral numbers are summed up as long (wrapping the same way as addition), instead of boxing each sum. A
+         * null value (e.g., set explicitly) is added as 0, like addition does.
+         */
+        final long[] sums = new long[config.getTimeSeriesSize()];
+        if (align(timeSeries)) {
+            forEachOrdered((val, offset) -> sums[offset] = val == null ? 0L : ((Number) val).longValue());
+            for (final BucketTimeSeries<T> ts : timeSeries) {
+                final int lag = lag(ts);
+                for (int offset = lag; offset < sums.length; offset++) {
+                    final T val = ts.getOrdered(offset - lag);
+                    sums[offset] += val == null ? 0L : ((Number) val).longValue();
+                }
+            }
+
+            for (int offset = 0; offset < sums.length; offset++) {
+                set(idx(currentNowIdx + offset), valueOf(sums[offset]));
+            }
+        }
+    }
+
+    /**
+     * Combines the values of all the {@code timeSeries} with the values of this time-series. In contrast to calling
+     * {@link #combine(BucketTimeSeries, BiFunction)} for each time-series, now is moved once (to the most recent now
+     * of all the time-series), none of the time-series is copied to be moved, and each bucket of this is set once
+     * only, i.e., the observer is called once per bucket.
+     *
+     * @param timeSeries the time-series to combine with this
+     * @param cmb        the function used to combine the values of a bucket, the first value is the one of this (or
+     *                   the already combined value)
+     *
+     * @throws IllegalConfiguration if the configuration of any time-series differs
+     */
+    @SuppressWarnings("unchecked")
+    public void combineAll(final Collection<? extends BucketTimeSeries<T>> timeSeries,
+                           final BiFunction<T, T, T> cmb) throws IllegalConfiguration {
+        if (!align(timeSeries)) {
+            return;
+        }
+
+        final Object[] values = new Object[config.getTimeSeriesSize()];
+        forEachOrdered((val, offset) -> values[offset] = val);
+        for (final BucketTimeSeries<T> ts : timeSeries) {
+            final int lag = lag(ts);
+            for (int offset = lag; offset < values.length; offset++) {
+                values[offset] = cmb.apply((T) values[offset], ts.getOrdered(offset - lag));
+            }
+        }
+
+        for (int offset = 0; offset < values.length; offset++) {
+            set(idx(currentNowIdx + offset), (T) values[offset]);
+        }
+    }
+
+    /**
+     * Moves now of this to the most recent now of this and the {@code timeSeries}.
+     *
+     * @param timeSeries the time-series to align this with
+     *
+     * @return {@code true} if now of this is set, otherwise (i.e., if none of the time-series has a now) {@code
+     * false}
+     *
+     * @throws IllegalConfiguration if the configuration of any time-series differs
+     */
+    protected boolean align(final Collection<? extends BucketTimeSeries<T>> timeSeries) throws IllegalConfiguration {
+        long now = getNow();
+        for (final BucketTimeSeries<T> ts : timeSeries) {
+            if (!Objects.equals(ts.config, config)) {
+                throw new IllegalConfiguration("The time-series to combine must have the same configuration.");
+            }
+
+            now = Math.max(now, ts.getNow());
+        }
+
+        if (now == -1L) {
+            return false;
+        } else if (now != getNow()) {
+            setNow(now);
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines the amount of buckets the now of the {@code timeSeries} is behind the now of this, i.e., the bucket
+     * with the zero-based index {@code i} of the time-series is the bucket {@code i + lag} of this.
+     *
+     * @param timeSeries the time-series to determine the lag for
+     *
+     * @return the lag, {@code timeSeriesSize} if no bucket of the time-series is covered by this
+     */
+    protected int lag(final BucketTimeSeries<T> timeSeries) {
+        if (timeSeries.now == null || timeSeries.currentNowIdx == -1) {
+            return config.getTimeSeriesSize();
+        }
+
+        return (int) Math.min(config.getTimeSeriesSize(), getNowBucket() - timeSeries.getNowBucket());
+    }
+
     protected <B extends BucketTimeSeries<T>> B sync(final B timeSeries, final Function<B, B> copy) throws
             IllegalConfiguration {
 
@@ -593,9 +946,20 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
         return ts;
     }
 
+    /**
+     * Replaces this time-series by its compact form (see {@link BucketTimeSeriesCodec}) when serialized, if the
+     * content is supported by the codec. Subclasses and other contents are serialized as before, and time-series
+     * serialized before are read as before.
+     *
+     * @return the object to be serialized instead of this
+     */
+    private Object writeReplace() throws ObjectStreamException {
+        return BucketTimeSeriesCodec.isSupported(config) ? new BucketTimeSeriesSerializationProxy(this) : this;
+    }
+
     @Override
     public String toString() {
-        return Arrays.toString(order());
+        return asList().toString();
     }
 
     @SuppressWarnings("unchecked")
@@ -656,10 +1020,207 @@ public class BucketTimeSeries<T extends Serializable> implements Iterable<T>, Se
     }
 
     public long sumTimeSeries() {
+        if (this.rangeIndex != null) {
+            return this.rangeIndex.sum();
+        }
+
         long totalSum = 0;
         for (final T i : this.timeSeries) {
             totalSum += ((Number) i).longValue();
         }
         return totalSum;
     }
+
+    /**
+     * Enables (or disables) the range index of the time-series, which is updated whenever a bucket is set. The index
+     * is used by the range queries (e.g., {@link #sum(long, long)} or {@link #max(long, long)}), which are answered in
+     * {@code O(log n)} instead of iterating the buckets. Values modified in place (e.g., an {@code AtomicLong} of a
+     * bucket) are not noticed by the index.
+     *
+     * @param rangeIndexed {@code true} to build the index, {@code false} to remove it
+     *
+     * @throws IllegalValueRegardingConfiguration if the content of the time-series is not a number
+     */
+    public void setRangeIndexed(final boolean rangeIndexed) throws IllegalValueRegardingConfiguration {
+        if (!rangeIndexed) {
+            this.rangeIndex = null;
+        } else if (!Number.class.isAssignableFrom(config.getBucketContent())) {
+            throw new IllegalValueRegardingConfiguration("The content '" + config.getBucketContent() +
+                    "' is not a number, thus it cannot be range indexed.");
+        } else {
+            this.rangeIndex = new BucketTimeSeriesRangeIndex<>(this.timeSeries);
+        }
+    }
+
+    public boolean isRangeIndexed() {
+        return this.rangeIndex != null;
+    }
+
+    /**
+     * Sums up the values of the buckets of the time-stamps within {@code [fromUnixTimeStamp, toUnixTimeStamp)}, which
+     * must be numbers (summed up using {@link Number#longValue()}). Buckets not covered by the time-series (anymore)
+     * and {@code null} values are ignored.
+     *
+     * @param fromUnixTimeStamp the start of the range (inclusive)
+     * @param toUnixTimeStamp   the end of the range (exclusive)
+     *
+     * @return the sum of the values of the buckets
+     *
+     * @see #setRangeIndexed(boolean)
+     */
+    public long sum(final long fromUnixTimeStamp, final long toUnixTimeStamp) {
+        final int first = firstOffset(toUnixTimeStamp);
+        final int last = lastOffset(fromUnixTimeStamp, toUnixTimeStamp);
+        return first > last ? 0L : sumOffsets(first, last);
+    }
+
+    /**
+     * Sums up the values of the last {@code n} buckets (including now), see {@link #sum(long, long)}.
+     *
+     * @param n the amount of buckets to sum up
+     *
+     * @return the sum of the values of the buckets
+     */
+    public long sumLast(final int n) {
+        final int last = Math.min(n, config.getTimeSeriesSize()) - 1;
+        return this.now == null || last < 0 ? 0L : sumOffsets(0, last);
+    }
+
+    /**
+     * Determines the minimum of the values of the buckets of the time-stamps within {@code [fromUnixTimeStamp,
+     * toUnixTimeStamp)}, see {@link #sum(long, long)}.
+     *
+     * @param fromUnixTimeStamp the start of the range (inclusive)
+     * @param toUnixTimeStamp   the end of the range (exclusive)
+     *
+     * @return the minimum, {@code null} if there is no value within the range
+     */
+    public T min(final long fromUnixTimeStamp, final long toUnixTimeStamp) {
+        final int first = firstOffset(toUnixTimeStamp);
+        final int last = lastOffset(fromUnixTimeStamp, toUnixTimeStamp);
+        return first > last ? null : extremeOffsets(-1, first, last);
+    }
+
+    /**
+     * Determines the maximum of the values of the buckets of the time-stamps within {@code [fromUnixTimeStamp,
+     * toUnixTimeStamp)}, see {@link #sum(long, long)}.
+     *
+     * @param fromUnixTimeStamp the start of the range (inclusive)
+     * @param toUnixTimeStamp   the end of the range (exclusive)
+     *
+     * @return the maximum, {@code null} if there is no value within the range
+     */
+    public T max(final long fromUnixTimeStamp, final long toUnixTimeStamp) {
+        final int first = firstOffset(toUnixTimeStamp);
+        final int last = lastOffset(fromUnixTimeStamp, toUnixTimeStamp);
+        return first > last ? null : extremeOffsets(1, first, last);
+    }
+
+    /**
+     * Determines the average of the (non-{@code null}) values of the buckets of the time-stamps within {@code
+     * [fromUnixTimeStamp, toUnixTimeStamp)}, see {@link #sum(long, long)}.
+     *
+     * @param fromUnixTimeStamp the start of the range (inclusive)
+     * @param toUnixTimeStamp   the end of the range (exclusive)
+     *
+     * @return the average, {@code NaN} if there is no value within the range
+     */
+    public double avg(final long fromUnixTimeStamp, final long toUnixTimeStamp) {
+        final int first = firstOffset(toUnixTimeStamp);
+        final int last = lastOffset(fromUnixTimeStamp, toUnixTimeStamp);
+        final int count = first > last ? 0 : countOffsets(first, last);
+        return count == 0 ? Double.NaN : (double) sumOffsets(first, last) / count;
+    }
+
+    /**
+     * Determines the offset (from now) of the most recent bucket of the range ending (exclusive) with the {@code
+     * toUnixTimeStamp}.
+     *
+     * @param toUnixTimeStamp the end of the range (exclusive)
+     *
+     * @return the offset, which is larger than any valid offset if the range is not covered
+     */
+    protected int firstOffset(final long toUnixTimeStamp) {
+        if (this.now == null || toUnixTimeStamp == Long.MIN_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+
+        final long diff = getNowBucket() - bucket(toUnixTimeStamp - 1);
+        return diff >= config.getTimeSeriesSize() ? Integer.MAX_VALUE : (int) Math.max(0L, diff);
+    }
+
+    /**
+     * Determines the offset (from now) of the oldest bucket of the range {@code [fromUnixTimeStamp,
+     * toUnixTimeStamp)}.
+     *
+     * @param fromUnixTimeStamp the start of the range (inclusive)
+     * @param toUnixTimeStamp   the end of the range (exclusive)
+     *
+     * @return the offset, which is smaller than any valid offset if the range is empty or not covered
+     */
+    protected int lastOffset(final long fromUnixTimeStamp, final long toUnixTimeStamp) {
+        if (this.now == null || fromUnixTimeStamp >= toUnixTimeStamp) {
+            return -1;
+        }
+
+        final long diff = getNowBucket() - bucket(fromUnixTimeStamp);
+        return diff < 0 ? -1 : (int) Math.min(config.getTimeSeriesSize() - 1L, diff);
+    }
+
+    protected long sumOffsets(final int first, final int last) {
+        if (this.rangeIndex != null) {
+            return this.rangeIndex.sum(idx(currentNowIdx + first), last - first + 1);
+        }
+
+        long sum = 0L;
+        for (int offset = first; offset <= last; offset++) {
+            final T value = this.timeSeries[idx(currentNowIdx + offset)];
+            sum += value == null ? 0L : ((Number) value).longValue();
+        }
+        return sum;
+    }
+
+    protected int countOffsets(final int first, final int last) {
+        if (this.rangeIndex != null) {
+            return this.rangeIndex.count(idx(currentNowIdx + first), last - first + 1);
+        }
+
+        int count = 0;
+        for (int offset = first; offset <= last; offset++) {
+            count += this.timeSeries[idx(currentNowIdx + offset)] == null ? 0 : 1;
+        }
+        return count;
+    }
+
+    protected T extremeOffsets(final int sign, final int first, final int last) {
+        if (this.rangeIndex != null) {
+            final int idx = idx(currentNowIdx + first);
+            final int length = last - first + 1;
+            return sign < 0 ? this.rangeIndex.min(idx, length) : this.rangeIndex.max(idx, length);
+        }
+
+        T result = null;
+        for (int offset = first; offset <= last; offset++) {
+            result = BucketTimeSeriesRangeIndex.extreme(sign, result, this.timeSeries[idx(currentNowIdx + offset)]);
+        }
+        return result;
+    }
+
+    protected class OrderedList extends AbstractList<T> implements RandomAccess {
+
+        @Override
+        public T get(final int offset) {
+            if (offset < 0 || offset >= size()) {
+                throw new IndexOutOfBoundsException(String.format("The index %d is out of bound [%d, %d].", offset,
+                        0, size() - 1));
+            }
+
+            return getOrdered(offset);
+        }
+
+        @Override
+        public int size() {
+            return config.getTimeSeriesSize();
+        }
+    }
 }
@@ -0,0 +1,311 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalValueRegardingConfiguration;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A compact binary form of a {@link BucketTimeSeries} holding numbers. Instead of the whole array (and the
+ * configuration), only a fingerprint of the configuration, now, and the run-length encoded buckets are written.
+ * <p>
+ * <pre>
+ * The format is (varint: 7 bits per byte, zigzag: signed values mapped to unsigned ones, i.e., small absolute values
+ * need a single byte):
+ *
+ *   [version: byte] [fingerprint: int] [length of the body in bytes: varint] [body]
+ *
+ * The body is:
+ *
+ *   [currentNowIdx + 1: varint] [start of now: zigzag varint, if now is set] [run] [run] ...
+ *
+ * The array (not the ordered values) is written as runs of equal values, i.e., a time-series full of zeros or nulls
+ * needs a few bytes only. A run is:
+ *
+ *   [length &lt;&lt; 1 | 1: varint]                                     a run of nulls
+ *   [length &lt;&lt; 1: varint] [value - previous value: zigzag varint]   a run of integral values
+ *   [length &lt;&lt; 1: varint] [value: double or float]                  a run of floating point values
+ * </pre>
+ * The body is encoded in memory and written (or read) with a single call, i.e., the (often synchronized) streams are
+ * not called per byte. The configuration itself is not written, it has to be known when reading (see {@link #read(BucketTimeSeriesConfig,
+ * DataInput)}), e.g., because it is the same for millions of time-series. Time-series with another content (e.g.,
+ * {@code BigDecimal} or collections) are not supported.
+ */
+public class BucketTimeSeriesCodec {
+    public static final byte VERSION = 1;
+
+    // the maximal length of a varint encoded long, i.e., 64 bits using 7 bits per byte
+    protected static final int MAX_VAR_LONG_BYTES = 10;
+    // the maximal length of an encoded run, i.e., the header and a varint (or a double)
+    protected static final int MAX_RUN_BYTES = 2 * MAX_VAR_LONG_BYTES;
+
+    private static final Set<Class<?>> INTEGRAL_CONTENTS = new HashSet<>(Arrays.asList(
+            Byte.class, Short.class, Integer.class, Long.class, AtomicInteger.class, AtomicLong.class));
+    private static final Set<Class<?>> FLOATING_CONTENTS = new HashSet<>(Arrays.asList(
+            Float.class, Double.class));
+
+    private BucketTimeSeriesCodec() {
+        // utility class, no instances
+    }
+
+    public static boolean isSupported(final BucketTimeSeriesConfig<?> config) {
+        return INTEGRAL_CONTENTS.contains(config.getBucketContent()) ||
+                FLOATING_CONTENTS.contains(config.getBucketContent());
+    }
+
+    /**
+     * Determines a fingerprint of the {@code config}, which (in contrast to {@link BucketTimeSeriesConfig#hashCode()})
+     * is the same within every JVM.
+     *
+     * @param config the configuration to determine the fingerprint for
+     *
+     * @return the fingerprint
+     */
+    public static int fingerprint(final BucketTimeSeriesConfig<?> config) {
+        return String.format("%s|%d|%d|%s|%b",
+                config.getTimeUnit().name(),
+                config.getTimeSeriesSize(),
+                config.getBucketSize(),
+                config.getBucketContent().getName(),
+                config.isFillNumberWithZero()).hashCode();
+    }
+
+    /**
+     * Writes the {@code timeSeries} to the {@code out}.
+     *
+     * @param timeSeries the time-series to write
+     * @param out        the output to write to
+     *
+     * @throws IOException                        if the output cannot be written
+     * @throws IllegalValueRegardingConfiguration if the content of the time-series is not supported
+     */
+    public static void write(final BucketTimeSeries<?> timeSeries,
+                             final DataOutput out) throws IOException, IllegalValueRegardingConfiguration {
+        final BucketTimeSeriesConfig<?> config = timeSeries.getConfig();
+        if (!isSupported(config)) {
+            throw new IllegalValueRegardingConfiguration("The content '" + config.getBucketContent() +
+                    "' is not supported by the codec.");
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(2 * MAX_RUN_BYTES);
+        if (timeSeries.now == null || timeSeries.currentNowIdx == -1) {
+            putVarLong(body, 0L);
+        } else {
+            putVarLong(body, timeSeries.currentNowIdx + 1L);
+            putVarLong(body, zigzag(timeSeries.now.getUnixTimeStampStart()));
+        }
+
+        // a missing array is written as nulls
+        final Object[] values = timeSeries.timeSeries == null ?
+                new Object[config.getTimeSeriesSize()] : timeSeries.timeSeries;
+        final boolean integral = INTEGRAL_CONTENTS.contains(config.getBucketContent());
+
+        long previous = 0L;
+        for (int start = 0, end; start < values.length; start = end) {
+            final Object value = values[start];
+
+            end = start + 1;
+            while (end < values.length && equal(value, values[end])) {
+                end++;
+            }
+
+            if (body.remaining() < MAX_RUN_BYTES) {
+                body = grow(body);
+            }
+
+            final long header = (long) (end - start) << 1;
+            if (value == null) {
+                putVarLong(body, header | 1L);
+            } else if (integral) {
+                final long current = Number.class.cast(value).longValue();
+                putVarLong(body, header);
+                putVarLong(body, zigzag(current - previous));
+                previous = current;
+            } else if (Float.class.equals(config.getBucketContent())) {
+                putVarLong(body, header);
+                body.putFloat(Number.class.cast(value).floatValue());
+            } else {
+                putVarLong(body, header);
+                body.putDouble(Number.class.cast(value).doubleValue());
+            }
+        }
+
+        final ByteBuffer head = ByteBuffer.allocate(1 + 4 + MAX_VAR_LONG_BYTES);
+        head.put(VERSION);
+        head.putInt(fingerprint(config));
+        putVarLong(head, body.position());
+
+        out.write(head.array(), 0, head.position());
+        out.write(body.array(), 0, body.position());
+    }
+
+    /**
+     * Reads a time-series written by {@link #write(BucketTimeSeries, DataOutput)}, which must have been written using
+     * the same {@code config}.
+     *
+     * @param config the configuration of the time-series
+     * @param in     the input to read from
+     * @param <T>    the content held by the time-series
+     *
+     * @return the read time-series
+     *
+     * @throws IOException                        if the input cannot be read, or if the version or the configuration
+     *                                            (i.e., the fingerprint) of the written time-series differ
+     * @throws IllegalValueRegardingConfiguration if the content of the time-series is not supported
+     */
+    public static <T extends Serializable> BucketTimeSeries<T> read(final BucketTimeSeriesConfig<T> config,
+                                                                    final DataInput in)
+            throws IOException, IllegalValueRegardingConfiguration {
+        if (!isSupported(config)) {
+            throw new IllegalValueRegardingConfiguration("The content '" + config.getBucketContent() +
+                    "' is not supported by the codec.");
+        }
+
+        final byte version = in.readByte();
+        if (version != VERSION) {
+            throw new InvalidObjectException("The version '" + version + "' of the time-series is not supported.");
+        }
+        final int fingerprint = in.readInt();
+        if (fingerprint != fingerprint(config)) {
+            throw new InvalidObjectException("The time-series was written using another configuration than " + config +
+                    ".");
+        }
+
+        final long length = readVarLong(in);
+        if (length < 0L || length > Integer.MAX_VALUE) {
+            throw new InvalidObjectException("The length '" + length + "' of the time-series is invalid.");
+        }
+        final byte[] bytes = new byte[(int) length];
+        in.readFully(bytes);
+
+        try {
+            return read(config, ByteBuffer.wrap(bytes));
+        } catch (final BufferUnderflowException e) {
+            throw new InvalidObjectException("The time-series is incomplete.");
+        }
+    }
+
+    protected static <T extends Serializable> BucketTimeSeries<T> read(final BucketTimeSeriesConfig<T> config,
+                                                                       final ByteBuffer body)
+            throws InvalidObjectException {
+        final BucketTimeSeries<T> timeSeries = new BucketTimeSeries<>(config);
+        final long nowIdx = getVarLong(body) - 1L;
+        if (nowIdx != -1L) {
+            timeSeries.initNow(unzigzag(getVarLong(body)), (int) nowIdx);
+        }
+
+        // every bucket is covered by a run, i.e., the (empty) array of the time-series is overwritten
+        final T[] values = timeSeries.timeSeries;
+        final Class<T> contentType = config.getBucketContent();
+        final boolean integral = INTEGRAL_CONTENTS.contains(contentType);
+        final boolean mutable = AtomicInteger.class.equals(contentType) || AtomicLong.class.equals(contentType);
+
+        long previous = 0L;
+        for (int start = 0; start < values.length; ) {
+            final long header = getVarLong(body);
+            final long length = header >>> 1;
+            if (length <= 0 || length > values.length - start) {
+                throw new InvalidObjectException("The run of " + length + " buckets exceeds the time-series.");
+            }
+
+            final int end = start + (int) length;
+            if ((header & 1L) == 1L) {
+                Arrays.fill(values, start, end, null);
+            } else if (integral) {
+                previous += unzigzag(getVarLong(body));
+
+                // the atomic values are mutable, i.e., each bucket needs its own instance
+                if (mutable) {
+                    for (int i = start; i < end; i++) {
+                        values[i] = timeSeries.valueOf(previous);
+                    }
+                } else {
+                    Arrays.fill(values, start, end, timeSeries.valueOf(previous));
+                }
+            } else if (Float.class.equals(contentType)) {
+                Arrays.fill(values, start, end, contentType.cast(body.getFloat()));
+            } else {
+                Arrays.fill(values, start, end, contentType.cast(body.getDouble()));
+            }
+
+            start = end;
+        }
+
+        if (body.hasRemaining()) {
+            throw new InvalidObjectException("The time-series is followed by " + body.remaining() + " unknown bytes.");
+        }
+
+        return timeSeries;
+    }
+
+    protected static boolean equal(final Object a, final Object b) {
+        if (a instanceof AtomicInteger || a instanceof AtomicLong) {
+            return b != null && a.getClass().equals(b.getClass()) &&
+                    Number.class.cast(a).longValue() == Number.class.cast(b).longValue();
+        } else {
+            return Objects.equals(a, b);
+        }
+    }
+
+    protected static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    protected static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    protected static ByteBuffer grow(final ByteBuffer buffer) {
+        final ByteBuffer grown = ByteBuffer.allocate(2 * buffer.capacity());
+        grown.put(buffer.array(), 0, buffer.position());
+        return grown;
+    }
+
+    protected static void putVarLong(final ByteBuffer buffer, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0L) {
+            buffer.put((byte) ((remaining & 0x7FL) | 0x80L));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    protected static long getVarLong(final ByteBuffer buffer) throws InvalidObjectException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new InvalidObjectException("The variable-length value is longer than 64 bits.");
+    }
+
+    protected static long readVarLong(final DataInput in) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new InvalidObjectException("The variable-length value is longer than 64 bits.");
+    }
+}
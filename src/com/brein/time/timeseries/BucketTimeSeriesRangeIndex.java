@@ -0,0 +1,236 @@
+package com.brein.time.timeseries;
+
+import java.io.Serializable;
+
+/**
+ * A segment tree over the buckets (i.e., the array) of a {@link BucketTimeSeries} holding numbers, which is updated
+ * whenever a bucket is set. The tree answers the sum, the amount of (non-{@code null}) values, the minimum, and the
+ * maximum of a range of buckets in {@code O(log n)}, instead of iterating (or copying) the buckets.
+ * <p>
+ * <pre>
+ * The tree is stored within arrays of size 2n (with n == timeSeriesSize), the leaves are stored at [n, 2n) and the
+ * parent of a node i is the node i / 2, i.e., the root is the node 1:
+ *
+ *   [-] [1] [2] [3] ... [n - 1] [n: bucket 0] [n + 1: bucket 1] ... [2n - 1: bucket n - 1]
+ *
+ * A range of buckets is a range of the ring (see {@link BucketTimeSeries}), i.e., it may wrap around the end of the
+ * array and is queried as two ranges of the tree.
+ * </pre>
+ * The sums are calculated using {@link Number#longValue()} (like {@link BucketTimeSeries#sumTimeSeries()}), the
+ * minimum and maximum are determined by the natural order of the values (or by {@link Number#doubleValue()} if the
+ * values are not comparable).
+ *
+ * @param <T> the content held by the time-series
+ */
+public class BucketTimeSeriesRangeIndex<T extends Serializable> {
+    private final int size;
+
+    private final long[] sums;
+    private final int[] counts;
+    private final Object[] mins;
+    private final Object[] maxs;
+
+    public BucketTimeSeriesRangeIndex(final T[] timeSeries) {
+        this.size = timeSeries.length;
+
+        this.sums = new long[2 * this.size];
+        this.counts = new int[2 * this.size];
+        this.mins = new Object[2 * this.size];
+        this.maxs = new Object[2 * this.size];
+
+        // set the leaves and build the inner nodes bottom up, instead of updating each leaf
+        for (int idx = 0; idx < this.size; idx++) {
+            leaf(idx, timeSeries[idx]);
+        }
+        for (int node = this.size - 1; node > 0; node--) {
+            update(node);
+        }
+    }
+
+    /**
+     * Sets the value of the bucket at the array index {@code idx}.
+     *
+     * @param idx   the array index of the bucket
+     * @param value the new value of the bucket, can be {@code null}
+     */
+    public void set(final int idx, final T value) {
+        leaf(idx, value);
+
+        for (int node = (idx + this.size) >>> 1; node > 0; node >>>= 1) {
+            update(node);
+        }
+    }
+
+    /**
+     * Sums up the values of the {@code length} buckets starting at the array index {@code idx}, wrapping around the
+     * end of the array.
+     *
+     * @param idx    the array index of the first bucket
+     * @param length the amount of buckets
+     *
+     * @return the sum of the values
+     */
+    public long sum(final int idx, final int length) {
+        final int end = idx + length;
+        if (end <= this.size) {
+            return sumOf(idx, end);
+        } else {
+            return sumOf(idx, this.size) + sumOf(0, end - this.size);
+        }
+    }
+
+    /**
+     * Counts the non-{@code null} values of the {@code length} buckets starting at the array index {@code idx},
+     * wrapping around the end of the array.
+     *
+     * @param idx    the array index of the first bucket
+     * @param length the amount of buckets
+     *
+     * @return the amount of values
+     */
+    public int count(final int idx, final int length) {
+        final int end = idx + length;
+        if (end <= this.size) {
+            return countOf(idx, end);
+        } else {
+            return countOf(idx, this.size) + countOf(0, end - this.size);
+        }
+    }
+
+    /**
+     * Determines the minimum of the {@code length} buckets starting at the array index {@code idx}, wrapping around
+     * the end of the array.
+     *
+     * @param idx    the array index of the first bucket
+     * @param length the amount of buckets
+     *
+     * @return the minimum, {@code null} if all buckets are {@code null}
+     */
+    public T min(final int idx, final int length) {
+        final int end = idx + length;
+        if (end <= this.size) {
+            return extremeOf(this.mins, -1, idx, end);
+        } else {
+            return extreme(-1, extremeOf(this.mins, -1, idx, this.size),
+                    extremeOf(this.mins, -1, 0, end - this.size));
+        }
+    }
+
+    /**
+     * Determines the maximum of the {@code length} buckets starting at the array index {@code idx}, wrapping around
+     * the end of the array.
+     *
+     * @param idx    the array index of the first bucket
+     * @param length the amount of buckets
+     *
+     * @return the maximum, {@code null} if all buckets are {@code null}
+     */
+    public T max(final int idx, final int length) {
+        final int end = idx + length;
+        if (end <= this.size) {
+            return extremeOf(this.maxs, 1, idx, end);
+        } else {
+            return extreme(1, extremeOf(this.maxs, 1, idx, this.size),
+                    extremeOf(this.maxs, 1, 0, end - this.size));
+        }
+    }
+
+    /**
+     * Gets the sum of all buckets, i.e., the value of the root.
+     *
+     * @return the sum of all buckets
+     */
+    public long sum() {
+        return this.size == 0 ? 0L : this.sums[1];
+    }
+
+    protected void leaf(final int idx, final T value) {
+        final int node = idx + this.size;
+
+        this.sums[node] = value == null ? 0L : ((Number) value).longValue();
+        this.counts[node] = value == null ? 0 : 1;
+        this.mins[node] = value;
+        this.maxs[node] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void update(final int node) {
+        final int left = node << 1;
+        final int right = left + 1;
+
+        this.sums[node] = this.sums[left] + this.sums[right];
+        this.counts[node] = this.counts[left] + this.counts[right];
+        this.mins[node] = extreme(-1, (T) this.mins[left], (T) this.mins[right]);
+        this.maxs[node] = extreme(1, (T) this.maxs[left], (T) this.maxs[right]);
+    }
+
+    protected long sumOf(final int from, final int to) {
+        long sum = 0L;
+        for (int l = from + this.size, r = to + this.size; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                sum += this.sums[l++];
+            }
+            if ((r & 1) == 1) {
+                sum += this.sums[--r];
+            }
+        }
+        return sum;
+    }
+
+    protected int countOf(final int from, final int to) {
+        int count = 0;
+        for (int l = from + this.size, r = to + this.size; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                count += this.counts[l++];
+            }
+            if ((r & 1) == 1) {
+                count += this.counts[--r];
+            }
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected T extremeOf(final Object[] nodes, final int sign, final int from, final int to) {
+        T result = null;
+        for (int l = from + this.size, r = to + this.size; l < r; l >>>= 1, r >>>= 1) {
+            if ((l & 1) == 1) {
+                result = extreme(sign, result, (T) nodes[l++]);
+            }
+            if ((r & 1) == 1) {
+                result = extreme(sign, result, (T) nodes[--r]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Determines the minimum (if {@code sign} is {@code -1}) or the maximum (if {@code sign} is {@code 1}) of the
+     * values, ignoring {@code null} values.
+     *
+     * @param sign the sign of the comparison to keep
+     * @param a    the first value
+     * @param b    the second value
+     * @param <T>  the content held by the time-series
+     *
+     * @return the minimum or maximum
+     */
+    public static <T extends Serializable> T extreme(final int sign, final T a, final T b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else {
+            return Integer.signum(compare(a, b)) == -sign ? b : a;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static <T extends Serializable> int compare(final T a, final T b) {
+        if (a instanceof Comparable) {
+            return ((Comparable<T>) a).compareTo(b);
+        } else {
+            return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.brein.time.timeseries;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+
+/**
+ * The serialized form of a {@link BucketTimeSeries} holding numbers, which writes the time-series using the {@link
+ * BucketTimeSeriesCodec}. The configuration is written as object, i.e., it is written once only if several
+ * time-series sharing the same configuration are written to the same stream. When read, the proxy is replaced by the
+ * time-series.
+ */
+public class BucketTimeSeriesSerializationProxy implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    private BucketTimeSeries<?> timeSeries;
+
+    public BucketTimeSeriesSerializationProxy() {
+        // just for de- and serialization
+    }
+
+    public BucketTimeSeriesSerializationProxy(final BucketTimeSeries<?> timeSeries) {
+        this.timeSeries = timeSeries;
+    }
+
+    @Override
+    public void writeExternal(final ObjectOutput out) throws IOException {
+        out.writeObject(this.timeSeries.getConfig());
+        BucketTimeSeriesCodec.write(this.timeSeries, out);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void readExternal(final ObjectInput in) throws IOException, ClassNotFoundException {
+        final BucketTimeSeriesConfig<Serializable> config = BucketTimeSeriesConfig.class.cast(in.readObject());
+        this.timeSeries = BucketTimeSeriesCodec.read(config, in);
+    }
+
+    protected Object readResolve() throws ObjectStreamException {
+        return this.timeSeries;
+    }
+}
@@ -0,0 +1,330 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalTimePoint;
+import com.brein.time.exceptions.IllegalTimePointMovement;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A store of many time-series counting {@code long} values (e.g., one per user or item), sharing a single
+ * configuration and now. Instead of a {@link BucketTimeSeries} per key (each with its own array, end-points, and
+ * configuration), the buckets of all time-series are stored within large {@code long[]} slabs, each holding the rows
+ * of {@value #ROWS_PER_SLAB} keys. A row is allocated when a value is added for a key the first time.
+ * <p>
+ * <pre>
+ * The slot of a bucket within a row is the bucket number b (i.e., the time-stamp in the time-unit of the config
+ * divided by the bucket size) modulo n (with n == timeSeriesSize):
+ *
+ *   slab 0: [row 0: last, slot 0 ... slot n - 1] [row 1: last, slot 0 ... slot n - 1] ...
+ *   slab 1: [row 1024: ...] ...
+ *
+ * Moving now (see setNow) does not touch any row. Instead, each row stores the number of now at the last write, and
+ * the slots of the buckets passed since then are reset (lazily) when the row is written to the next time. Reading a
+ * row ignores the slots not written since the bucket left the window.
+ * </pre>
+ * The store is not thread-safe.
+ *
+ * @param <K> the type of the keys
+ */
+public class BucketTimeSeriesStore<K> {
+    public static final int ROWS_PER_SLAB = 1024;
+
+    private static final long UNDEFINED = Long.MIN_VALUE;
+
+    private final BucketTimeSeriesConfig<Long> config;
+    private final int size;
+    private final int stride;
+
+    private final Map<K, Integer> rows = new HashMap<>();
+    private final List<long[]> slabs = new ArrayList<>();
+    private int rowCount = 0;
+    private int[] freeRows = new int[16];
+    private int freeRowCount = 0;
+
+    private long nowBucket = UNDEFINED;
+
+    public BucketTimeSeriesStore(final TimeUnit timeUnit, final int timeSeriesSize, final int bucketSize) {
+        this(new BucketTimeSeriesConfig<>(Long.class, timeUnit, timeSeriesSize, bucketSize));
+    }
+
+    public BucketTimeSeriesStore(final BucketTimeSeriesConfig<Long> config) {
+        this.config = config;
+        this.size = config.getTimeSeriesSize();
+        this.stride = this.size + 1;
+    }
+
+    public BucketTimeSeriesConfig<Long> getConfig() {
+        return config;
+    }
+
+    /**
+     * Adds the {@code delta} to the bucket of the {@code unixTimeStamp} of the time-series of the {@code key}. If the
+     * time-stamp is in the future, now is moved for all time-series.
+     *
+     * @param key           the key of the time-series
+     * @param unixTimeStamp the time-stamp to add the delta for
+     * @param delta         the value to add
+     *
+     * @return {@code true} if the value was added, {@code false} if the time-stamp is too old
+     */
+    public boolean increment(final K key, final long unixTimeStamp, final long delta) {
+        final long bucket = bucket(unixTimeStamp);
+        if (this.nowBucket == UNDEFINED || bucket > this.nowBucket) {
+            this.nowBucket = bucket;
+        } else if (this.nowBucket - bucket >= this.size) {
+            return false;
+        }
+
+        final int row = getOrCreateRow(key);
+        final long[] slab = this.slabs.get(row / ROWS_PER_SLAB);
+        final int offset = (row % ROWS_PER_SLAB) * this.stride;
+
+        // reset the buckets passed since the last write to the row
+        final long last = slab[offset];
+        if (last < this.nowBucket) {
+            if (last == UNDEFINED || this.nowBucket - last >= this.size) {
+                Arrays.fill(slab, offset + 1, offset + this.stride, 0L);
+            } else {
+                for (long passed = last + 1; passed <= this.nowBucket; passed++) {
+                    slab[offset + 1 + slot(passed)] = 0L;
+                }
+            }
+            slab[offset] = this.nowBucket;
+        }
+
+        slab[offset + 1 + slot(bucket)] += delta;
+        return true;
+    }
+
+    public boolean increment(final K key, final long unixTimeStamp) {
+        return increment(key, unixTimeStamp, 1L);
+    }
+
+    /**
+     * Moves now of all time-series, without touching any of them.
+     *
+     * @param unixTimeStamp the new now to be used
+     *
+     * @throws IllegalTimePointMovement if the new unix time stamp it moved into the past
+     */
+    public void setNow(final long unixTimeStamp) throws IllegalTimePointMovement {
+        final long bucket = bucket(unixTimeStamp);
+        if (this.nowBucket != UNDEFINED && bucket < this.nowBucket) {
+            throw new IllegalTimePointMovement(String.format("Cannot move to the past (current: %d, update: %d)",
+                    getNow(), unixTimeStamp));
+        }
+
+        this.nowBucket = bucket;
+    }
+
+    public long getNow() {
+        if (this.nowBucket == UNDEFINED) {
+            return -1L;
+        } else {
+            return toUnixTimeStamp(this.nowBucket + 1) - 1;
+        }
+    }
+
+    /**
+     * Gets the end-points by an offset to now, i.e., 0 means to get the now bucket, -1 gets the previous bucket.
+     *
+     * @param bucketsFromNow the amount of buckets to retrieve using now as anchor
+     *
+     * @return the end-point (bucket) with an offset of {@code bucketsFromNow} from now
+     *
+     * @throws IllegalTimePoint if the current now is not defined
+     */
+    public BucketEndPoints getEndPoints(final int bucketsFromNow) throws IllegalTimePoint {
+        if (this.nowBucket == UNDEFINED) {
+            throw new IllegalTimePoint("The now is not set yet, thus no end-points can be returned");
+        }
+
+        final long bucket = this.nowBucket + bucketsFromNow;
+        return new BucketEndPoints(toUnixTimeStamp(bucket), toUnixTimeStamp(bucket + 1));
+    }
+
+    /**
+     * Gets the values of the time-series of the {@code key}, ordered from now, i.e., the first value is the value of
+     * now, the second the value of the bucket before now, ...
+     *
+     * @param key the key of the time-series
+     *
+     * @return the ordered values, or {@code null} if there is no time-series for the key
+     */
+    public long[] get(final K key) {
+        final Integer row = this.rows.get(key);
+        if (row == null) {
+            return null;
+        }
+
+        final long[] result = new long[this.size];
+        for (int i = 0; i < this.size; i++) {
+            result[i] = value(row, this.nowBucket - i);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a {@link LongBucketTimeSeries} with the values of the time-series of the {@code key}.
+     *
+     * @param key the key of the time-series
+     *
+     * @return the time-series, or {@code null} if there is no time-series for the key
+     */
+    public LongBucketTimeSeries getTimeSeries(final K key) {
+        final long[] values = get(key);
+        return values == null ? null : new LongBucketTimeSeries(config, values, toUnixTimeStamp(this.nowBucket));
+    }
+
+    /**
+     * Sums up the values of the last {@code buckets} buckets (including now) of the time-series of the {@code key}.
+     *
+     * @param key     the key of the time-series
+     * @param buckets the amount of buckets to sum up
+     *
+     * @return the sum, {@code 0} if there is no time-series for the key
+     */
+    public long sum(final K key, final int buckets) {
+        final Integer row = this.rows.get(key);
+        return row == null ? 0L : sum(row, buckets);
+    }
+
+    /**
+     * Determines the {@code n} keys with the largest sum of the last {@code buckets} buckets (including now).
+     *
+     * @param n       the amount of keys to determine
+     * @param buckets the amount of buckets to sum up per key
+     *
+     * @return the keys and sums, ordered by the sum (descending)
+     */
+    public List<Map.Entry<K, Long>> top(final int n, final int buckets) {
+        if (n <= 0) {
+            return new ArrayList<>();
+        }
+
+        // keep the n largest sums, the smallest of them is the head of the queue
+        final PriorityQueue<Map.Entry<K, Long>> queue = new PriorityQueue<>(n, Map.Entry.comparingByValue());
+        for (final Map.Entry<K, Integer> entry : this.rows.entrySet()) {
+            final long sum = sum(entry.getValue(), buckets);
+
+            if (queue.size() < n) {
+                queue.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), sum));
+            } else if (queue.peek().getValue() < sum) {
+                queue.poll();
+                queue.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), sum));
+            }
+        }
+
+        final List<Map.Entry<K, Long>> result = new ArrayList<>(queue);
+        result.sort(Map.Entry.<K, Long>comparingByValue().reversed());
+        return result;
+    }
+
+    /**
+     * Removes the time-series of the {@code key}, the row is re-used for another key.
+     *
+     * @param key the key of the time-series to remove
+     *
+     * @return {@code true} if the time-series was removed, otherwise {@code false}
+     */
+    public boolean remove(final K key) {
+        final Integer row = this.rows.remove(key);
+        if (row == null) {
+            return false;
+        }
+
+        if (this.freeRowCount == this.freeRows.length) {
+            this.freeRows = Arrays.copyOf(this.freeRows, this.freeRows.length * 2);
+        }
+        this.freeRows[this.freeRowCount++] = row;
+
+        return true;
+    }
+
+    public boolean contains(final K key) {
+        return this.rows.containsKey(key);
+    }
+
+    public Set<K> keySet() {
+        return this.rows.keySet();
+    }
+
+    public int size() {
+        return this.rows.size();
+    }
+
+    protected long sum(final int row, final int buckets) {
+        final int limit = Math.min(buckets, this.size);
+
+        long sum = 0L;
+        for (int i = 0; i < limit; i++) {
+            sum += value(row, this.nowBucket - i);
+        }
+        return sum;
+    }
+
+    /**
+     * Gets the value of the {@code bucket} of the {@code row}, without resetting the row, i.e., a bucket, which was
+     * not written since the bucket left the window of the row, is {@code 0}.
+     *
+     * @param row    the row to read from
+     * @param bucket the number of the bucket
+     *
+     * @return the value of the bucket
+     */
+    protected long value(final int row, final long bucket) {
+        final long[] slab = this.slabs.get(row / ROWS_PER_SLAB);
+        final int offset = (row % ROWS_PER_SLAB) * this.stride;
+
+        final long last = slab[offset];
+        if (bucket > last || last - bucket >= this.size) {
+            return 0L;
+        } else {
+            return slab[offset + 1 + slot(bucket)];
+        }
+    }
+
+    protected int getOrCreateRow(final K key) {
+        final Integer existing = this.rows.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        final int row;
+        if (this.freeRowCount > 0) {
+            row = this.freeRows[--this.freeRowCount];
+        } else {
+            row = this.rowCount++;
+
+            if (row % ROWS_PER_SLAB == 0) {
+                this.slabs.add(new long[ROWS_PER_SLAB * this.stride]);
+            }
+        }
+
+        // the row is reset with the first increment
+        this.slabs.get(row / ROWS_PER_SLAB)[(row % ROWS_PER_SLAB) * this.stride] = UNDEFINED;
+        this.rows.put(key, row);
+
+        return row;
+    }
+
+    protected long bucket(final long unixTimeStamp) {
+        return config.getTimeUnit().convert(unixTimeStamp, TimeUnit.SECONDS) / config.getBucketSize();
+    }
+
+    protected long toUnixTimeStamp(final long bucket) {
+        return TimeUnit.SECONDS.convert(bucket * config.getBucketSize(), config.getTimeUnit());
+    }
+
+    protected int slot(final long bucket) {
+        return (int) Math.floorMod(bucket, (long) this.size);
+    }
+}
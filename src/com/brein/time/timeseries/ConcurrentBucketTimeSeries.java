@@ -0,0 +1,292 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.exceptions.IllegalTimePoint;
+import com.brein.time.exceptions.IllegalTimePointIndex;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread-safe time-series counting {@code long} values, e.g., the requests per minute incremented by many request
+ * threads. The time-series neither uses any lock, nor has to reset any bucket when now is moved.
+ * <p>
+ * <pre>
+ * Each bucket number b (i.e., the time-stamp in the time-unit of the config divided by the bucket size) is mapped to
+ * the slot b % n (with n == timeSeriesSize). Each slot is striped, i.e., each stripe of the slot is a cell, which is
+ * incremented by the threads mapped to the stripe only:
+ *
+ *   stripe 0: [slot 0] [slot 1] ... [slot n - 1] (padding)
+ *   stripe 1: [slot 0] [slot 1] ... [slot n - 1] (padding)
+ *   ...
+ *
+ * A cell stores the count together with a tag of the generation (b / n) of the bucket counted. A write to a cell
+ * tagged with an older generation replaces the cell (i.e., the cell is reset lazily), and a read ignores any cell
+ * not tagged with the generation of the bucket read. Thus, moving now is just a CAS on the number of the now bucket.
+ * Now is moved before a cell is written, i.e., a cell tagged with another generation counts an older bucket, as long
+ * as now is not moved beyond the bucket written (which is checked before replacing the cell).
+ * </pre>
+ * The count of a cell is stored with {@value #COUNT_BITS} bits (i.e., a single stripe of a bucket can count up to
+ * 2^39 - 1), the tag with {@value #TAG_BITS} bits, i.e., a cell, which was not written for 2^24 generations, may be
+ * mistaken for a cell of the current generation.
+ *
+ * @see LongBucketTimeSeries
+ */
+public class ConcurrentBucketTimeSeries implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final int COUNT_BITS = 40;
+    public static final int TAG_BITS = 64 - COUNT_BITS;
+    public static final int MAX_STRIPES = 64;
+
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long TAG_MASK = (1L << TAG_BITS) - 1;
+
+    // the cells of two stripes are separated by a cache-line, to avoid false sharing
+    private static final int PADDING = 8;
+    private static final long UNDEFINED = Long.MIN_VALUE;
+
+    private final BucketTimeSeriesConfig<Long> config;
+    private final int size;
+    private final int stripes;
+    private final int stride;
+
+    private final AtomicLongArray cells;
+    private final AtomicLong nowBucket = new AtomicLong(UNDEFINED);
+
+    public ConcurrentBucketTimeSeries(final TimeUnit timeUnit, final int timeSeriesSize, final int bucketSize) {
+        this(new BucketTimeSeriesConfig<>(Long.class, timeUnit, timeSeriesSize, bucketSize));
+    }
+
+    public ConcurrentBucketTimeSeries(final BucketTimeSeriesConfig<Long> config) {
+        this(config, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a time-series with the specified amount of {@code stripes}, which is rounded up to the next power of
+     * two. Usually, the amount should be the number of cores (the default), using more stripes increases the costs of
+     * reading the time-series.
+     *
+     * @param config  the configuration of the time-series
+     * @param stripes the amount of stripes, i.e., within {@code [1, MAX_STRIPES]}
+     *
+     * @throws IllegalConfiguration if the amount of stripes is invalid
+     */
+    public ConcurrentBucketTimeSeries(final BucketTimeSeriesConfig<Long> config,
+                                      final int stripes) throws IllegalConfiguration {
+        if (stripes < 1) {
+            throw new IllegalConfiguration("At least one stripe is needed, but found: " + stripes);
+        }
+
+        this.config = config;
+        this.size = config.getTimeSeriesSize();
+        this.stripes = Integer.highestOneBit(Math.min(MAX_STRIPES, stripes) * 2 - 1);
+        this.stride = this.size + PADDING;
+        this.cells = new AtomicLongArray(this.stripes * this.stride);
+    }
+
+    public BucketTimeSeriesConfig<Long> getConfig() {
+        return config;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    /**
+     * Adds the {@code delta} to the bucket of the {@code unixTimeStamp}, moving now if the time-stamp is in the
+     * future.
+     *
+     * @param unixTimeStamp the time-stamp to add the delta for
+     * @param delta         the value to add
+     *
+     * @return {@code true} if the value was added, {@code false} if the time-stamp is too old
+     */
+    public boolean add(final long unixTimeStamp, final long delta) {
+        final long bucket = bucket(unixTimeStamp);
+
+        long now = this.nowBucket.get();
+        if (bucket > now) {
+            now = this.nowBucket.accumulateAndGet(bucket, Math::max);
+        }
+        if (now - bucket >= this.size) {
+            return false;
+        }
+
+        final long tag = tag(bucket);
+        final int cell = stripe() * this.stride + slot(bucket);
+        while (true) {
+            final long value = this.cells.get(cell);
+            final long cellTag = value >>> COUNT_BITS;
+
+            final long newValue;
+            if (cellTag == tag) {
+                newValue = (tag << COUNT_BITS) | ((value + delta) & COUNT_MASK);
+            } else if (this.nowBucket.get() - bucket >= this.size) {
+
+                // now was moved since checked, i.e., the bucket is outdated and the cell may count a more recent one
+                return false;
+            } else {
+
+                // a cell counting a more recent bucket would have moved now beyond the bucket, i.e., the cell is older
+                newValue = (tag << COUNT_BITS) | (delta & COUNT_MASK);
+            }
+
+            if (this.cells.compareAndSet(cell, value, newValue)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean increment(final long unixTimeStamp) {
+        return add(unixTimeStamp, 1L);
+    }
+
+    /**
+     * Moves now to the bucket of the {@code unixTimeStamp}. Other than the {@link BucketTimeSeries#setNow(long)}, now
+     * is never moved into the past, i.e., an older time-stamp (e.g., of another thread's clock) is ignored.
+     *
+     * @param unixTimeStamp the new now to be used
+     */
+    public void setNow(final long unixTimeStamp) {
+        this.nowBucket.accumulateAndGet(bucket(unixTimeStamp), Math::max);
+    }
+
+    public long getNow() {
+        final long now = this.nowBucket.get();
+        if (now == UNDEFINED) {
+            return -1L;
+        } else {
+            return toUnixTimeStamp(now + 1) - 1;
+        }
+    }
+
+    /**
+     * Gets the end-points by an offset to now, i.e., 0 means to get the now bucket, -1 gets the previous bucket.
+     *
+     * @param bucketsFromNow the amount of buckets to retrieve using now as anchor
+     *
+     * @return the end-point (bucket) with an offset of {@code bucketsFromNow} from now
+     *
+     * @throws IllegalTimePoint if the current now is not defined
+     */
+    public BucketEndPoints getEndPoints(final int bucketsFromNow) throws IllegalTimePoint {
+        final long now = this.nowBucket.get();
+        if (now == UNDEFINED) {
+            throw new IllegalTimePoint("The now is not set yet, thus no end-points can be returned");
+        }
+
+        final long bucket = now + bucketsFromNow;
+        return new BucketEndPoints(toUnixTimeStamp(bucket), toUnixTimeStamp(bucket + 1));
+    }
+
+    /**
+     * Gets the value of the bucket, as if the time-series would be ordered (i.e., zero is now, 1 is the previous
+     * bucket, ...). The value is the sum of the stripes of the bucket, i.e., concurrent increments may or may not be
+     * included.
+     *
+     * @param idx the zero based index
+     *
+     * @return the value associated to the zero based index
+     */
+    public long getFromZeroBasedIdx(final int idx) throws IllegalTimePointIndex {
+        if (idx < 0 || idx >= this.size) {
+            throw new IllegalTimePointIndex(String.format("The index %d is out of bound [%d, %d].", idx, 0,
+                    this.size - 1));
+        }
+
+        final long now = this.nowBucket.get();
+        return now == UNDEFINED ? 0L : count(now - idx);
+    }
+
+    /**
+     * Gets the values ordered from now, i.e., the first value is the value of now, the second the value of the bucket
+     * before now, ...
+     *
+     * @return the ordered values
+     */
+    public long[] order() {
+        return order(this.nowBucket.get());
+    }
+
+    protected long[] order(final long now) {
+        final long[] result = new long[this.size];
+
+        if (now != UNDEFINED) {
+            for (int i = 0; i < this.size; i++) {
+                result[i] = count(now - i);
+            }
+        }
+
+        return result;
+    }
+
+    public long sum() {
+        long sum = 0L;
+        for (final long value : order()) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Creates a (not thread-safe) snapshot of the time-series.
+     *
+     * @return the snapshot of the time-series
+     */
+    public LongBucketTimeSeries snapshot() {
+        final long now = this.nowBucket.get();
+        if (now == UNDEFINED) {
+            return new LongBucketTimeSeries(config);
+        } else {
+            return new LongBucketTimeSeries(config, order(now), toUnixTimeStamp(now));
+        }
+    }
+
+    protected long count(final long bucket) {
+        final long tag = tag(bucket);
+        final int slot = slot(bucket);
+
+        long count = 0L;
+        for (int stripe = 0; stripe < this.stripes; stripe++) {
+            final long value = this.cells.get(stripe * this.stride + slot);
+            if (value >>> COUNT_BITS == tag) {
+
+                // the count is stored as signed value using COUNT_BITS bits
+                count += (value << TAG_BITS) >> TAG_BITS;
+            }
+        }
+
+        return count;
+    }
+
+    protected long bucket(final long unixTimeStamp) {
+        return config.getTimeUnit().convert(unixTimeStamp, TimeUnit.SECONDS) / config.getBucketSize();
+    }
+
+    protected long toUnixTimeStamp(final long bucket) {
+        return TimeUnit.SECONDS.convert(bucket * config.getBucketSize(), config.getTimeUnit());
+    }
+
+    protected int slot(final long bucket) {
+        return (int) Math.floorMod(bucket, (long) this.size);
+    }
+
+    protected long tag(final long bucket) {
+        return Math.floorDiv(bucket, (long) this.size) & TAG_MASK;
+    }
+
+    protected int stripe() {
+
+        // spread the (usually sequential) ids of the threads over the stripes
+        final long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (this.stripes - 1);
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
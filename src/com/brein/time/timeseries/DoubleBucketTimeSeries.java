@@ -0,0 +1,259 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.exceptions.IllegalTimePointIndex;
+import com.brein.time.exceptions.IllegalValueRegardingConfiguration;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * A time-series of {@code double} values, e.g., to sum up durations or amounts, backed by a {@code double[]}. Like
+ * the {@link LongBucketTimeSeries}, adding to a bucket (see {@link #add(long, double)}) does neither box the value nor
+ * create any other instance.
+ *
+ * @see BucketTimeSeries
+ */
+public class DoubleBucketTimeSeries extends PrimitiveBucketTimeSeries<Double> {
+    private static final long serialVersionUID = 1L;
+
+    protected double[] timeSeries;
+
+    public DoubleBucketTimeSeries(final TimeUnit timeUnit, final int timeSeriesSize, final int bucketSize) {
+        this(new BucketTimeSeriesConfig<>(Double.class, timeUnit, timeSeriesSize, bucketSize));
+    }
+
+    public DoubleBucketTimeSeries(final BucketTimeSeriesConfig<Double> config) {
+        super(config);
+        this.timeSeries = new double[config.getTimeSeriesSize()];
+    }
+
+    /**
+     * Constructor to create a pre-set time series.
+     *
+     * @param config     the configuration to use
+     * @param timeSeries the initial time series, the first value is the value of now
+     * @param now        the current now timestamp
+     *
+     * @throws IllegalValueRegardingConfiguration if the size of the {@code timeSeries} does not match the config
+     */
+    public DoubleBucketTimeSeries(final BucketTimeSeriesConfig<Double> config,
+                                final double[] timeSeries,
+                                final long now) throws IllegalValueRegardingConfiguration {
+        super(config);
+        setTimeSeries(timeSeries, now);
+    }
+
+    public double[] getTimeSeries() {
+        return timeSeries;
+    }
+
+    public void setTimeSeries(final double[] timeSeries, final long now) throws IllegalValueRegardingConfiguration {
+        if (timeSeries.length != config.getTimeSeriesSize()) {
+            throw new IllegalValueRegardingConfiguration("The defined size of the time-series does not satisfy the " +
+                    "configured time-series size (" + timeSeries.length + " vs. " + config
+                    .getTimeSeriesSize() + ").");
+        }
+
+        this.timeSeries = timeSeries;
+        this.currentNowIdx = 0;
+        applyNow(normalizeUnixTimeStamp(now), bucket(now));
+    }
+
+    @Override
+    protected void fill(final int fromIndex, final int endIndex) {
+        Arrays.fill(this.timeSeries,
+                fromIndex == -1 ? 0 : fromIndex,
+                endIndex == -1 || endIndex > this.timeSeries.length ? this.timeSeries.length : endIndex,
+                0.0);
+    }
+
+    /**
+     * Gets the values ordered from now, i.e., the first value is the value of now, the second the value of the bucket
+     * before now, ...
+     *
+     * @return the ordered values
+     */
+    public double[] order() {
+        final int size = this.timeSeries.length;
+        final double[] result = new double[size];
+
+        if (this.currentNowIdx != -1) {
+            final int head = size - this.currentNowIdx;
+            System.arraycopy(this.timeSeries, this.currentNowIdx, result, 0, head);
+            System.arraycopy(this.timeSeries, 0, result, head, this.currentNowIdx);
+        }
+
+        return result;
+    }
+
+    public double get(final int idx) throws IllegalTimePointIndex {
+        validateIdx(idx);
+        return this.timeSeries[idx];
+    }
+
+    /**
+     * This method returns the value from the time-series as if it would be ordered (i.e., zero is now, 1 is the
+     * previous moment, ...).
+     *
+     * @param idx the zero based index
+     *
+     * @return the value associated to the zero based index
+     */
+    public double getFromZeroBasedIdx(final int idx) throws IllegalTimePointIndex {
+        validateIdx(idx);
+        return this.currentNowIdx == -1 ? 0.0 : this.timeSeries[idx(currentNowIdx + idx)];
+    }
+
+    public void set(final int idx, final double value) throws IllegalTimePointIndex {
+        validateIdx(idx);
+        this.timeSeries[idx] = value;
+    }
+
+    /**
+     * Sets the value of the bucket of the {@code unixTimeStamp}, moving now if the time-stamp is in the future.
+     *
+     * @param unixTimeStamp the time-stamp to set the value for
+     * @param value         the value
+     *
+     * @return {@code true} if the value was set, {@code false} if the time-stamp is too old
+     */
+    public boolean set(final long unixTimeStamp, final double value) {
+        final int idx = handleDataUnixTimeStamp(unixTimeStamp);
+        if (idx == -1) {
+            return false;
+        }
+
+        this.timeSeries[idx] = value;
+        return true;
+    }
+
+    /**
+     * Adds the {@code delta} to the bucket of the {@code unixTimeStamp}, moving now if the time-stamp is in the
+     * future.
+     *
+     * @param unixTimeStamp the time-stamp to add the delta for
+     * @param delta         the value to add
+     *
+     * @return {@code true} if the value was added, {@code false} if the time-stamp is too old
+     */
+    public boolean add(final long unixTimeStamp, final double delta) {
+        final int idx = handleDataUnixTimeStamp(unixTimeStamp);
+        if (idx == -1) {
+            return false;
+        }
+
+        this.timeSeries[idx] += delta;
+        return true;
+    }
+
+    public boolean increment(final long unixTimeStamp) {
+        return add(unixTimeStamp, 1.0);
+    }
+
+    public void add(final int idx, final double delta) throws IllegalTimePointIndex {
+        validateIdx(idx);
+        this.timeSeries[idx] += delta;
+    }
+
+    public double sum() {
+        double sum = 0.0;
+        for (final double value : this.timeSeries) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Adds the values of the {@code timeSeries} to this time-series, bucket by bucket. If the now of the time-series
+     * differ, the now of this is moved to the more recent one first (see {@link BucketTimeSeries#combine}).
+     *
+     * @param timeSeries the time-series to add
+     *
+     * @throws IllegalConfiguration if the configurations of the time-series are not equal
+     */
+    public void combine(final DoubleBucketTimeSeries timeSeries) throws IllegalConfiguration {
+        final DoubleBucketTimeSeries syncedTs = sync(timeSeries, DoubleBucketTimeSeries::copy);
+        final double[] values = syncedTs.timeSeries;
+
+        // bucket i of this is the bucket i + offset of the other time-series, the loops do not wrap around
+        final int offset = offset(syncedTs);
+        final int split = this.timeSeries.length - offset;
+        for (int i = 0; i < split; i++) {
+            this.timeSeries[i] += values[i + offset];
+        }
+        for (int i = split; i < this.timeSeries.length; i++) {
+            this.timeSeries[i] += values[i - split];
+        }
+    }
+
+    public void combine(final DoubleBucketTimeSeries timeSeries,
+                        final DoubleBinaryOperator cmb) throws IllegalConfiguration {
+        final DoubleBucketTimeSeries syncedTs = sync(timeSeries, DoubleBucketTimeSeries::copy);
+        final double[] values = syncedTs.timeSeries;
+
+        final int offset = offset(syncedTs);
+        final int split = this.timeSeries.length - offset;
+        for (int i = 0; i < split; i++) {
+            this.timeSeries[i] = cmb.applyAsDouble(this.timeSeries[i], values[i + offset]);
+        }
+        for (int i = split; i < this.timeSeries.length; i++) {
+            this.timeSeries[i] = cmb.applyAsDouble(this.timeSeries[i], values[i - split]);
+        }
+    }
+
+    /**
+     * Adds the values of all the {@code timeSeries} to this time-series (e.g., to merge the time-series of several
+     * shards). Now is moved once and the values are added with plain loops over the arrays, see {@link
+     * BucketTimeSeries#combineAll(Collection, java.util.function.BiFunction)}.
+     *
+     * @param timeSeries the time-series to add
+     *
+     * @throws IllegalConfiguration if the configuration of any time-series differs
+     */
+    public void combineAll(final Collection<? extends DoubleBucketTimeSeries> timeSeries) throws IllegalConfiguration {
+        combineAligned(timeSeries, false);
+    }
+
+    /**
+     * Adds the values of all the {@code timeSeries} to this time-series, see {@link #combineAll(Collection)}.
+     *
+     * @param timeSeries the time-series to add
+     * @param parallel   {@code true} to add the values of chunks of very long time-series in parallel
+     *
+     * @throws IllegalConfiguration if the configuration of any time-series differs
+     */
+    public void combineAll(final Collection<? extends DoubleBucketTimeSeries> timeSeries,
+                           final boolean parallel) throws IllegalConfiguration {
+        combineAligned(timeSeries, parallel);
+    }
+
+    @Override
+    protected void combineRange(final PrimitiveBucketTimeSeries<Double> timeSeries,
+                                final int idx,
+                                final int otherIdx,
+                                final int length) {
+        final double[] values = DoubleBucketTimeSeries.class.cast(timeSeries).timeSeries;
+        for (int i = 0; i < length; i++) {
+            this.timeSeries[idx + i] += values[otherIdx + i];
+        }
+    }
+
+    public DoubleBucketTimeSeries copy() {
+        final DoubleBucketTimeSeries copy = new DoubleBucketTimeSeries(config);
+        System.arraycopy(this.timeSeries, 0, copy.timeSeries, 0, this.timeSeries.length);
+        copy.currentNowIdx = this.currentNowIdx;
+        if (this.now != null) {
+            copy.applyNow(this.now, this.nowBucket);
+        }
+
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(order());
+    }
+}
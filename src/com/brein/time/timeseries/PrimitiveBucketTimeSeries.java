@@ -0,0 +1,412 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.exceptions.IllegalTimePoint;
+import com.brein.time.exceptions.IllegalTimePointIndex;
+import com.brein.time.exceptions.IllegalTimePointMovement;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * The base of the time-series storing primitive values, i.e., {@link LongBucketTimeSeries} and {@link
+ * DoubleBucketTimeSeries}. The time-series uses the same ring-buffer as the {@link BucketTimeSeries} (i.e., {@code
+ * currentNowIdx} is the bucket of now, the older buckets follow). In contrast to the {@code BucketTimeSeries}, the
+ * bucket of a time-stamp is determined without creating any {@link BucketEndPoints}, i.e., adding a value to an
+ * existing bucket does not allocate any memory. The arithmetic of the buckets is shared with the {@code
+ * BucketTimeSeries}, see {@link BucketArithmetic}.
+ *
+ * @param <T> the type of the values, used for the configuration only
+ */
+public abstract class PrimitiveBucketTimeSeries<T extends Number> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // the amount of buckets combined by a task, if the time-series are combined in parallel
+    protected static final int PARALLEL_CHUNK_SIZE = 1 << 14;
+
+    protected final BucketTimeSeriesConfig<T> config;
+
+    protected BucketEndPoints now = null;
+    protected int currentNowIdx = -1;
+
+    // the number of the bucket of now, i.e., the start of now (in the time-unit of the config) divided by the size
+    protected long nowBucket = 0L;
+
+    // the seconds per bucket (0 if not determined yet, see BucketArithmetic) and the shift used instead of dividing
+    private transient long secondsPerBucket = 0L;
+    private transient int secondsPerBucketShift = -1;
+
+    protected PrimitiveBucketTimeSeries(final BucketTimeSeriesConfig<T> config) {
+        this.config = config;
+    }
+
+    /**
+     * Resets the values from [fromIndex, endIndex) to {@code 0}.
+     *
+     * @param fromIndex the index to start from (included), {@code -1} to start from the first index
+     * @param endIndex  the index to end (excluded), {@code -1} to end with the last index
+     */
+    protected abstract void fill(final int fromIndex, final int endIndex);
+
+    /**
+     * Combines the {@code length} values of the {@code timeSeries} starting at {@code otherIdx} with the values of
+     * this starting at {@code idx}. Neither of the ranges wraps around the end of the array.
+     *
+     * @param timeSeries the time-series to combine with this, having the type of this
+     * @param idx        the index of the first bucket of this
+     * @param otherIdx   the index of the first bucket of the {@code timeSeries}
+     * @param length     the amount of buckets to combine
+     */
+    protected abstract void combineRange(final PrimitiveBucketTimeSeries<T> timeSeries,
+                                         final int idx,
+                                         final int otherIdx,
+                                         final int length);
+
+    public BucketTimeSeriesConfig<T> getConfig() {
+        return config;
+    }
+
+    public int getNowIdx() {
+        return currentNowIdx;
+    }
+
+    public long getNow() {
+        if (now == null) {
+            return -1L;
+        } else {
+            return now.getUnixTimeStampEnd() - 1;
+        }
+    }
+
+    /**
+     * Gets the end-points by an offset to now, i.e., 0 means to get the now bucket, -1 gets the previous bucket, and +1
+     * will get the next bucket.
+     *
+     * @param bucketsFromNow the amount of buckets to retrieve using now as anchor
+     *
+     * @return the end-point (bucket) with an offset of {@code bucketsFromNow} from now
+     *
+     * @throws IllegalTimePoint if the current now is not defined
+     * @see BucketTimeSeries#getEndPoints(int)
+     */
+    public BucketEndPoints getEndPoints(final int bucketsFromNow) throws IllegalTimePoint {
+        if (currentNowIdx == -1 || now == null) {
+            throw new IllegalTimePoint("The now is not set yet, thus no end-points can be returned");
+        }
+
+        return now.move(bucketsFromNow);
+    }
+
+    /**
+     * Gets the time-stamp representing the beginning of the specified bucket.
+     *
+     * @param offset the zero-based position, i.e., 0 is now, 1 is the first bucket before now, ...
+     *
+     * @return the start time-stamp of the bucket at the offset position
+     */
+    public long getTimeStamp(final int offset) {
+        return getEndPoints(-1 * offset).getUnixTimeStampStart();
+    }
+
+    public void initNow(final long now, final int currentNowIdx) {
+        if (this.now == null && this.currentNowIdx == -1) {
+            applyNow(normalizeUnixTimeStamp(now), bucket(now));
+            this.currentNowIdx = currentNowIdx;
+        } else {
+            throw new IllegalTimePointMovement("Cannot modify the now and the currentIdx once values where added.");
+        }
+    }
+
+    /**
+     * Modifies the "now" unix time stamp of the time-series, the buckets passed are reset to {@code 0}.
+     *
+     * @param unixTimeStamp the new now to be used
+     *
+     * @throws IllegalTimePointMovement if the new unix time stamp it moved into the past
+     * @see BucketTimeSeries#setNow(long)
+     */
+    public void setNow(final long unixTimeStamp) throws IllegalTimePointMovement {
+        if (this.currentNowIdx == -1 || this.now == null) {
+            this.currentNowIdx = 0;
+            applyNow(normalizeUnixTimeStamp(unixTimeStamp), bucket(unixTimeStamp));
+        } else {
+            final long diff = bucket(unixTimeStamp) - this.nowBucket;
+
+            if (diff < 0) {
+                throw new IllegalTimePointMovement(String.format("Cannot move to the past (current: %s, update: %s)",
+                        this.now, normalizeUnixTimeStamp(unixTimeStamp)));
+            } else if (diff > 0) {
+                moveNow(diff, unixTimeStamp);
+            }
+        }
+    }
+
+    /**
+     * Moves now forward by {@code diff} buckets to the bucket of the {@code unixTimeStamp}, the buckets passed are
+     * reset to {@code 0}.
+     *
+     * @param diff          the amount of buckets to move now forward, must be positive
+     * @param unixTimeStamp the time-stamp to move now to
+     */
+    protected void moveNow(final long diff, final long unixTimeStamp) {
+        final BucketEndPoints newNow = BucketArithmetic.move(config, getSecondsPerBucket(), this.now, diff,
+                unixTimeStamp);
+
+        this.currentNowIdx = BucketArithmetic.moveNow(config, currentNowIdx, diff, this::fill);
+        applyNow(newNow, this.nowBucket + diff);
+    }
+
+    /**
+     * Sets now together with the number of its bucket, see {@link BucketTimeSeries#applyNow(BucketEndPoints, long)}.
+     *
+     * @param now       the end-points of the new now
+     * @param nowBucket the number of the bucket of the new now, see {@link #bucket(long)}
+     */
+    protected void applyNow(final BucketEndPoints now, final long nowBucket) {
+        this.now = now;
+        this.nowBucket = nowBucket;
+    }
+
+    /**
+     * Determines the index of the bucket the {@code unixTimeStamp} belongs to, moving now if the time-stamp is in the
+     * future.
+     *
+     * @param unixTimeStamp the time-stamp to determine the index for
+     *
+     * @return the index of the bucket, or {@code -1} if the time-stamp is too old to be covered by the time-series
+     */
+    protected int handleDataUnixTimeStamp(final long unixTimeStamp) {
+        if (this.now == null) {
+            setNow(unixTimeStamp);
+            return currentNowIdx;
+        }
+
+        final long diff = bucket(unixTimeStamp) - this.nowBucket;
+        if (diff > 0) {
+            moveNow(diff, unixTimeStamp);
+            return currentNowIdx;
+        } else if (-diff >= config.getTimeSeriesSize()) {
+            return -1;
+        } else {
+            return idx(currentNowIdx - diff);
+        }
+    }
+
+    /**
+     * Determines the number of the bucket of the {@code unixTimeStamp}, i.e., the same bucketing as done by {@link
+     * #normalizeUnixTimeStamp(long)}, without creating any instance.
+     *
+     * @param unixTimeStamp the time-stamp to determine the number of the bucket for
+     *
+     * @return the number of the bucket
+     */
+    protected long bucket(final long unixTimeStamp) {
+        return BucketArithmetic.bucket(config, getSecondsPerBucket(), secondsPerBucketShift, unixTimeStamp);
+    }
+
+    protected long getSecondsPerBucket() {
+        if (this.secondsPerBucket == 0L) {
+            this.secondsPerBucket = BucketArithmetic.secondsPerBucket(config);
+            this.secondsPerBucketShift = BucketArithmetic.secondsPerBucketShift(this.secondsPerBucket);
+        }
+
+        return this.secondsPerBucket;
+    }
+
+    /**
+     * Determines the bucket the {@code unixTimeStamp} belongs into.
+     *
+     * @param unixTimeStamp the time-stamp to determine the bucket for
+     *
+     * @return the bucket for the specified {@code unixTimeStamp} based on the configuration of the time-series
+     * @see BucketTimeSeries#normalizeUnixTimeStamp(long)
+     */
+    public BucketEndPoints normalizeUnixTimeStamp(final long unixTimeStamp) {
+        return BucketArithmetic.normalize(config, unixTimeStamp);
+    }
+
+    /**
+     * Determines the number of buckets used to cover the seconds.
+     *
+     * @param diffInSeconds the difference in seconds
+     *
+     * @return the amount of buckets used to cover this amount
+     */
+    public int getBucketSize(final long diffInSeconds) {
+        return BucketArithmetic.bucketSize(config, getSecondsPerBucket(), diffInSeconds);
+    }
+
+    protected void validateIdx(final int idx) throws IllegalTimePointIndex {
+        if (idx < 0 || idx >= config.getTimeSeriesSize()) {
+            throw new IllegalTimePointIndex(String.format("The index %d is out of bound [%d, %d].", idx, 0, config
+                    .getTimeSeriesSize() - 1));
+        }
+    }
+
+    protected int idx(final long absIdx) {
+        return BucketArithmetic.idx(config, absIdx);
+    }
+
+    /**
+     * Determines the offset of the ring-buffer of the {@code timeSeries} relative to the one of this, i.e., the
+     * bucket {@code idx} of this is stored at {@code idx(idx + offset)} in the {@code timeSeries}. Both time-series
+     * must have the same now.
+     *
+     * @param timeSeries the time-series to determine the offset for
+     *
+     * @return the offset within {@code [0, timeSeriesSize)}
+     */
+    protected int offset(final PrimitiveBucketTimeSeries<T> timeSeries) {
+        return timeSeries.currentNowIdx == -1 || currentNowIdx == -1 ? 0 :
+                idx((long) timeSeries.currentNowIdx - currentNowIdx);
+    }
+
+    /**
+     * Combines all the {@code timeSeries} with this, see {@link BucketTimeSeries#combineAll(Collection, BiFunction)}.
+     * Now is moved once and each time-series is combined range by range (see {@link #combineRange(
+     * PrimitiveBucketTimeSeries, int, int, int)}), i.e., without copying or moving any of the time-series. If {@code
+     * parallel} is {@code true}, the buckets of very long time-series are split into chunks, combined in parallel.
+     *
+     * @param timeSeries the time-series to combine with this, having the type of this
+     * @param parallel   {@code true} to combine chunks of the buckets in parallel, otherwise {@code false}
+     *
+     * @throws IllegalConfiguration if the configuration of any time-series differs
+     */
+    protected void combineAligned(final Collection<? extends PrimitiveBucketTimeSeries<T>> timeSeries,
+                                  final boolean parallel) throws IllegalConfiguration {
+        if (!align(timeSeries)) {
+            return;
+        }
+
+        // the chunks cover disjoint buckets of this, i.e., the tasks do not write the same buckets
+        final int size = config.getTimeSeriesSize();
+        if (parallel && size > PARALLEL_CHUNK_SIZE) {
+            final int chunks = (size + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> combineAligned(timeSeries,
+                    chunk * PARALLEL_CHUNK_SIZE, Math.min(size, (chunk + 1) * PARALLEL_CHUNK_SIZE)));
+        } else {
+            combineAligned(timeSeries, 0, size);
+        }
+    }
+
+    /**
+     * Combines the buckets with the zero-based indexes {@code [from, to)} of this with the corresponding buckets of
+     * the {@code timeSeries}, which must not be ahead of this.
+     *
+     * @param timeSeries the time-series to combine with this
+     * @param from       the first zero-based index (included)
+     * @param to         the last zero-based index (excluded)
+     */
+    protected void combineAligned(final Collection<? extends PrimitiveBucketTimeSeries<T>> timeSeries,
+                                  final int from,
+                                  final int to) {
+        final int size = config.getTimeSeriesSize();
+
+        for (final PrimitiveBucketTimeSeries<T> ts : timeSeries) {
+            final int lag = lag(ts);
+            final int first = Math.max(from, lag);
+
+            // the ranges are split whenever one of the arrays wraps around
+            int idx = idx((long) currentNowIdx + first);
+            int otherIdx = idx((long) ts.currentNowIdx + first - lag);
+            int remaining = to - first;
+            while (remaining > 0) {
+                final int length = Math.min(remaining, Math.min(size - idx, size - otherIdx));
+                combineRange(ts, idx, otherIdx, length);
+
+                idx = idx + length == size ? 0 : idx + length;
+                otherIdx = otherIdx + length == size ? 0 : otherIdx + length;
+                remaining -= length;
+            }
+        }
+    }
+
+    /**
+     * Moves now of this to the most recent now of this and the {@code timeSeries}, see {@link
+     * BucketTimeSeries#align(Collection)}.
+     *
+     * @param timeSeries the time-series to align this with
+     *
+     * @return {@code true} if now of this is set, otherwise {@code false}
+     *
+     * @throws IllegalConfiguration if the configuration of any time-series differs
+     */
+    protected boolean align(final Collection<? extends PrimitiveBucketTimeSeries<T>> timeSeries) throws
+            IllegalConfiguration {
+        long now = getNow();
+        for (final PrimitiveBucketTimeSeries<T> ts : timeSeries) {
+            if (!Objects.equals(ts.config, config)) {
+                throw new IllegalConfiguration("The time-series to combine must have the same configuration.");
+            }
+
+            now = Math.max(now, ts.getNow());
+        }
+
+        if (now == -1L) {
+            return false;
+        } else if (now != getNow()) {
+            setNow(now);
+        }
+
+        return true;
+    }
+
+    /**
+     * Determines the amount of buckets the now of the {@code timeSeries} is behind the now of this, see {@link
+     * BucketTimeSeries#lag(BucketTimeSeries)}.
+     *
+     * @param timeSeries the time-series to determine the lag for
+     *
+     * @return the lag, {@code timeSeriesSize} if no bucket of the time-series is covered by this
+     */
+    protected int lag(final PrimitiveBucketTimeSeries<T> timeSeries) {
+        if (timeSeries.now == null || timeSeries.currentNowIdx == -1) {
+            return config.getTimeSeriesSize();
+        }
+
+        return (int) Math.min(config.getTimeSeriesSize(), this.nowBucket - timeSeries.nowBucket);
+    }
+
+    /**
+     * Synchronizes the now of this and the {@code timeSeries}, see {@link BucketTimeSeries#sync(BucketTimeSeries,
+     * Function)}.
+     *
+     * @param timeSeries the time-series to synchronize with
+     * @param copy       creates a copy of the {@code timeSeries}, used if the time-series has to be moved
+     * @param <B>        the type of the time-series
+     *
+     * @return the {@code timeSeries} or a copy of it, having the same now as this
+     *
+     * @throws IllegalConfiguration if the configurations are not equal
+     */
+    protected <B extends PrimitiveBucketTimeSeries<T>> B sync(final B timeSeries, final Function<B, B> copy) throws
+            IllegalConfiguration {
+
+        if (!Objects.equals(timeSeries.config, config)) {
+            throw new IllegalConfiguration("The time-series to combine must have the same configuration.");
+        }
+
+        final int cmp = Long.compare(getNow(), timeSeries.getNow());
+        if (cmp == 0 || timeSeries.getNow() == -1) {
+            return timeSeries;
+        } else if (getNow() == -1) {
+            setNow(timeSeries.getNow());
+            return timeSeries;
+        } else if (cmp > 0) {
+
+            // the passed time-series is in the past
+            final B ts = copy.apply(timeSeries);
+            ts.setNow(this.getNow());
+            return ts;
+        } else {
+
+            // the passed time-series is in the future
+            this.setNow(timeSeries.getNow());
+            return timeSeries;
+        }
+    }
+}
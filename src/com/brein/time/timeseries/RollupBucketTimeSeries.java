@@ -0,0 +1,229 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * A time-series holding several resolutions of the same values, e.g., the last 60 seconds, the last 60 minutes, and
+ * the last 24 hours. Values are only added to the finest resolution. Whenever a bucket of a resolution expires (i.e.,
+ * when now is moved), the value of the bucket is folded into the next coarser resolution, using the {@code
+ * aggregator} (e.g., the sum, the minimum, the maximum, or the merge of any sketch held by the buckets). Thus, a value
+ * is stored within a single resolution only and the resolutions do not overlap: each resolution holds the values
+ * older than the ones held by the finer resolutions.
+ * <p>
+ * <pre>
+ *   seconds: [now] [now - 1s] ... [now - 59s]                     ← added
+ *   minutes:                                 [...] ... [...]      ← expired seconds
+ *   hours:                                                [...]   ← expired minutes
+ * </pre>
+ * Buckets of the time-series which are {@code null} are not folded. When using an aggregator other than the sum, the
+ * configurations should not fill the buckets with zero (see {@link BucketTimeSeriesConfig#isFillNumberWithZero()}),
+ * because the zero of an empty bucket would be aggregated.
+ *
+ * @param <T> the content held by the time-series
+ */
+public class RollupBucketTimeSeries<T extends Serializable> {
+    private final List<BucketTimeSeries<T>> resolutions;
+    private final BiFunction<T, T, T> aggregator;
+
+    /**
+     * Creates a time-series summing up the values, see {@link BucketTimeSeries#addition(Serializable,
+     * Serializable)}.
+     *
+     * @param configs the configurations of the resolutions, from the finest to the coarsest
+     *
+     * @throws IllegalConfiguration if the configurations are invalid
+     */
+    @SafeVarargs
+    public RollupBucketTimeSeries(final BucketTimeSeriesConfig<T>... configs) throws IllegalConfiguration {
+        this(null, configs);
+    }
+
+    /**
+     * Creates a time-series using the specified {@code aggregator}.
+     *
+     * @param aggregator the aggregator used to add values and to fold buckets, {@code null} to sum up the values
+     * @param configs    the configurations of the resolutions, from the finest to the coarsest
+     *
+     * @throws IllegalConfiguration if the configurations are invalid, i.e., if there is no configuration, the
+     *                              configurations have different contents, or a bucket of a resolution is not a
+     *                              multiple of the bucket of the finer resolution
+     */
+    @SafeVarargs
+    public RollupBucketTimeSeries(final BiFunction<T, T, T> aggregator,
+                                  final BucketTimeSeriesConfig<T>... configs) throws IllegalConfiguration {
+        if (configs.length == 0) {
+            throw new IllegalConfiguration("At least one resolution must be defined.");
+        }
+
+        final List<BucketTimeSeries<T>> resolutions = new ArrayList<>(configs.length);
+        for (int i = 0; i < configs.length; i++) {
+            final BucketTimeSeriesConfig<T> config = configs[i];
+
+            if (i > 0) {
+                final BucketTimeSeriesConfig<T> finer = configs[i - 1];
+                final long seconds = seconds(config);
+                final long finerSeconds = seconds(finer);
+
+                if (!Objects.equals(config.getBucketContent(), finer.getBucketContent())) {
+                    throw new IllegalConfiguration("The resolutions must have the same content: " + config);
+                } else if (seconds <= finerSeconds || seconds % finerSeconds != 0) {
+                    throw new IllegalConfiguration(String.format("The bucket of the resolution %s must be a " +
+                            "multiple of the bucket of the finer resolution %s.", config, finer));
+                }
+            }
+
+            resolutions.add(new BucketTimeSeries<>(config));
+        }
+
+        this.resolutions = Collections.unmodifiableList(resolutions);
+        this.aggregator = aggregator == null ? this.resolutions.get(0)::addition : aggregator;
+    }
+
+    /**
+     * Creates an aggregator keeping the minimum.
+     *
+     * @param <T> the content held by the time-series
+     *
+     * @return the aggregator keeping the minimum
+     */
+    public static <T extends Serializable & Comparable<T>> BiFunction<T, T, T> min() {
+        return (a, b) -> a == null ? b : b == null ? a : a.compareTo(b) <= 0 ? a : b;
+    }
+
+    /**
+     * Creates an aggregator keeping the maximum.
+     *
+     * @param <T> the content held by the time-series
+     *
+     * @return the aggregator keeping the maximum
+     */
+    public static <T extends Serializable & Comparable<T>> BiFunction<T, T, T> max() {
+        return (a, b) -> a == null ? b : b == null ? a : a.compareTo(b) >= 0 ? a : b;
+    }
+
+    public List<BucketTimeSeries<T>> getResolutions() {
+        return resolutions;
+    }
+
+    public BucketTimeSeries<T> getResolution(final int resolution) {
+        return resolutions.get(resolution);
+    }
+
+    public BiFunction<T, T, T> getAggregator() {
+        return aggregator;
+    }
+
+    /**
+     * Adds the {@code value} to the bucket of the {@code unixTimeStamp} of the finest resolution, i.e., aggregates the
+     * value of the bucket and the {@code value}. If the time-stamp is in the future, now is moved and the expired
+     * buckets are folded into the coarser resolutions.
+     *
+     * @param unixTimeStamp the time-stamp of the value
+     * @param value         the value to add
+     */
+    public void add(final long unixTimeStamp, final T value) {
+        fold(0, unixTimeStamp, value);
+    }
+
+    /**
+     * Moves the now of the finest resolution, folding the expired buckets into the coarser resolutions.
+     *
+     * @param unixTimeStamp the new now to be used
+     */
+    public void setNow(final long unixTimeStamp) {
+        moveNow(0, unixTimeStamp);
+    }
+
+    public long getNow() {
+        return resolutions.get(0).getNow();
+    }
+
+    /**
+     * Aggregates the values of the buckets starting within {@code [fromUnixTimeStamp, toUnixTimeStamp)}. Because the
+     * resolutions do not overlap, the values of the recent past are taken from the finer resolutions and the older ones
+     * from the coarser resolutions. A bucket of a coarser resolution is used if it starts within the range, i.e., the
+     * range is covered using the resolution of the bucket.
+     *
+     * @param fromUnixTimeStamp the start of the range (inclusive)
+     * @param toUnixTimeStamp   the end of the range (exclusive)
+     *
+     * @return the aggregated value, or {@code null} if no bucket within the range has a value
+     */
+    public T get(final long fromUnixTimeStamp, final long toUnixTimeStamp) {
+        T result = null;
+
+        for (final BucketTimeSeries<T> resolution : resolutions) {
+            if (resolution.getNow() == -1L) {
+                continue;
+            }
+
+            final int size = resolution.getConfig().getTimeSeriesSize();
+            final BucketEndPoints now = resolution.getEndPoints(0);
+            final long nowStart = now.getUnixTimeStampStart();
+            final long seconds = now.size();
+
+            // the buckets (offsets from now) starting within the range, i.e., no need to look at any other bucket
+            final long first = Math.max(0L, Math.floorDiv(nowStart - toUnixTimeStamp, seconds) + 1L);
+            final long last = Math.min(size - 1L, Math.floorDiv(nowStart - fromUnixTimeStamp, seconds));
+            for (long offset = first; offset <= last; offset++) {
+                final T value = resolution.getFromZeroBasedIdx((int) offset);
+                if (value != null) {
+                    result = result == null ? value : aggregator.apply(result, value);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    protected void fold(final int resolution, final long unixTimeStamp, final T value) {
+        moveNow(resolution, unixTimeStamp);
+        resolutions.get(resolution).modify(unixTimeStamp, (T current) ->
+                current == null ? value : aggregator.apply(current, value));
+    }
+
+    protected void moveNow(final int resolution, final long unixTimeStamp) {
+        final BucketTimeSeries<T> ts = resolutions.get(resolution);
+
+        if (ts.getNow() == -1L) {
+            ts.setNow(unixTimeStamp);
+            return;
+        }
+
+        // the distance to now is determined without creating any end-points, i.e., adding to now does not allocate
+        final long diff = ts.bucket(unixTimeStamp) - ts.getNowBucket();
+        if (diff <= 0) {
+            return;
+        }
+
+        // fold the expiring buckets, the oldest first, so that the coarser resolution moves forward only
+        if (resolution + 1 < resolutions.size()) {
+            final int size = ts.getConfig().getTimeSeriesSize();
+            for (int offset = size - 1; offset >= Math.max(0L, size - diff); offset--) {
+                final T value = ts.getFromZeroBasedIdx(offset);
+                if (value != null) {
+                    fold(resolution + 1, ts.getTimeStamp(offset), value);
+                }
+            }
+        }
+
+        ts.setNow(unixTimeStamp);
+    }
+
+    protected long seconds(final BucketTimeSeriesConfig<T> config) {
+        return TimeUnit.SECONDS.convert(config.getBucketSize(), config.getTimeUnit());
+    }
+
+    @Override
+    public String toString() {
+        return resolutions.toString();
+    }
+}
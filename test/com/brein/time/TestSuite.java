@@ -2,10 +2,22 @@ package com.brein.time;
 
 import com.brein.time.timeintervals.docs.TestDocsSuite;
 import com.brein.time.timeintervals.indexes.TestIntervalTree;
+import com.brein.time.timeintervals.indexes.TestIntervalSet;
+import com.brein.time.timeintervals.indexes.TestIntervalAnalytics;
+import com.brein.time.timeintervals.indexes.TestIntervalTreeConfiguration;
+import com.brein.time.timeintervals.indexes.TestIntervalTreeMetrics;
+import com.brein.time.timeintervals.indexes.TestIntervalValueComparator;
+import com.brein.time.timeintervals.indexes.TestPartitionedIntervalTree;
+import com.brein.time.timeintervals.indexes.TestWideIntervalIndex;
 import com.brein.time.timeintervals.intervals.TestInterval;
 import com.brein.time.timeseries.TestBucketEndPoints;
 import com.brein.time.timeseries.TestBucketTimeSeries;
+import com.brein.time.timeseries.TestBucketTimeSeriesCodec;
+import com.brein.time.timeseries.TestBucketTimeSeriesStore;
+import com.brein.time.timeseries.TestConcurrentBucketTimeSeries;
 import com.brein.time.timeseries.TestContainerBucketTimeSeries;
+import com.brein.time.timeseries.TestPrimitiveBucketTimeSeries;
+import com.brein.time.timeseries.TestRollupBucketTimeSeries;
 import com.brein.time.timeseries.gson.TestBucketTimeSeriesTypeConverter;
 import com.brein.time.timeseries.gson.TestContainerBucketTimeSeriesTypeConverter;
 import com.brein.time.utils.TestTimeModifier;
@@ -20,11 +32,23 @@ import org.junit.runners.Suite;
         TestTimeTruncater.class,
         TestBucketTimeSeries.class,
         TestContainerBucketTimeSeries.class,
+        TestPrimitiveBucketTimeSeries.class,
+        TestConcurrentBucketTimeSeries.class,
+        TestRollupBucketTimeSeries.class,
+        TestBucketTimeSeriesStore.class,
+        TestBucketTimeSeriesCodec.class,
         TestBucketEndPoints.class,
         TestBucketTimeSeriesTypeConverter.class,
         TestContainerBucketTimeSeriesTypeConverter.class,
         TestInterval.class,
         TestIntervalTree.class,
+        TestIntervalValueComparator.class,
+        TestPartitionedIntervalTree.class,
+        TestIntervalSet.class,
+        TestIntervalAnalytics.class,
+        TestIntervalTreeMetrics.class,
+        TestWideIntervalIndex.class,
+        TestIntervalTreeConfiguration.class,
 
         TestDocsSuite.class,
 
@@ -0,0 +1,142 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.DoubleInterval;
+import com.brein.time.timeintervals.intervals.LongRange;
+import com.brein.time.timeintervals.intervals.TimestampInterval;
+import com.brein.time.timeseries.BucketTimeSeries;
+import com.brein.time.timeseries.BucketTimeSeriesConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class TestIntervalAnalytics {
+
+    @Test
+    public void testProfile() {
+        final IntervalTree tree = createTree();
+        tree.insert(new TimestampInterval(1L, 5L));
+        tree.insert(new TimestampInterval(3L, 8L));
+        tree.insert(new TimestampInterval(3L, 8L));
+        tree.insert(new TimestampInterval(9L, 10L));
+        tree.insert(new TimestampInterval(15L, 20L));
+
+        final List<long[]> segments = new ArrayList<>();
+        IntervalAnalytics.depthProfile(tree, (start, end, depth) -> segments.add(new long[]{start, end, depth}));
+        Assert.assertArrayEquals(new long[][]{
+                {1L, 2L, 1L},
+                {3L, 5L, 3L},
+                {6L, 8L, 2L},
+                {9L, 10L, 1L},
+                {11L, 14L, 0L},
+                {15L, 20L, 1L}
+        }, segments.toArray(new long[segments.size()][]));
+
+        Assert.assertEquals(3L, IntervalAnalytics.maxOverlap(tree));
+        Assert.assertEquals(2L, IntervalAnalytics.maxOverlap(tree, new TimestampInterval(6L, 30L)));
+        Assert.assertEquals(0L, IntervalAnalytics.maxOverlap(tree, new TimestampInterval(11L, 14L)));
+
+        Assert.assertEquals(Arrays.asList(new LongRange(0L, 0L), new LongRange(11L, 14L), new LongRange(21L, 25L)),
+                IntervalAnalytics.gaps(tree, new TimestampInterval(0L, 25L)));
+        Assert.assertArrayEquals(new long[]{10L, 10L, 3L, 3L},
+                IntervalAnalytics.depthHistogram(tree, new TimestampInterval(0L, 25L)));
+
+        // nothing is reported for an empty tree, the whole range is a gap
+        Assert.assertEquals(0L, IntervalAnalytics.maxOverlap(createTree()));
+        Assert.assertEquals(Arrays.asList(new LongRange(0L, 25L)),
+                IntervalAnalytics.gaps(createTree(), new TimestampInterval(0L, 25L)));
+    }
+
+    @Test
+    public void testRandom() {
+        final Random rnd = new Random(42L);
+        final IntervalTree tree = createTree();
+        final long[] depths = new long[600];
+
+        for (int i = 0; i < 1000; i++) {
+            final int start = rnd.nextInt(500);
+            final int end = start + rnd.nextInt(rnd.nextBoolean() ? 5 : 50);
+
+            tree.insert(new TimestampInterval((long) start, (long) end));
+            for (int v = start; v <= end; v++) {
+                depths[v]++;
+            }
+        }
+
+        for (int i = 0; i < 50; i++) {
+            final int from = rnd.nextInt(600);
+            final int to = from + rnd.nextInt(600 - from);
+
+            // the profile must cover the range without any holes
+            final long[] pos = {from};
+            IntervalAnalytics.depthProfile(tree, new TimestampInterval((long) from, (long) to), (start, end, depth) -> {
+                Assert.assertEquals(pos[0], start);
+                for (long v = start; v <= end; v++) {
+                    Assert.assertEquals(depths[(int) v], depth);
+                }
+                pos[0] = end + 1L;
+            });
+            Assert.assertEquals(to + 1L, pos[0]);
+
+            long expectedMax = 0L;
+            for (int v = from; v <= to; v++) {
+                expectedMax = Math.max(expectedMax, depths[v]);
+            }
+            Assert.assertEquals(expectedMax, IntervalAnalytics.maxOverlap(tree, new TimestampInterval((long) from,
+                    (long) to)));
+        }
+    }
+
+    @Test
+    public void testShallowTree() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.TIMESTAMP)
+                .build();
+        tree.insert(new TimestampInterval(1L, 5L));
+        tree.insert(new TimestampInterval(1L, 5L));
+        tree.insert(new TimestampInterval(4L, 6L));
+
+        // each node is counted once
+        Assert.assertEquals(2L, IntervalAnalytics.maxOverlap(tree));
+    }
+
+    @Test
+    public void testTimeSeries() {
+        final IntervalTree tree = createTree();
+        tree.insert(new TimestampInterval(52L, 61L));
+        tree.insert(new TimestampInterval(60L, 62L));
+        tree.insert(new TimestampInterval(71L, 71L));
+        tree.insert(new TimestampInterval(90L, 200L));
+
+        // ten buckets of five seconds, i.e., [55, 105)
+        final BucketTimeSeries<Long> timeSeries = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, 10, 5));
+        timeSeries.setNow(100L);
+        IntervalAnalytics.maxOverlap(tree, timeSeries);
+
+        Assert.assertArrayEquals(new Long[]{1L, 1L, 1L, 0L, 0L, 0L, 1L, 0L, 2L, 1L}, timeSeries.order());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonIntegral() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.DOUBLE)
+                .build();
+        tree.insert(new DoubleInterval(1.5, 2.0));
+
+        IntervalAnalytics.maxOverlap(tree);
+    }
+
+    protected IntervalTree createTree() {
+        return IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.TIMESTAMP)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.DoubleInterval;
+import com.brein.time.timeintervals.intervals.IInterval;
+import com.brein.time.timeintervals.intervals.LongRange;
+import com.brein.time.timeintervals.intervals.TimestampInterval;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class TestIntervalSet {
+
+    @Test
+    public void testAddAndRemove() {
+        final IntervalSet set = new IntervalSet();
+
+        Assert.assertTrue(set.add(new TimestampInterval(1L, 5L)));
+        Assert.assertTrue(set.add(new TimestampInterval(6L, 8L)));
+        Assert.assertFalse(set.add(new TimestampInterval(2L, 7L)));
+        Assert.assertEquals(1, set.size());
+        Assert.assertEquals(8L, set.getCoverage());
+
+        Assert.assertTrue(set.add(new TimestampInterval(10L, 12L)));
+        Assert.assertEquals(2, set.size());
+        Assert.assertFalse(set.covers(9L));
+        Assert.assertTrue(set.covers(10L));
+        Assert.assertTrue(set.covers(new TimestampInterval(2L, 8L)));
+        Assert.assertFalse(set.covers(new TimestampInterval(2L, 10L)));
+
+        Assert.assertTrue(set.remove(new TimestampInterval(3L, 4L)));
+        Assert.assertFalse(set.remove(new TimestampInterval(3L, 4L)));
+        Assert.assertEquals(Arrays.asList(new LongRange(1L, 2L), new LongRange(5L, 8L), new LongRange(10L, 12L)),
+                set.stream().collect(Collectors.toList()));
+        Assert.assertEquals(9L, set.getCoverage());
+        Assert.assertEquals(6L, set.getCoverage(2L, 10L));
+
+        // fills the gaps and merges everything
+        Assert.assertTrue(set.add(new TimestampInterval(3L, 9L)));
+        Assert.assertEquals(Arrays.asList(new LongRange(1L, 12L)), set.stream().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testExtremeValues() {
+        final IntervalSet set = new IntervalSet();
+
+        set.add(Long.MIN_VALUE, Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, set.getCoverage());
+        Assert.assertEquals(Long.MAX_VALUE, set.getCoverage(Long.MIN_VALUE, Long.MAX_VALUE));
+        Assert.assertEquals(11L, set.getCoverage(-5L, 5L));
+
+        // the removal is exact, although the coverage was clamped
+        set.remove(Long.MIN_VALUE + 10L, Long.MAX_VALUE);
+        Assert.assertEquals(10L, set.getCoverage());
+        set.add(0L, Long.MAX_VALUE);
+        Assert.assertEquals(Long.MAX_VALUE, set.getCoverage());
+        set.remove(1L, Long.MAX_VALUE);
+        Assert.assertEquals(11L, set.getCoverage());
+        Assert.assertEquals(0L, set.getCoverage(1L, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRandom() {
+        final Random rnd = new Random(42L);
+        final IntervalSet set = new IntervalSet();
+        final boolean[] covered = new boolean[250];
+
+        for (int i = 0; i < 2000; i++) {
+            final int start = rnd.nextInt(200);
+            final int end = start + rnd.nextInt(rnd.nextBoolean() ? 5 : 40);
+
+            if (rnd.nextInt(3) == 0) {
+                set.remove(start, end);
+                Arrays.fill(covered, start, end + 1, false);
+            } else {
+                set.add(start, end);
+                Arrays.fill(covered, start, end + 1, true);
+            }
+
+            final int from = rnd.nextInt(250);
+            final int to = from + rnd.nextInt(250 - from);
+            long expected = 0L;
+            for (int v = from; v <= to; v++) {
+                expected += covered[v] ? 1 : 0;
+            }
+            Assert.assertEquals(expected, set.getCoverage(from, to));
+        }
+
+        long expected = 0L;
+        for (int v = 0; v < covered.length; v++) {
+            Assert.assertEquals(covered[v], set.covers(v));
+            expected += covered[v] ? 1 : 0;
+        }
+        Assert.assertEquals(expected, set.getCoverage());
+
+        // the ranges are disjoint and not adjacent
+        final List<IInterval> ranges = set.stream().collect(Collectors.toList());
+        for (int i = 1; i < ranges.size(); i++) {
+            Assert.assertTrue((long) ranges.get(i - 1).getNormEnd() + 1L < (long) ranges.get(i).getNormStart());
+        }
+    }
+
+    @Test
+    public void testOfTree() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.TIMESTAMP)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        final Random rnd = new Random(42L);
+        final IntervalSet expected = new IntervalSet();
+        for (int i = 0; i < 500; i++) {
+            final long start = rnd.nextInt(5000);
+            final TimestampInterval interval = new TimestampInterval(start, start + rnd.nextInt(20));
+
+            tree.insert(interval);
+            expected.add(interval);
+        }
+
+        final IntervalSet set = IntervalSet.of(tree);
+        Assert.assertEquals(expected.stream().collect(Collectors.toList()), set.stream().collect(Collectors.toList()));
+        Assert.assertEquals(expected.getCoverage(), set.getCoverage());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonIntegral() {
+        new IntervalSet().add(new DoubleInterval(1.5, 2.0));
+    }
+}
@@ -3,11 +3,13 @@ package com.brein.time.timeintervals.indexes;
 import com.brein.time.timeintervals.collections.ListIntervalCollection;
 import com.brein.time.timeintervals.collections.SetIntervalCollection;
 import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.AllenIntervalRelation;
 import com.brein.time.timeintervals.intervals.DoubleInterval;
 import com.brein.time.timeintervals.intervals.IInterval;
 import com.brein.time.timeintervals.intervals.IdInterval;
 import com.brein.time.timeintervals.intervals.IntegerInterval;
 import com.brein.time.timeintervals.intervals.LongInterval;
+import com.brein.time.timeintervals.intervals.LongRange;
 import com.brein.time.timeintervals.intervals.NumberInterval;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
@@ -127,6 +129,34 @@ public class TestIntervalTree {
         }
     }
 
+    @Test
+    public void testBookkeeping() {
+
+        // the max, height, and level are validated after each operation, with and without re-balancing
+        for (int i = 0; i < 10; i++) {
+            createRandomTree(150, 100, i % 2 == 0);
+        }
+
+        // the trees created by split and join are validated as well (metrics determine the level of rotated nodes)
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.NUMBER, false)
+                .collectIntervals(key -> new ListIntervalCollection())
+                .enableMetrics()
+                .build();
+        for (int i = 0; i < 500; i++) {
+            tree.insert(new IntegerInterval(i, i + (i % 7) * 10));
+        }
+        Assert.assertEquals(70L, tree.removeEndingBefore(100));
+        tree.nodeIterator().forEachRemaining(node -> assertNode(node, tree, true));
+        Assert.assertTrue(tree.isBalanced());
+
+        final IntervalTree[] trees = tree.split(300);
+        for (final IntervalTree t : trees) {
+            t.nodeIterator().forEachRemaining(node -> assertNode(node, t, true));
+            Assert.assertTrue(t.isBalanced());
+        }
+    }
+
     @Test
     public void testEmptyAfterInsertAndDelete() {
         final IntervalTree tree = IntervalTreeBuilder.newBuilder()
@@ -282,6 +312,249 @@ public class TestIntervalTree {
         }
     }
 
+    @Test
+    public void testRemoveEndingBefore() {
+        final Random rnd = new Random();
+
+        for (int run = 0; run < 20; run++) {
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.NUMBER)
+                    .collectIntervals(interval -> new ListIntervalCollection())
+                    .build();
+
+            final List<IInterval> intervals = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int start = rnd.nextInt(900);
+                final IInterval interval = new IntegerInterval(start, start + rnd.nextInt(100));
+                if (!intervals.contains(interval)) {
+                    intervals.add(interval);
+                    tree.insert(interval);
+                }
+            }
+
+            final int bound = rnd.nextInt(1000);
+            final long expected = intervals.stream()
+                    .filter(i -> Integer.class.cast(i.getNormEnd()) < bound)
+                    .count();
+
+            Assert.assertEquals(expected, tree.removeEndingBefore(bound));
+            Assert.assertEquals(intervals.size() - expected, tree.size());
+            Assert.assertTrue(tree.isBalanced());
+
+            tree.nodeIterator().forEachRemaining(node -> assertNode(node, tree, true));
+            intervals.forEach(i -> Assert.assertEquals(Integer.class.cast(i.getNormEnd()) >= bound, tree.contains(i)));
+        }
+    }
+
+    @Test
+    public void testRemoveEndingBeforeIncrementally() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        for (long i = 0; i < 100; i++) {
+            tree.insert(new LongInterval(i, i + 5));
+        }
+
+        // each step removes at most 10 nodes
+        final IntervalTreeExpiration expiration = new IntervalTreeExpiration(tree, () -> 55L, 10L, 1000L);
+        long removed = 0;
+        for (int i = 0; i < 5; i++) {
+            final long stepRemoved = expiration.step();
+            Assert.assertTrue(stepRemoved <= 10L);
+            removed += stepRemoved;
+
+            tree.nodeIterator().forEachRemaining(node -> assertNode(node, tree, true));
+        }
+        Assert.assertEquals(50L, removed);
+        Assert.assertEquals(0L, expiration.step());
+        Assert.assertEquals(50, tree.size());
+        Assert.assertEquals(new LongInterval(50L, 55L), tree.iterator().next());
+    }
+
+    @Test
+    public void testRemoveIf() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.NUMBER)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            tree.insert(new IntegerInterval(i, i + 10));
+            tree.insert(new IdInterval<>("ID" + i, i, i + 10));
+        }
+
+        // remove just some of the intervals, no node is removed
+        Assert.assertTrue(tree.removeIf(i -> i instanceof IdInterval));
+        Assert.assertEquals(100, tree.size());
+        Assert.assertFalse(tree.removeIf(i -> i instanceof IdInterval));
+
+        // remove every second node
+        Assert.assertTrue(tree.removeIf(i -> Integer.class.cast(i.getNormStart()) % 2 == 0));
+        Assert.assertEquals(50, tree.size());
+        Assert.assertTrue(tree.isBalanced());
+        tree.nodeIterator().forEachRemaining(node -> assertNode(node, tree, true));
+        tree.forEach(i -> Assert.assertEquals(1, Integer.class.cast(i.getNormStart()) % 2));
+    }
+
+    @Test
+    public void testSplitAndMerge() {
+        final Random rnd = new Random();
+
+        for (int run = 0; run < 20; run++) {
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.NUMBER)
+                    .collectIntervals(interval -> new ListIntervalCollection())
+                    .build();
+
+            final List<IInterval> intervals = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int start = rnd.nextInt(900);
+                final IInterval interval = new IntegerInterval(start, start + rnd.nextInt(100));
+                if (!intervals.contains(interval)) {
+                    intervals.add(interval);
+                    tree.insert(interval);
+                }
+            }
+
+            final int pivot = rnd.nextInt(1000);
+            final IntervalTree[] trees = tree.split(pivot);
+            assertIsEmpty(tree);
+
+            final IntervalTree lower = trees[0];
+            final IntervalTree upper = trees[1];
+            Assert.assertEquals(intervals.size(), lower.size() + upper.size());
+            intervals.forEach(i -> {
+                final boolean isLower = Integer.class.cast(i.getNormStart()) < pivot;
+                Assert.assertEquals(isLower, lower.contains(i));
+                Assert.assertEquals(!isLower, upper.contains(i));
+            });
+            lower.nodeIterator().forEachRemaining(node -> assertNode(node, lower, true));
+            upper.nodeIterator().forEachRemaining(node -> assertNode(node, upper, true));
+
+            // merge the trees again, the order should not matter
+            final IntervalTree merged = rnd.nextBoolean() ? lower.merge(upper) : upper.merge(lower);
+            Assert.assertEquals(intervals.size(), merged.size());
+            intervals.forEach(i -> Assert.assertTrue(merged.contains(i)));
+            merged.nodeIterator().forEachRemaining(node -> assertNode(node, merged, true));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMergeOverlapping() {
+        final IntervalTree tree1 = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .build();
+        final IntervalTree tree2 = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .build();
+
+        tree1.insert(new LongInterval(1L, 5L)).insert(new LongInterval(10L, 15L));
+        tree2.insert(new LongInterval(5L, 6L));
+
+        tree1.merge(tree2);
+    }
+
+    @Test
+    public void testMergeDifferentConfiguration() {
+        final IntervalTree tree1 = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+        final IntervalTree tree2 = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .build();
+        final IntervalTree tree3 = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .overrideComparator(PredefinedComparator.COMPARE_LONGS)
+                .build();
+
+        tree1.insert(new LongInterval(1L, 5L));
+        tree2.insert(new LongInterval(10L, 15L));
+        tree3.insert(new LongInterval(20L, 25L));
+
+        for (final IntervalTree[] trees : new IntervalTree[][]{{tree1, tree2}, {tree2, tree3}}) {
+            try {
+                trees[0].merge(trees[1]);
+                Assert.fail("Expected an IllegalArgumentException");
+            } catch (final IllegalArgumentException e) {
+                Assert.assertEquals(1, trees[0].size());
+                Assert.assertEquals(1, trees[1].size());
+            }
+        }
+
+        // trees split from the same tree share the configuration
+        final IntervalTree[] trees = tree2.insert(new LongInterval(20L, 25L)).split(18L);
+        Assert.assertEquals(2, trees[0].merge(trees[1]).size());
+    }
+
+    @Test
+    public void testQueryRelation() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        final Random rnd = new Random(42L);
+        for (int i = 0; i < 1000; i++) {
+            final long start = rnd.nextInt(200);
+            tree.insert(new LongInterval(start, start + rnd.nextInt(20)));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            final long start = rnd.nextInt(220) - 10;
+            final LongInterval query = new LongInterval(start, start + rnd.nextInt(20));
+
+            for (final AllenIntervalRelation relation : AllenIntervalRelation.values()) {
+                final List<IInterval> expected = tree.stream()
+                        .filter(interval -> LongInterval.class.cast(interval).ir(relation, query))
+                        .collect(Collectors.toList());
+                final List<IInterval> actual = tree.query(relation, query).collect(Collectors.toList());
+
+                Assert.assertEquals(relation + " " + query, expected, actual);
+            }
+        }
+
+        Assert.assertEquals(0L, tree.query(AllenIntervalRelation.BEFORE, new LongInterval(-5L, -1L)).count());
+        Assert.assertEquals(tree.size(),
+                tree.query(AllenIntervalRelation.AFTER, new LongInterval(-5L, -1L)).count() +
+                        tree.query(AllenIntervalRelation.STARTS_DIRECTLY_BEFORE, new LongInterval(-5L, -1L)).count());
+    }
+
+    @Test
+    public void testQueryRelationOfRange() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        final Random rnd = new Random(42L);
+        for (int i = 0; i < 1000; i++) {
+            final long start = rnd.nextInt(200);
+            final long end = start + rnd.nextInt(20);
+            tree.insert(i % 2 == 0 ? new LongInterval(start, end) : new LongRange(start, end));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            final long start = rnd.nextInt(220) - 10;
+            final long end = start + rnd.nextInt(20);
+            final LongInterval expectedQuery = new LongInterval(start, end);
+            final LongRange query = new LongRange(start, end);
+
+            for (final AllenIntervalRelation relation : AllenIntervalRelation.values()) {
+                final List<String> expected = tree.query(relation, expectedQuery)
+                        .map(IInterval::getUniqueIdentifier)
+                        .collect(Collectors.toList());
+                final List<String> actual = tree.query(relation, query)
+                        .map(IInterval::getUniqueIdentifier)
+                        .collect(Collectors.toList());
+
+                Assert.assertEquals(relation + " " + query, expected, actual);
+            }
+        }
+    }
+
     protected boolean assertContains(final IntervalTree tree, final IInterval interval) {
         return tree.contains(interval);
     }
@@ -482,6 +755,215 @@ public class TestIntervalTree {
         }
     }
 
+    @Test
+    public void testSaveAndLoadIndexed() {
+        final File treeFile = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+
+        try {
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.NUMBER, false)
+                    .collectIntervals(interval -> new ListIntervalCollection())
+                    .enableWriteCollections()
+                    .build();
+
+            final Random rnd = new Random(42L);
+            for (int i = 0; i < 1000; i++) {
+                final int start = rnd.nextInt(10000);
+                final int end = start + rnd.nextInt(100);
+
+                if (i % 3 == 0) {
+                    tree.insert(new IntegerInterval(start, end));
+                } else if (i % 3 == 1) {
+                    tree.insert(new LongInterval((long) start, (long) end));
+                } else {
+                    tree.insert(new DoubleInterval(start + 0.5, end + 0.5));
+                }
+            }
+            tree.saveToIndexedFile(treeFile);
+
+            final IntervalTree loadedTree = IntervalTreeBuilder.newBuilder()
+                    .loadFromFile(treeFile)
+                    .enableMetrics()
+                    .build();
+            Assert.assertEquals(tree.size(), loadedTree.size());
+            Assert.assertEquals(1L, loadedTree.getMetrics().snapshot().getNodeLoads());
+
+            // a query just reads the nodes needed
+            final LongInterval query = new LongInterval(5000L, 5010L);
+            Assert.assertEquals(tree.overlap(query).stream().map(IInterval::getUniqueIdentifier).sorted()
+                            .collect(Collectors.toList()),
+                    loadedTree.overlap(query).stream().map(IInterval::getUniqueIdentifier).sorted()
+                            .collect(Collectors.toList()));
+            final long nodeLoads = loadedTree.getMetrics().snapshot().getNodeLoads();
+            Assert.assertTrue(nodeLoads > 1L);
+            Assert.assertTrue(nodeLoads < nodes(tree).size());
+
+            // the nodes (including max, height, and level) are equal to the saved ones
+            final List<IntervalTreeNode> nodes = nodes(tree);
+            final List<IntervalTreeNode> loadedNodes = nodes(loadedTree);
+            Assert.assertEquals(nodes.size(), loadedNodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                Assert.assertEquals(nodes.get(i).toString(), loadedNodes.get(i).toString());
+            }
+            Assert.assertEquals(nodes.size(), loadedTree.getMetrics().snapshot().getNodeLoads());
+
+            // the loaded tree can be modified
+            Assert.assertTrue(loadedTree.remove(tree.iterator().next()));
+            Assert.assertTrue(loadedTree.add(new LongInterval(20000L, 20001L)));
+            Assert.assertEquals(tree.size(), loadedTree.size());
+            Assert.assertTrue(loadedTree.isBalanced());
+        } finally {
+            Assert.assertTrue(treeFile.delete());
+        }
+    }
+
+    @Test
+    public void testModifyLazilyLoaded() {
+        final File treeFile = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+
+        try {
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.LONG)
+                    .collectIntervals(interval -> new ListIntervalCollection())
+                    .enableWriteCollections()
+                    .build();
+            for (long i = 0; i < 500; i++) {
+                tree.insert(new LongInterval(i, i + 10L));
+            }
+            IntervalTreeBuilder.saveToIndexedFile(treeFile, tree);
+
+            // modify the tree before reading any other node than the root
+            final IntervalTree loadedTree = IntervalTreeBuilder.newBuilder()
+                    .loadFromFile(treeFile)
+                    .build();
+            for (long i = 0; i < 500; i += 2) {
+                Assert.assertTrue(loadedTree.remove(new LongInterval(i, i + 10L)));
+            }
+            Assert.assertEquals(250, loadedTree.size());
+            Assert.assertTrue(loadedTree.isBalanced());
+            Assert.assertEquals(250L, (long) nodes(loadedTree).size());
+            Assert.assertEquals(0, loadedTree.find(new LongInterval(2L, 12L)).size());
+            Assert.assertEquals(1, loadedTree.find(new LongInterval(3L, 13L)).size());
+
+            // an empty tree can be saved and loaded as well
+            IntervalTreeBuilder.saveToIndexedFile(treeFile, IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.LONG)
+                    .build());
+            Assert.assertTrue(IntervalTreeBuilder.newBuilder().loadFromFile(treeFile).build().isEmpty());
+        } finally {
+            Assert.assertTrue(treeFile.delete());
+        }
+    }
+
+    @Test
+    public void testConcurrentReadsLazilyLoaded() throws InterruptedException {
+        final File treeFile = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+
+        try {
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.LONG)
+                    .collectIntervals(interval -> new ListIntervalCollection())
+                    .enableWriteCollections()
+                    .build();
+            for (long i = 0; i < 2000; i++) {
+                tree.insert(new LongInterval(i, i + 10L));
+            }
+            IntervalTreeBuilder.saveToIndexedFile(treeFile, tree);
+
+            final IntervalTree loadedTree = IntervalTreeBuilder.newBuilder()
+                    .loadFromFile(treeFile)
+                    .enableMetrics()
+                    .build();
+
+            // the threads read the (not yet read) nodes concurrently
+            final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+            final List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final Thread thread = new Thread(() -> {
+                    try {
+                        Assert.assertEquals(2000, nodes(loadedTree).size());
+                        Assert.assertEquals(11, loadedTree.overlap(new LongInterval(500L, 500L)).size());
+                    } catch (final Throwable t) {
+                        failures.add(t);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (final Thread thread : threads) {
+                thread.join();
+            }
+
+            Assert.assertEquals(Collections.emptyList(), failures);
+            Assert.assertEquals(2000L, loadedTree.getMetrics().snapshot().getNodeLoads());
+        } finally {
+            Assert.assertTrue(treeFile.delete());
+        }
+    }
+
+    @Test
+    public void testCloseLazilyLoaded() {
+        final File treeFile = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+
+        try {
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.LONG)
+                    .build();
+            for (long i = 0; i < 500; i++) {
+                tree.insert(new LongInterval(i, i + 10L));
+            }
+            IntervalTreeBuilder.saveToIndexedFile(treeFile, tree);
+            final IntervalTreeBuilder builder = IntervalTreeBuilder.newBuilder().loadFromFile(treeFile);
+
+            // clearing or closing a partly read tree closes the file
+            IntervalTree loadedTree = builder.build();
+            IntervalTreeFile.NodeSource source = loadedTree.getSources().get(0);
+            Assert.assertEquals(1, loadedTree.find(new LongInterval(3L, 13L)).size());
+            Assert.assertTrue(source.isOpen());
+            loadedTree.clear();
+            Assert.assertFalse(source.isOpen());
+
+            try (final IntervalTree closedTree = builder.build()) {
+                source = closedTree.getSources().get(0);
+                Assert.assertTrue(source.isOpen());
+            }
+            Assert.assertFalse(source.isOpen());
+
+            // the trees split from a loaded tree share the file, i.e., it is closed when both are closed
+            loadedTree = builder.build();
+            source = loadedTree.getSources().get(0);
+            final IntervalTree[] trees = loadedTree.split(250L);
+            Assert.assertTrue(loadedTree.getSources().isEmpty());
+            trees[0].close();
+            Assert.assertTrue(source.isOpen());
+            Assert.assertEquals(1, trees[1].find(new LongInterval(300L, 310L)).size());
+
+            // the file moves with the nodes when merged into another tree
+            final IntervalTree merged = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.LONG)
+                    .build()
+                    .merge(trees[1]);
+            Assert.assertTrue(source.isOpen());
+            merged.close();
+            Assert.assertFalse(source.isOpen());
+
+            // a removeIf reads all nodes, i.e., the file is not needed anymore
+            loadedTree = builder.build();
+            source = loadedTree.getSources().get(0);
+            Assert.assertFalse(loadedTree.removeIf(interval -> false));
+            Assert.assertFalse(source.isOpen());
+            Assert.assertEquals(500, loadedTree.size());
+        } finally {
+            Assert.assertTrue(treeFile.delete());
+        }
+    }
+
+    protected List<IntervalTreeNode> nodes(final IntervalTree tree) {
+        final List<IntervalTreeNode> nodes = new ArrayList<>();
+        tree.nodeIterator().forEachRemaining(nodes::add);
+        return nodes;
+    }
+
     @Test
     public void testToArray() {
         final IntervalTree tree = IntervalTreeBuilder.newBuilder()
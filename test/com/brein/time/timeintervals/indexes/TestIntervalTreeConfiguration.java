@@ -0,0 +1,212 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.filters.IntervalFilter;
+import com.brein.time.timeintervals.filters.IntervalFilters;
+import com.brein.time.timeintervals.filters.PredefinedFilter;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.UUID;
+
+public class TestIntervalTreeConfiguration {
+
+    /**
+     * A configuration (of a tree using {@code IntervalType.LONG}), an empty tree, and the interval {@code [3, 8]},
+     * written using {@code ObjectOutputStream.writeObject} by the version without the versioned configuration format.
+     */
+    private static final String LEGACY_OBJECTS = "" +
+            "rO0ABXNyAD5jb20uYnJlaW4udGltZS50aW1laW50ZXJ2YWxzLmluZGV4ZXMuSW50ZXJ2YWxUcmVlQ29uZmlndXJhdGlvbjmQZx9j" +
+            "jwjSDAAAeHB3AwEAAXNyACFqYXZhLmxhbmcuaW52b2tlLlNlcmlhbGl6ZWRMYW1iZGFvYdCULCk2hQIACkkADmltcGxNZXRob2RL" +
+            "aW5kWwAMY2FwdHVyZWRBcmdzdAATW0xqYXZhL2xhbmcvT2JqZWN0O0wADmNhcHR1cmluZ0NsYXNzdAARTGphdmEvbGFuZy9DbGFz" +
+            "cztMABhmdW5jdGlvbmFsSW50ZXJmYWNlQ2xhc3N0ABJMamF2YS9sYW5nL1N0cmluZztMAB1mdW5jdGlvbmFsSW50ZXJmYWNlTWV0" +
+            "aG9kTmFtZXEAfgAFTAAiZnVuY3Rpb25hbEludGVyZmFjZU1ldGhvZFNpZ25hdHVyZXEAfgAFTAAJaW1wbENsYXNzcQB+AAVMAA5p" +
+            "bXBsTWV0aG9kTmFtZXEAfgAFTAATaW1wbE1ldGhvZFNpZ25hdHVyZXEAfgAFTAAWaW5zdGFudGlhdGVkTWV0aG9kVHlwZXEAfgAF" +
+            "eHAAAAAGdXIAE1tMamF2YS5sYW5nLk9iamVjdDuQzlifEHMpbAIAAHhwAAAAAHZyAEVjb20uYnJlaW4udGltZS50aW1laW50ZXJ2" +
+            "YWxzLmluZGV4ZXMuSW50ZXJ2YWxUcmVlQnVpbGRlciRJbnRlcnZhbFR5cGUAAAAAAAAAABIAAHhyAA5qYXZhLmxhbmcuRW51bQAA" +
+            "AAAAAAAAEgAAeHB0ADxjb20vYnJlaW4vdGltZS90aW1laW50ZXJ2YWxzL2luZGV4ZXMvSW50ZXJ2YWxWYWx1ZUNvbXBhcmF0b3J0" +
+            "AAdjb21wYXJldAAnKExqYXZhL2xhbmcvT2JqZWN0O0xqYXZhL2xhbmcvT2JqZWN0OylJcQB+AAx0AA5jb21wYXJlTnVtYmVyc3EA" +
+            "fgAOcQB+AA5zcQB+AAIAAAAGdXEAfgAHAAAAAHEAfgALdAAzY29tL2JyZWluL3RpbWUvdGltZWludGVydmFscy9maWx0ZXJzL0lu" +
+            "dGVydmFsRmlsdGVydAAFbWF0Y2h0AKUoTGNvbS9icmVpbi90aW1lL3RpbWVpbnRlcnZhbHMvaW5kZXhlcy9JbnRlcnZhbFZhbHVl" +
+            "Q29tcGFyYXRvcjtMY29tL2JyZWluL3RpbWUvdGltZWludGVydmFscy9pbnRlcnZhbHMvSUludGVydmFsO0xjb20vYnJlaW4vdGlt" +
+            "ZS90aW1laW50ZXJ2YWxzL2ludGVydmFscy9JSW50ZXJ2YWw7KVp0ADRjb20vYnJlaW4vdGltZS90aW1laW50ZXJ2YWxzL2ZpbHRl" +
+            "cnMvSW50ZXJ2YWxGaWx0ZXJzdAAJd2Vha0VxdWFscQB+ABRxAH4AFHB4c3IAMWNvbS5icmVpbi50aW1lLnRpbWVpbnRlcnZhbHMu" +
+            "aW5kZXhlcy5JbnRlcnZhbFRyZWU4IUQrBAk4LwwAAHhwdwgAAAAAAAAAAHhzcgAzY29tLmJyZWluLnRpbWUudGltZWludGVydmFs" +
+            "cy5pbnRlcnZhbHMuTG9uZ0ludGVydmFsmr+oPBMg2rYMAAB4cgA1Y29tLmJyZWluLnRpbWUudGltZWludGVydmFscy5pbnRlcnZh" +
+            "bHMuTnVtYmVySW50ZXJ2YWzydqk1bnjgvAwAAHhwdnIADmphdmEubGFuZy5Mb25nO4vkkMyPI98CAAFKAAV2YWx1ZXhyABBqYXZh" +
+            "LmxhbmcuTnVtYmVyhqyVHQuU4IsCAAB4cHNxAH4AHAAAAAAAAAADc3EAfgAcAAAAAAAAAAh3AgAAeA==";
+
+    /**
+     * A tree (of the intervals {@code [1, 5]}, {@code [3, 8]}, and {@code [10, 20]}) written using {@code
+     * IntervalTreeBuilder.saveToFile} by the version without the versioned configuration format.
+     */
+    private static final String LEGACY_TREE_FILE = "" +
+            "rO0ABXcDAQABc3IAIWphdmEubGFuZy5pbnZva2UuU2VyaWFsaXplZExhbWJkYW9h0JQsKTaFAgAKSQAOaW1wbE1ldGhvZEtpbmRb" +
+            "AAxjYXB0dXJlZEFyZ3N0ABNbTGphdmEvbGFuZy9PYmplY3Q7TAAOY2FwdHVyaW5nQ2xhc3N0ABFMamF2YS9sYW5nL0NsYXNzO0wA" +
+            "GGZ1bmN0aW9uYWxJbnRlcmZhY2VDbGFzc3QAEkxqYXZhL2xhbmcvU3RyaW5nO0wAHWZ1bmN0aW9uYWxJbnRlcmZhY2VNZXRob2RO" +
+            "YW1lcQB+AANMACJmdW5jdGlvbmFsSW50ZXJmYWNlTWV0aG9kU2lnbmF0dXJlcQB+AANMAAlpbXBsQ2xhc3NxAH4AA0wADmltcGxN" +
+            "ZXRob2ROYW1lcQB+AANMABNpbXBsTWV0aG9kU2lnbmF0dXJlcQB+AANMABZpbnN0YW50aWF0ZWRNZXRob2RUeXBlcQB+AAN4cAAA" +
+            "AAZ1cgATW0xqYXZhLmxhbmcuT2JqZWN0O5DOWJ8QcylsAgAAeHAAAAAAdnIARWNvbS5icmVpbi50aW1lLnRpbWVpbnRlcnZhbHMu" +
+            "aW5kZXhlcy5JbnRlcnZhbFRyZWVCdWlsZGVyJEludGVydmFsVHlwZQAAAAAAAAAAEgAAeHIADmphdmEubGFuZy5FbnVtAAAAAAAA" +
+            "AAASAAB4cHQAPGNvbS9icmVpbi90aW1lL3RpbWVpbnRlcnZhbHMvaW5kZXhlcy9JbnRlcnZhbFZhbHVlQ29tcGFyYXRvcnQAB2Nv" +
+            "bXBhcmV0ACcoTGphdmEvbGFuZy9PYmplY3Q7TGphdmEvbGFuZy9PYmplY3Q7KUlxAH4ACnQADmNvbXBhcmVOdW1iZXJzcQB+AAxx" +
+            "AH4ADHNxAH4AAAAAAAZ1cQB+AAUAAAAAcQB+AAl0ADNjb20vYnJlaW4vdGltZS90aW1laW50ZXJ2YWxzL2ZpbHRlcnMvSW50ZXJ2" +
+            "YWxGaWx0ZXJ0AAVtYXRjaHQApShMY29tL2JyZWluL3RpbWUvdGltZWludGVydmFscy9pbmRleGVzL0ludGVydmFsVmFsdWVDb21w" +
+            "YXJhdG9yO0xjb20vYnJlaW4vdGltZS90aW1laW50ZXJ2YWxzL2ludGVydmFscy9JSW50ZXJ2YWw7TGNvbS9icmVpbi90aW1lL3Rp" +
+            "bWVpbnRlcnZhbHMvaW50ZXJ2YWxzL0lJbnRlcnZhbDspWnQANGNvbS9icmVpbi90aW1lL3RpbWVpbnRlcnZhbHMvZmlsdGVycy9J" +
+            "bnRlcnZhbEZpbHRlcnN0AAl3ZWFrRXF1YWxxAH4AEnEAfgAScHcIAAAAAAAAAAN0AAVbMyw4XXNyAA5qYXZhLmxhbmcuTG9uZzuL" +
+            "5JDMjyPfAgABSgAFdmFsdWV4cgAQamF2YS5sYW5nLk51bWJlcoaslR0LlOCLAgAAeHAAAAAAAAAAA3NxAH4AFgAAAAAAAAAIc3EA" +
+            "fgAWAAAAAAAAABR3EAAAAAAAAAAAAAAAAAAAAAJwdwEBdAAFWzEsNV1zcQB+ABYAAAAAAAAAAXNxAH4AFgAAAAAAAAAFcQB+AB13" +
+            "EAAAAAAAAAABAAAAAAAAAAFwdwMAAAF0AAdbMTAsMjBdc3EAfgAWAAAAAAAAAApxAH4AGnEAfgAadxAAAAAAAAAAAQAAAAAAAAAB" +
+            "cHcCAAA=";
+
+    @Test
+    public void testPredefinedRoundTrip() throws Exception {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG, true)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+        final IntervalTreeConfiguration configuration = tree.getConfiguration();
+        Assert.assertSame(PredefinedComparator.COMPARE_LONGS, configuration.getValueComparator());
+        Assert.assertSame(PredefinedFilter.WEAK_EQUAL, configuration.getIntervalFilter());
+
+        final IntervalTreeConfiguration copy = roundTrip(configuration);
+        Assert.assertSame(PredefinedComparator.COMPARE_LONGS, copy.getValueComparator());
+        Assert.assertSame(PredefinedFilter.WEAK_EQUAL, copy.getIntervalFilter());
+        Assert.assertEquals(configuration.isAutoBalancing(), copy.isAutoBalancing());
+        Assert.assertTrue(copy.getFactory().load("key") instanceof ListIntervalCollection);
+    }
+
+    @Test
+    public void testNamedRoundTrip() throws Exception {
+        final IntervalValueComparator comparator = (o1, o2) -> -IntervalValueComparator.compareLongs(o1, o2);
+        final IntervalFilter filter = IntervalFilters::strictEqual;
+        IntervalTreeRegistry.registerComparator("reversedLongs", comparator);
+        IntervalTreeRegistry.registerFilter("myStrictEqual", filter);
+
+        final IntervalTreeConfiguration configuration = new IntervalTreeConfiguration();
+        configuration.setValueComparator(comparator);
+        configuration.setIntervalFilter(filter);
+
+        final IntervalTreeConfiguration copy = roundTrip(configuration);
+        Assert.assertSame(comparator, copy.getValueComparator());
+        Assert.assertSame(filter, copy.getIntervalFilter());
+    }
+
+    @Test
+    public void testSerializedFallback() throws Exception {
+        final IntervalTreeConfiguration configuration = new IntervalTreeConfiguration();
+        configuration.setValueComparator((IntervalValueComparator & java.io.Serializable)
+                IntervalValueComparator::compareInts);
+        configuration.setIntervalFilter(null);
+
+        final IntervalTreeConfiguration copy = roundTrip(configuration);
+        Assert.assertNotNull(copy.getValueComparator());
+        Assert.assertTrue(copy.getValueComparator().compare(1, 2) < 0);
+        Assert.assertNull(copy.getIntervalFilter());
+    }
+
+    @Test
+    public void testReadLegacyFormat() throws Exception {
+        try (final ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(Base64.getDecoder().decode(LEGACY_OBJECTS)))) {
+
+            // the comparator and filter were written as method references, which are resolved to predefined ones
+            final IntervalTreeConfiguration configuration = IntervalTreeConfiguration.class.cast(in.readObject());
+            Assert.assertTrue(configuration.isAutoBalancing());
+            Assert.assertFalse(configuration.isUsingPersistor());
+            Assert.assertTrue(configuration.isWritingCollectionsToFile());
+            Assert.assertSame(PredefinedComparator.COMPARE_NUMBERS, configuration.getValueComparator());
+            Assert.assertSame(PredefinedFilter.WEAK_EQUAL, configuration.getIntervalFilter());
+            Assert.assertNull(configuration.getFactory());
+
+            Assert.assertTrue(IntervalTree.class.cast(in.readObject()).isEmpty());
+            Assert.assertEquals(new LongInterval(3L, 8L), in.readObject());
+        }
+    }
+
+    @Test
+    public void testLoadLegacyTreeFile() throws Exception {
+        final File treeFile = new File(System.getProperty("java.io.tmpdir"), UUID.randomUUID().toString());
+
+        try {
+            Files.write(treeFile.toPath(), Base64.getDecoder().decode(LEGACY_TREE_FILE));
+
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .loadFromFile(treeFile)
+                    .build();
+            Assert.assertSame(PredefinedComparator.COMPARE_NUMBERS, tree.getConfiguration().getValueComparator());
+            Assert.assertEquals(3, tree.size());
+            Assert.assertTrue(tree.contains(new LongInterval(3L, 8L)));
+            Assert.assertEquals(1, tree.find(new LongInterval(3L, 8L)).size());
+        } finally {
+            Assert.assertTrue(treeFile.delete());
+        }
+    }
+
+    @Test
+    public void testPredefinedIsCompact() throws Exception {
+        final IntervalTreeConfiguration predefined = new IntervalTreeConfiguration();
+        predefined.setValueComparator(PredefinedComparator.COMPARE_LONGS);
+        predefined.setIntervalFilter(PredefinedFilter.WEAK_EQUAL);
+
+        final IntervalTreeConfiguration serialized = new IntervalTreeConfiguration();
+        serialized.setValueComparator((IntervalValueComparator & java.io.Serializable)
+                IntervalValueComparator::compareLongs);
+        serialized.setIntervalFilter((IntervalFilter & java.io.Serializable) IntervalFilters::weakEqual);
+
+        Assert.assertTrue(write(predefined).length < write(serialized).length / 4);
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testUnregisteredName() throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeByte(IntervalTreeConfiguration.FORMAT_MARKER);
+            out.writeByte(IntervalTreeConfiguration.VERSION);
+            out.writeBoolean(true);
+            out.writeBoolean(false);
+            out.writeBoolean(false);
+            out.writeByte(2);
+            out.writeUTF("neverRegistered");
+        }
+
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            new IntervalTreeConfiguration().readExternal(in);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReservedName() {
+        IntervalTreeRegistry.registerComparator("compareLongs", (o1, o2) -> 0);
+    }
+
+    protected IntervalTreeConfiguration roundTrip(final IntervalTreeConfiguration configuration) throws Exception {
+        return read(write(configuration));
+    }
+
+    protected byte[] write(final IntervalTreeConfiguration configuration) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(configuration);
+        }
+        return bytes.toByteArray();
+    }
+
+    protected IntervalTreeConfiguration read(final byte[] bytes) throws Exception {
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return IntervalTreeConfiguration.class.cast(in.readObject());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.collections.PersistableIntervalCollectionFactory;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.indexes.IntervalTreeMetrics.HistogramSnapshot;
+import com.brein.time.timeintervals.indexes.IntervalTreeMetrics.Operation;
+import com.brein.time.timeintervals.indexes.IntervalTreeMetrics.Snapshot;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestIntervalTreeMetrics {
+
+    @Test
+    public void testDisabled() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+        tree.add(new LongInterval(1L, 5L));
+
+        Assert.assertNull(tree.getMetrics());
+        Assert.assertEquals(1, tree.overlap(new LongInterval(2L, 3L)).size());
+    }
+
+    @Test
+    public void testOperations() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .enableMetrics()
+                .build();
+
+        // inserting sorted intervals rotates the tree
+        for (long i = 0; i < 100; i++) {
+            tree.add(new LongInterval(i, i + 5L));
+        }
+        tree.find(new LongInterval(50L, 55L));
+        tree.overlap(new LongInterval(10L, 12L));
+        tree.remove(new LongInterval(50L, 55L));
+        tree.remove(new LongInterval(500L, 505L));
+
+        final Snapshot snapshot = tree.getMetrics().snapshot();
+        Assert.assertEquals(100L, snapshot.getCount(Operation.ADD));
+        Assert.assertEquals(1L, snapshot.getCount(Operation.FIND));
+        Assert.assertEquals(1L, snapshot.getCount(Operation.OVERLAP));
+        Assert.assertEquals(2L, snapshot.getCount(Operation.REMOVE));
+
+        Assert.assertTrue(snapshot.getRotations() > 0L);
+        Assert.assertEquals(snapshot.getRotations(), snapshot.getRebalanceDepth().getCount());
+        Assert.assertTrue(snapshot.getRebalanceDepth().getMax() < tree.getRoot().getHeight());
+        Assert.assertTrue(snapshot.getNodeVisits() > 100L);
+        Assert.assertEquals(0L, snapshot.getCacheHits());
+
+        // the snapshot does not change anymore
+        tree.find(new LongInterval(1L, 6L));
+        Assert.assertEquals(1L, snapshot.getCount(Operation.FIND));
+        Assert.assertEquals(2L, tree.getMetrics().snapshot().getCount(Operation.FIND));
+
+        tree.getMetrics().reset();
+        Assert.assertEquals(0L, tree.getMetrics().snapshot().getNodeVisits());
+    }
+
+    @Test
+    public void testCollectionLoads() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(new PersistableIntervalCollectionFactory(key -> new ListIntervalCollection()))
+                .enableMetrics()
+                .build();
+        tree.add(new LongInterval(1L, 5L));
+        tree.find(new LongInterval(1L, 5L));
+
+        // the collections are weakly referenced, so each access is a hit or a miss
+        final Snapshot snapshot = tree.getMetrics().snapshot();
+        Assert.assertTrue(snapshot.getCacheHits() + snapshot.getCacheMisses() > 0L);
+        Assert.assertEquals(snapshot.getCacheMisses(), snapshot.getCollectionLoads());
+    }
+
+    @Test
+    public void testHistogram() {
+        final IntervalTreeMetrics.Histogram histogram = new IntervalTreeMetrics.Histogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        final HistogramSnapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(1000L, snapshot.getCount());
+        Assert.assertEquals(1000L, snapshot.getMax());
+        Assert.assertEquals(500.5, snapshot.getMean(), 0.0001);
+        Assert.assertEquals(1L, snapshot.getValueAtPercentile(0.0));
+        Assert.assertEquals(1000L, snapshot.getValueAtPercentile(100.0));
+
+        // the percentiles are within the precision of the histogram
+        for (final double percentile : new double[]{10.0, 50.0, 90.0, 99.0}) {
+            final long value = snapshot.getValueAtPercentile(percentile);
+            Assert.assertTrue(value >= 10L * percentile);
+            Assert.assertTrue(value <= 10L * percentile * 1.0625);
+        }
+
+        // small values are exact, large values do not overflow
+        for (long value = 0; value < 16; value++) {
+            Assert.assertEquals(value, IntervalTreeMetrics.Histogram.highestValue(
+                    IntervalTreeMetrics.Histogram.index(value)));
+        }
+        Assert.assertEquals(Long.MAX_VALUE, IntervalTreeMetrics.Histogram.highestValue(
+                IntervalTreeMetrics.Histogram.index(Long.MAX_VALUE)));
+    }
+}
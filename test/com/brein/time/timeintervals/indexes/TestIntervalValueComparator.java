@@ -0,0 +1,79 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+public class TestIntervalValueComparator {
+
+    @Test
+    public void testNumberOrdinal() {
+        for (int i = 0; i < IntervalValueComparator.NUMBER_HIERARCHY.size(); i++) {
+            Assert.assertEquals(i, IntervalValueComparator.numberOrdinal(IntervalValueComparator.NUMBER_HIERARCHY.get(i)));
+        }
+
+        Assert.assertEquals(-1, IntervalValueComparator.numberOrdinal(BigDecimal.class));
+        Assert.assertEquals(-1, IntervalValueComparator.numberOrdinal(String.class));
+    }
+
+    @Test
+    public void testCompareNumbers() {
+        Assert.assertEquals(0, IntervalValueComparator.compareNumbers(5L, 5L));
+        Assert.assertEquals(-1, IntervalValueComparator.compareNumbers(4L, 5L));
+        Assert.assertEquals(1, IntervalValueComparator.compareNumbers(5.5, 5.0));
+
+        // mixed types are mapped to the wider type
+        Assert.assertEquals(0, IntervalValueComparator.compareNumbers(5, 5L));
+        Assert.assertEquals(0, IntervalValueComparator.compareNumbers(5L, 5.0));
+        Assert.assertEquals(-1, IntervalValueComparator.compareNumbers(5, 5.1));
+        Assert.assertEquals(1, IntervalValueComparator.compareNumbers(Long.MAX_VALUE, Integer.MAX_VALUE));
+        Assert.assertEquals(-1, IntervalValueComparator.compareNumbers((byte) 1, (short) 2));
+        Assert.assertEquals(0, IntervalValueComparator.compareNumbers(2.5f, 2.5));
+        Assert.assertEquals(0, IntervalValueComparator.compareNumbers(BigDecimal.valueOf(3), 3L));
+
+        try {
+            IntervalValueComparator.compareNumbers("5", 5L);
+            Assert.fail("Expected exception");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStrictComparators() {
+        Assert.assertEquals(-1, IntervalValueComparator.compareLongs(1L, 2L));
+        Assert.assertEquals(1, IntervalValueComparator.compareInts(2, 1));
+        Assert.assertEquals(0, IntervalValueComparator.compareDoubles(1.0, 1.0));
+
+        try {
+            IntervalValueComparator.compareLongs(1L, 2);
+            Assert.fail("Expected exception");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testStrictType() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG, true)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        tree.insert(new LongInterval(1L, 5L));
+        tree.insert(new LongInterval(2L, 3L));
+        Assert.assertEquals(2, tree.overlap(new LongInterval(3L, 3L)).size());
+
+        Assert.assertEquals(0, tree.getConfiguration().getValueComparator().compare(1L, 1L));
+        try {
+            tree.getConfiguration().getValueComparator().compare(1L, 1);
+            Assert.fail("Expected exception");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
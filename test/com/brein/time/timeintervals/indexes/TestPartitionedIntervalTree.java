@@ -0,0 +1,130 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.IInterval;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class TestPartitionedIntervalTree {
+
+    @Test
+    public void testQueries() {
+        final IntervalTreeBuilder builder = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection());
+
+        final PartitionedIntervalTree partitioned = new PartitionedIntervalTree(builder, 100L);
+        final IntervalTree tree = builder.build();
+
+        final Random rnd = new Random(42L);
+        for (int i = 0; i < 2000; i++) {
+            final long start = rnd.nextInt(1000);
+            final LongInterval interval = new LongInterval(start, start + rnd.nextInt(250));
+
+            Assert.assertEquals(tree.add(interval), partitioned.add(interval));
+        }
+        Assert.assertEquals(tree.size(), partitioned.size());
+        Assert.assertEquals(10, partitioned.getPartitionCount());
+        assertSameOverlaps(tree, partitioned, rnd);
+
+        // seal the first half of the partitions, the queries must not change
+        Assert.assertEquals(5, partitioned.sealBefore(500L));
+        Assert.assertTrue(partitioned.isSealed(499L));
+        Assert.assertFalse(partitioned.isSealed(500L));
+        Assert.assertEquals(tree.size(), partitioned.size());
+        assertSameOverlaps(tree, partitioned, rnd);
+
+        for (final IInterval interval : tree) {
+            Assert.assertEquals(tree.find(interval), partitioned.find(interval));
+        }
+        Assert.assertEquals(0, partitioned.find(new LongInterval(5000L, 5001L)).size());
+
+        try {
+            partitioned.add(new LongInterval(10L, 20L));
+            Assert.fail("Expected exception");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+        Assert.assertTrue(partitioned.add(new LongInterval(510L, 520L)));
+        Assert.assertTrue(partitioned.remove(new LongInterval(510L, 520L)));
+
+        // the iteration is sorted like the one of the tree
+        final List<IInterval> expected = tree.stream().collect(Collectors.toList());
+        final List<IInterval> actual = partitioned.stream().collect(Collectors.toList());
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testDropBefore() {
+        final PartitionedIntervalTree partitioned = new PartitionedIntervalTree(IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection()), 10L);
+
+        partitioned.insert(new LongInterval(1L, 5L));
+        partitioned.insert(new LongInterval(2L, 9L));
+        partitioned.insert(new LongInterval(11L, 30L));
+        partitioned.insert(new LongInterval(12L, 15L));
+        partitioned.insert(new LongInterval(25L, 26L));
+        Assert.assertEquals(3, partitioned.getPartitionCount());
+        partitioned.sealBefore(20L);
+
+        // the second partition contains [11, 30], which is still alive
+        Assert.assertEquals(3L, partitioned.dropBefore(27L));
+        Assert.assertEquals(1, partitioned.getPartitionCount());
+        Assert.assertEquals(2, partitioned.size());
+        Assert.assertEquals(1, partitioned.overlap(new LongInterval(20L, 20L)).size());
+
+        Assert.assertEquals(2L, partitioned.dropBefore(31L));
+        Assert.assertTrue(partitioned.isEmpty());
+        Assert.assertEquals(0, partitioned.overlap(new LongInterval(0L, 100L)).size());
+    }
+
+    @Test
+    public void testNegativeValues() {
+        final PartitionedIntervalTree partitioned = new PartitionedIntervalTree(IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .collectIntervals(interval -> new ListIntervalCollection()), 10L);
+
+        partitioned.insert(new LongInterval(-15L, -11L));
+        partitioned.insert(new LongInterval(-5L, 5L));
+        partitioned.insert(new LongInterval(5L, 8L));
+
+        Assert.assertEquals(3, partitioned.getPartitionCount());
+        Assert.assertEquals(2, partitioned.overlap(new LongInterval(-12L, -5L)).size());
+        Assert.assertEquals(2, partitioned.overlap(new LongInterval(0L, 6L)).size());
+    }
+
+    @Test(expected = IllegalConfiguration.class)
+    public void testSealShallowTree() {
+        final PartitionedIntervalTree partitioned = new PartitionedIntervalTree(IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG), 10L);
+
+        partitioned.insert(new LongInterval(1L, 5L));
+        partitioned.seal(1L);
+    }
+
+    protected void assertSameOverlaps(final IntervalTree tree,
+                                      final PartitionedIntervalTree partitioned,
+                                      final Random rnd) {
+        final Comparator<IInterval> order = Comparator.<IInterval, String>comparing(IInterval::getUniqueIdentifier)
+                .thenComparing(System::identityHashCode);
+
+        for (int i = 0; i < 200; i++) {
+            final long start = rnd.nextInt(1300) - 100;
+            final LongInterval query = new LongInterval(start, start + rnd.nextInt(100));
+
+            final List<IInterval> expected = tree.overlap(query).stream().sorted(order).collect(Collectors.toList());
+            final List<IInterval> actual = partitioned.overlap(query).stream().sorted(order)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(expected, actual);
+        }
+    }
+}
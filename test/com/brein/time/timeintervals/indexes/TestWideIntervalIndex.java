@@ -0,0 +1,207 @@
+package com.brein.time.timeintervals.indexes;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
+import com.brein.time.timeintervals.intervals.DoubleInterval;
+import com.brein.time.timeintervals.intervals.IInterval;
+import com.brein.time.timeintervals.intervals.IntegerInterval;
+import com.brein.time.timeintervals.intervals.LongInterval;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class TestWideIntervalIndex {
+
+    @Test
+    public void testSimpleUsage() {
+        final WideIntervalIndex index = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.NUMBER)
+                .buildWideIndex();
+        Assert.assertTrue(index.isEmpty());
+        Assert.assertNull(index.getMax());
+        Assert.assertEquals(0, index.overlap(new LongInterval(1L, 2L)).size());
+
+        index.insert(new LongInterval(1L, 2L))
+                .insert(new IntegerInterval(5, 10))
+                .insert(new DoubleInterval(5.0, 10.0))
+                .insert(new DoubleInterval(0.1, 1.5))
+                .insert(new IntegerInterval(5, 10));
+
+        Assert.assertEquals(5, index.size());
+        Assert.assertEquals(1, index.getHeight());
+        Assert.assertEquals(10, index.getMax());
+        Assert.assertEquals(3, index.find(new LongInterval(5L, 10L)).size());
+        Assert.assertEquals(1, index.overlap(new LongInterval(2L, 3L)).size());
+        Assert.assertEquals(5, index.overlap(new LongInterval(1L, 5L)).size());
+        Assert.assertEquals(new DoubleInterval(0.1, 1.5), index.iterator().next());
+
+        // the equality of number intervals is based on the values, i.e., [5.0, 10.0] equals [5, 10]
+        Assert.assertTrue(index.remove(new IntegerInterval(5, 10)));
+        Assert.assertTrue(index.remove(new IntegerInterval(5, 10)));
+        Assert.assertEquals(1, index.find(new LongInterval(5L, 10L)).size());
+        Assert.assertTrue(index.remove(new IntegerInterval(5, 10)));
+        Assert.assertFalse(index.remove(new IntegerInterval(5, 10)));
+        Assert.assertEquals(2, index.size());
+        Assert.assertEquals(2L, index.getMax());
+    }
+
+    @Test
+    public void testCompareToTree() {
+        final Random rnd = new Random(42L);
+
+        for (final int fanOut : new int[]{4, 5, 32}) {
+            final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.LONG)
+                    .collectIntervals(interval -> new ListIntervalCollection())
+                    .build();
+            final WideIntervalIndex index = IntervalTreeBuilder.newBuilder()
+                    .usePredefinedType(IntervalType.LONG)
+                    .buildWideIndex(fanOut);
+
+            // few different values, so that there are many equal intervals spread over several nodes
+            final List<IInterval> added = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                if (added.isEmpty() || rnd.nextInt(3) > 0) {
+                    final long start = rnd.nextInt(500);
+                    final IInterval interval = new LongInterval(start, start + rnd.nextInt(20));
+                    tree.add(interval);
+                    Assert.assertTrue(index.add(interval));
+                    added.add(interval);
+                } else {
+                    final IInterval interval = added.remove(rnd.nextInt(added.size()));
+                    Assert.assertTrue(tree.remove(interval));
+                    Assert.assertTrue(index.remove(interval));
+                }
+
+                if (i % 100 == 0) {
+                    assertStructure(index);
+                }
+            }
+            Assert.assertEquals(tree.size(), index.size());
+            Assert.assertTrue(index.getHeight() > 1);
+            assertStructure(index);
+
+            // the iteration is sorted by start and end
+            Assert.assertEquals(ids(tree), ids(index.stream().collect(Collectors.toList())));
+
+            for (int i = 0; i < 200; i++) {
+                final long start = rnd.nextInt(550) - 20;
+                final LongInterval query = new LongInterval(start, start + rnd.nextInt(30));
+
+                Assert.assertEquals(sortedIds(tree.find(query)), sortedIds(index.find(query)));
+                Assert.assertEquals(sortedIds(tree.overlap(query)), sortedIds(index.overlap(query)));
+                Assert.assertEquals(sortedIds(tree.overlap(query)),
+                        sortedIds(index.overlapStream(query).collect(Collectors.toList())));
+            }
+
+            // remove everything, the index shrinks to a single leaf
+            for (final IInterval interval : added) {
+                Assert.assertTrue(index.remove(interval));
+            }
+            Assert.assertTrue(index.isEmpty());
+            Assert.assertEquals(1, index.getHeight());
+            Assert.assertFalse(index.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        final WideIntervalIndex index = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .enableMetrics()
+                .buildWideIndex(8);
+        for (long i = 0; i < 1000; i++) {
+            index.add(new LongInterval(i, i + 5L));
+        }
+        Assert.assertEquals(1000L, index.getMetrics().snapshot().getCount(IntervalTreeMetrics.Operation.ADD));
+
+        // the overlap reads a single path (and maybe a neighbor), not one node per interval
+        index.getMetrics().reset();
+        Assert.assertEquals(6, index.overlap(new LongInterval(500L, 500L)).size());
+
+        final IntervalTreeMetrics.Snapshot snapshot = index.getMetrics().snapshot();
+        Assert.assertEquals(1L, snapshot.getCount(IntervalTreeMetrics.Operation.OVERLAP));
+        Assert.assertTrue(snapshot.getNodeVisits() <= 2L * index.getHeight());
+    }
+
+    @Test(expected = IllegalConfiguration.class)
+    public void testInvalidFanOut() {
+        IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG)
+                .buildWideIndex(2);
+    }
+
+    protected void assertStructure(final WideIntervalIndex index) {
+        final int size = assertNode(index, index.getRoot(), true);
+        Assert.assertEquals(index.size(), size);
+    }
+
+    protected int assertNode(final WideIntervalIndex index, final WideIntervalIndex.Node node, final boolean root) {
+        Assert.assertTrue(node.count <= index.getFanOut());
+        if (!root) {
+            Assert.assertTrue(node.count > 0);
+        }
+
+        if (node instanceof WideIntervalIndex.Leaf) {
+            final WideIntervalIndex.Leaf leaf = WideIntervalIndex.Leaf.class.cast(node);
+            Comparable max = null;
+            for (int i = 0; i < leaf.count; i++) {
+                Assert.assertEquals(leaf.intervals[i].getNormStart(), leaf.starts[i]);
+                Assert.assertEquals(leaf.intervals[i].getNormEnd(), leaf.ends[i]);
+                if (i > 0) {
+                    Assert.assertTrue(index.compare(leaf.starts[i - 1], leaf.ends[i - 1],
+                            leaf.starts[i], leaf.ends[i]) <= 0);
+                }
+                max = index.max(max, leaf.ends[i]);
+            }
+            Assert.assertEquals(max, leaf.max);
+
+            return leaf.count;
+        } else {
+            final WideIntervalIndex.Inner inner = WideIntervalIndex.Inner.class.cast(node);
+            Assert.assertTrue(root ? inner.count > 1 : inner.count > 0);
+
+            Comparable max = null;
+            int size = 0;
+            for (int i = 0; i < inner.count; i++) {
+                final WideIntervalIndex.Node child = inner.children[i];
+                Assert.assertEquals(child.max, inner.maxes[i]);
+                Assert.assertEquals(firstStart(child), inner.starts[i]);
+                if (i > 0) {
+                    Assert.assertTrue(index.compare(inner.starts[i - 1], inner.ends[i - 1],
+                            inner.starts[i], inner.ends[i]) <= 0);
+                }
+
+                max = index.max(max, inner.maxes[i]);
+                size += assertNode(index, child, false);
+            }
+            Assert.assertEquals(max, inner.max);
+
+            return size;
+        }
+    }
+
+    protected Comparable firstStart(final WideIntervalIndex.Node node) {
+        if (node instanceof WideIntervalIndex.Leaf) {
+            return WideIntervalIndex.Leaf.class.cast(node).starts[0];
+        } else {
+            return WideIntervalIndex.Inner.class.cast(node).starts[0];
+        }
+    }
+
+    protected List<String> ids(final Iterable<IInterval> intervals) {
+        final List<String> ids = new ArrayList<>();
+        intervals.forEach(interval -> ids.add(interval.getUniqueIdentifier()));
+        return ids;
+    }
+
+    protected List<String> sortedIds(final Collection<IInterval> intervals) {
+        return intervals.stream().map(IInterval::getUniqueIdentifier).sorted().collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,23 @@
 package com.brein.time.timeintervals.intervals;
 
+import com.brein.time.exceptions.IllegalTimeInterval;
+import com.brein.time.timeintervals.collections.ListIntervalCollection;
+import com.brein.time.timeintervals.indexes.IntervalTree;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder;
+import com.brein.time.timeintervals.indexes.IntervalTreeBuilder.IntervalType;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 public class TestInterval {
 
     @Test
@@ -175,6 +190,151 @@ public class TestInterval {
                 new LongInterval(6L, 10L).ir(new LongInterval(1L, 5L)));
     }
 
+    @Test
+    public void testClassify() {
+        final Random rnd = new Random(42L);
+        final List<NumberInterval> intervals = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            final int start = rnd.nextInt(30);
+            final int end = start + rnd.nextInt(10);
+            final boolean openStart = rnd.nextInt(5) == 0 && end - start > 2;
+            final boolean openEnd = rnd.nextInt(5) == 0 && end - start > 2;
+
+            switch (rnd.nextInt(3)) {
+                case 0:
+                    intervals.add(new NumberInterval<>(Long.class, (long) start, (long) end, openStart, openEnd));
+                    break;
+                case 1:
+                    intervals.add(new NumberInterval<>(Integer.class, start, end, openStart, openEnd));
+                    break;
+                default:
+                    intervals.add(new DoubleInterval(start / 2.0, end / 2.0, false, false));
+                    break;
+            }
+        }
+        intervals.add(new LongInterval(5L, null));
+        intervals.add(new LongInterval(null, 5L));
+
+        for (final NumberInterval i1 : intervals) {
+            for (final NumberInterval i2 : intervals) {
+                final AllenIntervalRelation relation = AllenIntervalRelation.classify(i1, i2);
+
+                Assert.assertEquals(i1 + " " + i2, determineRelationByPredicates(i1, i2), relation);
+                Assert.assertTrue(i1.ir(relation, i2));
+
+                // the next and previous values depend on the type, so the converse only holds for equal types
+                if (i1.getClazz().equals(i2.getClazz())) {
+                    Assert.assertEquals(relation.getConverse(), AllenIntervalRelation.classify(i2, i1));
+                }
+            }
+        }
+
+        final LongInterval query = new LongInterval(10L, 20L);
+        final long[] histogram = AllenIntervalRelation.classify(query, intervals);
+        Assert.assertEquals(intervals.size(), Arrays.stream(histogram).sum());
+        Assert.assertEquals(intervals.stream().filter(query::irIncludes).count(),
+                histogram[AllenIntervalRelation.INCLUDES.ordinal()]);
+    }
+
+    @Test
+    public void testClassifyPrimitives() {
+        Assert.assertEquals(AllenIntervalRelation.BEFORE, AllenIntervalRelation.classify(1L, 5L, 7L, 10L));
+        Assert.assertEquals(AllenIntervalRelation.ENDS_DIRECTLY_BEFORE, AllenIntervalRelation.classify(1L, 5L, 6L, 10L));
+        Assert.assertEquals(AllenIntervalRelation.OVERLAPS, AllenIntervalRelation.classify(1L, 6L, 6L, 10L));
+        Assert.assertEquals(AllenIntervalRelation.INCLUDES, AllenIntervalRelation.classify(1L, 10L, 2L, 9L));
+        Assert.assertEquals(AllenIntervalRelation.IS_DURING, AllenIntervalRelation.classify(2L, 9L, 1L, 10L));
+        Assert.assertEquals(AllenIntervalRelation.BEGINS, AllenIntervalRelation.classify(1L, 10L, 1L, 9L));
+        Assert.assertEquals(AllenIntervalRelation.ENDS_BY, AllenIntervalRelation.classify(2L, 10L, 1L, 10L));
+        Assert.assertEquals(AllenIntervalRelation.STARTS_DIRECTLY_BEFORE,
+                AllenIntervalRelation.classify(11L, 12L, 1L, 10L));
+        Assert.assertEquals(AllenIntervalRelation.AFTER,
+                AllenIntervalRelation.classify(12L, Long.MAX_VALUE, 1L, 10L));
+
+        Assert.assertEquals(AllenIntervalRelation.EQUALS, AllenIntervalRelation.classify(1.5, 2.5, 1.5, 2.5));
+        Assert.assertEquals(AllenIntervalRelation.BEFORE, AllenIntervalRelation.classify(1.0, 2.0, 2.5, 3.0));
+        Assert.assertEquals(AllenIntervalRelation.ENDS_DIRECTLY_BEFORE,
+                AllenIntervalRelation.classify(1.0, 2.0, Math.nextUp(2.0), 3.0));
+        Assert.assertEquals(AllenIntervalRelation.IS_OVERLAPPED_BY,
+                AllenIntervalRelation.classify(2.0, 4.0, 1.0, 3.0));
+    }
+
+    protected AllenIntervalRelation determineRelationByPredicates(final NumberInterval i1, final IInterval i2) {
+        for (final AllenIntervalRelation relation : Arrays.asList(
+                AllenIntervalRelation.OVERLAPS,
+                AllenIntervalRelation.IS_OVERLAPPED_BY,
+                AllenIntervalRelation.EQUALS,
+                AllenIntervalRelation.BEGINS,
+                AllenIntervalRelation.BEGINS_BY,
+                AllenIntervalRelation.ENDS,
+                AllenIntervalRelation.ENDS_BY,
+                AllenIntervalRelation.BEFORE,
+                AllenIntervalRelation.AFTER,
+                AllenIntervalRelation.STARTS_DIRECTLY_BEFORE,
+                AllenIntervalRelation.ENDS_DIRECTLY_BEFORE,
+                AllenIntervalRelation.INCLUDES,
+                AllenIntervalRelation.IS_DURING)) {
+            if (i1.ir(relation, i2)) {
+                return relation;
+            }
+        }
+
+        return null;
+    }
+
+    @Test
+    public void testRanges() throws IOException, ClassNotFoundException {
+        Assert.assertEquals(new LongInterval(1L, 5L).getUniqueIdentifier(), new LongRange(1L, 5L).getUniqueIdentifier());
+        Assert.assertEquals(new DoubleInterval(1.25, 5.0).getUniqueIdentifier(),
+                new DoubleRange(1.25, 5.0).getUniqueIdentifier());
+        Assert.assertEquals(new LongRange(1L, 5L), new LongRange(1L, 5L));
+        Assert.assertEquals(new LongRange(1L, 5L).hashCode(), new LongRange(1L, 5L).hashCode());
+        Assert.assertNotEquals(new LongRange(1L, 5L), new LongRange(1L, 6L));
+        Assert.assertEquals(0, new LongRange(1L, 5L).compareTo(new LongInterval(1L, 5L)));
+        Assert.assertEquals(-1, new DoubleRange(1.0, 5.0).compareTo(new DoubleRange(1.0, 5.5)));
+        Assert.assertEquals(AllenIntervalRelation.ENDS_DIRECTLY_BEFORE,
+                AllenIntervalRelation.classify(new LongInterval(1L, 5L), new LongRange(6L, 8L)));
+
+        try {
+            new LongRange(5L, 1L);
+            Assert.fail("Expected exception");
+        } catch (final IllegalTimeInterval e) {
+            // expected
+        }
+
+        // the ranges are written compactly and can be read again
+        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bos)) {
+            out.writeObject(new LongRange(-3L, 7L));
+            out.writeObject(new DoubleRange(0.5, 1.5));
+        }
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+            final LongRange longRange = LongRange.class.cast(in.readObject());
+            Assert.assertEquals(new LongRange(-3L, 7L), longRange);
+            Assert.assertEquals(new LongRange(-3L, 7L).hashCode(), longRange.hashCode());
+            Assert.assertEquals(new DoubleRange(0.5, 1.5), in.readObject());
+        }
+    }
+
+    @Test
+    public void testRangesWithinTree() {
+        final IntervalTree tree = IntervalTreeBuilder.newBuilder()
+                .usePredefinedType(IntervalType.LONG, true)
+                .collectIntervals(interval -> new ListIntervalCollection())
+                .build();
+
+        tree.insert(new LongRange(1L, 5L));
+        tree.insert(new LongRange(3L, 8L));
+        tree.insert(new LongInterval(1L, 5L));
+
+        Assert.assertEquals(2, tree.find(new LongRange(1L, 5L)).size());
+        Assert.assertEquals(3, tree.overlap(new LongRange(4L, 4L)).size());
+        Assert.assertEquals(1, tree.overlap(new LongInterval(6L, 10L)).size());
+
+        Assert.assertTrue(tree.remove(new LongRange(1L, 5L)));
+        Assert.assertEquals(2, tree.size());
+    }
+
     @Test
     public void testUniqueIdentifier() {
         Assert.assertEquals("[1,2]", new LongInterval(1L, 2L).getUniqueIdentifier());
@@ -1,18 +1,23 @@
 package com.brein.time.timeseries;
 
 import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.exceptions.IllegalValueRegardingConfiguration;
 import com.brein.time.utils.TimeUtils;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.LongBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * Unit tests for the {@code BucketTimeSeries} implementation.
@@ -68,6 +73,61 @@ public class TestBucketTimeSeries {
         Assert.assertEquals(2, hour_10_15_ts.getBucketSize(15 * 60 * 60 + 1));
         Assert.assertEquals(2, hour_10_15_ts.getBucketSize(30 * 60 * 60));
         Assert.assertEquals(3, hour_10_15_ts.getBucketSize(30 * 60 * 60 + 1));
+
+        Assert.assertEquals(0, seconds_10_5_ts.getBucketSize(0));
+        Assert.assertEquals(0, seconds_10_5_ts.getBucketSize(-4));
+        Assert.assertEquals(-1, seconds_10_5_ts.getBucketSize(-5));
+        Assert.assertEquals(-1, seconds_10_5_ts.getBucketSize(-6));
+    }
+
+    @Test
+    public void testBucket() {
+        final Random rnd = new Random(42L);
+
+        // power of two (i.e., a bucket of 64 seconds) and others, as well as a bucket not covering full seconds
+        final List<BucketTimeSeries<Integer>> timeSeries = Arrays.asList(seconds_10_1_ts, seconds_10_5_ts,
+                minute_10_15_ts, hour_10_5_ts,
+                new BucketTimeSeries<>(new BucketTimeSeriesConfig<>(Integer.class, TimeUnit.SECONDS, 10, 64)),
+                new BucketTimeSeries<>(new BucketTimeSeriesConfig<>(Integer.class, TimeUnit.MILLISECONDS, 10, 1500)));
+
+        for (final BucketTimeSeries<Integer> ts : timeSeries) {
+            for (int i = 0; i < 1000; i++) {
+                final long unixTimeStamp = i < 10 ? i - 5 : rnd.nextInt(Integer.MAX_VALUE) - 1000L;
+                final BucketTimeSeriesConfig<Integer> config = ts.getConfig();
+                final long bucket = ts.bucket(unixTimeStamp);
+
+                Assert.assertEquals(config.getTimeUnit().convert(unixTimeStamp, TimeUnit.SECONDS) /
+                        config.getBucketSize(), bucket);
+                if (config.getTimeUnit() != TimeUnit.MILLISECONDS) {
+                    final BucketEndPoints endPoints = ts.normalizeUnixTimeStamp(unixTimeStamp);
+                    Assert.assertEquals(endPoints.getUnixTimeStampStart(), bucket * endPoints.size());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFractionalBucket() {
+        final BucketTimeSeries<Integer> ts = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Integer.class, TimeUnit.MILLISECONDS, 10, 1500));
+
+        // the time-stamps 1, 3, and 2 belong to the buckets 0, 2, and 1
+        ts.modify(1L, val -> val + 1);
+        ts.modify(3L, val -> val + 1);
+        ts.modify(3L, val -> val + 1);
+        Assert.assertArrayEquals(new Integer[]{2, 0, 1, 0, 0, 0, 0, 0, 0, 0}, ts.order());
+        ts.modify(2L, val -> val + 1);
+        ts.set(3L, 5);
+        Assert.assertArrayEquals(new Integer[]{5, 1, 1, 0, 0, 0, 0, 0, 0, 0}, ts.order());
+
+        // the time-stamps 3 and 4 belong to the same bucket, i.e., [2.5, 5.0)
+        final BucketTimeSeries<Integer> otherTs = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Integer.class, TimeUnit.MILLISECONDS, 10, 2500));
+        otherTs.modify(2L, val -> val + 1);
+        otherTs.modify(4L, val -> val + 1);
+        otherTs.modify(3L, val -> val + 1);
+        otherTs.modify(4L, val -> val + 1);
+        Assert.assertArrayEquals(new Integer[]{3, 1, 0, 0, 0, 0, 0, 0, 0, 0}, otherTs.order());
     }
 
     @Test
@@ -329,6 +389,86 @@ public class TestBucketTimeSeries {
         Assert.assertArrayEquals(new Integer[]{5, 5, 5, 5, 5, 5, 5, 5, 5, 5}, seconds_10_1_ts.order());
     }
 
+    @Test
+    public void testCombineAll() {
+        final Random rnd = new Random(42L);
+
+        // the summing of numbers, as well as the combining of any other values (with nulls) are tested
+        final BucketTimeSeriesConfig<Long> config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, 1);
+        final BucketTimeSeriesConfig<String> stringConfig =
+                new BucketTimeSeriesConfig<>(String.class, TimeUnit.MINUTES, 10, 1);
+
+        final List<BucketTimeSeries<Long>> shards = new ArrayList<>();
+        final List<BucketTimeSeries<String>> stringShards = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final BucketTimeSeries<Long> shard = new BucketTimeSeries<>(config);
+            final BucketTimeSeries<String> stringShard = new BucketTimeSeries<>(stringConfig);
+            final long now = 1456980000L + 60L * rnd.nextInt(15);
+            for (int j = 0; i > 0 && j < 20; j++) {
+                final long unixTimeStamp = now - 60L * rnd.nextInt(15);
+                final long value = rnd.nextInt(100);
+                shard.modify(unixTimeStamp, (Long val) -> val + value);
+                final String shardName = String.valueOf(i);
+                stringShard.modify(unixTimeStamp, (String val) -> val == null ? shardName : val + shardName);
+            }
+            shards.add(shard);
+            stringShards.add(stringShard);
+        }
+
+        final BiFunction<String, String, String> concat = (a, b) -> a == null ? b : b == null ? a : a + b;
+        final BucketTimeSeries<Long> expected = new BucketTimeSeries<>(config);
+        final BucketTimeSeries<String> stringExpected = new BucketTimeSeries<>(stringConfig);
+        for (int i = 0; i < shards.size(); i++) {
+            expected.combine(shards.get(i));
+            stringExpected.combine(stringShards.get(i), concat);
+        }
+
+        final List<Long[]> orders = shards.stream().map(BucketTimeSeries::order).collect(Collectors.toList());
+        final List<Integer> observed = new ArrayList<>();
+        final BucketTimeSeries<Long> ts = new BucketTimeSeries<>(config, (idx, val) -> observed.add(idx));
+        ts.combineAll(shards);
+        Assert.assertEquals(expected.getNow(), ts.getNow());
+        Assert.assertArrayEquals(expected.order(), ts.order());
+        Assert.assertEquals(10, observed.size());
+
+        final BucketTimeSeries<String> stringTs = new BucketTimeSeries<>(stringConfig);
+        stringTs.combineAll(stringShards, concat);
+        Assert.assertEquals(stringExpected.getNow(), stringTs.getNow());
+        Assert.assertArrayEquals(stringExpected.order(), stringTs.order());
+
+        // none of the shards is modified
+        for (int i = 0; i < shards.size(); i++) {
+            Assert.assertArrayEquals(orders.get(i), shards.get(i).order());
+        }
+    }
+
+    @Test
+    public void testCombineAllWithNull() {
+        final BucketTimeSeriesConfig<Long> config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, 1);
+
+        // a bucket set to null explicitly is added as 0
+        final BucketTimeSeries<Long> shard = new BucketTimeSeries<>(config);
+        shard.set(1456980000L, null);
+        shard.set(1456980000L - 60L, 2L);
+
+        final BucketTimeSeries<Long> other = new BucketTimeSeries<>(config);
+        other.set(1456980000L, null);
+        other.set(1456980000L - 60L, 3L);
+
+        final BucketTimeSeries<Long> expected = new BucketTimeSeries<>(config);
+        expected.set(1456980000L - 120L, 4L);
+        expected.set(1456980000L - 180L, null);
+        final BucketTimeSeries<Long> ts = new BucketTimeSeries<>(config);
+        ts.set(1456980000L - 120L, 4L);
+        ts.set(1456980000L - 180L, null);
+
+        expected.combine(shard);
+        expected.combine(other);
+        ts.combineAll(Arrays.asList(shard, other));
+        Assert.assertArrayEquals(new Long[]{0L, 5L, 4L, 0L, 0L, 0L, 0L, 0L, 0L, 0L}, ts.order());
+        Assert.assertArrayEquals(expected.order(), ts.order());
+    }
+
     @Test
     public void testSum() {
         final BucketTimeSeries<Double> subject = new BucketTimeSeries<>(
@@ -337,4 +477,191 @@ public class TestBucketTimeSeries {
 
         Assert.assertEquals(3, subject.sumTimeSeries());
     }
+
+    @Test
+    public void testAddAll() {
+        final Random rnd = new Random(42L);
+        final BucketTimeSeriesConfig<Long> config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, 5);
+
+        final BucketTimeSeries<Long> expected = new BucketTimeSeries<>(config);
+        final List<Integer> observed = new ArrayList<>();
+        final BucketTimeSeries<Long> ts = new BucketTimeSeries<>(config, (idx, val) -> observed.add(idx));
+
+        long now = 1456980000L;
+        for (int batch = 0; batch < 20; batch++) {
+
+            // unsorted time-stamps, some of them too old, and moving forward
+            final long[] unixTimeStamps = new long[1000];
+            final long[] values = new long[unixTimeStamps.length];
+            for (int i = 0; i < unixTimeStamps.length; i++) {
+                unixTimeStamps[i] = now - rnd.nextInt(5 * 60 * 15) + rnd.nextInt(5 * 60 * 3);
+                values[i] = rnd.nextInt(10);
+
+                final long value = values[i];
+                expected.modify(unixTimeStamps[i], val -> val + value);
+            }
+            now += rnd.nextInt(5 * 60 * 4);
+
+            observed.clear();
+            ts.addAll(unixTimeStamps, values);
+
+            Assert.assertEquals(expected.getNow(), ts.getNow());
+            Assert.assertArrayEquals(expected.order(), ts.order());
+
+            // the observer is called once per bucket reset by moving now, and once per bucket modified
+            Assert.assertTrue(observed.size() <= 2 * 10);
+        }
+
+        // the stream variant
+        final long next = ts.getNow() + 1L;
+        ts.addAll(Arrays.asList(new long[]{next, 2L}, new long[]{next - 300L, 3L}, new long[]{next, 4L}).stream(),
+                event -> event[0], event -> event[1]);
+        Assert.assertEquals(6L, (long) ts.getFromZeroBasedIdx(0));
+        Assert.assertEquals(3L + expected.getFromZeroBasedIdx(0), (long) ts.getFromZeroBasedIdx(1));
+    }
+
+    @Test
+    public void testRangeQueries() {
+        final Random rnd = new Random(42L);
+        final BucketTimeSeriesConfig<Long> config =
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 13, 5, false);
+
+        final BucketTimeSeries<Long> indexed = new BucketTimeSeries<>(config);
+        final BucketTimeSeries<Long> scanned = new BucketTimeSeries<>(config);
+        indexed.setRangeIndexed(true);
+        Assert.assertTrue(indexed.isRangeIndexed());
+        Assert.assertEquals(0L, indexed.sumLast(5));
+        Assert.assertNull(indexed.max(0L, Long.MAX_VALUE));
+
+        long now = 1456980000L;
+        for (int i = 0; i < 2000; i++) {
+            now += rnd.nextInt(50) == 0 ? 5 * 60 * rnd.nextInt(20) : rnd.nextInt(30);
+
+            // values can also be negative or removed (null)
+            final long unixTimeStamp = now - rnd.nextInt(5 * 60 * 15);
+            final Long value = rnd.nextInt(10) == 0 ? null : (long) rnd.nextInt(100) - 20L;
+            indexed.set(unixTimeStamp, value);
+            scanned.set(unixTimeStamp, value);
+
+            final long from = now - rnd.nextInt(5 * 60 * 16);
+            final long to = from + rnd.nextInt(5 * 60 * 16) - 60L;
+            final List<Long> values = new ArrayList<>();
+            for (int offset = 0; offset < 13; offset++) {
+                final BucketEndPoints bucket = scanned.getEndPoints(-offset);
+                final Long val = scanned.getFromZeroBasedIdx(offset);
+                final boolean covered = bucket.getUnixTimeStampEnd() > from && bucket.getUnixTimeStampStart() < to;
+                if (val != null && from < to && covered) {
+                    values.add(val);
+                }
+            }
+            final long sum = values.stream().mapToLong(Long::longValue).sum();
+
+            for (final BucketTimeSeries<Long> ts : Arrays.asList(indexed, scanned)) {
+                Assert.assertEquals(sum, ts.sum(from, to));
+                Assert.assertEquals(values.stream().min(Long::compare).orElse(null), ts.min(from, to));
+                Assert.assertEquals(values.stream().max(Long::compare).orElse(null), ts.max(from, to));
+                Assert.assertEquals(values.isEmpty() ? Double.NaN : (double) sum / values.size(), ts.avg(from, to),
+                        0.0);
+
+                final int n = rnd.nextInt(15);
+                long sumLast = 0L;
+                for (int offset = 0; offset < Math.min(n, 13); offset++) {
+                    final Long val = scanned.getFromZeroBasedIdx(offset);
+                    sumLast += val == null ? 0L : val;
+                }
+                Assert.assertEquals(sumLast, ts.sumLast(n));
+            }
+        }
+
+        // the index is rebuilt if the time-series is replaced
+        indexed.setTimeSeries(new Long[]{1L, 2L, 3L, null, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L}, now);
+        Assert.assertEquals(87L, indexed.sumTimeSeries());
+        Assert.assertEquals(6L, indexed.sumLast(3));
+        Assert.assertEquals(13L, (long) indexed.max(0L, Long.MAX_VALUE));
+        Assert.assertEquals(1L, (long) indexed.min(0L, Long.MAX_VALUE));
+
+        indexed.setRangeIndexed(false);
+        Assert.assertFalse(indexed.isRangeIndexed());
+        Assert.assertEquals(87L, indexed.sum(0L, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testViews() {
+        final BucketTimeSeries<Integer> ts = minute_10_1_ts;
+        final List<Integer> view = ts.asList();
+        Assert.assertEquals(Arrays.asList(ts.order()), view);
+        Assert.assertEquals(Arrays.toString(ts.order()), ts.toString());
+
+        // the view reflects the changes, also when the ring wraps around
+        final long now = 1456980000L;
+        for (int i = 0; i < 25; i++) {
+            ts.set(now + i * 60L, i);
+            ts.set(now + (i - 3) * 60L, 100 + i);
+
+            final List<Integer> ordered = Arrays.asList(ts.order());
+            Assert.assertEquals(ordered, view);
+            Assert.assertEquals(ordered.toString(), ts.toString());
+
+            final long[] dest = new long[12];
+            ts.copyTo(dest, 1);
+            final LongBuffer buffer = LongBuffer.allocate(13);
+            buffer.put(-1L);
+            ts.copyTo(buffer);
+            Assert.assertEquals(11, buffer.position());
+
+            final List<Integer> visited = new ArrayList<>();
+            ts.forEachOrdered((val, idx) -> {
+                Assert.assertEquals(visited.size(), (int) idx);
+                visited.add(val);
+
+                Assert.assertEquals((long) val, dest[idx + 1]);
+                Assert.assertEquals((long) val, buffer.get(idx + 1));
+            });
+            Assert.assertEquals(ordered, visited);
+            Assert.assertEquals(0L, dest[0]);
+            Assert.assertEquals(0L, dest[11]);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testCopyToOutOfBounds() {
+        minute_10_1_ts.copyTo(new long[12], 3);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewReadOnly() {
+        minute_10_1_ts.asList().set(0, 5);
+    }
+
+    @Test(expected = IllegalValueRegardingConfiguration.class)
+    public void testRangeIndexedNoNumber() {
+        new BucketTimeSeries<>(new BucketTimeSeriesConfig<>(String.class, TimeUnit.MINUTES, 10, 1))
+                .setRangeIndexed(true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddAllDifferentLength() {
+        minute_10_1_ts.addAll(new long[]{1L, 2L}, new long[]{1L});
+    }
+
+    @Test
+    public void testAddAllNoNumber() {
+        final List<Integer> observed = new ArrayList<>();
+        final BucketTimeSeries<String> ts = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(String.class, TimeUnit.MINUTES, 10, 1), (idx, val) -> observed.add(idx));
+        ts.set(1456980000L, "a");
+        observed.clear();
+
+        try {
+            ts.addAll(new long[]{1456980000L + 600L}, new long[]{1L});
+            Assert.fail("Expected an IllegalValueRegardingConfiguration");
+        } catch (final IllegalValueRegardingConfiguration e) {
+            // expected
+        }
+
+        // neither now was moved, nor any bucket was reset
+        Assert.assertEquals(1456980059L, ts.getNow());
+        Assert.assertEquals("a", ts.getFromZeroBasedIdx(0));
+        Assert.assertTrue(observed.isEmpty());
+    }
 }
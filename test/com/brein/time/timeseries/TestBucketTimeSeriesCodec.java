@@ -0,0 +1,160 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalValueRegardingConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TestBucketTimeSeriesCodec {
+
+    @Test
+    public void testSparse() throws IOException {
+        final Random rnd = new Random(42L);
+        final BucketTimeSeriesConfig<Long> config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 1440, 1);
+
+        // a few values (also negative and large ones), most of the buckets are zero
+        final BucketTimeSeries<Long> ts = new BucketTimeSeries<>(config);
+        final long now = 1456980000L;
+        for (int i = 0; i < 50; i++) {
+            final long value = rnd.nextBoolean() ? rnd.nextInt(10) - 5L : rnd.nextLong();
+            ts.set(now - 60L * rnd.nextInt(1440), value);
+        }
+        ts.setNow(now + 60L * 700);
+
+        final byte[] bytes = write(ts);
+        Assert.assertTrue(bytes.length < 50 * 15);
+
+        final BucketTimeSeries<Long> read = read(config, bytes);
+        assertEquals(ts, read);
+    }
+
+    @Test
+    public void testContents() throws IOException {
+        final Random rnd = new Random(42L);
+
+        // nulls (not filled with zero), floating point values, and mutable values
+        final BucketTimeSeries<Integer> ints = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Integer.class, TimeUnit.SECONDS, 100, 5, false));
+        final BucketTimeSeries<Double> doubles = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Double.class, TimeUnit.SECONDS, 100, 5));
+        final BucketTimeSeries<Float> floats = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Float.class, TimeUnit.SECONDS, 100, 5));
+        final BucketTimeSeries<AtomicLong> atomics = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(AtomicLong.class, TimeUnit.SECONDS, 100, 5));
+        for (int i = 0; i < 200; i++) {
+            final long unixTimeStamp = 1456980000L + rnd.nextInt(1000);
+            ints.set(unixTimeStamp, rnd.nextInt(3) == 0 ? null : rnd.nextInt(3));
+            doubles.set(unixTimeStamp, rnd.nextInt(3) == 0 ? Double.NaN : rnd.nextDouble());
+            floats.set(unixTimeStamp, rnd.nextFloat());
+            atomics.set(unixTimeStamp, new AtomicLong(rnd.nextInt(2)));
+        }
+
+        assertEquals(ints, read(ints.getConfig(), write(ints)));
+        assertEquals(doubles, read(doubles.getConfig(), write(doubles)));
+        assertEquals(floats, read(floats.getConfig(), write(floats)));
+
+        final BucketTimeSeries<AtomicLong> readAtomics = read(atomics.getConfig(), write(atomics));
+        Assert.assertEquals(atomics.toString(), readAtomics.toString());
+        Assert.assertNotSame(readAtomics.get(0), readAtomics.get(1));
+
+        // a time-series without now
+        final BucketTimeSeries<Long> empty = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 1440, 1));
+        final byte[] bytes = write(empty);
+        Assert.assertEquals(1 + 4 + 1 + 1 + 3, bytes.length);
+        assertEquals(empty, read(empty.getConfig(), bytes));
+    }
+
+    @Test
+    public void testJavaSerialization() throws IOException, ClassNotFoundException {
+        final BucketTimeSeriesConfig<Long> config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 1440, 1);
+
+        final List<BucketTimeSeries<Long>> series = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final BucketTimeSeries<Long> ts = new BucketTimeSeries<>(config);
+            ts.set(1456980000L - 60L * i, (long) i);
+            ts.set(1456980000L, 1L);
+            series.add(ts);
+        }
+
+        // the configuration is written once only
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(series);
+        }
+        Assert.assertTrue(bytes.size() < 100 * 50);
+
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            @SuppressWarnings("unchecked")
+            final List<BucketTimeSeries<Long>> read = (List<BucketTimeSeries<Long>>) in.readObject();
+
+            Assert.assertEquals(series.size(), read.size());
+            for (int i = 0; i < series.size(); i++) {
+                assertEquals(series.get(i), read.get(i));
+            }
+        }
+
+        // other contents are serialized as before
+        final BucketTimeSeries<String> strings = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(String.class, TimeUnit.MINUTES, 10, 1));
+        strings.set(1456980000L, "value");
+        final ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(stringBytes)) {
+            out.writeObject(strings);
+        }
+        try (final ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(stringBytes.toByteArray()))) {
+            Assert.assertEquals(strings.toString(), in.readObject().toString());
+        }
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testDifferentConfig() throws IOException {
+        final BucketTimeSeries<Long> ts = new BucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, 1));
+        read(new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, 2), write(ts));
+    }
+
+    @Test(expected = IllegalValueRegardingConfiguration.class)
+    public void testUnsupportedContent() throws IOException {
+        write(new BucketTimeSeries<>(new BucketTimeSeriesConfig<>(String.class, TimeUnit.MINUTES, 10, 1)));
+    }
+
+    protected byte[] write(final BucketTimeSeries<?> ts) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(bytes)) {
+            BucketTimeSeriesCodec.write(ts, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    protected <T extends Serializable> BucketTimeSeries<T> read(final BucketTimeSeriesConfig<T> config,
+                                                                final byte[] bytes) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            final BucketTimeSeries<T> ts = BucketTimeSeriesCodec.read(config, in);
+            Assert.assertEquals(-1, in.read());
+            return ts;
+        }
+    }
+
+    protected <T extends Serializable> void assertEquals(final BucketTimeSeries<T> expected,
+                                                         final BucketTimeSeries<T> actual) {
+        Assert.assertEquals(expected.getConfig(), actual.getConfig());
+        Assert.assertEquals(expected.getNow(), actual.getNow());
+        Assert.assertEquals(expected.getNowIdx(), actual.getNowIdx());
+        Assert.assertArrayEquals(expected.getTimeSeries(), actual.getTimeSeries());
+    }
+}
@@ -0,0 +1,105 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalTimePointMovement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class TestBucketTimeSeriesStore {
+
+    @Test
+    public void testCompareToLongBucketTimeSeries() {
+        final Random rnd = new Random(42L);
+        final BucketTimeSeriesConfig<Long> config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, 1);
+        final BucketTimeSeriesStore<Integer> store = new BucketTimeSeriesStore<>(config);
+        final Map<Integer, LongBucketTimeSeries> expected = new HashMap<>();
+
+        // more keys than a single slab, and keys being removed and re-added
+        long now = 1456980000L;
+        for (int i = 0; i < 20000; i++) {
+            now += rnd.nextInt(500) == 0 ? rnd.nextInt(1200) : rnd.nextInt(2);
+            final int key = rnd.nextInt(2000);
+
+            if (rnd.nextInt(100) == 0) {
+                Assert.assertEquals(expected.remove(key) != null, store.remove(key));
+                continue;
+            }
+
+            final long unixTimeStamp = now - rnd.nextInt(60 * 12);
+            final long delta = rnd.nextInt(5);
+            final boolean added = store.increment(key, unixTimeStamp, delta);
+
+            // all the time-series share the same now
+            final LongBucketTimeSeries ts = expected.computeIfAbsent(key, k -> new LongBucketTimeSeries(config));
+            expected.values().forEach(e -> e.setNow(store.getNow()));
+            Assert.assertEquals(ts.add(unixTimeStamp, delta), added);
+            if (!added && !store.contains(key)) {
+                expected.remove(key);
+            }
+        }
+
+        Assert.assertEquals(expected.keySet(), store.keySet());
+        for (final Map.Entry<Integer, LongBucketTimeSeries> entry : expected.entrySet()) {
+            final LongBucketTimeSeries ts = entry.getValue();
+            Assert.assertArrayEquals(ts.order(), store.get(entry.getKey()));
+            Assert.assertArrayEquals(ts.order(), store.getTimeSeries(entry.getKey()).order());
+            Assert.assertEquals(ts.sum(), store.sum(entry.getKey(), 10));
+        }
+
+        // the top keys by the sum of the last three buckets
+        final List<Long> expectedTop = expected.values().stream()
+                .map(ts -> ts.getFromZeroBasedIdx(0) + ts.getFromZeroBasedIdx(1) + ts.getFromZeroBasedIdx(2))
+                .sorted((a, b) -> Long.compare(b, a))
+                .limit(5)
+                .collect(Collectors.toList());
+        final List<Map.Entry<Integer, Long>> top = store.top(5, 3);
+        Assert.assertEquals(expectedTop, top.stream().map(Map.Entry::getValue).collect(Collectors.toList()));
+        for (final Map.Entry<Integer, Long> entry : top) {
+            Assert.assertEquals(store.sum(entry.getKey(), 3), (long) entry.getValue());
+        }
+    }
+
+    @Test
+    public void testUsage() {
+        final BucketTimeSeriesStore<String> store = new BucketTimeSeriesStore<>(TimeUnit.MINUTES, 5, 1);
+        Assert.assertNull(store.get("a"));
+        Assert.assertEquals(-1L, store.getNow());
+        Assert.assertTrue(store.top(3, 5).isEmpty());
+
+        store.increment("a", 1456980000L);
+        store.increment("a", 1456980000L - 60L, 5L);
+        store.increment("b", 1456980000L, 2L);
+        Assert.assertFalse(store.increment("c", 1456980000L - 5 * 60L));
+        Assert.assertFalse(store.contains("c"));
+
+        Assert.assertArrayEquals(new long[]{1L, 5L, 0L, 0L, 0L}, store.get("a"));
+        Assert.assertEquals("a", store.top(1, 5).get(0).getKey());
+        Assert.assertEquals("b", store.top(1, 1).get(0).getKey());
+
+        // moving now does not touch the rows, but the values are moved
+        store.setNow(1456980000L + 2 * 60L);
+        Assert.assertArrayEquals(new long[]{0L, 0L, 1L, 5L, 0L}, store.get("a"));
+        Assert.assertArrayEquals(new long[]{0L, 0L, 2L, 0L, 0L}, store.get("b"));
+
+        store.increment("b", 1456980000L + 2 * 60L, 3L);
+        store.setNow(1456980000L + 4 * 60L);
+        Assert.assertArrayEquals(new long[]{0L, 0L, 0L, 0L, 1L}, store.get("a"));
+        Assert.assertArrayEquals(new long[]{0L, 0L, 3L, 0L, 2L}, store.get("b"));
+        Assert.assertEquals(1456980000L + 5 * 60L - 1L, store.getNow());
+        Assert.assertEquals(new BucketEndPoints(1456980000L + 3 * 60L, 1456980000L + 4 * 60L),
+                store.getEndPoints(-1));
+    }
+
+    @Test(expected = IllegalTimePointMovement.class)
+    public void testMoveToPast() {
+        final BucketTimeSeriesStore<String> store = new BucketTimeSeriesStore<>(TimeUnit.MINUTES, 5, 1);
+        store.setNow(1456980000L);
+        store.setNow(1456980000L - 60L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TestConcurrentBucketTimeSeries {
+
+    @Test
+    public void testCompareToLongBucketTimeSeries() {
+        final Random rnd = new Random(42L);
+
+        for (final int stripes : new int[]{1, 3, 16}) {
+            final BucketTimeSeriesConfig<Long> config =
+                    new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, 5);
+            final LongBucketTimeSeries expected = new LongBucketTimeSeries(config);
+            final ConcurrentBucketTimeSeries ts = new ConcurrentBucketTimeSeries(config, stripes);
+            Assert.assertEquals(Integer.highestOneBit(stripes * 2 - 1), ts.getStripes());
+            Assert.assertEquals(-1L, ts.getNow());
+            Assert.assertArrayEquals(expected.order(), ts.order());
+
+            long now = 1456980000L;
+            for (int i = 0; i < 5000; i++) {
+                now += rnd.nextInt(100) == 0 ? rnd.nextInt(20000) : rnd.nextInt(120);
+                final long unixTimeStamp = now - rnd.nextInt(5 * 60 * 12);
+                final long delta = rnd.nextInt(21) - 5;
+
+                Assert.assertEquals(expected.add(unixTimeStamp, delta), ts.add(unixTimeStamp, delta));
+                Assert.assertEquals(expected.getNow(), ts.getNow());
+            }
+
+            Assert.assertArrayEquals(expected.order(), ts.order());
+            Assert.assertArrayEquals(expected.order(), ts.snapshot().order());
+            Assert.assertEquals(expected.sum(), ts.sum());
+            Assert.assertEquals(expected.getEndPoints(-3), ts.getEndPoints(-3));
+            Assert.assertEquals(expected.getFromZeroBasedIdx(4), ts.getFromZeroBasedIdx(4));
+
+            // moving now (also into the past, which is ignored) does not modify any value
+            ts.setNow(now - 3600L);
+            Assert.assertArrayEquals(expected.order(), ts.order());
+            ts.setNow(now + 15 * 60L);
+            expected.setNow(now + 15 * 60L);
+            Assert.assertArrayEquals(expected.order(), ts.order());
+        }
+    }
+
+    @Test
+    public void testConcurrentIncrements() throws InterruptedException {
+        final ConcurrentBucketTimeSeries ts = new ConcurrentBucketTimeSeries(TimeUnit.SECONDS, 10, 1);
+        final int threadCount = 8;
+        final int increments = 20000;
+        final long start = 1456980000L;
+
+        // each thread increments buckets while moving forward, i.e., now is moved concurrently
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < increments; i++) {
+                    ts.increment(start + i / 1000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        // the last ten buckets are within the window, none of their increments is lost
+        final long[] order = ts.order();
+        Assert.assertEquals(start + increments / 1000 - 1, ts.getNow());
+        for (final long value : order) {
+            Assert.assertEquals(1000L * threadCount, value);
+        }
+    }
+
+    @Test
+    public void testStalledAdd() {
+        final AtomicBoolean stall = new AtomicBoolean(false);
+        final ConcurrentBucketTimeSeries ts = new ConcurrentBucketTimeSeries(
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, 5, 1), 1) {
+
+            @Override
+            protected int stripe() {
+
+                // the stalled add is overtaken by an add moving now by two generations
+                if (stall.getAndSet(false)) {
+                    Assert.assertTrue(add(110L, 5L));
+                }
+                return super.stripe();
+            }
+        };
+
+        Assert.assertTrue(ts.add(100L, 1L));
+        stall.set(true);
+        Assert.assertFalse(ts.add(100L, 1L));
+        Assert.assertArrayEquals(new long[]{5L, 0L, 0L, 0L, 0L}, ts.order());
+
+        // a cell of an older generation is reset
+        Assert.assertTrue(ts.add(115L, 2L));
+        Assert.assertArrayEquals(new long[]{2L, 0L, 0L, 0L, 0L}, ts.order());
+    }
+
+    @Test(expected = IllegalConfiguration.class)
+    public void testInvalidStripes() {
+        new ConcurrentBucketTimeSeries(new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10), 0);
+    }
+}
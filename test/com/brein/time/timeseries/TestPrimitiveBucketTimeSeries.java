@@ -0,0 +1,214 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import com.brein.time.exceptions.IllegalTimePointMovement;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+public class TestPrimitiveBucketTimeSeries {
+
+    @Test
+    public void testCompareToBucketTimeSeries() {
+        final Random rnd = new Random(42L);
+
+        for (final int bucketSize : new int[]{1, 5, 15}) {
+            final BucketTimeSeriesConfig<Long> config =
+                    new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, bucketSize);
+            final BucketTimeSeries<Long> expected = new BucketTimeSeries<>(config);
+            final LongBucketTimeSeries ts = new LongBucketTimeSeries(config);
+
+            long now = 1456980000L;
+            for (int i = 0; i < 5000; i++) {
+
+                // mostly values around now, sometimes moving forward or being too old
+                now += rnd.nextInt(100) == 0 ? rnd.nextInt(20000) : rnd.nextInt(120);
+                final long unixTimeStamp = now - rnd.nextInt(bucketSize * 60 * 12);
+                final long delta = rnd.nextInt(10);
+
+                expected.modify(unixTimeStamp, val -> val + delta);
+                ts.add(unixTimeStamp, delta);
+
+                Assert.assertEquals(expected.getNowIdx(), ts.getNowIdx());
+                Assert.assertEquals(expected.getNow(), ts.getNow());
+            }
+
+            Assert.assertArrayEquals(expected.create(val -> val), ts.order());
+            Assert.assertEquals(expected.sumTimeSeries(), ts.sum());
+            Assert.assertEquals(expected.getEndPoints(-3), ts.getEndPoints(-3));
+            Assert.assertEquals(expected.getTimeStamp(2), ts.getTimeStamp(2));
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals((long) expected.getFromZeroBasedIdx(i), ts.getFromZeroBasedIdx(i));
+            }
+        }
+    }
+
+    @Test
+    public void testGetBucketSize() {
+        for (final int bucketSize : new int[]{1, 5, 15}) {
+            final BucketTimeSeriesConfig<Long> config =
+                    new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 10, bucketSize);
+            final BucketTimeSeries<Long> expected = new BucketTimeSeries<>(config);
+            final LongBucketTimeSeries ts = new LongBucketTimeSeries(config);
+
+            for (long diffInSeconds = -3600L; diffInSeconds <= 3600L; diffInSeconds++) {
+                Assert.assertEquals(expected.getBucketSize(diffInSeconds), ts.getBucketSize(diffInSeconds));
+            }
+        }
+
+        final LongBucketTimeSeries ts = new LongBucketTimeSeries(TimeUnit.SECONDS, 10, 3);
+        Assert.assertEquals(0, ts.getBucketSize(0L));
+        Assert.assertEquals(1, ts.getBucketSize(3L));
+        Assert.assertEquals(2, ts.getBucketSize(4L));
+        Assert.assertEquals(-1, ts.getBucketSize(-4L));
+        Assert.assertEquals(715827883, ts.getBucketSize(2147483647L));
+    }
+
+    @Test
+    public void testFractionalBucket() {
+
+        // the time-stamps 1, 3, and 2 belong to the buckets 0, 2, and 1
+        final LongBucketTimeSeries ts = new LongBucketTimeSeries(TimeUnit.MILLISECONDS, 10, 1500);
+        Assert.assertTrue(ts.add(1L, 1L));
+        Assert.assertTrue(ts.add(3L, 1L));
+        Assert.assertTrue(ts.add(3L, 1L));
+        Assert.assertArrayEquals(new long[]{2L, 0L, 1L, 0L, 0L, 0L, 0L, 0L, 0L, 0L}, ts.order());
+        Assert.assertTrue(ts.add(2L, 1L));
+        Assert.assertTrue(ts.add(3L, 1L));
+        Assert.assertArrayEquals(new long[]{3L, 1L, 1L, 0L, 0L, 0L, 0L, 0L, 0L, 0L}, ts.order());
+
+        // the same buckets as the BucketTimeSeries
+        final BucketTimeSeries<Long> expected = new BucketTimeSeries<>(ts.getConfig());
+        for (final long unixTimeStamp : new long[]{1L, 3L, 3L, 2L, 3L}) {
+            expected.modify(unixTimeStamp, val -> val + 1L);
+        }
+        Assert.assertArrayEquals(expected.create(val -> val), ts.order());
+        Assert.assertEquals(expected.getNow(), ts.getNow());
+    }
+
+    @Test
+    public void testUsage() {
+        final LongBucketTimeSeries ts = new LongBucketTimeSeries(TimeUnit.MINUTES, 5, 1);
+        Assert.assertEquals(-1L, ts.getNow());
+        Assert.assertArrayEquals(new long[]{0L, 0L, 0L, 0L, 0L}, ts.order());
+
+        Assert.assertTrue(ts.increment(1456980000L));
+        Assert.assertTrue(ts.increment(1456980059L));
+        Assert.assertTrue(ts.add(1456980000L - 60L, 5L));
+        Assert.assertFalse(ts.add(1456980000L - 5 * 60L, 5L));
+        Assert.assertArrayEquals(new long[]{2L, 5L, 0L, 0L, 0L}, ts.order());
+
+        // moving forward resets the passed buckets
+        Assert.assertTrue(ts.set(1456980000L + 2 * 60L, 7L));
+        Assert.assertArrayEquals(new long[]{7L, 0L, 2L, 5L, 0L}, ts.order());
+        Assert.assertEquals(14L, ts.sum());
+
+        ts.setNow(1456980000L + 6 * 60L);
+        Assert.assertArrayEquals(new long[]{0L, 0L, 0L, 0L, 7L}, ts.order());
+        Assert.assertEquals(1456980000L + 7 * 60L - 1L, ts.getNow());
+    }
+
+    @Test(expected = IllegalTimePointMovement.class)
+    public void testMoveToPast() {
+        final LongBucketTimeSeries ts = new LongBucketTimeSeries(TimeUnit.MINUTES, 5, 1);
+        ts.setNow(1456980000L);
+        ts.setNow(1456980000L - 60L);
+    }
+
+    @Test
+    public void testCombine() {
+        final BucketTimeSeriesConfig<Long> config = new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 5, 1);
+        final LongBucketTimeSeries ts1 = new LongBucketTimeSeries(config, new long[]{1L, 2L, 3L, 4L, 5L}, 600L);
+        final LongBucketTimeSeries ts2 = new LongBucketTimeSeries(config);
+
+        // the other time-series uses a different ring position
+        ts2.add(540L, 10L);
+        ts2.add(600L, 20L);
+        ts2.add(720L, 30L);
+        Assert.assertArrayEquals(new long[]{30L, 0L, 20L, 10L, 0L}, ts2.order());
+
+        // ts1 is moved to the now of ts2, ts2 is unchanged
+        ts1.combine(ts2);
+        Assert.assertArrayEquals(new long[]{30L, 0L, 21L, 12L, 3L}, ts1.order());
+        Assert.assertArrayEquals(new long[]{30L, 0L, 20L, 10L, 0L}, ts2.order());
+
+        // combining a time-series from the past does not modify it
+        final LongBucketTimeSeries past = new LongBucketTimeSeries(config, new long[]{1L, 1L, 1L, 1L, 1L}, 660L);
+        ts1.combine(past, Math::max);
+        Assert.assertArrayEquals(new long[]{30L, 1L, 21L, 12L, 3L}, ts1.order());
+        Assert.assertArrayEquals(new long[]{1L, 1L, 1L, 1L, 1L}, past.order());
+    }
+
+    @Test
+    public void testCombineAll() {
+        final Random rnd = new Random(42L);
+
+        // a long time-series is combined in chunks, if combined in parallel
+        for (final int size : new int[]{7, 3 * PrimitiveBucketTimeSeries.PARALLEL_CHUNK_SIZE + 11}) {
+            final BucketTimeSeriesConfig<Long> config =
+                    new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, size, 1);
+            final BucketTimeSeriesConfig<Double> doubleConfig =
+                    new BucketTimeSeriesConfig<>(Double.class, TimeUnit.SECONDS, size, 1);
+
+            // shards with different nows (and ring positions), one of them never written to
+            final List<LongBucketTimeSeries> shards = new ArrayList<>();
+            final List<DoubleBucketTimeSeries> doubleShards = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final LongBucketTimeSeries shard = new LongBucketTimeSeries(config);
+                final DoubleBucketTimeSeries doubleShard = new DoubleBucketTimeSeries(doubleConfig);
+                final long now = 1456980000L + rnd.nextInt(2 * size);
+                for (int j = 0; i > 0 && j < 3 * size; j++) {
+                    final long unixTimeStamp = now - rnd.nextInt(2 * size);
+                    final long value = rnd.nextInt(100);
+                    shard.add(unixTimeStamp, value);
+                    doubleShard.add(unixTimeStamp, value / 4.0);
+                }
+                shards.add(shard);
+                doubleShards.add(doubleShard);
+            }
+
+            final LongBucketTimeSeries expected = new LongBucketTimeSeries(config);
+            final DoubleBucketTimeSeries doubleExpected = new DoubleBucketTimeSeries(doubleConfig);
+            for (int i = 0; i < shards.size(); i++) {
+                expected.combine(shards.get(i));
+                doubleExpected.combine(doubleShards.get(i));
+            }
+
+            for (final boolean parallel : new boolean[]{false, true}) {
+                final LongBucketTimeSeries ts = new LongBucketTimeSeries(config);
+                ts.combineAll(shards, parallel);
+                Assert.assertEquals(expected.getNow(), ts.getNow());
+                Assert.assertArrayEquals(expected.order(), ts.order());
+
+                final DoubleBucketTimeSeries doubleTs = new DoubleBucketTimeSeries(doubleConfig);
+                doubleTs.combineAll(doubleShards, parallel);
+                Assert.assertEquals(doubleExpected.getNow(), doubleTs.getNow());
+                Assert.assertArrayEquals(doubleExpected.order(), doubleTs.order(), 0.0);
+            }
+        }
+    }
+
+    @Test(expected = IllegalConfiguration.class)
+    public void testCombineDifferentConfig() {
+        new LongBucketTimeSeries(TimeUnit.MINUTES, 5, 1).combine(new LongBucketTimeSeries(TimeUnit.MINUTES, 5, 2));
+    }
+
+    @Test
+    public void testDouble() {
+        final DoubleBucketTimeSeries ts1 = new DoubleBucketTimeSeries(TimeUnit.SECONDS, 4, 10);
+        ts1.add(100L, 0.5);
+        ts1.add(105L, 0.25);
+        ts1.add(91L, 1.0);
+        Assert.assertArrayEquals(new double[]{0.75, 1.0, 0.0, 0.0}, ts1.order(), 0.0);
+
+        final DoubleBucketTimeSeries ts2 = ts1.copy();
+        ts2.add(120L, 2.0);
+        ts1.combine(ts2);
+        Assert.assertArrayEquals(new double[]{2.0, 0.0, 1.5, 2.0}, ts1.order(), 0.0);
+        Assert.assertEquals(5.5, ts1.sum(), 0.0);
+    }
+}
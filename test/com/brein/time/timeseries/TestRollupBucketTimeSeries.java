@@ -0,0 +1,84 @@
+package com.brein.time.timeseries;
+
+import com.brein.time.exceptions.IllegalConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+public class TestRollupBucketTimeSeries {
+
+    @Test
+    public void testSum() {
+        final RollupBucketTimeSeries<Long> ts = new RollupBucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, 60, 1),
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 60, 1),
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.HOURS, 24, 1));
+        Assert.assertNull(ts.get(0L, Long.MAX_VALUE));
+
+        // three hours of events, all of them are kept by one of the resolutions
+        final Random rnd = new Random(42L);
+        final TreeMap<Long, Long> events = new TreeMap<>();
+        final long start = 1456977600L;
+        for (long unixTimeStamp = start; unixTimeStamp < start + 3 * 3600L; unixTimeStamp += 1 + rnd.nextInt(10)) {
+            final long value = 1L + rnd.nextInt(5);
+            events.merge(unixTimeStamp, value, Long::sum);
+            ts.add(unixTimeStamp, value);
+        }
+
+        final long now = ts.getNow();
+        Assert.assertEquals(sum(events, 0L, Long.MAX_VALUE), (long) ts.get(0L, Long.MAX_VALUE));
+
+        // the last seconds are kept with the finest resolution
+        Assert.assertEquals(sum(events, now - 29L, now + 1L), (long) ts.get(now - 29L, now + 1L));
+
+        // the minutes and hours are covered by the coarser resolutions
+        final long minute = now - now % 60L - 10 * 60L;
+        Assert.assertEquals(sum(events, minute, minute + 5 * 60L), (long) ts.get(minute, minute + 5 * 60L));
+        Assert.assertEquals(sum(events, start, start + 3600L), (long) ts.get(start, start + 3600L));
+
+        // the finest resolution holds the last minute only, each value is held by a single resolution
+        Assert.assertEquals(now, ts.getResolution(0).getNow());
+        Assert.assertEquals(sum(events, now - 59L, now + 1L), ts.getResolution(0).sumTimeSeries());
+        Assert.assertEquals(sum(events, 0L, Long.MAX_VALUE), ts.getResolutions().stream()
+                .mapToLong(BucketTimeSeries::sumTimeSeries)
+                .sum());
+    }
+
+    @Test
+    public void testMax() {
+        final RollupBucketTimeSeries<Long> ts = new RollupBucketTimeSeries<>(RollupBucketTimeSeries.<Long>max(),
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, 10, 1, false),
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, 10, 10, false));
+
+        ts.add(100L, 5L);
+        ts.add(101L, 7L);
+        ts.add(101L, 3L);
+        ts.add(115L, 1L);
+
+        // 100 and 101 are expired and folded into [100, 110)
+        Assert.assertEquals(7L, (long) ts.getResolution(1).getFromZeroBasedIdx(0));
+        Assert.assertEquals(7L, (long) ts.get(100L, 120L));
+        Assert.assertEquals(1L, (long) ts.get(110L, 120L));
+        Assert.assertNull(ts.get(116L, 120L));
+
+        // moving forward without adding anything folds the remaining bucket as well
+        ts.setNow(200L);
+        Assert.assertNull(ts.get(190L, 201L));
+        Assert.assertEquals(7L, (long) ts.get(100L, 201L));
+        Assert.assertEquals(1L, (long) ts.get(110L, 201L));
+    }
+
+    @Test(expected = IllegalConfiguration.class)
+    public void testInvalidResolutions() {
+        new RollupBucketTimeSeries<>(
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.SECONDS, 60, 7),
+                new BucketTimeSeriesConfig<>(Long.class, TimeUnit.MINUTES, 60, 1));
+    }
+
+    protected long sum(final TreeMap<Long, Long> events, final long from, final long to) {
+        return events.subMap(from, to).values().stream().mapToLong(Long::longValue).sum();
+    }
+}